@@ -158,6 +158,9 @@ public class JCLPlugin implements TeaVMPlugin {
 
         host.add(new NumericClassTransformer());
         host.add(new SystemClassTransformer());
+        if (Boolean.parseBoolean(host.getProperties().getProperty("java.util.HashMap.openAddressing", "false"))) {
+            host.add(new OpenHashMapTransformer());
+        }
 
         if (!isBootstrap()) {
             List<ReflectionSupplier> reflectionSuppliers = new ArrayList<>();
@@ -198,7 +201,9 @@ public class JCLPlugin implements TeaVMPlugin {
             js.add(new MethodReference(String.class, "<init>", Object.class, void.class),
                     new JSStringConstructorGenerator());
         } else {
-            host.add(new DefaultStringTransformer());
+            var compactStrings = Boolean.parseBoolean(host.getProperties().getProperty("teavm.compactStrings",
+                    "false"));
+            host.add(new DefaultStringTransformer(compactStrings));
         }
     }
 
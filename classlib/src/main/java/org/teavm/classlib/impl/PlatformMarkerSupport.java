@@ -53,10 +53,8 @@ public class PlatformMarkerSupport implements ClassHolderTransformer {
     @Override
     public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
         for (MethodHolder method : cls.getMethods()) {
-            if (method.getProgram() != null) {
-                transformProgram(method.getReference(), method.getProgram(), context.getHierarchy(),
-                        context.getDiagnostics());
-            }
+            method.transformProgram(program -> transformProgram(method.getReference(), program,
+                    context.getHierarchy(), context.getDiagnostics()));
         }
     }
 
@@ -32,9 +32,7 @@ public class SystemClassTransformer implements ClassHolderTransformer {
     @Override
     public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
         for (MethodHolder method : cls.getMethods()) {
-            if (method.getProgram() != null) {
-                transformProgram(method.getProgram());
-            }
+            method.transformProgram(this::transformProgram);
         }
     }
 
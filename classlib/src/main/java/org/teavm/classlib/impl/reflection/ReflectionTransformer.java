@@ -76,10 +76,7 @@ public class ReflectionTransformer implements ClassHolderTransformer {
     @Override
     public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
         for (MethodHolder method : cls.getMethods()) {
-            Program program = method.getProgram();
-            if (program != null) {
-                transformProgram(program, context);
-            }
+            method.transformProgram(program -> transformProgram(program, context));
         }
     }
 
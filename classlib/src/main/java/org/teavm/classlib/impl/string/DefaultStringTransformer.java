@@ -15,7 +15,9 @@
  */
 package org.teavm.classlib.impl.string;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import org.teavm.model.AccessLevel;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderTransformer;
@@ -25,6 +27,7 @@ import org.teavm.model.FieldReference;
 import org.teavm.model.MethodReference;
 import org.teavm.model.Program;
 import org.teavm.model.ValueType;
+import org.teavm.model.Variable;
 import org.teavm.model.instructions.ArrayElementType;
 import org.teavm.model.instructions.ArrayLengthInstruction;
 import org.teavm.model.instructions.ConstructArrayInstruction;
@@ -33,10 +36,26 @@ import org.teavm.model.instructions.GetFieldInstruction;
 import org.teavm.model.instructions.IntegerConstantInstruction;
 import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.instructions.NullConstantInstruction;
 import org.teavm.model.instructions.PutFieldInstruction;
 import org.teavm.model.instructions.UnwrapArrayInstruction;
 
 public class DefaultStringTransformer implements ClassHolderTransformer {
+    public static final byte LATIN1 = 1;
+    private static final Set<String> COMPACT_DISPATCHED = Set.of("initWithEmptyChars", "borrowChars",
+            "initWithCharArray", "takeCharArray", "charactersLength", "charactersGet", "copyCharsToArray",
+            "fastCharArray");
+    private boolean compact;
+
+    /**
+     * @param compact when {@code true}, strings that consist of Latin-1 characters only keep them in a byte array.
+     * {@code String} gets {@code latin1} and {@code coder} fields, and natives that access characters are
+     * redirected to {@code compact*} methods of {@code String}, which check the coder.
+     */
+    public DefaultStringTransformer(boolean compact) {
+        this.compact = compact;
+    }
+
     @Override
     public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
         if (cls.getName().equals("java.lang.String")) {
@@ -55,14 +74,24 @@ public class DefaultStringTransformer implements ClassHolderTransformer {
         charactersField.setLevel(AccessLevel.PRIVATE);
         cls.addField(charactersField);
 
+        if (compact) {
+            var latin1Field = new FieldHolder("latin1");
+            latin1Field.setType(ValueType.arrayOf(ValueType.BYTE));
+            latin1Field.setLevel(AccessLevel.PRIVATE);
+            cls.addField(latin1Field);
+
+            var coderField = new FieldHolder("coder");
+            coderField.setType(ValueType.BYTE);
+            coderField.setLevel(AccessLevel.PRIVATE);
+            cls.addField(coderField);
+        }
+
         for (var field : fields) {
             cls.addField(field);
         }
 
         for (var method : cls.getMethods()) {
-            if (method.getProgram() != null) {
-                transformProgram(method.getProgram());
-            }
+            method.transformProgram(this::transformProgram);
         }
     }
 
@@ -76,6 +105,10 @@ public class DefaultStringTransformer implements ClassHolderTransformer {
                 if (!invoke.getMethod().getClassName().equals("java.lang.String")) {
                     continue;
                 }
+                if (compact && COMPACT_DISPATCHED.contains(invoke.getMethod().getName())) {
+                    dispatchToCompactMethod(invoke);
+                    continue;
+                }
                 switch (invoke.getMethod().getName()) {
                     case "initWithEmptyChars":
                         replaceInitWithEmptyChars(invoke);
@@ -99,13 +132,124 @@ public class DefaultStringTransformer implements ClassHolderTransformer {
                         replaceCopyCharsToArray(invoke);
                         break;
                     case "fastCharArray":
+                    case "utf16Chars":
                         replaceFastCharArray(invoke);
                         break;
+                    case "takeUtf16Array":
+                        replaceTakeCharArray(invoke);
+                        break;
+                    case "latin1Chars":
+                        replaceLatin1Chars(invoke);
+                        break;
+                    case "takeLatin1Array":
+                        replaceTakeLatin1Array(invoke);
+                        break;
+                    case "coder":
+                        replaceCoder(invoke);
+                        break;
+                    case "compactStrings":
+                        replaceWithConstant(invoke, compact ? 1 : 0);
+                        break;
                 }
             }
         }
     }
 
+    private void dispatchToCompactMethod(InvokeInstruction invoke) {
+        var method = invoke.getMethod();
+        var parameterTypes = new ValueType[method.parameterCount() + 2];
+        parameterTypes[0] = ValueType.object("java.lang.String");
+        for (var i = 0; i < method.parameterCount(); ++i) {
+            parameterTypes[i + 1] = method.parameterType(i);
+        }
+        parameterTypes[parameterTypes.length - 1] = method.getReturnType();
+        var name = "compact" + Character.toUpperCase(method.getName().charAt(0)) + method.getName().substring(1);
+
+        var arguments = new ArrayList<Variable>();
+        arguments.add(invoke.getInstance());
+        arguments.addAll(invoke.getArguments());
+
+        var call = new InvokeInstruction();
+        call.setType(InvocationType.SPECIAL);
+        call.setMethod(new MethodReference("java.lang.String", name, parameterTypes));
+        call.setArguments(arguments.toArray(new Variable[0]));
+        call.setReceiver(invoke.getReceiver());
+        call.setLocation(invoke.getLocation());
+        invoke.replace(call);
+    }
+
+    private void replaceLatin1Chars(InvokeInstruction invoke) {
+        if (!compact) {
+            var nullConstant = new NullConstantInstruction();
+            nullConstant.setReceiver(invoke.getReceiver());
+            nullConstant.setLocation(invoke.getLocation());
+            invoke.replace(nullConstant);
+            return;
+        }
+        var getField = new GetFieldInstruction();
+        getField.setField(new FieldReference("java.lang.String", "latin1"));
+        getField.setFieldType(ValueType.arrayOf(ValueType.BYTE));
+        getField.setInstance(invoke.getInstance());
+        getField.setReceiver(invoke.getReceiver());
+        getField.setLocation(invoke.getLocation());
+        invoke.replace(getField);
+    }
+
+    private void replaceTakeLatin1Array(InvokeInstruction invoke) {
+        if (!compact) {
+            // Only reachable under compactStrings() check
+            invoke.delete();
+            return;
+        }
+        var program = invoke.getProgram();
+
+        var putField = new PutFieldInstruction();
+        putField.setField(new FieldReference("java.lang.String", "latin1"));
+        putField.setFieldType(ValueType.arrayOf(ValueType.BYTE));
+        putField.setInstance(invoke.getInstance());
+        putField.setValue(invoke.getArguments().get(0));
+        putField.setLocation(invoke.getLocation());
+        invoke.insertNext(putField);
+
+        var coder = new IntegerConstantInstruction();
+        coder.setConstant(LATIN1);
+        coder.setReceiver(program.createVariable());
+        coder.setLocation(invoke.getLocation());
+        putField.insertNext(coder);
+
+        var putCoder = new PutFieldInstruction();
+        putCoder.setField(new FieldReference("java.lang.String", "coder"));
+        putCoder.setFieldType(ValueType.BYTE);
+        putCoder.setInstance(invoke.getInstance());
+        putCoder.setValue(coder.getReceiver());
+        putCoder.setLocation(invoke.getLocation());
+        coder.insertNext(putCoder);
+
+        invoke.delete();
+    }
+
+    private void replaceCoder(InvokeInstruction invoke) {
+        if (!compact) {
+            replaceWithConstant(invoke, 0);
+            return;
+        }
+        var getField = new GetFieldInstruction();
+        getField.setField(new FieldReference("java.lang.String", "coder"));
+        getField.setFieldType(ValueType.BYTE);
+        getField.setInstance(invoke.getInstance());
+        getField.setReceiver(invoke.getReceiver());
+        getField.setLocation(invoke.getLocation());
+        invoke.replace(getField);
+    }
+
+    private void replaceWithConstant(InvokeInstruction invoke, int value) {
+        var constant = new IntegerConstantInstruction();
+        constant.setConstant(value);
+        constant.setReceiver(invoke.getReceiver());
+        constant.setLocation(invoke.getLocation());
+        invoke.replace(constant);
+    }
+
     private void replaceInitWithEmptyChars(InvokeInstruction invoke) {
         var program = invoke.getProgram();
 
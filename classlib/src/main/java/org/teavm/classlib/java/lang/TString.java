@@ -19,6 +19,7 @@ import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.Locale;
 import java.util.Objects;
+import org.teavm.backend.wasm.runtime.WasmSimdSupport;
 import org.teavm.classlib.PlatformDetector;
 import org.teavm.classlib.java.io.TSerializable;
 import org.teavm.classlib.java.io.TUnsupportedEncodingException;
@@ -34,10 +35,13 @@ import org.teavm.classlib.java.util.regex.TPattern;
 import org.teavm.classlib.java.util.stream.TIntStream;
 import org.teavm.classlib.java.util.stream.intimpl.TStringCharsStream;
 import org.teavm.dependency.PluggableDependency;
+import org.teavm.interop.Address;
 import org.teavm.interop.NoSideEffects;
 
 public class TString extends TObject implements TSerializable, TComparable<TString>, TCharSequence {
     private static final char[] EMPTY_CHARS = new char[0];
+    private static final byte[] EMPTY_LATIN1 = new byte[0];
+    private static final byte LATIN1 = 1;
     private static final TString EMPTY = new TString();
     public static final TComparator<TString> CASE_INSENSITIVE_ORDER = (o1, o2) -> o1.compareToIgnoreCase(o2);
     private transient int hashCode;
@@ -125,6 +129,13 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     private void initWithBytes(byte[] bytes, int offset, int length, TCharset charset) {
+        if (PlatformDetector.isLowLevel() && compactStrings() && charset == TUTF8Charset.INSTANCE) {
+            Objects.checkFromIndexSize(offset, length, bytes.length);
+            if (isAscii(bytes, offset, length)) {
+                takeLatin1Array(TArrays.copyOfRange(bytes, offset, offset + length));
+                return;
+            }
+        }
         TCharBuffer buffer = charset.decode(TByteBuffer.wrap(bytes, offset, length));
         char[] characters;
         if (buffer.hasArray() && buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
@@ -145,7 +156,8 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     private TString(int length) {
-        takeCharArray(new char[length]);
+        // Runtime fills characters of the allocated string
+        takeUtf16Array(new char[length]);
     }
 
     private static TString allocate(int size) {
@@ -212,6 +224,135 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     @NoSideEffects
     private native void copyCharsToArray(int begin, char[] dst, int dstBegin, int length);
 
+    /*
+     * With teavm.compactStrings property set, C and WebAssembly backends keep strings that consist of
+     * characters up to U+00FF in a byte array. DefaultStringTransformer redirects natives declared above
+     * to the following compact* methods, which dispatch on the coder. The natives below access
+     * representations directly; with compact strings disabled, coder() is always zero.
+     */
+
+    @NoSideEffects
+    private static native boolean compactStrings();
+
+    @NoSideEffects
+    private native byte coder();
+
+    @NoSideEffects
+    private native byte[] latin1Chars();
+
+    @NoSideEffects
+    private native char[] utf16Chars();
+
+    @NoSideEffects
+    private native void takeLatin1Array(byte[] bytes);
+
+    @NoSideEffects
+    private native void takeUtf16Array(char[] chars);
+
+    private boolean isLatin1() {
+        return PlatformDetector.isLowLevel() && compactStrings() && coder() == LATIN1;
+    }
+
+    private static void compactInitWithEmptyChars(TString s) {
+        s.takeLatin1Array(EMPTY_LATIN1);
+    }
+
+    private static void compactBorrowChars(TString s, TString other) {
+        if (other.coder() == LATIN1) {
+            s.takeLatin1Array(other.latin1Chars());
+        } else {
+            s.takeUtf16Array(other.utf16Chars());
+        }
+    }
+
+    private static void compactInitWithCharArray(TString s, char[] value, int offset, int count) {
+        var bytes = compress(value, offset, count);
+        if (bytes != null) {
+            s.takeLatin1Array(bytes);
+        } else {
+            var chars = new char[count];
+            System.arraycopy(value, offset, chars, 0, count);
+            s.takeUtf16Array(chars);
+        }
+    }
+
+    private static void compactTakeCharArray(TString s, char[] value) {
+        var bytes = compress(value, 0, value.length);
+        if (bytes != null) {
+            s.takeLatin1Array(bytes);
+        } else {
+            s.takeUtf16Array(value);
+        }
+    }
+
+    private static int compactCharactersLength(TString s) {
+        return s.coder() == LATIN1 ? s.latin1Chars().length : s.utf16Chars().length;
+    }
+
+    private static char compactCharactersGet(TString s, int index) {
+        return s.coder() == LATIN1 ? (char) (s.latin1Chars()[index] & 0xFF) : s.utf16Chars()[index];
+    }
+
+    private static void compactCopyCharsToArray(TString s, int begin, char[] dst, int dstBegin, int length) {
+        if (s.coder() == LATIN1) {
+            inflate(s.latin1Chars(), begin, dst, dstBegin, length);
+        } else {
+            System.arraycopy(s.utf16Chars(), begin, dst, dstBegin, length);
+        }
+    }
+
+    /**
+     * Inflates Latin-1 strings into a fresh array. Searching and comparison methods compare Latin-1 strings
+     * byte by byte and never get here; only {@link #getBytes(TCharset)} does, for non-ASCII content or
+     * charsets other than UTF-8.
+     */
+    private static char[] compactFastCharArray(TString s) {
+        if (s.coder() != LATIN1) {
+            return s.utf16Chars();
+        }
+        var bytes = s.latin1Chars();
+        var chars = new char[bytes.length];
+        inflate(bytes, 0, chars, 0, bytes.length);
+        return chars;
+    }
+
+    private static byte[] compress(char[] value, int offset, int count) {
+        var result = new byte[count];
+        var start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            start = WasmSimdSupport.compressAscii(Address.ofData(value).add(offset * 2), Address.ofData(result),
+                    count);
+        }
+        for (var i = start; i < count; ++i) {
+            var c = value[offset + i];
+            if (c > 0xFF) {
+                return null;
+            }
+            result[i] = (byte) c;
+        }
+        return result;
+    }
+
+    private static void inflate(byte[] bytes, int offset, char[] dst, int dstOffset, int count) {
+        var start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            start = WasmSimdSupport.inflateAscii(Address.ofData(bytes).add(offset),
+                    Address.ofData(dst).add(dstOffset * 2), count);
+        }
+        for (var i = start; i < count; ++i) {
+            dst[dstOffset + i] = (char) (bytes[offset + i] & 0xFF);
+        }
+    }
+
+    private static boolean isAscii(byte[] bytes, int offset, int count) {
+        for (var i = 0; i < count; ++i) {
+            if (bytes[offset + i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean contentEquals(TStringBuffer buffer) {
         if (charactersLength() != buffer.length()) {
             return false;
@@ -244,6 +385,17 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (this == anotherString) {
             return 0;
         }
+        if (isLatin1() && anotherString.isLatin1()) {
+            var first = latin1Chars();
+            var second = anotherString.latin1Chars();
+            int l = TMath.min(first.length, second.length);
+            for (int i = 0; i < l; ++i) {
+                if (first[i] != second[i]) {
+                    return (first[i] & 0xFF) - (second[i] & 0xFF);
+                }
+            }
+            return first.length - second.length;
+        }
         int l = TMath.min(length(), anotherString.length());
         for (int i = 0; i < l; ++i) {
             char a = charAt(i);
@@ -274,6 +426,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (toffset + prefix.length() > length()) {
             return false;
         }
+        if (toffset >= 0 && isLatin1() && prefix.isLatin1()) {
+            return equalLatin1(latin1Chars(), toffset, prefix.latin1Chars(), 0, prefix.length());
+        }
         for (int i = 0; i < prefix.length(); ++i) {
             if (prefix.charAt(i) != charAt(toffset++)) {
                 return false;
@@ -293,6 +448,12 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (toffset < 0 || ooffset < 0 || toffset + len > length() || ooffset + len > other.length()) {
             return false;
         }
+        var otherString = (TString) (Object) other;
+        if (isLatin1() && otherString.isLatin1()) {
+            return ignoreCase
+                    ? equalLatin1IgnoreCase(latin1Chars(), toffset, otherString.latin1Chars(), ooffset, len)
+                    : equalLatin1(latin1Chars(), toffset, otherString.latin1Chars(), ooffset, len);
+        }
         for (int i = 0; i < len; ++i) {
             char a = charAt(toffset++);
             char b = other.charAt(ooffset++);
@@ -311,6 +472,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (toffset < 0 || ooffset < 0 || toffset + len > length() || ooffset + len > other.length()) {
             return false;
         }
+        if (isLatin1() && other.isLatin1()) {
+            return equalLatin1(latin1Chars(), toffset, other.latin1Chars(), ooffset, len);
+        }
         for (int i = 0; i < len; ++i) {
             if (charAt(toffset++) != other.charAt(ooffset++)) {
                 return false;
@@ -326,6 +490,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (suffix.length() > length()) {
             return false;
         }
+        if (isLatin1() && suffix.isLatin1()) {
+            return equalLatin1(latin1Chars(), length() - suffix.length(), suffix.latin1Chars(), 0, suffix.length());
+        }
         int j = 0;
         for (int i = length() - suffix.length(); i < length(); ++i) {
             if (charAt(i) != suffix.charAt(j++)) {
@@ -337,8 +504,25 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
 
     public int indexOf(int ch, int fromIndex) {
         fromIndex = Math.max(0, fromIndex);
+        if (isLatin1()) {
+            if ((ch & ~0xFF) != 0) {
+                return -1;
+            }
+            var bytes = latin1Chars();
+            var b = (byte) ch;
+            for (int i = fromIndex; i < bytes.length; ++i) {
+                if (bytes[i] == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
         if (ch < TCharacter.MIN_SUPPLEMENTARY_CODE_POINT) {
             char bmpChar = (char) ch;
+            if (PlatformDetector.isWebAssembly() && fromIndex < charactersLength()) {
+                fromIndex += WasmSimdSupport.skipChar(Address.ofData(fastCharArray()).add(fromIndex * 2),
+                        charactersLength() - fromIndex, bmpChar);
+            }
             for (int i = fromIndex; i < charactersLength(); ++i) {
                 if (charactersGet(i) == bmpChar) {
                     return i;
@@ -363,6 +547,19 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
 
     public int lastIndexOf(int ch, int fromIndex) {
         fromIndex = Math.min(fromIndex, length() - 1);
+        if (isLatin1()) {
+            if ((ch & ~0xFF) != 0) {
+                return -1;
+            }
+            var bytes = latin1Chars();
+            var b = (byte) ch;
+            for (int i = fromIndex; i >= 0; --i) {
+                if (bytes[i] == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
         if (ch < TCharacter.MIN_SUPPLEMENTARY_CODE_POINT) {
             char bmpChar = (char) ch;
             for (int i = fromIndex; i >= 0; --i) {
@@ -390,6 +587,16 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     public int indexOf(TString str, int fromIndex) {
         fromIndex = Math.max(0, fromIndex);
         int toIndex = length() - str.length();
+        if (isLatin1() && str.isLatin1()) {
+            var bytes = latin1Chars();
+            var strBytes = str.latin1Chars();
+            for (int i = fromIndex; i <= toIndex; ++i) {
+                if (equalLatin1(bytes, i, strBytes, 0, strBytes.length)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
         outer:
         for (int i = fromIndex; i <= toIndex; ++i) {
             for (int j = 0; j < str.length(); ++j) {
@@ -408,6 +615,16 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
 
     public int lastIndexOf(TString str, int fromIndex) {
         fromIndex = Math.min(fromIndex, length() - str.length());
+        if (isLatin1() && str.isLatin1()) {
+            var bytes = latin1Chars();
+            var strBytes = str.latin1Chars();
+            for (int i = fromIndex; i >= 0; --i) {
+                if (equalLatin1(bytes, i, strBytes, 0, strBytes.length)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
         outer:
         for (int i = fromIndex; i >= 0; --i) {
             for (int j = 0; j < str.length(); ++j) {
@@ -440,6 +657,14 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
             }
             return new TString(substringJS(nativeString(), beginIndex, endIndex));
         }
+        if (isLatin1()) {
+            if (beginIndex < 0 || beginIndex > endIndex || endIndex > length) {
+                throw new TStringIndexOutOfBoundsException();
+            }
+            var result = new TString();
+            result.takeLatin1Array(TArrays.copyOfRange(latin1Chars(), beginIndex, endIndex));
+            return result;
+        }
         return new TString(fastCharArray(), beginIndex, endIndex - beginIndex);
     }
 
@@ -486,6 +711,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public boolean contains(TCharSequence s) {
+        if (s instanceof TString && isLatin1() && ((TString) s).isLatin1()) {
+            return indexOf((TString) s) >= 0;
+        }
         int sz = length() - s.length();
         outer:
         for (int i = 0; i <= sz; ++i) {
@@ -652,7 +880,15 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
             if (str.length() != length()) {
                 return false;
             }
-            for (int i = 0; i < str.length(); ++i) {
+            if (isLatin1() && str.isLatin1()) {
+                return equalLatin1(latin1Chars(), str.latin1Chars());
+            }
+            int start = 0;
+            if (PlatformDetector.isWebAssembly() && !isLatin1() && !str.isLatin1()) {
+                start = WasmSimdSupport.equalBytes(Address.ofData(fastCharArray()),
+                        Address.ofData(str.fastCharArray()), length() * 2) / 2;
+            }
+            for (int i = start; i < str.length(); ++i) {
                 if (charAt(i) != str.charAt(i)) {
                     return false;
                 }
@@ -661,6 +897,36 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         }
     }
 
+    private static boolean equalLatin1(byte[] first, byte[] second) {
+        return equalLatin1(first, 0, second, 0, first.length);
+    }
+
+    private static boolean equalLatin1(byte[] first, int firstOffset, byte[] second, int secondOffset, int length) {
+        var start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            start = WasmSimdSupport.equalBytes(Address.ofData(first).add(firstOffset),
+                    Address.ofData(second).add(secondOffset), length);
+        }
+        for (var i = start; i < length; ++i) {
+            if (first[firstOffset + i] != second[secondOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalLatin1IgnoreCase(byte[] first, int firstOffset, byte[] second, int secondOffset,
+            int length) {
+        for (var i = 0; i < length; ++i) {
+            var a = first[firstOffset + i];
+            var b = second[secondOffset + i];
+            if (a != b && TCharacter.toLowerCase((char) (a & 0xFF)) != TCharacter.toLowerCase((char) (b & 0xFF))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean equalsIgnoreCase(TString other) {
         if (this == other) {
             return true;
@@ -671,6 +937,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (length() != other.length()) {
             return false;
         }
+        if (isLatin1() && other.isLatin1()) {
+            return equalLatin1IgnoreCase(latin1Chars(), 0, other.latin1Chars(), 0, length());
+        }
         for (int i = 0; i < length(); ++i) {
             if (TCharacter.toLowerCase(charAt(i)) != TCharacter.toLowerCase(other.charAt(i))) {
                 return false;
@@ -692,6 +961,12 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public byte[] getBytes(TCharset charset) {
+        if (isLatin1() && charset == TUTF8Charset.INSTANCE) {
+            var bytes = latin1Chars();
+            if (isAscii(bytes, 0, bytes.length)) {
+                return TArrays.copyOf(bytes, bytes.length);
+            }
+        }
         TByteBuffer buffer = charset.encode(TCharBuffer.wrap(fastCharArray()));
         if (buffer.hasArray() && buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
             return buffer.array();
@@ -708,7 +983,18 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     @Override
     public int hashCode() {
         if (hashCode == 0) {
-            for (var i = 0; i < charactersLength(); ++i) {
+            if (isLatin1()) {
+                for (var b : latin1Chars()) {
+                    hashCode = 31 * hashCode + (b & 0xFF);
+                }
+                return hashCode;
+            }
+            var start = 0;
+            if (PlatformDetector.isWebAssembly()) {
+                start = charactersLength() & ~7;
+                hashCode = WasmSimdSupport.hashChars(Address.ofData(fastCharArray()), start, 0);
+            }
+            for (var i = start; i < charactersLength(); ++i) {
                 hashCode = 31 * hashCode + charactersGet(i);
             }
         }
@@ -15,8 +15,11 @@
  */
 package org.teavm.classlib.java.nio.charset.impl;
 
+import org.teavm.backend.wasm.runtime.WasmSimdSupport;
+import org.teavm.classlib.PlatformDetector;
 import org.teavm.classlib.java.nio.charset.TCharset;
 import org.teavm.classlib.java.nio.charset.TCoderResult;
+import org.teavm.interop.Address;
 
 public class TUTF8Decoder extends TBufferedDecoder {
     public TUTF8Decoder(TCharset cs) {
@@ -27,6 +30,13 @@ public class TUTF8Decoder extends TBufferedDecoder {
     protected TCoderResult arrayDecode(byte[] inArray, int inPos, int inSize, char[] outArray, int outPos, int outSize,
             Controller controller) {
         TCoderResult result = null;
+        if (PlatformDetector.isWebAssembly()) {
+            var in = Address.ofData(inArray).add(inPos);
+            var out = Address.ofData(outArray).add(outPos * 2);
+            int count = WasmSimdSupport.inflateAscii(in, out, Math.min(inSize - inPos, outSize - outPos));
+            inPos += count;
+            outPos += count;
+        }
         while (inPos < inSize && outPos < outSize) {
             int b = inArray[inPos++] & 0xFF;
             if ((b & 0x80) == 0) {
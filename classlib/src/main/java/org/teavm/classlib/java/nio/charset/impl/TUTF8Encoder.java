@@ -15,8 +15,11 @@
  */
 package org.teavm.classlib.java.nio.charset.impl;
 
+import org.teavm.backend.wasm.runtime.WasmSimdSupport;
+import org.teavm.classlib.PlatformDetector;
 import org.teavm.classlib.java.nio.charset.TCharset;
 import org.teavm.classlib.java.nio.charset.TCoderResult;
+import org.teavm.interop.Address;
 
 public class TUTF8Encoder extends TBufferedEncoder {
     TUTF8Encoder(TCharset cs) {
@@ -27,6 +30,13 @@ public class TUTF8Encoder extends TBufferedEncoder {
     protected TCoderResult arrayEncode(char[] inArray, int inPos, int inSize, byte[] outArray, int outPos, int outSize,
             Controller controller) {
         TCoderResult result = null;
+        if (PlatformDetector.isWebAssembly()) {
+            var in = Address.ofData(inArray).add(inPos * 2);
+            var out = Address.ofData(outArray).add(outPos);
+            int count = WasmSimdSupport.compressAscii(in, out, Math.min(inSize - inPos, outSize - outPos));
+            inPos += count;
+            outPos += count;
+        }
         while (inPos < inSize && outPos < outSize) {
             char ch = inArray[inPos++];
             if (ch < 0x80) {
@@ -22,6 +22,8 @@ import java.util.function.IntFunction;
 import java.util.function.IntToDoubleFunction;
 import java.util.function.IntToLongFunction;
 import java.util.function.IntUnaryOperator;
+import org.teavm.backend.wasm.runtime.WasmSimdSupport;
+import org.teavm.classlib.PlatformDetector;
 import org.teavm.classlib.java.lang.TIllegalArgumentException;
 import org.teavm.classlib.java.lang.TMath;
 import org.teavm.classlib.java.lang.TObject;
@@ -34,6 +36,7 @@ import org.teavm.classlib.java.util.stream.doubleimpl.TArrayDoubleStreamImpl;
 import org.teavm.classlib.java.util.stream.impl.TArrayStreamImpl;
 import org.teavm.classlib.java.util.stream.intimpl.TArrayIntStreamImpl;
 import org.teavm.classlib.java.util.stream.longimpl.TArrayLongStreamImpl;
+import org.teavm.interop.Address;
 
 public class TArrays extends TObject {
     public static char[] copyOf(char[] array, int length) {
@@ -360,6 +363,10 @@ public class TArrays extends TObject {
         if (fromIndex > toIndex) {
             throw new TIllegalArgumentException();
         }
+        if (PlatformDetector.isWebAssembly() && fromIndex >= 0 && toIndex <= a.length) {
+            var address = Address.ofData(a).add(fromIndex * 8);
+            fromIndex += WasmSimdSupport.fill(address, (toIndex - fromIndex) * 8, val) / 8;
+        }
         while (fromIndex < toIndex) {
             a[fromIndex++] = val;
         }
@@ -373,6 +380,10 @@ public class TArrays extends TObject {
         if (fromIndex > toIndex) {
             throw new TIllegalArgumentException();
         }
+        if (PlatformDetector.isWebAssembly() && fromIndex >= 0 && toIndex <= a.length) {
+            var address = Address.ofData(a).add(fromIndex * 4);
+            fromIndex += WasmSimdSupport.fill(address, (toIndex - fromIndex) * 4, val) / 4;
+        }
         while (fromIndex < toIndex) {
             a[fromIndex++] = val;
         }
@@ -386,6 +397,10 @@ public class TArrays extends TObject {
         if (fromIndex > toIndex) {
             throw new TIllegalArgumentException();
         }
+        if (PlatformDetector.isWebAssembly() && fromIndex >= 0 && toIndex <= a.length) {
+            var address = Address.ofData(a).add(fromIndex * 2);
+            fromIndex += WasmSimdSupport.fill(address, (toIndex - fromIndex) * 2, (val & 0xFFFF) * 0x10001) / 2;
+        }
         while (fromIndex < toIndex) {
             a[fromIndex++] = val;
         }
@@ -399,6 +414,10 @@ public class TArrays extends TObject {
         if (fromIndex > toIndex) {
             throw new TIllegalArgumentException();
         }
+        if (PlatformDetector.isWebAssembly() && fromIndex >= 0 && toIndex <= a.length) {
+            var address = Address.ofData(a).add(fromIndex * 2);
+            fromIndex += WasmSimdSupport.fill(address, (toIndex - fromIndex) * 2, val * 0x10001) / 2;
+        }
         while (fromIndex < toIndex) {
             a[fromIndex++] = val;
         }
@@ -412,6 +431,10 @@ public class TArrays extends TObject {
         if (fromIndex > toIndex) {
             throw new TIllegalArgumentException();
         }
+        if (PlatformDetector.isWebAssembly() && fromIndex >= 0 && toIndex <= a.length) {
+            var address = Address.ofData(a).add(fromIndex);
+            fromIndex += WasmSimdSupport.fill(address, toIndex - fromIndex, (val & 0xFF) * 0x01010101);
+        }
         while (fromIndex < toIndex) {
             a[fromIndex++] = val;
         }
@@ -1216,7 +1239,13 @@ public class TArrays extends TObject {
     }
 
     private static int mismatchImpl(long[] a, int aStart, long[] a2, int a2Start, int length) {
-        for (int i = 0; i < length; ++i) {
+        int start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            var first = Address.ofData(a).add(aStart * 8);
+            var second = Address.ofData(a2).add(a2Start * 8);
+            start = WasmSimdSupport.equalBytes(first, second, length * 8) / 8;
+        }
+        for (int i = start; i < length; ++i) {
             if (a[i + aStart] != a2[i + a2Start]) {
                 return i;
             }
@@ -1265,7 +1294,13 @@ public class TArrays extends TObject {
     }
 
     private static int mismatchImpl(int[] a, int aStart, int[] a2, int a2Start, int length) {
-        for (int i = 0; i < length; ++i) {
+        int start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            var first = Address.ofData(a).add(aStart * 4);
+            var second = Address.ofData(a2).add(a2Start * 4);
+            start = WasmSimdSupport.equalBytes(first, second, length * 4) / 4;
+        }
+        for (int i = start; i < length; ++i) {
             if (a[i + aStart] != a2[i + a2Start]) {
                 return i;
             }
@@ -1314,7 +1349,13 @@ public class TArrays extends TObject {
     }
 
     private static int mismatchImpl(short[] a, int aStart, short[] a2, int a2Start, int length) {
-        for (int i = 0; i < length; ++i) {
+        int start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            var first = Address.ofData(a).add(aStart * 2);
+            var second = Address.ofData(a2).add(a2Start * 2);
+            start = WasmSimdSupport.equalBytes(first, second, length * 2) / 2;
+        }
+        for (int i = start; i < length; ++i) {
             if (a[i + aStart] != a2[i + a2Start]) {
                 return i;
             }
@@ -1363,7 +1404,13 @@ public class TArrays extends TObject {
     }
 
     private static int mismatchImpl(char[] a, int aStart, char[] a2, int a2Start, int length) {
-        for (int i = 0; i < length; ++i) {
+        int start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            var first = Address.ofData(a).add(aStart * 2);
+            var second = Address.ofData(a2).add(a2Start * 2);
+            start = WasmSimdSupport.equalBytes(first, second, length * 2) / 2;
+        }
+        for (int i = start; i < length; ++i) {
             if (a[i + aStart] != a2[i + a2Start]) {
                 return i;
             }
@@ -1412,7 +1459,13 @@ public class TArrays extends TObject {
     }
 
     private static int mismatchImpl(byte[] a, int aStart, byte[] a2, int a2Start, int length) {
-        for (int i = 0; i < length; ++i) {
+        int start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            var first = Address.ofData(a).add(aStart);
+            var second = Address.ofData(a2).add(a2Start);
+            start = WasmSimdSupport.equalBytes(first, second, length);
+        }
+        for (int i = start; i < length; ++i) {
             if (a[i + aStart] != a2[i + a2Start]) {
                 return i;
             }
@@ -1692,7 +1745,12 @@ public class TArrays extends TObject {
             return 0;
         }
         int hash = 1;
-        for (int i = 0; i < a.length; ++i) {
+        int start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            start = a.length & ~3;
+            hash = WasmSimdSupport.hashInts(Address.ofData(a), start, hash);
+        }
+        for (int i = start; i < a.length; ++i) {
             hash = 31 * hash + Integer.hashCode(a[i]);
         }
         return hash;
@@ -1714,7 +1772,12 @@ public class TArrays extends TObject {
             return 0;
         }
         int hash = 1;
-        for (int i = 0; i < a.length; ++i) {
+        int start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            start = a.length & ~7;
+            hash = WasmSimdSupport.hashShorts(Address.ofData(a), start, hash);
+        }
+        for (int i = start; i < a.length; ++i) {
             hash = 31 * hash + Short.hashCode(a[i]);
         }
         return hash;
@@ -1725,7 +1788,12 @@ public class TArrays extends TObject {
             return 0;
         }
         int hash = 1;
-        for (int i = 0; i < a.length; ++i) {
+        int start = 0;
+        if (PlatformDetector.isWebAssembly()) {
+            start = a.length & ~7;
+            hash = WasmSimdSupport.hashChars(Address.ofData(a), start, hash);
+        }
+        for (int i = start; i < a.length; ++i) {
             hash = 31 * hash + Character.hashCode(a[i]);
         }
         return hash;
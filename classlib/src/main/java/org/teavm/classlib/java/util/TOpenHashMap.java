@@ -0,0 +1,567 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import org.teavm.classlib.java.lang.TIllegalStateException;
+import org.teavm.classlib.java.lang.TObject;
+import org.teavm.interop.Rename;
+
+/**
+ * <p>Open addressing implementation of {@code HashMap} that does not allocate an object per mapping.
+ * Keys, values and cached hash codes are kept in flat parallel arrays in insertion order, and a separate
+ * table of slots maps hash codes to positions in these arrays using linear probing.</p>
+ *
+ * <p>Removed mappings leave a hole in the arrays and a tombstone in the slot table; both are dropped
+ * when arrays are reallocated. Iteration goes through the arrays, so it follows insertion order.</p>
+ *
+ * <p>Never instantiated directly: {@link org.teavm.classlib.impl.OpenHashMapTransformer} replaces
+ * {@code new HashMap(...)} with this class when {@code java.util.HashMap.openAddressing} property is set.</p>
+ */
+class TOpenHashMap<K, V> extends THashMap<K, V> {
+    private static final Object NULL_KEY = new Object();
+    private static final Object REMOVED = new Object();
+    private static final int EMPTY_SLOT = 0;
+    private static final int REMOVED_SLOT = -1;
+
+    private transient int tableSize;
+    // Each slot is either empty, removed or contains index in the arrays below plus one
+    private transient int[] slots;
+    private transient Object[] keys;
+    private transient Object[] values;
+    private transient int[] hashes;
+    private transient int used;
+    private transient int size;
+    private transient TSet<TMap.Entry<K, V>> cachedEntrySet;
+
+    public TOpenHashMap() {
+        this(0);
+    }
+
+    public TOpenHashMap(int capacity) {
+        this(capacity, 0.75f);
+    }
+
+    public TOpenHashMap(int capacity, float loadFactor) {
+        super(capacity, loadFactor, false);
+        tableSize = Math.max(2, calculateCapacity(capacity));
+    }
+
+    public TOpenHashMap(TMap<? extends K, ? extends V> map) {
+        this(capacity(map.size()));
+        putAll(map);
+    }
+
+    private static int hash(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static Object maskNull(Object key) {
+        return key != null ? key : NULL_KEY;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int index) {
+        Object key = keys[index];
+        return key != NULL_KEY ? (K) key : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    private int findIndex(Object key) {
+        if (size == 0) {
+            return -1;
+        }
+        int hash = hash(key);
+        Object masked = maskNull(key);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int content = slots[slot];
+            if (content == EMPTY_SLOT) {
+                return -1;
+            }
+            if (content != REMOVED_SLOT) {
+                int index = content - 1;
+                if (hashes[index] == hash) {
+                    Object candidate = keys[index];
+                    if (masked == candidate || masked.equals(candidate)) {
+                        return index;
+                    }
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void add(Object key, Object value) {
+        if (keys == null) {
+            allocate(tableSize);
+        } else if (used == keys.length) {
+            // When at least half of the entries are removed, compacting arrays is enough
+            reallocate(size >= keys.length / 2 ? slots.length * 2 : slots.length);
+        }
+        int hash = hash(key);
+        int index = used++;
+        keys[index] = maskNull(key);
+        values[index] = value;
+        hashes[index] = hash;
+        insertSlot(hash, index);
+        size++;
+        modCount++;
+    }
+
+    private void insertSlot(int hash, int index) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+    }
+
+    private void allocate(int length) {
+        // At least one slot must stay empty, otherwise unsuccessful lookup never terminates.
+        // Removed entries keep their slots until reallocation, so the slot table can't hold more
+        // tombstones than there are entries in the arrays.
+        int capacity = Math.max(1, Math.min(length - 1, (int) (length * loadFactor)));
+        slots = new int[length];
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        used = 0;
+    }
+
+    private void reallocate(int length) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldUsed = used;
+        allocate(length);
+        for (int i = 0; i < oldUsed; ++i) {
+            Object key = oldKeys[i];
+            if (key != REMOVED) {
+                keys[used] = key;
+                values[used] = oldValues[i];
+                hashes[used] = oldHashes[i];
+                insertSlot(oldHashes[i], used);
+                used++;
+            }
+        }
+    }
+
+    private void removeAt(int index) {
+        int mask = slots.length - 1;
+        int slot = hashes[index] & mask;
+        while (slots[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = REMOVED_SLOT;
+        keys[index] = REMOVED;
+        values[index] = null;
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        if (used > 0) {
+            Arrays.fill(slots, EMPTY_SLOT);
+            Arrays.fill(keys, 0, used, null);
+            Arrays.fill(values, 0, used, null);
+            used = 0;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Rename("clone")
+    @Override
+    public TObject clone0() {
+        var map = new TOpenHashMap<K, V>(tableSize, loadFactor);
+        if (keys != null) {
+            map.slots = slots.clone();
+            map.keys = keys.clone();
+            map.values = values.clone();
+            map.hashes = hashes.clone();
+            map.used = used;
+            map.size = size;
+        }
+        return map;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return findIndex(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < used; ++i) {
+            if (keys[i] != REMOVED) {
+                Object candidate = values[i];
+                if (value != null ? value.equals(candidate) : candidate == null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public TSet<TMap.Entry<K, V>> entrySet() {
+        if (cachedEntrySet == null) {
+            cachedEntrySet = new EntrySet();
+        }
+        return cachedEntrySet;
+    }
+
+    @Override
+    public V get(Object key) {
+        int index = findIndex(key);
+        return index >= 0 ? valueAt(index) : null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public TSet<K> keySet() {
+        if (cachedKeySet == null) {
+            cachedKeySet = new TAbstractSet<K>() {
+                @Override public boolean contains(Object object) {
+                    return containsKey(object);
+                }
+                @Override public int size() {
+                    return size;
+                }
+                @Override public void clear() {
+                    TOpenHashMap.this.clear();
+                }
+                @Override public boolean remove(Object key) {
+                    int index = findIndex(key);
+                    if (index < 0) {
+                        return false;
+                    }
+                    removeAt(index);
+                    return true;
+                }
+                @Override public TIterator<K> iterator() {
+                    return new KeyIterator();
+                }
+                @Override public void forEach(Consumer<? super K> action) {
+                    int prevModCount = modCount;
+                    for (int i = 0; i < used; ++i) {
+                        if (keys[i] != REMOVED) {
+                            action.accept(keyAt(i));
+                            if (prevModCount != modCount) {
+                                throw new TConcurrentModificationException();
+                            }
+                        }
+                    }
+                }
+            };
+        }
+        return cachedKeySet;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int index = findIndex(key);
+        if (index >= 0) {
+            V result = valueAt(index);
+            values[index] = value;
+            return result;
+        }
+        add(key, value);
+        return null;
+    }
+
+    @Override
+    public void putAll(TMap<? extends K, ? extends V> map) {
+        if (map.isEmpty()) {
+            return;
+        }
+        int required = size + map.size();
+        int newTableSize = keys != null ? slots.length : tableSize;
+        while (newTableSize < 1 << 30 && newTableSize * loadFactor < required) {
+            newTableSize *= 2;
+        }
+        if (keys == null) {
+            allocate(newTableSize);
+        } else if (newTableSize != slots.length) {
+            reallocate(newTableSize);
+        }
+        for (var it = map.entrySet().iterator(); it.hasNext();) {
+            TMap.Entry<? extends K, ? extends V> entry = it.next();
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        int index = findIndex(key);
+        if (index < 0) {
+            return null;
+        }
+        V result = valueAt(index);
+        removeAt(index);
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TCollection<V> values() {
+        if (cachedValues == null) {
+            cachedValues = new TAbstractCollection<V>() {
+                @Override public boolean contains(Object object) {
+                    return containsValue(object);
+                }
+                @Override public int size() {
+                    return size;
+                }
+                @Override public void clear() {
+                    TOpenHashMap.this.clear();
+                }
+                @Override public TIterator<V> iterator() {
+                    return new ValueIterator();
+                }
+                @Override public void forEach(Consumer<? super V> action) {
+                    int prevModCount = modCount;
+                    for (int i = 0; i < used; ++i) {
+                        if (keys[i] != REMOVED) {
+                            action.accept(valueAt(i));
+                            if (prevModCount != modCount) {
+                                throw new TConcurrentModificationException();
+                            }
+                        }
+                    }
+                }
+            };
+        }
+        return cachedValues;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int prevModCount = modCount;
+        for (int i = 0; i < used; ++i) {
+            if (keys[i] != REMOVED) {
+                action.accept(keyAt(i), valueAt(i));
+                if (prevModCount != modCount) {
+                    throw new TConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        int prevModCount = modCount;
+        for (int i = 0; i < used; ++i) {
+            if (keys[i] != REMOVED) {
+                values[i] = function.apply(keyAt(i), valueAt(i));
+                if (prevModCount != modCount) {
+                    throw new TConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    private class OpenEntry extends TMapEntry<K, V> {
+        private final int index;
+
+        OpenEntry(int index) {
+            super(keyAt(index), valueAt(index));
+            this.index = index;
+        }
+
+        private boolean isAttached() {
+            return index < used && keys[index] == maskNull(key);
+        }
+
+        @Override
+        public V getValue() {
+            if (isAttached()) {
+                value = valueAt(index);
+            }
+            return value;
+        }
+
+        @Override
+        public V setValue(V object) {
+            V result = getValue();
+            value = object;
+            if (isAttached()) {
+                values[index] = object;
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            getValue();
+            return super.equals(object);
+        }
+
+        @Override
+        public int hashCode() {
+            getValue();
+            return super.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            getValue();
+            return super.toString();
+        }
+    }
+
+    private class EntrySet extends TAbstractSet<TMap.Entry<K, V>> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            TOpenHashMap.this.clear();
+        }
+
+        @Override
+        public boolean remove(Object object) {
+            if (object instanceof TMap.Entry) {
+                var oEntry = (TMap.Entry<?, ?>) object;
+                int index = findIndex(oEntry.getKey());
+                if (index >= 0 && TObjects.equals(values[index], oEntry.getValue())) {
+                    removeAt(index);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            if (object instanceof TMap.Entry) {
+                var oEntry = (TMap.Entry<?, ?>) object;
+                int index = findIndex(oEntry.getKey());
+                return index >= 0 && TObjects.equals(values[index], oEntry.getValue());
+            }
+            return false;
+        }
+
+        @Override
+        public TIterator<TMap.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super TMap.Entry<K, V>> action) {
+            int prevModCount = modCount;
+            for (int i = 0; i < used; ++i) {
+                if (keys[i] != REMOVED) {
+                    action.accept(new OpenEntry(i));
+                    if (prevModCount != modCount) {
+                        throw new TConcurrentModificationException();
+                    }
+                }
+            }
+        }
+    }
+
+    private abstract class AbstractIterator {
+        // Found in advance, like in the chained map, so that hasNext keeps returning true after the map
+        // is cleared or the next mapping is removed, and the following next() reports the modification
+        private int position = findNext(0);
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        private int findNext(int index) {
+            while (index < used && keys[index] == REMOVED) {
+                index++;
+            }
+            return index < used ? index : -1;
+        }
+
+        public boolean hasNext() {
+            return position >= 0;
+        }
+
+        final int nextIndex() {
+            checkConcurrentMod();
+            if (position < 0) {
+                throw new TNoSuchElementException();
+            }
+            current = position;
+            position = findNext(current + 1);
+            return current;
+        }
+
+        private void checkConcurrentMod() {
+            if (expectedModCount != modCount) {
+                throw new TConcurrentModificationException();
+            }
+        }
+
+        public final void remove() {
+            checkConcurrentMod();
+            if (current < 0) {
+                throw new TIllegalStateException();
+            }
+            removeAt(current);
+            current = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private class EntryIterator extends AbstractIterator implements TIterator<TMap.Entry<K, V>> {
+        @Override
+        public TMap.Entry<K, V> next() {
+            return new OpenEntry(nextIndex());
+        }
+    }
+
+    private class KeyIterator extends AbstractIterator implements TIterator<K> {
+        @Override
+        public K next() {
+            return keyAt(nextIndex());
+        }
+    }
+
+    private class ValueIterator extends AbstractIterator implements TIterator<V> {
+        @Override
+        public V next() {
+            return valueAt(nextIndex());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.util.TArrayList;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TList;
+
+public abstract class TAbstractExecutorService implements TExecutorService {
+    protected <T> TRunnableFuture<T> newTaskFor(TRunnable runnable, T value) {
+        return new TFutureTask<>(runnable, value);
+    }
+
+    protected <T> TRunnableFuture<T> newTaskFor(TCallable<T> callable) {
+        return new TFutureTask<>(callable);
+    }
+
+    @Override
+    public TFuture<?> submit(TRunnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        TRunnableFuture<Void> future = newTaskFor(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> TFuture<T> submit(TRunnable task, T result) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        TRunnableFuture<T> future = newTaskFor(task, result);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> TFuture<T> submit(TCallable<T> task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        TRunnableFuture<T> future = newTaskFor(task);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> T invokeAny(TCollection<? extends TCallable<T>> tasks) throws InterruptedException,
+            TExecutionException {
+        try {
+            return doInvokeAny(tasks, 0);
+        } catch (TTimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(TCollection<? extends TCallable<T>> tasks, long timeout, TTimeUnit unit)
+            throws InterruptedException, TExecutionException, TTimeoutException {
+        return doInvokeAny(tasks, System.currentTimeMillis() + Math.max(1, unit.toMillis(timeout)));
+    }
+
+    private <T> T doInvokeAny(TCollection<? extends TCallable<T>> tasks, long timeLimit)
+            throws InterruptedException, TExecutionException, TTimeoutException {
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        var queue = new TArrayBlockingQueue<TFuture<T>>(tasks.size());
+        var futures = new TArrayList<TFuture<T>>(tasks.size());
+        try {
+            for (var it = tasks.iterator(); it.hasNext();) {
+                var task = it.next();
+                var future = new TFutureTask<T>(task) {
+                    @Override
+                    protected void done() {
+                        queue.offer(this);
+                    }
+                };
+                futures.add(future);
+                execute(future);
+            }
+            TExecutionException lastException = null;
+            for (int remaining = futures.size(); remaining > 0; --remaining) {
+                TFuture<T> completed;
+                if (timeLimit > 0) {
+                    completed = queue.poll(timeLimit - System.currentTimeMillis(), TTimeUnit.MILLISECONDS);
+                    if (completed == null) {
+                        throw new TTimeoutException();
+                    }
+                } else {
+                    completed = queue.take();
+                }
+                try {
+                    return completed.get();
+                } catch (TExecutionException e) {
+                    lastException = e;
+                }
+            }
+            throw lastException;
+        } finally {
+            cancelAll(futures);
+        }
+    }
+
+    @Override
+    public <T> TList<TFuture<T>> invokeAll(TCollection<? extends TCallable<T>> tasks) throws InterruptedException {
+        var futures = new TArrayList<TFuture<T>>(tasks.size());
+        try {
+            for (var it = tasks.iterator(); it.hasNext();) {
+                TRunnableFuture<T> future = newTaskFor(it.next());
+                futures.add(future);
+                execute(future);
+            }
+            for (var it = futures.iterator(); it.hasNext();) {
+                var future = it.next();
+                if (!future.isDone()) {
+                    try {
+                        future.get();
+                    } catch (TCancellationException | TExecutionException e) {
+                        // Reported through future
+                    }
+                }
+            }
+            return futures;
+        } catch (Throwable e) {
+            cancelAll(futures);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> TList<TFuture<T>> invokeAll(TCollection<? extends TCallable<T>> tasks, long timeout, TTimeUnit unit)
+            throws InterruptedException {
+        long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+        var futures = new TArrayList<TFuture<T>>(tasks.size());
+        try {
+            for (var it = tasks.iterator(); it.hasNext();) {
+                futures.add(newTaskFor(it.next()));
+            }
+            for (var it = futures.iterator(); it.hasNext();) {
+                execute((TRunnable) it.next());
+            }
+            for (var it = futures.iterator(); it.hasNext();) {
+                var future = it.next();
+                if (!future.isDone()) {
+                    try {
+                        future.get(timeLimit - System.currentTimeMillis(), TTimeUnit.MILLISECONDS);
+                    } catch (TCancellationException | TExecutionException e) {
+                        // Reported through future
+                    } catch (TTimeoutException e) {
+                        cancelAll(futures);
+                        return futures;
+                    }
+                }
+            }
+            return futures;
+        } catch (Throwable e) {
+            cancelAll(futures);
+            throw e;
+        }
+    }
+
+    private static <T> void cancelAll(TList<TFuture<T>> futures) {
+        for (var it = futures.iterator(); it.hasNext();) {
+            it.next().cancel(true);
+        }
+    }
+}
@@ -0,0 +1,884 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Objects;
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.lang.TThread;
+import org.teavm.classlib.java.util.TArrayList;
+import org.teavm.classlib.java.util.function.TBiConsumer;
+import org.teavm.classlib.java.util.function.TBiFunction;
+import org.teavm.classlib.java.util.function.TConsumer;
+import org.teavm.classlib.java.util.function.TFunction;
+import org.teavm.classlib.java.util.function.TSupplier;
+
+/**
+ * Completable future for green threads. Threads never run simultaneously and are only switched at blocking
+ * calls, so completion needs no atomic operations: the result is stored in a plain field and dependent actions
+ * are kept in a list which is run once the result is set. Result encoding follows the JDK: {@code null} stands
+ * for incomplete future, {@link AltResult} holds either {@code null} value or a failure.
+ */
+public class TCompletableFuture<T> implements TFuture<T>, TCompletionStage<T> {
+    private static final AltResult NIL = new AltResult(null);
+    private static TExecutor asyncPool;
+
+    private Object result;
+    private TArrayList<TRunnable> dependents;
+    private boolean hasWaiters;
+
+    public TCompletableFuture() {
+    }
+
+    TCompletableFuture(Object result) {
+        this.result = result;
+    }
+
+    static final class AltResult {
+        final Throwable ex;
+
+        AltResult(Throwable ex) {
+            this.ex = ex;
+        }
+    }
+
+    private interface UniHandler<V> {
+        void handle(Object r, TCompletableFuture<V> d);
+    }
+
+    private interface BiHandler<V> {
+        void handle(Object r, Object s, TCompletableFuture<V> d);
+    }
+
+    private static TExecutor asyncPool() {
+        if (asyncPool == null) {
+            asyncPool = TForkJoinPool.getCommonPoolParallelism() > 1
+                    ? TForkJoinPool.commonPool()
+                    : r -> new TThread(r).start();
+        }
+        return asyncPool;
+    }
+
+    private static TExecutor screenExecutor(TExecutor e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        return e == TForkJoinPool.commonPool() ? asyncPool() : e;
+    }
+
+    private static Object encodeValue(Object value) {
+        return value == null ? NIL : value;
+    }
+
+    private static AltResult encodeThrowable(Throwable x) {
+        return new AltResult(x instanceof TCompletionException ? x : new TCompletionException(x));
+    }
+
+    private static Object encodeThrowable(Throwable x, Object r) {
+        if (!(x instanceof TCompletionException)) {
+            x = new TCompletionException(x);
+        } else if (r instanceof AltResult && x == ((AltResult) r).ex) {
+            return r;
+        }
+        return new AltResult(x);
+    }
+
+    private static Object encodeRelay(Object r) {
+        Throwable x = exceptionOf(r);
+        return x != null && !(x instanceof TCompletionException) ? new AltResult(new TCompletionException(x)) : r;
+    }
+
+    private static Throwable exceptionOf(Object r) {
+        return r instanceof AltResult ? ((AltResult) r).ex : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T valueOf(Object r) {
+        return r instanceof AltResult ? null : (T) r;
+    }
+
+    private boolean completeWith(Object r) {
+        if (result != null) {
+            return false;
+        }
+        result = r;
+        postComplete();
+        return true;
+    }
+
+    private void postComplete() {
+        if (hasWaiters) {
+            hasWaiters = false;
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+        var actions = dependents;
+        if (actions != null) {
+            dependents = null;
+            for (int i = 0; i < actions.size(); ++i) {
+                actions.get(i).run();
+            }
+        }
+    }
+
+    private void onComplete(TRunnable action) {
+        if (result != null) {
+            action.run();
+        } else {
+            if (dependents == null) {
+                dependents = new TArrayList<>();
+            }
+            dependents.add(action);
+        }
+    }
+
+    private static void dispatch(TExecutor e, TCompletableFuture<?> d, TRunnable body) {
+        TRunnable task = () -> {
+            if (d.result == null) {
+                try {
+                    body.run();
+                } catch (Throwable x) {
+                    d.completeWith(encodeThrowable(x));
+                }
+            }
+        };
+        if (e == null) {
+            task.run();
+        } else {
+            try {
+                e.execute(task);
+            } catch (Throwable x) {
+                d.completeWith(encodeThrowable(x));
+            }
+        }
+    }
+
+    private <V> TCompletableFuture<V> uniStage(TExecutor e, boolean handlesFailure, UniHandler<V> handler) {
+        TCompletableFuture<V> d = newIncompleteFuture();
+        onComplete(() -> {
+            Object r = result;
+            Throwable x = exceptionOf(r);
+            if (x != null && !handlesFailure) {
+                d.completeWith(encodeThrowable(x, r));
+            } else {
+                dispatch(e, d, () -> handler.handle(r, d));
+            }
+        });
+        return d;
+    }
+
+    private <V> TCompletableFuture<V> biStage(TExecutor e, TCompletionStage<?> other, BiHandler<V> handler) {
+        TCompletableFuture<?> b = other.toCompletableFuture();
+        TCompletableFuture<V> d = newIncompleteFuture();
+        onComplete(() -> b.onComplete(() -> {
+            Object r = result;
+            Object s = b.result;
+            Throwable x = exceptionOf(r);
+            if (x != null) {
+                d.completeWith(encodeThrowable(x, r));
+            } else if ((x = exceptionOf(s)) != null) {
+                d.completeWith(encodeThrowable(x, s));
+            } else {
+                dispatch(e, d, () -> handler.handle(r, s, d));
+            }
+        }));
+        return d;
+    }
+
+    private <V> TCompletableFuture<V> orStage(TExecutor e, TCompletionStage<?> other, UniHandler<V> handler) {
+        TCompletableFuture<?> b = other.toCompletableFuture();
+        TCompletableFuture<V> d = newIncompleteFuture();
+        boolean[] triggered = new boolean[1];
+        TRunnable action = () -> {
+            if (triggered[0]) {
+                return;
+            }
+            triggered[0] = true;
+            Object r = result != null ? result : b.result;
+            Throwable x = exceptionOf(r);
+            if (x != null) {
+                d.completeWith(encodeThrowable(x, r));
+            } else {
+                dispatch(e, d, () -> handler.handle(r, d));
+            }
+        };
+        onComplete(action);
+        b.onComplete(action);
+        return d;
+    }
+
+    private static <V> void relay(TCompletionStage<V> stage, TCompletableFuture<?> d) {
+        TCompletableFuture<V> g = stage.toCompletableFuture();
+        g.onComplete(() -> d.completeWith(encodeRelay(g.result)));
+    }
+
+    public static <U> TCompletableFuture<U> supplyAsync(TSupplier<U> supplier) {
+        return supplyAsync(supplier, asyncPool());
+    }
+
+    public static <U> TCompletableFuture<U> supplyAsync(TSupplier<U> supplier, TExecutor executor) {
+        Objects.requireNonNull(supplier);
+        var d = new TCompletableFuture<U>();
+        dispatch(screenExecutor(executor), d, () -> d.completeWith(encodeValue(supplier.get())));
+        return d;
+    }
+
+    public static TCompletableFuture<Void> runAsync(TRunnable runnable) {
+        return runAsync(runnable, asyncPool());
+    }
+
+    public static TCompletableFuture<Void> runAsync(TRunnable runnable, TExecutor executor) {
+        Objects.requireNonNull(runnable);
+        var d = new TCompletableFuture<Void>();
+        dispatch(screenExecutor(executor), d, () -> {
+            runnable.run();
+            d.completeWith(NIL);
+        });
+        return d;
+    }
+
+    public static <U> TCompletableFuture<U> completedFuture(U value) {
+        return new TCompletableFuture<>(encodeValue(value));
+    }
+
+    public static <U> TCompletionStage<U> completedStage(U value) {
+        return completedFuture(value);
+    }
+
+    public static <U> TCompletableFuture<U> failedFuture(Throwable ex) {
+        return new TCompletableFuture<>(new AltResult(Objects.requireNonNull(ex)));
+    }
+
+    public static <U> TCompletionStage<U> failedStage(Throwable ex) {
+        return failedFuture(ex);
+    }
+
+    public static TCompletableFuture<Void> allOf(TCompletableFuture<?>... cfs) {
+        if (cfs.length == 0) {
+            return new TCompletableFuture<>(NIL);
+        }
+        var d = new TCompletableFuture<Void>();
+        int[] remaining = { cfs.length };
+        TRunnable action = () -> {
+            if (--remaining[0] > 0) {
+                return;
+            }
+            for (var cf : cfs) {
+                Throwable x = exceptionOf(cf.result);
+                if (x != null) {
+                    d.completeWith(encodeThrowable(x, cf.result));
+                    return;
+                }
+            }
+            d.completeWith(NIL);
+        };
+        for (var cf : cfs) {
+            cf.onComplete(action);
+        }
+        return d;
+    }
+
+    public static TCompletableFuture<Object> anyOf(TCompletableFuture<?>... cfs) {
+        var d = new TCompletableFuture<>();
+        for (var cf : cfs) {
+            cf.onComplete(() -> d.completeWith(encodeRelay(cf.result)));
+        }
+        return d;
+    }
+
+    public static TExecutor delayedExecutor(long delay, TTimeUnit unit) {
+        return delayedExecutor(delay, unit, asyncPool());
+    }
+
+    public static TExecutor delayedExecutor(long delay, TTimeUnit unit, TExecutor executor) {
+        Objects.requireNonNull(executor);
+        long millis = unit.toMillis(delay);
+        return command -> {
+            Objects.requireNonNull(command);
+            schedule(() -> executor.execute(command), millis);
+        };
+    }
+
+    private static TThread schedule(TRunnable action, long millis) {
+        var thread = new TThread(() -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            action.run();
+        }, "CompletableFutureDelayScheduler");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    public <U> TCompletableFuture<U> newIncompleteFuture() {
+        return new TCompletableFuture<>();
+    }
+
+    public TExecutor defaultExecutor() {
+        return asyncPool();
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApply(TFunction<? super T, ? extends U> fn) {
+        return uniApplyStage(null, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApplyAsync(TFunction<? super T, ? extends U> fn) {
+        return uniApplyStage(defaultExecutor(), fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApplyAsync(TFunction<? super T, ? extends U> fn, TExecutor executor) {
+        return uniApplyStage(screenExecutor(executor), fn);
+    }
+
+    private <U> TCompletableFuture<U> uniApplyStage(TExecutor e, TFunction<? super T, ? extends U> fn) {
+        Objects.requireNonNull(fn);
+        return uniStage(e, false, (r, d) -> d.completeWith(encodeValue(fn.apply(valueOf(r)))));
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAccept(TConsumer<? super T> action) {
+        return uniAcceptStage(null, action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAcceptAsync(TConsumer<? super T> action) {
+        return uniAcceptStage(defaultExecutor(), action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAcceptAsync(TConsumer<? super T> action, TExecutor executor) {
+        return uniAcceptStage(screenExecutor(executor), action);
+    }
+
+    private TCompletableFuture<Void> uniAcceptStage(TExecutor e, TConsumer<? super T> action) {
+        Objects.requireNonNull(action);
+        return uniStage(e, false, (r, d) -> {
+            action.accept(valueOf(r));
+            d.completeWith(NIL);
+        });
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRun(TRunnable action) {
+        return uniRunStage(null, action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRunAsync(TRunnable action) {
+        return uniRunStage(defaultExecutor(), action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRunAsync(TRunnable action, TExecutor executor) {
+        return uniRunStage(screenExecutor(executor), action);
+    }
+
+    private TCompletableFuture<Void> uniRunStage(TExecutor e, TRunnable action) {
+        Objects.requireNonNull(action);
+        return uniStage(e, false, (r, d) -> {
+            action.run();
+            d.completeWith(NIL);
+        });
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombine(TCompletionStage<? extends U> other,
+            TBiFunction<? super T, ? super U, ? extends V> fn) {
+        return biApplyStage(null, other, fn);
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombineAsync(TCompletionStage<? extends U> other,
+            TBiFunction<? super T, ? super U, ? extends V> fn) {
+        return biApplyStage(defaultExecutor(), other, fn);
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombineAsync(TCompletionStage<? extends U> other,
+            TBiFunction<? super T, ? super U, ? extends V> fn, TExecutor executor) {
+        return biApplyStage(screenExecutor(executor), other, fn);
+    }
+
+    private <U, V> TCompletableFuture<V> biApplyStage(TExecutor e, TCompletionStage<? extends U> other,
+            TBiFunction<? super T, ? super U, ? extends V> fn) {
+        Objects.requireNonNull(fn);
+        return biStage(e, other, (r, s, d) -> d.completeWith(encodeValue(fn.apply(valueOf(r), valueOf(s)))));
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBoth(TCompletionStage<? extends U> other,
+            TBiConsumer<? super T, ? super U> action) {
+        return biAcceptStage(null, other, action);
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBothAsync(TCompletionStage<? extends U> other,
+            TBiConsumer<? super T, ? super U> action) {
+        return biAcceptStage(defaultExecutor(), other, action);
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBothAsync(TCompletionStage<? extends U> other,
+            TBiConsumer<? super T, ? super U> action, TExecutor executor) {
+        return biAcceptStage(screenExecutor(executor), other, action);
+    }
+
+    private <U> TCompletableFuture<Void> biAcceptStage(TExecutor e, TCompletionStage<? extends U> other,
+            TBiConsumer<? super T, ? super U> action) {
+        Objects.requireNonNull(action);
+        return biStage(e, other, (r, s, d) -> {
+            action.accept(valueOf(r), valueOf(s));
+            d.completeWith(NIL);
+        });
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBoth(TCompletionStage<?> other, TRunnable action) {
+        return biRunStage(null, other, action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBothAsync(TCompletionStage<?> other, TRunnable action) {
+        return biRunStage(defaultExecutor(), other, action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBothAsync(TCompletionStage<?> other, TRunnable action,
+            TExecutor executor) {
+        return biRunStage(screenExecutor(executor), other, action);
+    }
+
+    private TCompletableFuture<Void> biRunStage(TExecutor e, TCompletionStage<?> other, TRunnable action) {
+        Objects.requireNonNull(action);
+        return biStage(e, other, (r, s, d) -> {
+            action.run();
+            d.completeWith(NIL);
+        });
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEither(TCompletionStage<? extends T> other,
+            TFunction<? super T, U> fn) {
+        return orApplyStage(null, other, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEitherAsync(TCompletionStage<? extends T> other,
+            TFunction<? super T, U> fn) {
+        return orApplyStage(defaultExecutor(), other, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEitherAsync(TCompletionStage<? extends T> other,
+            TFunction<? super T, U> fn, TExecutor executor) {
+        return orApplyStage(screenExecutor(executor), other, fn);
+    }
+
+    private <U> TCompletableFuture<U> orApplyStage(TExecutor e, TCompletionStage<? extends T> other,
+            TFunction<? super T, U> fn) {
+        Objects.requireNonNull(fn);
+        return orStage(e, other, (r, d) -> d.completeWith(encodeValue(fn.apply(valueOf(r)))));
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEither(TCompletionStage<? extends T> other,
+            TConsumer<? super T> action) {
+        return orAcceptStage(null, other, action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEitherAsync(TCompletionStage<? extends T> other,
+            TConsumer<? super T> action) {
+        return orAcceptStage(defaultExecutor(), other, action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEitherAsync(TCompletionStage<? extends T> other,
+            TConsumer<? super T> action, TExecutor executor) {
+        return orAcceptStage(screenExecutor(executor), other, action);
+    }
+
+    private TCompletableFuture<Void> orAcceptStage(TExecutor e, TCompletionStage<? extends T> other,
+            TConsumer<? super T> action) {
+        Objects.requireNonNull(action);
+        return orStage(e, other, (r, d) -> {
+            action.accept(valueOf(r));
+            d.completeWith(NIL);
+        });
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterEither(TCompletionStage<?> other, TRunnable action) {
+        return orRunStage(null, other, action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterEitherAsync(TCompletionStage<?> other, TRunnable action) {
+        return orRunStage(defaultExecutor(), other, action);
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterEitherAsync(TCompletionStage<?> other, TRunnable action,
+            TExecutor executor) {
+        return orRunStage(screenExecutor(executor), other, action);
+    }
+
+    private TCompletableFuture<Void> orRunStage(TExecutor e, TCompletionStage<?> other, TRunnable action) {
+        Objects.requireNonNull(action);
+        return orStage(e, other, (r, d) -> {
+            action.run();
+            d.completeWith(NIL);
+        });
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenCompose(TFunction<? super T, ? extends TCompletionStage<U>> fn) {
+        return uniComposeStage(null, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenComposeAsync(TFunction<? super T, ? extends TCompletionStage<U>> fn) {
+        return uniComposeStage(defaultExecutor(), fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenComposeAsync(TFunction<? super T, ? extends TCompletionStage<U>> fn,
+            TExecutor executor) {
+        return uniComposeStage(screenExecutor(executor), fn);
+    }
+
+    private <U> TCompletableFuture<U> uniComposeStage(TExecutor e,
+            TFunction<? super T, ? extends TCompletionStage<U>> fn) {
+        Objects.requireNonNull(fn);
+        return uniStage(e, false, (r, d) -> relay(fn.apply(valueOf(r)), d));
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handle(TBiFunction<? super T, Throwable, ? extends U> fn) {
+        return uniHandleStage(null, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handleAsync(TBiFunction<? super T, Throwable, ? extends U> fn) {
+        return uniHandleStage(defaultExecutor(), fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handleAsync(TBiFunction<? super T, Throwable, ? extends U> fn,
+            TExecutor executor) {
+        return uniHandleStage(screenExecutor(executor), fn);
+    }
+
+    private <U> TCompletableFuture<U> uniHandleStage(TExecutor e, TBiFunction<? super T, Throwable, ? extends U> fn) {
+        Objects.requireNonNull(fn);
+        return uniStage(e, true, (r, d) -> d.completeWith(encodeValue(fn.apply(valueOf(r), exceptionOf(r)))));
+    }
+
+    @Override
+    public TCompletableFuture<T> whenComplete(TBiConsumer<? super T, ? super Throwable> action) {
+        return uniWhenCompleteStage(null, action);
+    }
+
+    @Override
+    public TCompletableFuture<T> whenCompleteAsync(TBiConsumer<? super T, ? super Throwable> action) {
+        return uniWhenCompleteStage(defaultExecutor(), action);
+    }
+
+    @Override
+    public TCompletableFuture<T> whenCompleteAsync(TBiConsumer<? super T, ? super Throwable> action,
+            TExecutor executor) {
+        return uniWhenCompleteStage(screenExecutor(executor), action);
+    }
+
+    private TCompletableFuture<T> uniWhenCompleteStage(TExecutor e, TBiConsumer<? super T, ? super Throwable> action) {
+        Objects.requireNonNull(action);
+        return uniStage(e, true, (r, d) -> {
+            Throwable x = exceptionOf(r);
+            try {
+                action.accept(valueOf(r), x);
+            } catch (Throwable ex) {
+                if (x == null) {
+                    d.completeWith(encodeThrowable(ex));
+                    return;
+                }
+                if (x != ex) {
+                    x.addSuppressed(ex);
+                }
+            }
+            d.completeWith(x != null ? encodeThrowable(x, r) : r);
+        });
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionally(TFunction<Throwable, ? extends T> fn) {
+        return uniExceptionallyStage(null, fn);
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyAsync(TFunction<Throwable, ? extends T> fn) {
+        return uniExceptionallyStage(defaultExecutor(), fn);
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyAsync(TFunction<Throwable, ? extends T> fn, TExecutor executor) {
+        return uniExceptionallyStage(screenExecutor(executor), fn);
+    }
+
+    private TCompletableFuture<T> uniExceptionallyStage(TExecutor e, TFunction<Throwable, ? extends T> fn) {
+        Objects.requireNonNull(fn);
+        TCompletableFuture<T> d = newIncompleteFuture();
+        onComplete(() -> {
+            Object r = result;
+            Throwable x = exceptionOf(r);
+            if (x == null) {
+                d.completeWith(r);
+            } else {
+                dispatch(e, d, () -> d.completeWith(encodeValue(fn.apply(x))));
+            }
+        });
+        return d;
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyCompose(TFunction<Throwable, ? extends TCompletionStage<T>> fn) {
+        return uniExceptionallyComposeStage(null, fn);
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyComposeAsync(
+            TFunction<Throwable, ? extends TCompletionStage<T>> fn) {
+        return uniExceptionallyComposeStage(defaultExecutor(), fn);
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionallyComposeAsync(TFunction<Throwable, ? extends TCompletionStage<T>> fn,
+            TExecutor executor) {
+        return uniExceptionallyComposeStage(screenExecutor(executor), fn);
+    }
+
+    private TCompletableFuture<T> uniExceptionallyComposeStage(TExecutor e,
+            TFunction<Throwable, ? extends TCompletionStage<T>> fn) {
+        Objects.requireNonNull(fn);
+        TCompletableFuture<T> d = newIncompleteFuture();
+        onComplete(() -> {
+            Object r = result;
+            Throwable x = exceptionOf(r);
+            if (x == null) {
+                d.completeWith(r);
+            } else {
+                dispatch(e, d, () -> relay(fn.apply(x), d));
+            }
+        });
+        return d;
+    }
+
+    @Override
+    public TCompletableFuture<T> toCompletableFuture() {
+        return this;
+    }
+
+    public TCompletableFuture<T> copy() {
+        return uniStage(null, true, (r, d) -> d.completeWith(encodeRelay(r)));
+    }
+
+    public TCompletionStage<T> minimalCompletionStage() {
+        return copy();
+    }
+
+    public TCompletableFuture<T> completeAsync(TSupplier<? extends T> supplier) {
+        return completeAsync(supplier, defaultExecutor());
+    }
+
+    public TCompletableFuture<T> completeAsync(TSupplier<? extends T> supplier, TExecutor executor) {
+        Objects.requireNonNull(supplier);
+        dispatch(Objects.requireNonNull(executor), this, () -> completeWith(encodeValue(supplier.get())));
+        return this;
+    }
+
+    public TCompletableFuture<T> orTimeout(long timeout, TTimeUnit unit) {
+        Objects.requireNonNull(unit);
+        if (result == null) {
+            var timer = schedule(() -> completeWith(new AltResult(new TTimeoutException())), unit.toMillis(timeout));
+            onComplete(timer::interrupt);
+        }
+        return this;
+    }
+
+    public TCompletableFuture<T> completeOnTimeout(T value, long timeout, TTimeUnit unit) {
+        Objects.requireNonNull(unit);
+        if (result == null) {
+            var timer = schedule(() -> completeWith(encodeValue(value)), unit.toMillis(timeout));
+            onComplete(timer::interrupt);
+        }
+        return this;
+    }
+
+    public boolean complete(T value) {
+        return completeWith(encodeValue(value));
+    }
+
+    public boolean completeExceptionally(Throwable ex) {
+        return completeWith(new AltResult(Objects.requireNonNull(ex)));
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = completeWith(new AltResult(new TCancellationException()));
+        return cancelled || isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return result != null;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return exceptionOf(result) instanceof TCancellationException;
+    }
+
+    public boolean isCompletedExceptionally() {
+        return exceptionOf(result) != null;
+    }
+
+    public void obtrudeValue(T value) {
+        result = encodeValue(value);
+        postComplete();
+    }
+
+    public void obtrudeException(Throwable ex) {
+        result = new AltResult(Objects.requireNonNull(ex));
+        postComplete();
+    }
+
+    public int getNumberOfDependents() {
+        return dependents != null ? dependents.size() : 0;
+    }
+
+    private Object waitingGet() throws InterruptedException {
+        if (result == null) {
+            synchronized (this) {
+                while (result == null) {
+                    hasWaiters = true;
+                    wait();
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public T get() throws InterruptedException, TExecutionException {
+        return reportGet(waitingGet());
+    }
+
+    @Override
+    public T get(long timeout, TTimeUnit unit) throws InterruptedException, TExecutionException, TTimeoutException {
+        if (result == null) {
+            long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+            synchronized (this) {
+                while (result == null) {
+                    long remaining = timeLimit - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new TTimeoutException();
+                    }
+                    hasWaiters = true;
+                    wait(remaining);
+                }
+            }
+        }
+        return reportGet(result);
+    }
+
+    public T join() {
+        boolean interrupted = false;
+        Object r;
+        while (true) {
+            try {
+                r = waitingGet();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            TThread.currentThread().interrupt();
+        }
+        return reportJoin(r);
+    }
+
+    public T getNow(T valueIfAbsent) {
+        Object r = result;
+        return r == null ? valueIfAbsent : reportJoin(r);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T reportGet(Object r) throws TExecutionException {
+        if (!(r instanceof AltResult)) {
+            return (T) r;
+        }
+        Throwable x = ((AltResult) r).ex;
+        if (x == null) {
+            return null;
+        }
+        if (x instanceof TCancellationException) {
+            throw (TCancellationException) x;
+        }
+        if (x instanceof TCompletionException && x.getCause() != null) {
+            x = x.getCause();
+        }
+        throw new TExecutionException(x);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T reportJoin(Object r) {
+        if (!(r instanceof AltResult)) {
+            return (T) r;
+        }
+        Throwable x = ((AltResult) r).ex;
+        if (x == null) {
+            return null;
+        }
+        if (x instanceof TCancellationException) {
+            throw (TCancellationException) x;
+        }
+        if (x instanceof TCompletionException) {
+            throw (TCompletionException) x;
+        }
+        throw new TCompletionException(x);
+    }
+
+    @Override
+    public String toString() {
+        Object r = result;
+        String status;
+        if (r == null) {
+            int count = getNumberOfDependents();
+            status = count == 0 ? "[Incomplete]" : "[Incomplete with " + count + " dependents]";
+        } else if (r instanceof AltResult && ((AltResult) r).ex != null) {
+            status = "[Completed exceptionally: " + ((AltResult) r).ex + "]";
+        } else {
+            status = "[Completed normally]";
+        }
+        return super.toString() + status;
+    }
+}
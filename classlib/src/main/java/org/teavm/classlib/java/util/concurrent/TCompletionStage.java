@@ -0,0 +1,120 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.util.function.TBiConsumer;
+import org.teavm.classlib.java.util.function.TBiFunction;
+import org.teavm.classlib.java.util.function.TConsumer;
+import org.teavm.classlib.java.util.function.TFunction;
+
+public interface TCompletionStage<T> {
+    <U> TCompletionStage<U> thenApply(TFunction<? super T, ? extends U> fn);
+
+    <U> TCompletionStage<U> thenApplyAsync(TFunction<? super T, ? extends U> fn);
+
+    <U> TCompletionStage<U> thenApplyAsync(TFunction<? super T, ? extends U> fn, TExecutor executor);
+
+    TCompletionStage<Void> thenAccept(TConsumer<? super T> action);
+
+    TCompletionStage<Void> thenAcceptAsync(TConsumer<? super T> action);
+
+    TCompletionStage<Void> thenAcceptAsync(TConsumer<? super T> action, TExecutor executor);
+
+    TCompletionStage<Void> thenRun(TRunnable action);
+
+    TCompletionStage<Void> thenRunAsync(TRunnable action);
+
+    TCompletionStage<Void> thenRunAsync(TRunnable action, TExecutor executor);
+
+    <U, V> TCompletionStage<V> thenCombine(TCompletionStage<? extends U> other,
+            TBiFunction<? super T, ? super U, ? extends V> fn);
+
+    <U, V> TCompletionStage<V> thenCombineAsync(TCompletionStage<? extends U> other,
+            TBiFunction<? super T, ? super U, ? extends V> fn);
+
+    <U, V> TCompletionStage<V> thenCombineAsync(TCompletionStage<? extends U> other,
+            TBiFunction<? super T, ? super U, ? extends V> fn, TExecutor executor);
+
+    <U> TCompletionStage<Void> thenAcceptBoth(TCompletionStage<? extends U> other,
+            TBiConsumer<? super T, ? super U> action);
+
+    <U> TCompletionStage<Void> thenAcceptBothAsync(TCompletionStage<? extends U> other,
+            TBiConsumer<? super T, ? super U> action);
+
+    <U> TCompletionStage<Void> thenAcceptBothAsync(TCompletionStage<? extends U> other,
+            TBiConsumer<? super T, ? super U> action, TExecutor executor);
+
+    TCompletionStage<Void> runAfterBoth(TCompletionStage<?> other, TRunnable action);
+
+    TCompletionStage<Void> runAfterBothAsync(TCompletionStage<?> other, TRunnable action);
+
+    TCompletionStage<Void> runAfterBothAsync(TCompletionStage<?> other, TRunnable action, TExecutor executor);
+
+    <U> TCompletionStage<U> applyToEither(TCompletionStage<? extends T> other, TFunction<? super T, U> fn);
+
+    <U> TCompletionStage<U> applyToEitherAsync(TCompletionStage<? extends T> other, TFunction<? super T, U> fn);
+
+    <U> TCompletionStage<U> applyToEitherAsync(TCompletionStage<? extends T> other, TFunction<? super T, U> fn,
+            TExecutor executor);
+
+    TCompletionStage<Void> acceptEither(TCompletionStage<? extends T> other, TConsumer<? super T> action);
+
+    TCompletionStage<Void> acceptEitherAsync(TCompletionStage<? extends T> other, TConsumer<? super T> action);
+
+    TCompletionStage<Void> acceptEitherAsync(TCompletionStage<? extends T> other, TConsumer<? super T> action,
+            TExecutor executor);
+
+    TCompletionStage<Void> runAfterEither(TCompletionStage<?> other, TRunnable action);
+
+    TCompletionStage<Void> runAfterEitherAsync(TCompletionStage<?> other, TRunnable action);
+
+    TCompletionStage<Void> runAfterEitherAsync(TCompletionStage<?> other, TRunnable action, TExecutor executor);
+
+    <U> TCompletionStage<U> thenCompose(TFunction<? super T, ? extends TCompletionStage<U>> fn);
+
+    <U> TCompletionStage<U> thenComposeAsync(TFunction<? super T, ? extends TCompletionStage<U>> fn);
+
+    <U> TCompletionStage<U> thenComposeAsync(TFunction<? super T, ? extends TCompletionStage<U>> fn,
+            TExecutor executor);
+
+    <U> TCompletionStage<U> handle(TBiFunction<? super T, Throwable, ? extends U> fn);
+
+    <U> TCompletionStage<U> handleAsync(TBiFunction<? super T, Throwable, ? extends U> fn);
+
+    <U> TCompletionStage<U> handleAsync(TBiFunction<? super T, Throwable, ? extends U> fn, TExecutor executor);
+
+    TCompletionStage<T> whenComplete(TBiConsumer<? super T, ? super Throwable> action);
+
+    TCompletionStage<T> whenCompleteAsync(TBiConsumer<? super T, ? super Throwable> action);
+
+    TCompletionStage<T> whenCompleteAsync(TBiConsumer<? super T, ? super Throwable> action, TExecutor executor);
+
+    TCompletionStage<T> exceptionally(TFunction<Throwable, ? extends T> fn);
+
+    TCompletionStage<T> exceptionallyAsync(TFunction<Throwable, ? extends T> fn);
+
+    TCompletionStage<T> exceptionallyAsync(TFunction<Throwable, ? extends T> fn, TExecutor executor);
+
+    TCompletionStage<T> exceptionallyCompose(TFunction<Throwable, ? extends TCompletionStage<T>> fn);
+
+    TCompletionStage<T> exceptionallyComposeAsync(TFunction<Throwable, ? extends TCompletionStage<T>> fn);
+
+    TCompletionStage<T> exceptionallyComposeAsync(TFunction<Throwable, ? extends TCompletionStage<T>> fn,
+            TExecutor executor);
+
+    TCompletableFuture<T> toCompletableFuture();
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.lang.TAutoCloseable;
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TList;
+
+public interface TExecutorService extends TExecutor, TAutoCloseable {
+    void shutdown();
+
+    TList<TRunnable> shutdownNow();
+
+    boolean isShutdown();
+
+    boolean isTerminated();
+
+    boolean awaitTermination(long timeout, TTimeUnit unit) throws InterruptedException;
+
+    <T> TFuture<T> submit(TCallable<T> task);
+
+    <T> TFuture<T> submit(TRunnable task, T result);
+
+    TFuture<?> submit(TRunnable task);
+
+    <T> TList<TFuture<T>> invokeAll(TCollection<? extends TCallable<T>> tasks) throws InterruptedException;
+
+    <T> TList<TFuture<T>> invokeAll(TCollection<? extends TCallable<T>> tasks, long timeout, TTimeUnit unit)
+            throws InterruptedException;
+
+    <T> T invokeAny(TCollection<? extends TCallable<T>> tasks) throws InterruptedException, TExecutionException;
+
+    <T> T invokeAny(TCollection<? extends TCallable<T>> tasks, long timeout, TTimeUnit unit)
+            throws InterruptedException, TExecutionException, TTimeoutException;
+
+    @Override
+    default void close() {
+        boolean terminated = isTerminated();
+        if (!terminated) {
+            shutdown();
+            boolean interrupted = false;
+            while (!terminated) {
+                try {
+                    terminated = awaitTermination(1L, TTimeUnit.DAYS);
+                } catch (InterruptedException e) {
+                    if (!interrupted) {
+                        shutdownNow();
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
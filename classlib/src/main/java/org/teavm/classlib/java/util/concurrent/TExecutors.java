@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.lang.TThread;
+
+public final class TExecutors {
+    private static int poolNumber;
+
+    private TExecutors() {
+    }
+
+    public static TExecutorService newFixedThreadPool(int nThreads) {
+        return new TThreadPoolExecutor(nThreads, nThreads, 0, TTimeUnit.MILLISECONDS, new TLinkedBlockingQueue<>());
+    }
+
+    public static TExecutorService newFixedThreadPool(int nThreads, TThreadFactory threadFactory) {
+        return new TThreadPoolExecutor(nThreads, nThreads, 0, TTimeUnit.MILLISECONDS, new TLinkedBlockingQueue<>(),
+                threadFactory);
+    }
+
+    public static TExecutorService newSingleThreadExecutor() {
+        return newFixedThreadPool(1);
+    }
+
+    public static TExecutorService newSingleThreadExecutor(TThreadFactory threadFactory) {
+        return newFixedThreadPool(1, threadFactory);
+    }
+
+    public static TExecutorService newCachedThreadPool() {
+        return newCachedThreadPool(defaultThreadFactory());
+    }
+
+    public static TExecutorService newCachedThreadPool(TThreadFactory threadFactory) {
+        var executor = new TThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TTimeUnit.SECONDS,
+                new TLinkedBlockingQueue<>(), threadFactory);
+        executor.handOff = true;
+        return executor;
+    }
+
+    public static TExecutorService newWorkStealingPool() {
+        return new TForkJoinPool();
+    }
+
+    public static TExecutorService newWorkStealingPool(int parallelism) {
+        return new TForkJoinPool(parallelism);
+    }
+
+    public static <T> TCallable<T> callable(TRunnable task, T result) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        return () -> {
+            task.run();
+            return result;
+        };
+    }
+
+    public static TCallable<Object> callable(TRunnable task) {
+        return callable(task, null);
+    }
+
+    public static TThreadFactory defaultThreadFactory() {
+        var prefix = "pool-" + ++poolNumber + "-thread-";
+        return new TThreadFactory() {
+            private int threadNumber;
+
+            @Override
+            public TThread newThread(TRunnable r) {
+                var thread = new TThread(r, prefix + ++threadNumber);
+                thread.setDaemon(false);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.lang.TRuntime;
+import org.teavm.classlib.java.lang.TThread;
+import org.teavm.classlib.java.util.TArrayDeque;
+import org.teavm.classlib.java.util.TArrayList;
+import org.teavm.classlib.java.util.TCollections;
+import org.teavm.classlib.java.util.TList;
+import org.teavm.interop.Async;
+import org.teavm.interop.AsyncCallback;
+import org.teavm.platform.Platform;
+import org.teavm.platform.PlatformQueue;
+import org.teavm.runtime.EventQueue;
+
+/**
+ * Fork/join pool on top of green threads. Since threads never run simultaneously, there is a single task deque
+ * shared by all workers instead of per-worker deques with stealing. Tasks forked from a worker are pushed to the
+ * head of the deque and popped from there by {@link TForkJoinTask#join()}, so most of the recursion
+ * runs inline in the joining thread. Idle workers park until a task arrives; on JavaScript they are woken
+ * by a microtask, which avoids both starting a thread per task and the clamping of {@code setTimeout}.
+ */
+public class TForkJoinPool extends TAbstractExecutorService {
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+    private static final int TERMINATED = 3;
+
+    public static final ForkJoinWorkerThreadFactory defaultForkJoinWorkerThreadFactory = TForkJoinWorkerThread::new;
+
+    private static TForkJoinPool common;
+    private static int poolNumber;
+
+    private final int parallelism;
+    private final ForkJoinWorkerThreadFactory factory;
+    private final TThread.UncaughtExceptionHandler handler;
+    private final boolean asyncMode;
+    private final boolean isCommon;
+    private final String workerNamePrefix;
+    private final TArrayDeque<TForkJoinTask<?>> tasks = new TArrayDeque<>();
+    private final Object terminationLock = new Object();
+    private PlatformQueue<TArrayBlockingQueue.WaitHandler> idleWorkers;
+    private int state = RUNNING;
+    private int workerCount;
+    private int idleCount;
+    int nextWorkerIndex;
+
+    public TForkJoinPool() {
+        this(defaultParallelism());
+    }
+
+    public TForkJoinPool(int parallelism) {
+        this(parallelism, defaultForkJoinWorkerThreadFactory, null, false);
+    }
+
+    public TForkJoinPool(int parallelism, ForkJoinWorkerThreadFactory factory,
+            TThread.UncaughtExceptionHandler handler, boolean asyncMode) {
+        this(parallelism, factory, handler, asyncMode, "ForkJoinPool-" + ++poolNumber + "-worker-", false);
+    }
+
+    private TForkJoinPool(int parallelism, ForkJoinWorkerThreadFactory factory,
+            TThread.UncaughtExceptionHandler handler, boolean asyncMode, String workerNamePrefix, boolean isCommon) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+        if (factory == null) {
+            throw new NullPointerException();
+        }
+        this.parallelism = parallelism;
+        this.factory = factory;
+        this.handler = handler;
+        this.asyncMode = asyncMode;
+        this.workerNamePrefix = workerNamePrefix;
+        this.isCommon = isCommon;
+    }
+
+    private static int defaultParallelism() {
+        int processors = PlatformDetector.isJavaScript() ? TRuntime.getRuntime().availableProcessors() : 1;
+        return Math.max(1, processors - 1);
+    }
+
+    public static TForkJoinPool commonPool() {
+        if (common == null) {
+            common = new TForkJoinPool(defaultParallelism(), defaultForkJoinWorkerThreadFactory, null, false,
+                    "ForkJoinPool.commonPool-worker-", true);
+        }
+        return common;
+    }
+
+    public static int getCommonPoolParallelism() {
+        return commonPool().parallelism;
+    }
+
+    String nextWorkerName() {
+        return workerNamePrefix + (nextWorkerIndex + 1);
+    }
+
+    public <T> T invoke(TForkJoinTask<T> task) {
+        push(task, false);
+        return task.join();
+    }
+
+    public void execute(TForkJoinTask<?> task) {
+        push(task, false);
+    }
+
+    @Override
+    public void execute(TRunnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        push(task instanceof TForkJoinTask<?> ? (TForkJoinTask<?>) task : TForkJoinTask.adapt(task), false);
+    }
+
+    public <T> TForkJoinTask<T> submit(TForkJoinTask<T> task) {
+        push(task, false);
+        return task;
+    }
+
+    void push(TForkJoinTask<?> task, boolean local) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        if (state != RUNNING) {
+            throw new TRejectedExecutionException();
+        }
+        if (local && !asyncMode) {
+            tasks.addFirst(task);
+        } else {
+            tasks.addLast(task);
+        }
+        signal();
+    }
+
+    TForkJoinTask<?> poll() {
+        return tasks.pollFirst();
+    }
+
+    boolean tryUnpush(TForkJoinTask<?> task) {
+        if (tasks.peekFirst() == task) {
+            tasks.removeFirst();
+            return true;
+        }
+        return tasks.removeFirstOccurrence(task);
+    }
+
+    private void signal() {
+        if (idleWorkers != null) {
+            while (!idleWorkers.isEmpty()) {
+                var waiter = idleWorkers.remove();
+                if (!waiter.complete) {
+                    wake(waiter);
+                    return;
+                }
+            }
+        }
+        if (workerCount < parallelism) {
+            startWorker();
+        }
+    }
+
+    private static void wake(TArrayBlockingQueue.WaitHandler waiter) {
+        if (PlatformDetector.isLowLevel()) {
+            EventQueue.offer(waiter::changed);
+        } else {
+            Platform.scheduleMicrotask(waiter::changed);
+        }
+    }
+
+    private void startWorker() {
+        var worker = factory.newThread(this);
+        if (worker == null) {
+            return;
+        }
+        if (handler != null) {
+            worker.setUncaughtExceptionHandler(handler);
+        }
+        workerCount++;
+        worker.start();
+    }
+
+    void runWorker(TForkJoinWorkerThread worker) {
+        while (true) {
+            var task = poll();
+            if (task != null) {
+                task.doExec();
+                continue;
+            }
+            if (state != RUNNING) {
+                break;
+            }
+            idleCount++;
+            try {
+                waitForTask();
+            } catch (InterruptedException e) {
+                TThread.interrupted();
+            } finally {
+                idleCount--;
+            }
+        }
+    }
+
+    void deregisterWorker() {
+        workerCount--;
+        tryTerminate();
+    }
+
+    @Async
+    private native Boolean waitForTask() throws InterruptedException;
+
+    private void waitForTask(AsyncCallback<Boolean> callback) {
+        if (idleWorkers == null) {
+            idleWorkers = Platform.createQueue();
+        }
+        var waiter = new TArrayBlockingQueue.WaitHandler(callback);
+        waiter.timerId = -1;
+        idleWorkers.add(waiter);
+        TThread.currentThread().interruptHandler = waiter;
+    }
+
+    private void wakeAll() {
+        if (idleWorkers != null) {
+            while (!idleWorkers.isEmpty()) {
+                wake(idleWorkers.remove());
+            }
+        }
+    }
+
+    private void tryTerminate() {
+        if (state == RUNNING || state == TERMINATED || workerCount > 0 || !tasks.isEmpty()) {
+            return;
+        }
+        state = TERMINATED;
+        synchronized (terminationLock) {
+            terminationLock.notifyAll();
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getPoolSize() {
+        return workerCount;
+    }
+
+    public int getActiveThreadCount() {
+        return workerCount - idleCount;
+    }
+
+    public int getRunningThreadCount() {
+        return getActiveThreadCount();
+    }
+
+    public boolean getAsyncMode() {
+        return asyncMode;
+    }
+
+    public ForkJoinWorkerThreadFactory getFactory() {
+        return factory;
+    }
+
+    public TThread.UncaughtExceptionHandler getUncaughtExceptionHandler() {
+        return handler;
+    }
+
+    public long getQueuedTaskCount() {
+        return tasks.size();
+    }
+
+    public int getQueuedSubmissionCount() {
+        return tasks.size();
+    }
+
+    public boolean hasQueuedSubmissions() {
+        return !tasks.isEmpty();
+    }
+
+    public boolean isQuiescent() {
+        return tasks.isEmpty() && getActiveThreadCount() == 0;
+    }
+
+    public boolean awaitQuiescence(long timeout, TTimeUnit unit) {
+        long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+        while (!isQuiescent()) {
+            var task = poll();
+            if (task != null) {
+                task.doExec();
+            } else if (System.currentTimeMillis() >= timeLimit) {
+                return false;
+            } else {
+                TThread.yield();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        if (!isCommon && state == RUNNING) {
+            state = SHUTDOWN;
+            wakeAll();
+            tryTerminate();
+        }
+    }
+
+    @Override
+    public TList<TRunnable> shutdownNow() {
+        if (!isCommon && state < STOP) {
+            state = STOP;
+            while (!tasks.isEmpty()) {
+                tasks.removeFirst().cancel(false);
+            }
+            wakeAll();
+            tryTerminate();
+        }
+        return TCollections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state != RUNNING;
+    }
+
+    public boolean isTerminating() {
+        return state != RUNNING && state != TERMINATED;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return state == TERMINATED;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TTimeUnit unit) throws InterruptedException {
+        if (isCommon) {
+            awaitQuiescence(timeout, unit);
+            return false;
+        }
+        long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized (terminationLock) {
+            while (state != TERMINATED) {
+                long remaining = timeLimit - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                terminationLock.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        String level;
+        switch (state) {
+            case RUNNING:
+                level = "Running";
+                break;
+            case TERMINATED:
+                level = "Terminated";
+                break;
+            default:
+                level = "Shutting down";
+                break;
+        }
+        return super.toString() + "[" + level + ", parallelism = " + parallelism + ", size = " + workerCount
+                + ", active = " + getActiveThreadCount() + ", tasks = " + tasks.size() + "]";
+    }
+
+    public interface ForkJoinWorkerThreadFactory {
+        TForkJoinWorkerThread newThread(TForkJoinPool pool);
+    }
+}
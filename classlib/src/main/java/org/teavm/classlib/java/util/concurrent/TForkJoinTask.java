@@ -0,0 +1,360 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.io.TSerializable;
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.lang.TThread;
+import org.teavm.classlib.java.util.TCollection;
+
+public abstract class TForkJoinTask<V> implements TFuture<V>, TSerializable {
+    private static final int NORMAL = 1;
+    private static final int CANCELLED = 2;
+    private static final int EXCEPTIONAL = 3;
+
+    private int status;
+    private boolean hasWaiters;
+    private Throwable exception;
+
+    public abstract V getRawResult();
+
+    protected abstract void setRawResult(V value);
+
+    protected abstract boolean exec();
+
+    final void doExec() {
+        if (status != 0) {
+            return;
+        }
+        boolean completed;
+        try {
+            completed = exec();
+        } catch (Throwable e) {
+            exception = e;
+            setDone(EXCEPTIONAL);
+            return;
+        }
+        if (completed) {
+            setDone(NORMAL);
+        }
+    }
+
+    private void setDone(int status) {
+        if (this.status != 0) {
+            return;
+        }
+        this.status = status;
+        if (hasWaiters) {
+            hasWaiters = false;
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private static TForkJoinPool currentPool() {
+        var thread = TThread.currentThread();
+        return thread instanceof TForkJoinWorkerThread ? ((TForkJoinWorkerThread) thread).pool : null;
+    }
+
+    public static TForkJoinPool getPool() {
+        return currentPool();
+    }
+
+    public static boolean inForkJoinPool() {
+        return currentPool() != null;
+    }
+
+    public final TForkJoinTask<V> fork() {
+        var pool = currentPool();
+        if (pool != null) {
+            pool.push(this, true);
+        } else {
+            TForkJoinPool.commonPool().push(this, false);
+        }
+        return this;
+    }
+
+    public boolean tryUnfork() {
+        var pool = currentPool();
+        return (pool != null ? pool : TForkJoinPool.commonPool()).tryUnpush(this);
+    }
+
+    private void awaitDone() throws InterruptedException {
+        var pool = currentPool();
+        if (pool == null) {
+            pool = TForkJoinPool.commonPool();
+        }
+        while (status == 0) {
+            if (pool.tryUnpush(this)) {
+                doExec();
+                break;
+            }
+            var other = pool.poll();
+            if (other == null) {
+                break;
+            }
+            other.doExec();
+        }
+        if (status == 0) {
+            synchronized (this) {
+                while (status == 0) {
+                    hasWaiters = true;
+                    wait();
+                }
+            }
+        }
+    }
+
+    private void awaitDoneUninterruptibly() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                awaitDone();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            TThread.currentThread().interrupt();
+        }
+    }
+
+    public final V join() {
+        if (status == 0) {
+            awaitDoneUninterruptibly();
+        }
+        return reportJoin();
+    }
+
+    public final V invoke() {
+        doExec();
+        if (status == 0) {
+            awaitDoneUninterruptibly();
+        }
+        return reportJoin();
+    }
+
+    public final void quietlyJoin() {
+        if (status == 0) {
+            awaitDoneUninterruptibly();
+        }
+    }
+
+    public final void quietlyInvoke() {
+        doExec();
+        quietlyJoin();
+    }
+
+    private V reportJoin() {
+        switch (status) {
+            case CANCELLED:
+                throw new TCancellationException();
+            case EXCEPTIONAL:
+                if (exception instanceof RuntimeException) {
+                    throw (RuntimeException) exception;
+                }
+                if (exception instanceof Error) {
+                    throw (Error) exception;
+                }
+                throw new RuntimeException(exception);
+            default:
+                return getRawResult();
+        }
+    }
+
+    public static void invokeAll(TForkJoinTask<?> t1, TForkJoinTask<?> t2) {
+        t2.fork();
+        t1.invoke();
+        t2.join();
+    }
+
+    public static void invokeAll(TForkJoinTask<?>... tasks) {
+        for (int i = tasks.length - 1; i > 0; --i) {
+            tasks[i].fork();
+        }
+        if (tasks.length > 0) {
+            tasks[0].quietlyInvoke();
+        }
+        for (var task : tasks) {
+            task.join();
+        }
+    }
+
+    public static <T extends TForkJoinTask<?>> TCollection<T> invokeAll(TCollection<T> tasks) {
+        invokeAll(tasks.toArray(new TForkJoinTask<?>[tasks.size()]));
+        return tasks;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        setDone(CANCELLED);
+        return status == CANCELLED;
+    }
+
+    @Override
+    public final boolean isDone() {
+        return status != 0;
+    }
+
+    @Override
+    public final boolean isCancelled() {
+        return status == CANCELLED;
+    }
+
+    public final boolean isCompletedAbnormally() {
+        return status >= CANCELLED;
+    }
+
+    public final boolean isCompletedNormally() {
+        return status == NORMAL;
+    }
+
+    public final Throwable getException() {
+        switch (status) {
+            case CANCELLED:
+                return new TCancellationException();
+            case EXCEPTIONAL:
+                return exception;
+            default:
+                return null;
+        }
+    }
+
+    public void completeExceptionally(Throwable ex) {
+        exception = ex instanceof RuntimeException || ex instanceof Error ? ex : new RuntimeException(ex);
+        setDone(EXCEPTIONAL);
+    }
+
+    public void complete(V value) {
+        try {
+            setRawResult(value);
+        } catch (Throwable e) {
+            exception = e;
+            setDone(EXCEPTIONAL);
+            return;
+        }
+        setDone(NORMAL);
+    }
+
+    public final void quietlyComplete() {
+        setDone(NORMAL);
+    }
+
+    public void reinitialize() {
+        status = 0;
+        exception = null;
+    }
+
+    @Override
+    public final V get() throws InterruptedException, TExecutionException {
+        if (status == 0) {
+            awaitDone();
+        }
+        return reportGet();
+    }
+
+    @Override
+    public final V get(long timeout, TTimeUnit unit) throws InterruptedException, TExecutionException,
+            TTimeoutException {
+        if (status == 0) {
+            long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+            if (tryUnfork()) {
+                doExec();
+            }
+            synchronized (this) {
+                while (status == 0) {
+                    long remaining = timeLimit - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new TTimeoutException();
+                    }
+                    hasWaiters = true;
+                    wait(remaining);
+                }
+            }
+        }
+        return reportGet();
+    }
+
+    private V reportGet() throws TExecutionException {
+        switch (status) {
+            case CANCELLED:
+                throw new TCancellationException();
+            case EXCEPTIONAL:
+                throw new TExecutionException(exception);
+            default:
+                return getRawResult();
+        }
+    }
+
+    public static TForkJoinTask<?> adapt(TRunnable runnable) {
+        return adapt(runnable, null);
+    }
+
+    public static <T> TForkJoinTask<T> adapt(TRunnable runnable, T result) {
+        if (runnable == null) {
+            throw new NullPointerException();
+        }
+        return new AdaptedTask<>(() -> {
+            runnable.run();
+            return result;
+        });
+    }
+
+    public static <T> TForkJoinTask<T> adapt(TCallable<? extends T> callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+        return new AdaptedTask<>(callable);
+    }
+
+    static final class AdaptedTask<T> extends TForkJoinTask<T> implements TRunnableFuture<T> {
+        private final TCallable<? extends T> callable;
+        private T result;
+
+        AdaptedTask(TCallable<? extends T> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public T getRawResult() {
+            return result;
+        }
+
+        @Override
+        protected void setRawResult(T value) {
+            result = value;
+        }
+
+        @Override
+        protected boolean exec() {
+            try {
+                result = callable.call();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            invoke();
+        }
+    }
+}
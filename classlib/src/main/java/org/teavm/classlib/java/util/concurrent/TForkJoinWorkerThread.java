@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.lang.TThread;
+
+public class TForkJoinWorkerThread extends TThread {
+    final TForkJoinPool pool;
+    private final int poolIndex;
+
+    protected TForkJoinWorkerThread(TForkJoinPool pool) {
+        super(pool.nextWorkerName());
+        this.pool = pool;
+        poolIndex = pool.nextWorkerIndex++;
+        setDaemon(true);
+    }
+
+    public TForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getPoolIndex() {
+        return poolIndex;
+    }
+
+    protected void onStart() {
+    }
+
+    protected void onTermination(Throwable exception) {
+    }
+
+    @Override
+    public void run() {
+        Throwable exception = null;
+        try {
+            onStart();
+            pool.runWorker(this);
+        } catch (Throwable e) {
+            exception = e;
+        } finally {
+            try {
+                onTermination(exception);
+            } finally {
+                pool.deregisterWorker();
+            }
+        }
+    }
+}
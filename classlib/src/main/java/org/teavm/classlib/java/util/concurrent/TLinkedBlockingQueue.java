@@ -0,0 +1,245 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Objects;
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.classlib.java.lang.TThread;
+import org.teavm.classlib.java.util.TAbstractQueue;
+import org.teavm.classlib.java.util.TArrayDeque;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TIterator;
+import org.teavm.interop.Async;
+import org.teavm.interop.AsyncCallback;
+import org.teavm.platform.Platform;
+import org.teavm.platform.PlatformQueue;
+import org.teavm.runtime.EventQueue;
+
+public class TLinkedBlockingQueue<E> extends TAbstractQueue<E> implements TBlockingQueue<E> {
+    private final int capacity;
+    private TArrayDeque<E> elements = new TArrayDeque<>();
+    private PlatformQueue<TArrayBlockingQueue.WaitHandler> waitHandlers;
+
+    public TLinkedBlockingQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public TLinkedBlockingQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+    }
+
+    public TLinkedBlockingQueue(TCollection<? extends E> c) {
+        this(Integer.MAX_VALUE);
+        for (var it = c.iterator(); it.hasNext();) {
+            elements.add(Objects.requireNonNull(it.next()));
+        }
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        if (elements.size() >= capacity) {
+            return false;
+        }
+        addImpl(e);
+        return true;
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        Objects.requireNonNull(e);
+        while (elements.size() >= capacity) {
+            waitForChange(0);
+        }
+        addImpl(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TTimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(e);
+        if (elements.size() >= capacity) {
+            long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+            while (elements.size() >= capacity) {
+                if (!waitForChange(timeLimit)) {
+                    return false;
+                }
+            }
+        }
+        addImpl(e);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        if (elements.isEmpty()) {
+            return null;
+        }
+        return removeImpl();
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        while (elements.isEmpty()) {
+            waitForChange(0);
+        }
+        return removeImpl();
+    }
+
+    @Override
+    public E poll(long timeout, TTimeUnit unit) throws InterruptedException {
+        if (elements.isEmpty()) {
+            long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+            while (elements.isEmpty()) {
+                if (!waitForChange(timeLimit)) {
+                    return null;
+                }
+            }
+        }
+        return removeImpl();
+    }
+
+    @Override
+    public E peek() {
+        return elements.peekFirst();
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - elements.size();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (elements.remove(o)) {
+            notifyChange();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return elements.contains(o);
+    }
+
+    @Override
+    public void clear() {
+        if (!elements.isEmpty()) {
+            elements.clear();
+            notifyChange();
+        }
+    }
+
+    @Override
+    public int drainTo(TCollection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(TCollection<? super E> c, int maxElements) {
+        if (c == this) {
+            throw new IllegalArgumentException("The specified collection is this queue");
+        }
+        Objects.requireNonNull(c);
+        int count = 0;
+        while (count < maxElements && !elements.isEmpty()) {
+            c.add(elements.removeFirst());
+            count++;
+        }
+        if (count > 0) {
+            notifyChange();
+        }
+        return count;
+    }
+
+    @Override
+    public TIterator<E> iterator() {
+        var iterator = elements.iterator();
+        return new TIterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                notifyChange();
+            }
+        };
+    }
+
+    private void addImpl(E e) {
+        elements.addLast(e);
+        notifyChange();
+    }
+
+    private E removeImpl() {
+        E result = elements.removeFirst();
+        notifyChange();
+        return result;
+    }
+
+    private void notifyChange() {
+        if (waitHandlers == null) {
+            return;
+        }
+        while (!waitHandlers.isEmpty()) {
+            var handler = waitHandlers.remove();
+            if (PlatformDetector.isLowLevel()) {
+                EventQueue.offer(handler::changed);
+            } else {
+                Platform.postpone(handler::changed);
+            }
+        }
+        waitHandlers = null;
+    }
+
+    @Async
+    private native Boolean waitForChange(long timeLimit) throws InterruptedException;
+
+    private void waitForChange(long timeLimit, AsyncCallback<Boolean> callback) {
+        if (waitHandlers == null) {
+            waitHandlers = Platform.createQueue();
+        }
+
+        var handler = new TArrayBlockingQueue.WaitHandler(callback);
+        waitHandlers.add(handler);
+        if (timeLimit > 0) {
+            int timeout = Math.max(0, (int) (timeLimit - System.currentTimeMillis()));
+            handler.timerId = PlatformDetector.isLowLevel()
+                    ? EventQueue.offer(handler, timeLimit)
+                    : Platform.schedule(handler, timeout);
+        } else {
+            handler.timerId = -1;
+        }
+
+        TThread.currentThread().interruptHandler = handler;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- *  Copyright 2017 Alexey Andreev.
+ *  Copyright 2026 Alexey Andreev.
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -13,25 +13,23 @@
  *  See the License for the specific language governing permissions and
  *  limitations under the License.
  */
-package org.teavm.classlib.java.util.stream.intimpl;
+package org.teavm.classlib.java.util.concurrent;
 
-import java.util.function.IntPredicate;
+public abstract class TRecursiveAction extends TForkJoinTask<Void> {
+    protected abstract void compute();
 
-public class TFilteringIntStreamImpl extends TWrappingIntStreamImpl {
-    private IntPredicate filter;
+    @Override
+    public final Void getRawResult() {
+        return null;
+    }
 
-    public TFilteringIntStreamImpl(TSimpleIntStreamImpl innerStream, IntPredicate filter) {
-        super(innerStream);
-        this.filter = filter;
+    @Override
+    protected final void setRawResult(Void mustBeNull) {
     }
 
     @Override
-    protected IntPredicate wrap(IntPredicate consumer) {
-        return t -> {
-            if (!filter.test(t)) {
-                return true;
-            }
-            return consumer.test(t);
-        };
+    protected final boolean exec() {
+        compute();
+        return true;
     }
 }
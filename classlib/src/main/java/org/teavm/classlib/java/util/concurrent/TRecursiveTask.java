@@ -1,5 +1,5 @@
 /*
- *  Copyright 2017 Alexey Andreev.
+ *  Copyright 2026 Alexey Andreev.
  *
  *  Licensed under the Apache License, Version 2.0 (the "License");
  *  you may not use this file except in compliance with the License.
@@ -13,26 +13,26 @@
  *  See the License for the specific language governing permissions and
  *  limitations under the License.
  */
-package org.teavm.classlib.java.util.stream.intimpl;
+package org.teavm.classlib.java.util.concurrent;
 
-import java.util.function.IntPredicate;
-import java.util.function.IntUnaryOperator;
+public abstract class TRecursiveTask<V> extends TForkJoinTask<V> {
+    V result;
 
-public class TMappingIntStreamImpl extends TWrappingIntStreamImpl {
-    private IntUnaryOperator mapper;
+    protected abstract V compute();
 
-    public TMappingIntStreamImpl(TSimpleIntStreamImpl sourceStream, IntUnaryOperator mapper) {
-        super(sourceStream);
-        this.mapper = mapper;
+    @Override
+    public final V getRawResult() {
+        return result;
     }
 
     @Override
-    protected IntPredicate wrap(IntPredicate consumer) {
-        return t -> consumer.test(mapper.applyAsInt(t));
+    protected final void setRawResult(V value) {
+        result = value;
     }
 
     @Override
-    public long count() {
-        return sourceStream.count();
+    protected final boolean exec() {
+        result = compute();
+        return true;
     }
 }
@@ -0,0 +1,511 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.lang.TThread;
+import org.teavm.classlib.java.util.TArrayList;
+import org.teavm.classlib.java.util.THashSet;
+import org.teavm.classlib.java.util.TList;
+
+public class TThreadPoolExecutor extends TAbstractExecutorService {
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+    private static final int TERMINATED = 3;
+
+    private static final TRejectedExecutionHandler defaultHandler = new AbortPolicy();
+
+    private final TBlockingQueue<TRunnable> workQueue;
+    private final THashSet<Worker> workers = new THashSet<>();
+    private final Object terminationLock = new Object();
+    private int state = RUNNING;
+    private int corePoolSize;
+    private int maximumPoolSize;
+    private long keepAliveTime;
+    private boolean allowCoreThreadTimeOut;
+    private TThreadFactory threadFactory;
+    private TRejectedExecutionHandler handler;
+    private int idleCount;
+    private int largestPoolSize;
+    private long completedTaskCount;
+
+    /**
+     * When set, a task is queued only if some idle worker is going to pick it up, otherwise a new worker
+     * is started. This gives behaviour of a pool over {@code SynchronousQueue} without a real hand-off queue.
+     */
+    boolean handOff;
+
+    public TThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TTimeUnit unit,
+            TBlockingQueue<TRunnable> workQueue) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, TExecutors.defaultThreadFactory(),
+                defaultHandler);
+    }
+
+    public TThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TTimeUnit unit,
+            TBlockingQueue<TRunnable> workQueue, TThreadFactory threadFactory) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, defaultHandler);
+    }
+
+    public TThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TTimeUnit unit,
+            TBlockingQueue<TRunnable> workQueue, TRejectedExecutionHandler handler) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, TExecutors.defaultThreadFactory(),
+                handler);
+    }
+
+    public TThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TTimeUnit unit,
+            TBlockingQueue<TRunnable> workQueue, TThreadFactory threadFactory, TRejectedExecutionHandler handler) {
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || maximumPoolSize < corePoolSize || keepAliveTime < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (workQueue == null || threadFactory == null || handler == null) {
+            throw new NullPointerException();
+        }
+        this.corePoolSize = corePoolSize;
+        this.maximumPoolSize = maximumPoolSize;
+        this.keepAliveTime = unit.toNanos(keepAliveTime);
+        this.workQueue = workQueue;
+        this.threadFactory = threadFactory;
+        this.handler = handler;
+    }
+
+    @Override
+    public void execute(TRunnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (state != RUNNING) {
+            reject(command);
+            return;
+        }
+        if (workers.size() < corePoolSize && addWorker(command)) {
+            return;
+        }
+        if (handOff ? idleCount > workQueue.size() && workQueue.offer(command) : workQueue.offer(command)) {
+            if (workers.isEmpty()) {
+                addWorker(null);
+            }
+            return;
+        }
+        if (workers.size() >= maximumPoolSize || !addWorker(command)) {
+            reject(command);
+        }
+    }
+
+    private boolean addWorker(TRunnable firstTask) {
+        var worker = new Worker(firstTask);
+        var thread = threadFactory.newThread(worker);
+        if (thread == null) {
+            return false;
+        }
+        worker.thread = thread;
+        workers.add(worker);
+        largestPoolSize = Math.max(largestPoolSize, workers.size());
+        thread.start();
+        return true;
+    }
+
+    final void reject(TRunnable command) {
+        handler.rejectedExecution(command, this);
+    }
+
+    private void runWorker(Worker worker) {
+        TRunnable task = worker.firstTask;
+        worker.firstTask = null;
+        boolean completedAbruptly = true;
+        try {
+            while (task != null || (task = getTask(worker)) != null) {
+                if (state >= STOP && !worker.thread.isInterrupted()) {
+                    worker.thread.interrupt();
+                }
+                worker.active = true;
+                try {
+                    beforeExecute(worker.thread, task);
+                    try {
+                        task.run();
+                        afterExecute(task, null);
+                    } catch (Throwable e) {
+                        afterExecute(task, e);
+                        throw e;
+                    }
+                } finally {
+                    task = null;
+                    worker.active = false;
+                    completedTaskCount++;
+                }
+            }
+            completedAbruptly = false;
+        } finally {
+            workers.remove(worker);
+            tryTerminate();
+            if (state < STOP && (completedAbruptly || workers.size() < minimumWorkers())) {
+                addWorker(null);
+            }
+        }
+    }
+
+    private int minimumWorkers() {
+        int min = allowCoreThreadTimeOut ? 0 : corePoolSize;
+        if (min == 0 && !workQueue.isEmpty()) {
+            min = 1;
+        }
+        return min;
+    }
+
+    private TRunnable getTask(Worker worker) {
+        boolean timedOut = false;
+        while (true) {
+            if (state >= STOP || (state == SHUTDOWN && workQueue.isEmpty())) {
+                return null;
+            }
+            int poolSize = workers.size();
+            boolean timed = allowCoreThreadTimeOut || poolSize > corePoolSize;
+            if ((poolSize > maximumPoolSize || (timed && timedOut)) && (poolSize > 1 || workQueue.isEmpty())) {
+                return null;
+            }
+
+            worker.idle = true;
+            idleCount++;
+            try {
+                TRunnable task = timed
+                        ? workQueue.poll(keepAliveTime, TTimeUnit.NANOSECONDS)
+                        : workQueue.take();
+                if (task != null) {
+                    return task;
+                }
+                timedOut = true;
+            } catch (InterruptedException e) {
+                TThread.interrupted();
+                timedOut = false;
+            } finally {
+                worker.idle = false;
+                idleCount--;
+            }
+        }
+    }
+
+    private void interruptIdleWorkers(boolean onlyOne) {
+        for (var it = workers.iterator(); it.hasNext();) {
+            var worker = it.next();
+            if (worker.idle) {
+                worker.thread.interrupt();
+                if (onlyOne) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void tryTerminate() {
+        if (state == RUNNING || state == TERMINATED || (state == SHUTDOWN && !workQueue.isEmpty())) {
+            return;
+        }
+        if (!workers.isEmpty()) {
+            interruptIdleWorkers(true);
+            return;
+        }
+        try {
+            terminated();
+        } finally {
+            state = TERMINATED;
+            synchronized (terminationLock) {
+                terminationLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (state < SHUTDOWN) {
+            state = SHUTDOWN;
+        }
+        interruptIdleWorkers(false);
+        tryTerminate();
+    }
+
+    @Override
+    public TList<TRunnable> shutdownNow() {
+        if (state < STOP) {
+            state = STOP;
+        }
+        for (var it = workers.iterator(); it.hasNext();) {
+            var thread = it.next().thread;
+            if (!thread.isInterrupted()) {
+                thread.interrupt();
+            }
+        }
+        var tasks = new TArrayList<TRunnable>();
+        workQueue.drainTo(tasks);
+        tryTerminate();
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state != RUNNING;
+    }
+
+    public boolean isTerminating() {
+        return state != RUNNING && state != TERMINATED;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return state == TERMINATED;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TTimeUnit unit) throws InterruptedException {
+        long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized (terminationLock) {
+            while (state != TERMINATED) {
+                long remaining = timeLimit - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                terminationLock.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    public void setThreadFactory(TThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new NullPointerException();
+        }
+        this.threadFactory = threadFactory;
+    }
+
+    public TThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    public void setRejectedExecutionHandler(TRejectedExecutionHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException();
+        }
+        this.handler = handler;
+    }
+
+    public TRejectedExecutionHandler getRejectedExecutionHandler() {
+        return handler;
+    }
+
+    public void setCorePoolSize(int corePoolSize) {
+        if (corePoolSize < 0 || maximumPoolSize < corePoolSize) {
+            throw new IllegalArgumentException();
+        }
+        int delta = corePoolSize - this.corePoolSize;
+        this.corePoolSize = corePoolSize;
+        if (workers.size() > corePoolSize) {
+            interruptIdleWorkers(false);
+        } else if (delta > 0) {
+            int k = Math.min(delta, workQueue.size());
+            while (k-- > 0 && addWorker(null)) {
+                if (workQueue.isEmpty()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public boolean prestartCoreThread() {
+        return workers.size() < corePoolSize && addWorker(null);
+    }
+
+    public int prestartAllCoreThreads() {
+        int n = 0;
+        while (prestartCoreThread()) {
+            ++n;
+        }
+        return n;
+    }
+
+    public boolean allowsCoreThreadTimeOut() {
+        return allowCoreThreadTimeOut;
+    }
+
+    public void allowCoreThreadTimeOut(boolean value) {
+        if (value && keepAliveTime <= 0) {
+            throw new IllegalArgumentException("Core threads must have nonzero keep alive times");
+        }
+        if (value != allowCoreThreadTimeOut) {
+            allowCoreThreadTimeOut = value;
+            if (value) {
+                interruptIdleWorkers(false);
+            }
+        }
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        if (maximumPoolSize <= 0 || maximumPoolSize < corePoolSize) {
+            throw new IllegalArgumentException();
+        }
+        this.maximumPoolSize = maximumPoolSize;
+        if (workers.size() > maximumPoolSize) {
+            interruptIdleWorkers(false);
+        }
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setKeepAliveTime(long time, TTimeUnit unit) {
+        if (time < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (time == 0 && allowCoreThreadTimeOut) {
+            throw new IllegalArgumentException("Core threads must have nonzero keep alive times");
+        }
+        long keepAliveTime = unit.toNanos(time);
+        long delta = keepAliveTime - this.keepAliveTime;
+        this.keepAliveTime = keepAliveTime;
+        if (delta < 0) {
+            interruptIdleWorkers(false);
+        }
+    }
+
+    public long getKeepAliveTime(TTimeUnit unit) {
+        return unit.convert(keepAliveTime, TTimeUnit.NANOSECONDS);
+    }
+
+    public TBlockingQueue<TRunnable> getQueue() {
+        return workQueue;
+    }
+
+    public boolean remove(TRunnable task) {
+        boolean removed = workQueue.remove(task);
+        tryTerminate();
+        return removed;
+    }
+
+    public void purge() {
+        for (var it = workQueue.iterator(); it.hasNext();) {
+            var task = it.next();
+            if (task instanceof TFuture<?> && ((TFuture<?>) task).isCancelled()) {
+                it.remove();
+            }
+        }
+        tryTerminate();
+    }
+
+    public int getPoolSize() {
+        return state == TERMINATED ? 0 : workers.size();
+    }
+
+    public int getActiveCount() {
+        int n = 0;
+        for (var it = workers.iterator(); it.hasNext();) {
+            if (it.next().active) {
+                ++n;
+            }
+        }
+        return n;
+    }
+
+    public int getLargestPoolSize() {
+        return largestPoolSize;
+    }
+
+    public long getTaskCount() {
+        return completedTaskCount + getActiveCount() + workQueue.size();
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    @Override
+    public String toString() {
+        String runState;
+        switch (state) {
+            case RUNNING:
+                runState = "Running";
+                break;
+            case TERMINATED:
+                runState = "Terminated";
+                break;
+            default:
+                runState = "Shutting down";
+                break;
+        }
+        return super.toString() + "[" + runState + ", pool size = " + getPoolSize()
+                + ", active threads = " + getActiveCount() + ", queued tasks = " + workQueue.size()
+                + ", completed tasks = " + completedTaskCount + "]";
+    }
+
+    protected void beforeExecute(TThread t, TRunnable r) {
+    }
+
+    protected void afterExecute(TRunnable r, Throwable t) {
+    }
+
+    protected void terminated() {
+    }
+
+    private final class Worker implements TRunnable {
+        TRunnable firstTask;
+        TThread thread;
+        boolean idle;
+        boolean active;
+
+        Worker(TRunnable firstTask) {
+            this.firstTask = firstTask;
+        }
+
+        @Override
+        public void run() {
+            runWorker(this);
+        }
+    }
+
+    public static class CallerRunsPolicy implements TRejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(TRunnable r, TThreadPoolExecutor e) {
+            if (!e.isShutdown()) {
+                r.run();
+            }
+        }
+    }
+
+    public static class AbortPolicy implements TRejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(TRunnable r, TThreadPoolExecutor e) {
+            throw new TRejectedExecutionException("Task " + r + " rejected from " + e);
+        }
+    }
+
+    public static class DiscardPolicy implements TRejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(TRunnable r, TThreadPoolExecutor e) {
+        }
+    }
+
+    public static class DiscardOldestPolicy implements TRejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(TRunnable r, TThreadPoolExecutor e) {
+            if (!e.isShutdown()) {
+                e.getQueue().poll();
+                e.execute(r);
+            }
+        }
+    }
+}
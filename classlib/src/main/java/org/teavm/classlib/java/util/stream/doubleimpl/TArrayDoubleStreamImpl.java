@@ -18,9 +18,9 @@ package org.teavm.classlib.java.util.stream.doubleimpl;
 import java.util.function.DoublePredicate;
 
 public class TArrayDoubleStreamImpl extends TSimpleDoubleStreamImpl {
-    private double[] array;
-    private int index;
-    private int end;
+    double[] array;
+    int index;
+    int end;
     private int size;
 
     public TArrayDoubleStreamImpl(double[] array, int start, int end) {
@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.stream.doubleimpl;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import org.teavm.classlib.java.util.stream.TDoubleStream;
+import org.teavm.classlib.java.util.stream.impl.TFusedStages;
+
+/**
+ * Runs a chain of stateless stages ({@code map}, {@code filter} and {@code peek}) in a single loop.
+ * Instead of wrapping the consumer once per stage, the stages are kept in a {@link TFusedStages} list,
+ * so that an element costs exactly one call per stage. Array sources are iterated directly,
+ * without a call to their {@code next} method per element.
+ */
+public class TFusedDoubleStreamImpl extends TWrappingDoubleStreamImpl {
+    private TFusedStages stages;
+
+    public TFusedDoubleStreamImpl(TSimpleDoubleStreamImpl sourceStream) {
+        this(sourceStream, TFusedStages.EMPTY);
+    }
+
+    private TFusedDoubleStreamImpl(TSimpleDoubleStreamImpl sourceStream, TFusedStages stages) {
+        super(sourceStream);
+        this.stages = stages;
+    }
+
+    @Override
+    public TDoubleStream map(DoubleUnaryOperator mapper) {
+        return new TFusedDoubleStreamImpl(sourceStream, stages.append(TFusedStages.MAP, mapper));
+    }
+
+    @Override
+    public TDoubleStream filter(DoublePredicate predicate) {
+        return new TFusedDoubleStreamImpl(sourceStream, stages.append(TFusedStages.FILTER, predicate));
+    }
+
+    @Override
+    public TDoubleStream peek(DoubleConsumer action) {
+        return new TFusedDoubleStreamImpl(sourceStream, stages.append(TFusedStages.PEEK, action));
+    }
+
+    private boolean push(double value, DoublePredicate consumer) {
+        var kinds = stages.kinds;
+        var functions = stages.functions;
+        for (int i = 0; i < kinds.length; ++i) {
+            switch (kinds[i]) {
+                case TFusedStages.MAP:
+                    value = ((DoubleUnaryOperator) functions[i]).applyAsDouble(value);
+                    break;
+                case TFusedStages.FILTER:
+                    if (!((DoublePredicate) functions[i]).test(value)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    ((DoubleConsumer) functions[i]).accept(value);
+                    break;
+            }
+        }
+        return consumer.test(value);
+    }
+
+    @Override
+    public boolean next(DoublePredicate consumer) {
+        if (sourceStream instanceof TArrayDoubleStreamImpl) {
+            var source = (TArrayDoubleStreamImpl) sourceStream;
+            var array = source.array;
+            int end = source.end;
+            int index = source.index;
+            while (index < end) {
+                if (!push(array[index++], consumer)) {
+                    break;
+                }
+            }
+            source.index = index;
+            return index < end;
+        }
+        return super.next(consumer);
+    }
+
+    @Override
+    protected DoublePredicate wrap(DoublePredicate consumer) {
+        return e -> push(e, consumer);
+    }
+
+    @Override
+    public long count() {
+        return stages.countFromSource ? sourceStream.count() : super.count();
+    }
+}
@@ -40,12 +40,12 @@ import org.teavm.classlib.java.util.stream.TStream;
 public abstract class TSimpleDoubleStreamImpl implements TDoubleStream {
     @Override
     public TDoubleStream filter(DoublePredicate predicate) {
-        return new TFilteringDoubleStreamImpl(this, predicate);
+        return new TFusedDoubleStreamImpl(this).filter(predicate);
     }
 
     @Override
     public TDoubleStream map(DoubleUnaryOperator mapper) {
-        return new TMappingDoubleStreamImpl(this, mapper);
+        return new TFusedDoubleStreamImpl(this).map(mapper);
     }
 
     @Override
@@ -82,7 +82,7 @@ public abstract class TSimpleDoubleStreamImpl implements TDoubleStream {
 
     @Override
     public TDoubleStream peek(DoubleConsumer action) {
-        return new TPeekingDoubleStreamImpl(this, action);
+        return new TFusedDoubleStreamImpl(this).peek(action);
     }
 
     @Override
@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.stream.impl;
+
+import java.util.Arrays;
+
+/**
+ * Immutable list of stateless stages ({@code map}, {@code filter} and {@code peek}) shared by fused
+ * primitive streams. Each stage is a kind and a function, which is an operator, a predicate or a consumer
+ * of the stream's element type, depending on the kind. Appending a stage copies the list, so a stream
+ * can be reused as a prefix of several pipelines.
+ */
+public final class TFusedStages {
+    public static final byte MAP = 0;
+    public static final byte FILTER = 1;
+    public static final byte PEEK = 2;
+    public static final TFusedStages EMPTY = new TFusedStages(new byte[0], new Object[0], true);
+
+    public final byte[] kinds;
+    public final Object[] functions;
+    public final boolean countFromSource;
+
+    private TFusedStages(byte[] kinds, Object[] functions, boolean countFromSource) {
+        this.kinds = kinds;
+        this.functions = functions;
+        this.countFromSource = countFromSource;
+    }
+
+    public TFusedStages append(byte kind, Object function) {
+        int size = kinds.length;
+        byte[] newKinds = Arrays.copyOf(kinds, size + 1);
+        Object[] newFunctions = Arrays.copyOf(functions, size + 1);
+        newKinds[size] = kind;
+        newFunctions[size] = function;
+
+        // Only map keeps the number of elements and has no side effects that count() could skip
+        return new TFusedStages(newKinds, newFunctions, countFromSource && kind == MAP);
+    }
+}
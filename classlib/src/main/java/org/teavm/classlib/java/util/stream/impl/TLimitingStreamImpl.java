@@ -37,7 +37,7 @@ public class TLimitingStreamImpl<T> extends TSimpleStreamImpl<T> {
             if (remaining-- == 0) {
                 return false;
             }
-            return consumer.test(e);
+            return consumer.test(e) && remaining > 0;
         });
         if (!result) {
             remaining = 0;
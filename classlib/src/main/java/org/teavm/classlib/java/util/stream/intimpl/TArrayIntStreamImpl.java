@@ -18,9 +18,9 @@ package org.teavm.classlib.java.util.stream.intimpl;
 import java.util.function.IntPredicate;
 
 public class TArrayIntStreamImpl extends TSimpleIntStreamImpl {
-    private int[] array;
-    private int index;
-    private int end;
+    int[] array;
+    int index;
+    int end;
     private int size;
 
     public TArrayIntStreamImpl(int[] array, int start, int end) {
@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.stream.intimpl;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import org.teavm.classlib.java.util.stream.TIntStream;
+import org.teavm.classlib.java.util.stream.impl.TFusedStages;
+
+/**
+ * Runs a chain of stateless stages ({@code map}, {@code filter} and {@code peek}) in a single loop.
+ * Instead of wrapping the consumer once per stage, the stages are kept in a {@link TFusedStages} list,
+ * so that an element costs exactly one call per stage. Array and range sources are iterated directly,
+ * without a call to their {@code next} method per element.
+ */
+public class TFusedIntStreamImpl extends TWrappingIntStreamImpl {
+    private TFusedStages stages;
+
+    public TFusedIntStreamImpl(TSimpleIntStreamImpl sourceStream) {
+        this(sourceStream, TFusedStages.EMPTY);
+    }
+
+    private TFusedIntStreamImpl(TSimpleIntStreamImpl sourceStream, TFusedStages stages) {
+        super(sourceStream);
+        this.stages = stages;
+    }
+
+    @Override
+    public TIntStream map(IntUnaryOperator mapper) {
+        return new TFusedIntStreamImpl(sourceStream, stages.append(TFusedStages.MAP, mapper));
+    }
+
+    @Override
+    public TIntStream filter(IntPredicate predicate) {
+        return new TFusedIntStreamImpl(sourceStream, stages.append(TFusedStages.FILTER, predicate));
+    }
+
+    @Override
+    public TIntStream peek(IntConsumer action) {
+        return new TFusedIntStreamImpl(sourceStream, stages.append(TFusedStages.PEEK, action));
+    }
+
+    private boolean push(int value, IntPredicate consumer) {
+        var kinds = stages.kinds;
+        var functions = stages.functions;
+        for (int i = 0; i < kinds.length; ++i) {
+            switch (kinds[i]) {
+                case TFusedStages.MAP:
+                    value = ((IntUnaryOperator) functions[i]).applyAsInt(value);
+                    break;
+                case TFusedStages.FILTER:
+                    if (!((IntPredicate) functions[i]).test(value)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    ((IntConsumer) functions[i]).accept(value);
+                    break;
+            }
+        }
+        return consumer.test(value);
+    }
+
+    @Override
+    public boolean next(IntPredicate consumer) {
+        if (sourceStream instanceof TArrayIntStreamImpl) {
+            var source = (TArrayIntStreamImpl) sourceStream;
+            var array = source.array;
+            int end = source.end;
+            int index = source.index;
+            while (index < end) {
+                if (!push(array[index++], consumer)) {
+                    break;
+                }
+            }
+            source.index = index;
+            return index < end;
+        }
+        if (sourceStream instanceof TRangeIntStream) {
+            var source = (TRangeIntStream) sourceStream;
+            int end = source.end;
+            int index = source.start;
+            boolean stopped = false;
+            while (index < end) {
+                if (!push(index++, consumer)) {
+                    stopped = true;
+                    break;
+                }
+            }
+            source.start = index;
+            return stopped;
+        }
+        return super.next(consumer);
+    }
+
+    @Override
+    protected IntPredicate wrap(IntPredicate consumer) {
+        return e -> push(e, consumer);
+    }
+
+    @Override
+    public long count() {
+        return stages.countFromSource ? sourceStream.count() : super.count();
+    }
+}
@@ -18,8 +18,8 @@ package org.teavm.classlib.java.util.stream.intimpl;
 import java.util.function.IntPredicate;
 
 public class TRangeIntStream extends TSimpleIntStreamImpl {
-    private int start;
-    private int end;
+    int start;
+    int end;
 
     public TRangeIntStream(int start, int end) {
         this.start = start;
@@ -41,12 +41,12 @@ import org.teavm.classlib.java.util.stream.TStream;
 public abstract class TSimpleIntStreamImpl implements TIntStream {
     @Override
     public TIntStream filter(IntPredicate predicate) {
-        return new TFilteringIntStreamImpl(this, predicate);
+        return new TFusedIntStreamImpl(this).filter(predicate);
     }
 
     @Override
     public TIntStream map(IntUnaryOperator mapper) {
-        return new TMappingIntStreamImpl(this, mapper);
+        return new TFusedIntStreamImpl(this).map(mapper);
     }
 
     @Override
@@ -83,7 +83,7 @@ public abstract class TSimpleIntStreamImpl implements TIntStream {
 
     @Override
     public TIntStream peek(IntConsumer action) {
-        return new TPeekingIntStreamImpl(this, action);
+        return new TFusedIntStreamImpl(this).peek(action);
     }
 
     @Override
@@ -18,9 +18,9 @@ package org.teavm.classlib.java.util.stream.longimpl;
 import java.util.function.LongPredicate;
 
 public class TArrayLongStreamImpl extends TSimpleLongStreamImpl {
-    private long[] array;
-    private int index;
-    private int end;
+    long[] array;
+    int index;
+    int end;
     private int size;
 
     public TArrayLongStreamImpl(long[] array, int start, int end) {
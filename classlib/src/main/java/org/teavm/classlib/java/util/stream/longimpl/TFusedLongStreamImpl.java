@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.stream.longimpl;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import org.teavm.classlib.java.util.stream.TLongStream;
+import org.teavm.classlib.java.util.stream.impl.TFusedStages;
+
+/**
+ * Runs a chain of stateless stages ({@code map}, {@code filter} and {@code peek}) in a single loop.
+ * Instead of wrapping the consumer once per stage, the stages are kept in a {@link TFusedStages} list,
+ * so that an element costs exactly one call per stage. Array and range sources are iterated directly,
+ * without a call to their {@code next} method per element.
+ */
+public class TFusedLongStreamImpl extends TWrappingLongStreamImpl {
+    private TFusedStages stages;
+
+    public TFusedLongStreamImpl(TSimpleLongStreamImpl sourceStream) {
+        this(sourceStream, TFusedStages.EMPTY);
+    }
+
+    private TFusedLongStreamImpl(TSimpleLongStreamImpl sourceStream, TFusedStages stages) {
+        super(sourceStream);
+        this.stages = stages;
+    }
+
+    @Override
+    public TLongStream map(LongUnaryOperator mapper) {
+        return new TFusedLongStreamImpl(sourceStream, stages.append(TFusedStages.MAP, mapper));
+    }
+
+    @Override
+    public TLongStream filter(LongPredicate predicate) {
+        return new TFusedLongStreamImpl(sourceStream, stages.append(TFusedStages.FILTER, predicate));
+    }
+
+    @Override
+    public TLongStream peek(LongConsumer action) {
+        return new TFusedLongStreamImpl(sourceStream, stages.append(TFusedStages.PEEK, action));
+    }
+
+    private boolean push(long value, LongPredicate consumer) {
+        var kinds = stages.kinds;
+        var functions = stages.functions;
+        for (int i = 0; i < kinds.length; ++i) {
+            switch (kinds[i]) {
+                case TFusedStages.MAP:
+                    value = ((LongUnaryOperator) functions[i]).applyAsLong(value);
+                    break;
+                case TFusedStages.FILTER:
+                    if (!((LongPredicate) functions[i]).test(value)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    ((LongConsumer) functions[i]).accept(value);
+                    break;
+            }
+        }
+        return consumer.test(value);
+    }
+
+    @Override
+    public boolean next(LongPredicate consumer) {
+        if (sourceStream instanceof TArrayLongStreamImpl) {
+            var source = (TArrayLongStreamImpl) sourceStream;
+            var array = source.array;
+            int end = source.end;
+            int index = source.index;
+            while (index < end) {
+                if (!push(array[index++], consumer)) {
+                    break;
+                }
+            }
+            source.index = index;
+            return index < end;
+        }
+        if (sourceStream instanceof TRangeLongStream) {
+            var source = (TRangeLongStream) sourceStream;
+            long end = source.end;
+            long index = source.start;
+            boolean stopped = false;
+            while (index < end) {
+                if (!push(index++, consumer)) {
+                    stopped = true;
+                    break;
+                }
+            }
+            source.start = index;
+            return stopped;
+        }
+        return super.next(consumer);
+    }
+
+    @Override
+    protected LongPredicate wrap(LongPredicate consumer) {
+        return e -> push(e, consumer);
+    }
+
+    @Override
+    public long count() {
+        return stages.countFromSource ? sourceStream.count() : super.count();
+    }
+}
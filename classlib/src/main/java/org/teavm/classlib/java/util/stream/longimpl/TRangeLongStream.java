@@ -18,8 +18,8 @@ package org.teavm.classlib.java.util.stream.longimpl;
 import java.util.function.LongPredicate;
 
 public class TRangeLongStream extends TSimpleLongStreamImpl {
-    private long start;
-    private long end;
+    long start;
+    long end;
 
     public TRangeLongStream(long start, long end) {
         this.start = start;
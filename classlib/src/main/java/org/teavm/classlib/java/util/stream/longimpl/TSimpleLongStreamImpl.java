@@ -41,12 +41,12 @@ import org.teavm.classlib.java.util.stream.TStream;
 public abstract class TSimpleLongStreamImpl implements TLongStream {
     @Override
     public TLongStream filter(LongPredicate predicate) {
-        return new TFilteringLongStreamImpl(this, predicate);
+        return new TFusedLongStreamImpl(this).filter(predicate);
     }
 
     @Override
     public TLongStream map(LongUnaryOperator mapper) {
-        return new TMappingLongStreamImpl(this, mapper);
+        return new TFusedLongStreamImpl(this).map(mapper);
     }
 
     @Override
@@ -83,7 +83,7 @@ public abstract class TSimpleLongStreamImpl implements TLongStream {
 
     @Override
     public TLongStream peek(LongConsumer action) {
-        return new TPeekingLongStreamImpl(this, action);
+        return new TFusedLongStreamImpl(this).peek(action);
     }
 
     @Override
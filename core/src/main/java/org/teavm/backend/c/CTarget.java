@@ -30,6 +30,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import org.teavm.ast.InvocationExpr;
 import org.teavm.ast.decompilation.Decompiler;
@@ -148,11 +149,11 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private static final Set<MethodReference> VIRTUAL_METHODS = new HashSet<>(Arrays.asList(
             new MethodReference(Object.class, "clone", Object.class)
     ));
-    private static final String[] RUNTIME_FILES = { "core.c", "core.h", "date.c", "date.h", "definitions.h",
-            "exceptions.h", "fiber.c", "fiber.h", "file.c", "file.h", "heapdump.c", "heapdump.h", "heaptrace.c",
-            "heaptrace.h", "log.c", "log.h", "memory.c", "memory.h", "references.c", "references.h",
-            "resource.c", "resource.h", "runtime.h", "stack.c", "stack.h", "string.c", "string.h",
-            "stringhash.c", "stringhash.h", "time.c", "time.h", "virtcall.c", "virtcall.h"
+    private static final String[] RUNTIME_FILES = { "allocprofile.c", "core.c", "core.h", "date.c", "date.h",
+            "definitions.h", "exceptions.h", "fiber.c", "fiber.h", "file.c", "file.h", "gcmark.c", "gcmark.h",
+            "heapdump.c", "heapdump.h", "heaptrace.c", "heaptrace.h", "log.c", "log.h", "memory.c", "memory.h",
+            "references.c", "references.h", "resource.c", "resource.h", "runtime.h", "stack.c", "stack.h",
+            "string.c", "string.h", "stringhash.c", "stringhash.h", "time.c", "time.h", "virtcall.c", "virtcall.h"
     };
 
     private TeaVMTargetController controller;
@@ -178,6 +179,8 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private SimpleStringPool stringPool;
     private boolean heapDump;
     private boolean obfuscated;
+    private int gcMarkThreads = 1;
+    private int allocationSampleInterval;
     private List<CallSiteDescriptor> callSites = new ArrayList<>();
 
     public CTarget(NameProvider nameProvider) {
@@ -212,6 +215,27 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         this.obfuscated = obfuscated;
     }
 
+    /**
+     * Sets the number of threads that mark reachable objects during garbage collection, including
+     * the thread that triggered it. Values greater than one make the generated code depend on POSIX threads,
+     * on other platforms marking remains single-threaded.
+     */
+    public void setGcMarkThreads(int gcMarkThreads) {
+        this.gcMarkThreads = gcMarkThreads;
+    }
+
+    /**
+     * Makes the generated code sample every {@code allocationSampleInterval}-th allocation, recording the
+     * call stack of the allocation site. At exit or on {@code SIGUSR2} the program writes
+     * {@code teavm-alloc-profile.pb} in pprof format and {@code teavm-heap-histogram.txt} with number
+     * of live instances and bytes per class. The histogram is taken after a full garbage collection, which
+     * is forced at exit, and on signal is the next one the program performs. Zero (the default) disables
+     * sampling.
+     */
+    public void setAllocationSampleInterval(int allocationSampleInterval) {
+        this.allocationSampleInterval = allocationSampleInterval;
+    }
+
     public void setFileNames(FileNameProvider fileNames) {
         this.fileNames = fileNames;
     }
@@ -404,7 +428,7 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
                 controller.getDependencyInfo(), stringPool, nameProvider, fileNames,
                 controller.getDiagnostics(), classes, intrinsics, generators, asyncMethods::contains, buildTarget,
                 controller.getClassInitializerInfo(), incremental,
-                vmAssertions, vmAssertions || heapDump, obfuscated);
+                vmAssertions, vmAssertions || heapDump, obfuscated, isCompactStrings());
 
         BufferedCodeWriter specialWriter = new BufferedCodeWriter(false);
         BufferedCodeWriter configHeaderWriter = new BufferedCodeWriter(false);
@@ -425,6 +449,15 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         if (gcStats) {
             configHeaderWriter.println("#define TEAVM_GC_STATS 1");
         }
+        if (gcMarkThreads > 1) {
+            configHeaderWriter.println("#define TEAVM_GC_MARK_THREADS " + gcMarkThreads);
+        }
+        if (allocationSampleInterval > 0) {
+            configHeaderWriter.println("#define TEAVM_ALLOC_PROFILE " + allocationSampleInterval);
+        }
+        if (isCompactStrings()) {
+            configHeaderWriter.println("#define TEAVM_COMPACT_STRINGS 1");
+        }
 
         ClassGenerator classGenerator = new ClassGenerator(context, tagRegistry, decompiler,
                 controller.getCacheStatus());
@@ -486,18 +519,40 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
             BuildTarget buildTarget) throws IOException {
         classGenerator.prepare(classes);
 
-        for (String className : classes.getClassNames()) {
-            BufferedCodeWriter writer = new BufferedCodeWriter(lineNumbersGenerated);
-            BufferedCodeWriter headerWriter = new BufferedCodeWriter(false);
-            ClassHolder cls = classes.get(className);
-            if (cls != null) {
-                classGenerator.generateClass(writer, headerWriter, cls);
+        List<String> classNames = new ArrayList<>(classes.getClassNames());
+        int parallelism = controller.getParallelism();
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        ThreadLocal<Decompiler> decompilers = ThreadLocal.withInitial(() -> new Decompiler(classes,
+                new HashSet<>(), controller.isFriendlyToDebugger()));
+        try {
+            int scheduled = 0;
+            for (int i = 0; i < classNames.size(); ++i) {
+                if (pool != null) {
+                    while (scheduled < classNames.size() && scheduled <= i + parallelism * 4) {
+                        ClassHolder cls = classes.get(classNames.get(scheduled++));
+                        if (cls != null) {
+                            classGenerator.scheduleDecompilation(cls, pool, decompilers::get);
+                        }
+                    }
+                }
+                String className = classNames.get(i);
+                BufferedCodeWriter writer = new BufferedCodeWriter(lineNumbersGenerated);
+                BufferedCodeWriter headerWriter = new BufferedCodeWriter(false);
+                ClassHolder cls = classes.get(className);
+                if (cls != null) {
+                    classGenerator.generateClass(writer, headerWriter, cls);
+                }
+                String name = fileNames.fileName(className);
+                OutputFileUtil.write(writer, name + ".c", buildTarget);
+                OutputFileUtil.write(headerWriter, name + ".h", buildTarget);
+                if (incremental) {
+                    stringPool.reset();
+                }
             }
-            String name = fileNames.fileName(className);
-            OutputFileUtil.write(writer, name + ".c", buildTarget);
-            OutputFileUtil.write(headerWriter, name + ".h", buildTarget);
-            if (incremental) {
-                stringPool.reset();
+        } finally {
+            if (pool != null) {
+                classGenerator.cancelDecompilations();
+                pool.shutdownNow();
             }
         }
 
@@ -761,11 +816,13 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
 
     private List<String> getGeneratedFiles(ListableClassHolderSource classes, List<? extends ValueType> types) {
         List<String> files = new ArrayList<>();
+        files.add("allocprofile.c");
         files.add("callsites.c");
         files.add("core.c");
         files.add("date.c");
         files.add("fiber.c");
         files.add("file.c");
+        files.add("gcmark.c");
         files.add("heapdump.c");
         files.add("heaptrace.c");
         files.add("log.c");
@@ -879,6 +936,10 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         }
     }
 
+    private boolean isCompactStrings() {
+        return Boolean.parseBoolean(controller.getProperties().getProperty("teavm.compactStrings", "false"));
+    }
+
     private void generateVirtualTableHeaders(GenerationContext context, CodeWriter writer) {
         writer.println("teavm_classClass = (TeaVM_Class*) &" + context.getNames().forClassInstance(
                 ValueType.object("java.lang.Class")) + ";");
@@ -888,6 +949,10 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
                 ValueType.object("java.lang.String")) + ";");
         writer.println("teavm_charArrayClass = (TeaVM_Class*) &" + context.getNames().forClassInstance(
                 ValueType.arrayOf(ValueType.CHARACTER)) + ";");
+        if (context.isCompactStrings()) {
+            writer.println("teavm_byteArrayClass = (TeaVM_Class*) &" + context.getNames().forClassInstance(
+                    ValueType.arrayOf(ValueType.BYTE)) + ";");
+        }
         writer.println("teavm_initClasses();");
     }
 
@@ -21,10 +21,15 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.teavm.ast.ControlFlowEntry;
 import org.teavm.ast.RegularMethodNode;
@@ -107,6 +112,7 @@ public class ClassGenerator {
     private AstDependencyExtractor dependencyExtractor = new AstDependencyExtractor();
     private List<CallSiteDescriptor> callSites;
     private ClassMetadataRequirements metadataRequirements;
+    private Map<MethodReference, ForkJoinTask<RegularMethodNode>> pendingDecompilations = new HashMap<>();
     private static final int VT_STRUCTURE_INITIALIZER_DEPTH_THRESHOLD = 9;
 
     public ClassGenerator(GenerationContext context, TagRegistry tagRegistry, Decompiler decompiler,
@@ -126,6 +132,40 @@ public class ClassGenerator {
         this.callSites = callSites;
     }
 
+    /**
+     * Starts decompiling methods of the given class on the pool, so that {@link #generateClass} only waits for
+     * the results. Each task takes a decompiler from the supplier, which must not share it between threads.
+     */
+    public void scheduleDecompilation(ClassHolder cls, ForkJoinPool pool, Supplier<Decompiler> decompilers) {
+        for (MethodHolder method : cls.getMethods()) {
+            if (!isDecompiled(method) || isCached(method.getReference())) {
+                continue;
+            }
+            pendingDecompilations.put(method.getReference(),
+                    pool.submit(() -> decompilers.get().decompileRegular(method)));
+        }
+    }
+
+    /**
+     * Cancels decompilations scheduled by {@link #scheduleDecompilation} that were not consumed by
+     * {@link #generateClass}.
+     */
+    public void cancelDecompilations() {
+        for (ForkJoinTask<RegularMethodNode> task : pendingDecompilations.values()) {
+            task.cancel(true);
+        }
+        pendingDecompilations.clear();
+    }
+
+    private static boolean isDecompiled(MethodHolder method) {
+        return !method.hasModifier(ElementModifier.ABSTRACT) && !method.hasModifier(ElementModifier.NATIVE)
+                && method.getProgram() != null;
+    }
+
+    private boolean isCached(MethodReference method) {
+        return astCache != EmptyMethodNodeCache.INSTANCE && !cacheStatus.isStaleMethod(method);
+    }
+
     public void prepare(ListableClassHolderSource classes) {
         for (String className : classes.getClassNames()) {
             ClassHolder cls = classes.get(className);
@@ -215,6 +255,13 @@ public class ClassGenerator {
         generateStaticGCRoots(cls.getName());
         generateLayoutArray(cls.getName());
         generateStringPool(type);
+
+        for (MethodHolder method : cls.getMethods()) {
+            ForkJoinTask<RegularMethodNode> leftover = pendingDecompilations.remove(method.getReference());
+            if (leftover != null) {
+                leftover.cancel(true);
+            }
+        }
     }
 
     private void generateCallSites(List<? extends CallSiteDescriptor> callSites, String callSitesName) {
@@ -322,11 +369,15 @@ public class ClassGenerator {
 
             generateMethodForwardDeclaration(method);
             RegularMethodNode methodNode;
-            AstCacheEntry entry = !cacheStatus.isStaleMethod(method.getReference())
+            ForkJoinTask<RegularMethodNode> pendingDecompilation = pendingDecompilations.remove(
+                    method.getReference());
+            AstCacheEntry entry = pendingDecompilation == null && isCached(method.getReference())
                     ? astCache.get(method.getReference(), cacheStatus)
                     : null;
             if (entry == null) {
-                methodNode = decompiler.decompileRegular(method);
+                methodNode = pendingDecompilation != null
+                        ? pendingDecompilation.join()
+                        : decompiler.decompileRegular(method);
                 astCache.store(method.getReference(), new AstCacheEntry(methodNode, new ControlFlowEntry[0]),
                         () -> dependencyExtractor.extract(methodNode));
             } else {
@@ -40,6 +40,8 @@ public class GCIntrinsic implements Intrinsic {
             case "cardTable":
             case "writeBarrier":
             case "canShrinkHeap":
+            case "markThreadCount":
+            case "markInParallel":
                 return true;
             default:
                 return false;
@@ -65,6 +67,20 @@ public class GCIntrinsic implements Intrinsic {
                 context.writer().print("1");
                 break;
 
+            case "markThreadCount":
+                context.includes().includePath("gcmark.h");
+                context.writer().print("teavm_gc_markThreadCount()");
+                break;
+
+            case "markInParallel":
+                context.includes().includePath("gcmark.h");
+                context.writer().print("teavm_gc_markInParallel(");
+                context.emit(invocation.getArguments().get(0));
+                context.writer().print(", ");
+                context.emit(invocation.getArguments().get(1));
+                context.writer().print(")");
+                break;
+
             default:
                 context.includes().includePath("heaptrace.h");
                 context.writer().print("teavm_gc_").print(invocation.getMethod().getName());
@@ -393,6 +393,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         var renderer = new Renderer(rememberingWriter, asyncMethods, renderingContext, controller.getDiagnostics(),
                 methodGenerators, astCache, controller.getCacheStatus(), templateFactory);
         renderer.setProperties(controller.getProperties());
+        renderer.setParallelism(controller.getParallelism());
         renderer.setProgressConsumer(controller::reportProgress);
 
         for (var listener : rendererListeners) {
@@ -27,6 +27,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.IntFunction;
 import org.teavm.ast.AsyncMethodNode;
 import org.teavm.ast.ControlFlowEntry;
@@ -89,6 +91,8 @@ public class Renderer implements RenderingManager {
     private JavaScriptTemplateFactory templateFactory;
     private boolean threadLibraryUsed;
     private AstDependencyExtractor dependencyExtractor = new AstDependencyExtractor();
+    private int parallelism = 1;
+    private Map<MethodReference, ForkJoinTask<AstCacheEntry>> pendingDecompilations = new HashMap<>();
     public static final MethodDescriptor CLINIT_METHOD = new MethodDescriptor("<clinit>", ValueType.VOID);
 
     public Renderer(SourceWriter writer, Set<MethodReference> asyncMethods, RenderingContext context,
@@ -138,6 +142,14 @@ public class Renderer implements RenderingManager {
         this.progressConsumer = progressConsumer;
     }
 
+    /**
+     * Sets the number of threads used to decompile methods. Methods are still rendered one by one in class
+     * order, so the output does not depend on this value.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     public void setProperties(Properties properties) {
         this.properties.clear();
         this.properties.putAll(properties);
@@ -215,21 +227,55 @@ public class Renderer implements RenderingManager {
         splitMethods.addAll(asyncFinder.getAsyncFamilyMethods());
 
         var decompiler = new Decompiler(classes, splitMethods, isFriendlyToDebugger);
+        var pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        var workerDecompilers = ThreadLocal.withInitial(() -> new Decompiler(classes, splitMethods,
+                isFriendlyToDebugger));
+        var lookahead = parallelism * 4;
 
-        int index = 0;
-        for (var cls : sequence) {
-            writer.markClassStart(cls.getName());
-            renderDeclaration(cls);
-            renderMethodBodies(cls, decompiler);
-            writer.markClassEnd();
-            if (progressConsumer.apply(1000 * ++index / sequence.size()) == TeaVMProgressFeedback.CANCEL) {
-                return false;
+        try {
+            int index = 0;
+            int scheduled = 0;
+            for (var cls : sequence) {
+                if (pool != null) {
+                    while (scheduled < sequence.size() && scheduled <= index + lookahead) {
+                        scheduleDecompilation(pool, workerDecompilers, sequence.get(scheduled++));
+                    }
+                }
+                writer.markClassStart(cls.getName());
+                renderDeclaration(cls);
+                renderMethodBodies(cls, decompiler);
+                writer.markClassEnd();
+                if (progressConsumer.apply(1000 * ++index / sequence.size()) == TeaVMProgressFeedback.CANCEL) {
+                    return false;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+                pendingDecompilations.clear();
             }
         }
         renderClassMetadata(sequence);
         return true;
     }
 
+    private void scheduleDecompilation(ForkJoinPool pool, ThreadLocal<Decompiler> decompilers, ClassHolder cls) {
+        for (var method : cls.getMethods()) {
+            if (method.hasModifier(ElementModifier.NATIVE) || !filterMethod(method)) {
+                continue;
+            }
+            var reference = method.getReference();
+            if (asyncMethods.contains(reference)) {
+                continue;
+            }
+            if (astCache != null && !cacheStatus.isStaleMethod(reference)) {
+                continue;
+            }
+            pendingDecompilations.put(reference, pool.submit(() -> decompileRegularCacheMiss(
+                    decompilers.get(), method)));
+        }
+    }
+
     private void orderClasses(ClassHolderSource classes, String className, Set<String> visited,
             List<ClassHolder> order) {
         if (!visited.add(className)) {
@@ -897,6 +943,14 @@ public class Renderer implements RenderingManager {
     }
 
     private AstCacheEntry decompileRegular(Decompiler decompiler, MethodHolder method) {
+        var pending = pendingDecompilations.remove(method.getReference());
+        if (pending != null) {
+            var entry = pending.join();
+            if (astCache != null) {
+                astCache.store(method.getReference(), entry, () -> dependencyExtractor.extract(entry.method));
+            }
+            return entry;
+        }
         if (astCache == null) {
             return decompileRegularCacheMiss(decompiler, method);
         }
@@ -230,6 +230,15 @@ public final class WasmRuntime {
     @Unmanaged
     private static int hashCode(RuntimeString string) {
         int hashCode = 0;
+        if (string.characters == null) {
+            int length = string.latin1.length;
+            Address bytes = Address.ofData(string.latin1);
+            for (int i = 0; i < length; ++i) {
+                hashCode = 31 * hashCode + (bytes.getByte() & 0xFF);
+                bytes = bytes.add(1);
+            }
+            return hashCode;
+        }
         int length = string.characters.length;
         Address chars = Address.ofData(string.characters);
         for (int i = 0; i < length; ++i) {
@@ -241,6 +250,9 @@ public final class WasmRuntime {
 
     @Unmanaged
     private static boolean equals(RuntimeString first, RuntimeString second) {
+        if (first.characters == null || second.characters == null) {
+            return equalsMixed(first, second);
+        }
         if (first.characters.length != second.characters.length) {
             return false;
         }
@@ -344,10 +356,38 @@ public final class WasmRuntime {
         return null;
     }
 
+    @Unmanaged
+    private static boolean equalsMixed(RuntimeString first, RuntimeString second) {
+        int length = length(first);
+        if (length != length(second)) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (charAt(first, i) != charAt(second, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Unmanaged
+    private static int length(RuntimeString string) {
+        return string.characters != null ? string.characters.length : string.latin1.length;
+    }
+
+    @Unmanaged
+    private static char charAt(RuntimeString string, int index) {
+        if (string.characters != null) {
+            return Address.ofData(string.characters).add(index * 2).getChar();
+        }
+        return (char) (Address.ofData(string.latin1).add(index).getByte() & 0xFF);
+    }
+
     @Unmanaged
     public static native void callFunctionFromTable(int index, RuntimeObject instance);
 
     static class RuntimeString extends RuntimeObject {
         char[] characters;
+        byte[] latin1;
     }
 }
@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
@@ -82,11 +83,13 @@ import org.teavm.backend.wasm.intrinsics.WasmIntrinsicFactory;
 import org.teavm.backend.wasm.intrinsics.WasmIntrinsicFactoryContext;
 import org.teavm.backend.wasm.intrinsics.WasmIntrinsicManager;
 import org.teavm.backend.wasm.intrinsics.WasmRuntimeIntrinsic;
+import org.teavm.backend.wasm.intrinsics.WasmSimdIntrinsic;
 import org.teavm.backend.wasm.model.WasmCustomSection;
 import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmLocal;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmBranch;
@@ -106,6 +109,10 @@ import org.teavm.backend.wasm.model.expression.WasmReturn;
 import org.teavm.backend.wasm.model.expression.WasmSetLocal;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+import org.teavm.backend.wasm.optimization.ConstantFolding;
+import org.teavm.backend.wasm.optimization.ControlFlowSimplification;
+import org.teavm.backend.wasm.optimization.MemoryOffsetFolding;
+import org.teavm.backend.wasm.optimization.RedundantLocalElimination;
 import org.teavm.backend.wasm.optimization.UnusedFunctionElimination;
 import org.teavm.backend.wasm.render.ReportingWasmBinaryStatsCollector;
 import org.teavm.backend.wasm.render.WasmBinaryRenderer;
@@ -119,6 +126,7 @@ import org.teavm.backend.wasm.transformation.IndirectCallTraceTransformation;
 import org.teavm.backend.wasm.transformation.MemoryAccessTraceTransformation;
 import org.teavm.backend.wasm.transformation.WasiFileSystemProviderTransformer;
 import org.teavm.backend.wasm.transformation.WasiSupportClassTransformer;
+import org.teavm.backend.wasm.transformation.WasmModuleSplitter;
 import org.teavm.common.ServiceRepository;
 import org.teavm.dependency.DependencyAnalyzer;
 import org.teavm.dependency.DependencyListener;
@@ -177,6 +185,7 @@ import org.teavm.runtime.RuntimeObject;
 import org.teavm.runtime.ShadowStack;
 import org.teavm.vm.BuildTarget;
 import org.teavm.vm.TeaVMEntryPoint;
+import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMTarget;
 import org.teavm.vm.TeaVMTargetController;
 import org.teavm.vm.spi.TeaVMHostExtension;
@@ -206,6 +215,9 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
     private int minHeapSize = 2 * 1024 * 1024;
     private int maxHeapSize = 128 * 1024 * 1024;
     private boolean obfuscated;
+    private boolean nativeExceptions;
+    private boolean simd;
+    private Set<String> splitPoints = new LinkedHashSet<>();
     private Set<MethodReference> asyncMethods;
     private boolean hasThreads;
     private WasmRuntimeType runtimeType = WasmRuntimeType.TEAVM;
@@ -307,6 +319,47 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         this.obfuscated = obfuscated;
     }
 
+    public boolean isNativeExceptions() {
+        return nativeExceptions;
+    }
+
+    /**
+     * Makes generated code throw and catch Java exceptions using instructions of the Wasm
+     * exception handling proposal, instead of checking the shadow stack after every call
+     * that can throw. Requires runtime support for exception handling.
+     */
+    public void setNativeExceptions(boolean nativeExceptions) {
+        this.nativeExceptions = nativeExceptions;
+    }
+
+    public boolean isSimd() {
+        return simd;
+    }
+
+    /**
+     * Makes the class library use 128-bit vector instructions of the Wasm SIMD proposal in loops
+     * over primitive arrays and strings. Requires runtime support for SIMD.
+     */
+    public void setSimd(boolean simd) {
+        this.simd = simd;
+    }
+
+    public Set<String> getSplitPoints() {
+        return splitPoints;
+    }
+
+    /**
+     * Makes code that is only reachable from the given classes go to separate modules, one per class,
+     * which are named {@code <output>.<n>.wasm}, where {@code n} is the position of the class in the
+     * given collection, starting from 1. {@code wasm-runtime.js} fetches them in background after the
+     * main module starts. Splitting applies only to the TeaVM runtime type and is not performed
+     * in debug builds or with native exceptions.
+     */
+    public void setSplitPoints(Collection<String> splitPoints) {
+        this.splitPoints.clear();
+        this.splitPoints.addAll(splitPoints);
+    }
+
     public void setRuntimeType(WasmRuntimeType runtimeType) {
         this.runtimeType = runtimeType;
     }
@@ -501,11 +554,17 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         var classGenerator = new WasmClassGenerator(classes, controller.getUnprocessedClassSource(),
                 vtableProvider, tagRegistry, binaryWriter, names, metadataRequirements,
                 controller.getClassInitializerInfo(), characteristics, dwarfClassGen, statsCollector);
+        classGenerator.getStringPool().setCompactStrings(isCompactStrings());
 
         Decompiler decompiler = new Decompiler(classes, new HashSet<>(), false);
         var stringPool = classGenerator.getStringPool();
         var context = new WasmGenerationContext(classes, module, controller.getDiagnostics(),
                 vtableProvider, tagRegistry, stringPool, names, characteristics);
+        if (nativeExceptions) {
+            var exceptionTag = new WasmTag();
+            module.add(exceptionTag);
+            context.setExceptionTag(exceptionTag);
+        }
 
         context.addIntrinsic(new AddressIntrinsic(classGenerator));
         context.addIntrinsic(new StructureIntrinsic(classes, classGenerator));
@@ -526,6 +585,9 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         context.addIntrinsic(new IntegerIntrinsic());
         context.addIntrinsic(new ObjectIntrinsic());
         context.addIntrinsic(new ConsoleIntrinsic());
+        if (simd) {
+            context.addIntrinsic(new WasmSimdIntrinsic());
+        }
         context.addGenerator(new ArrayGenerator());
         boolean vmAssertions = Boolean.parseBoolean(System.getProperty("teavm.wasm.vmAssertions", "false"));
         if (!vmAssertions) {
@@ -545,14 +607,14 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         context.addIntrinsic(mutatorIntrinsic);
         context.addIntrinsic(new ShadowStackIntrinsic());
         var exceptionHandlingIntrinsic = new ExceptionHandlingIntrinsic(binaryWriter,
-                classGenerator, stringPool, obfuscated);
+                classGenerator, stringPool, obfuscated, context.getExceptionTag());
         context.addIntrinsic(exceptionHandlingIntrinsic);
 
         var generator = new WasmGenerator(decompiler, classes, context, classGenerator, binaryWriter,
                 asyncMethods::contains);
 
         generateMethods(classes, context, generator, classGenerator, binaryWriter, module, dwarfClassGen);
-        new WasmInteropFunctionGenerator(classGenerator).generateFunctions(module);
+        new WasmInteropFunctionGenerator(classGenerator, isCompactStrings()).generateFunctions(module);
         exceptionHandlingIntrinsic.postProcess(context.callSites);
         generateIsSupertypeFunctions(tagRegistry, module, classGenerator);
         classGenerator.postProcess();
@@ -587,22 +649,32 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
 
         new UnusedFunctionElimination(module).apply();
 
-        if (Boolean.parseBoolean(System.getProperty("wasm.memoryTrace", "false"))) {
+        boolean memoryTrace = Boolean.parseBoolean(System.getProperty("wasm.memoryTrace", "false"));
+        if (controller.getOptimizationLevel() != TeaVMOptimizationLevel.SIMPLE) {
+            optimize(module, !memoryTrace);
+        }
+
+        if (memoryTrace) {
             new MemoryAccessTraceTransformation(module).apply();
         }
         if (Boolean.parseBoolean(System.getProperty("wasm.indirectCallTrace", "false"))) {
             new IndirectCallTraceTransformation(module).apply();
         }
 
-        writeBinaryWasm(buildTarget, outputName, module, classGenerator, dwarfGenerator, dwarfClassGen,
-                statsCollector);
-
         if (wastEmitted) {
             emitWast(module, buildTarget, getBaseName(outputName) + ".wast");
         }
         if (cEmitted) {
             emitC(module, buildTarget, getBaseName(outputName) + ".wasm.c");
         }
+
+        var secondaryModules = split(module);
+        writeBinaryWasm(buildTarget, outputName, module, classGenerator, dwarfGenerator, dwarfClassGen,
+                statsCollector);
+        for (var i = 0; i < secondaryModules.size(); ++i) {
+            writeSecondaryBinaryWasm(buildTarget, getBaseName(outputName) + "." + (i + 1) + ".wasm",
+                    secondaryModules.get(i), statsCollector);
+        }
         if (this.statsCollector != null) {
             writeStats(buildTarget, outputName);
         }
@@ -612,6 +684,29 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         }
     }
     
+    private void optimize(WasmModule module, boolean foldMemoryOffsets) {
+        if (!debugging) {
+            new RedundantLocalElimination(module).apply();
+        }
+        new ConstantFolding(module).apply();
+        if (foldMemoryOffsets) {
+            // Memory trace reports index operand, so it would see different addresses with folded offsets
+            new MemoryOffsetFolding(module).apply();
+        }
+        new ControlFlowSimplification(module).apply();
+    }
+
+    private List<WasmModule> split(WasmModule module) {
+        if (splitPoints.isEmpty() || debugging || nativeExceptions || runtimeType != WasmRuntimeType.TEAVM) {
+            return Collections.emptyList();
+        }
+        return new WasmModuleSplitter(module, controller.getDependencyInfo().getCallGraph(), splitPoints).split();
+    }
+
+    private boolean isCompactStrings() {
+        return Boolean.parseBoolean(controller.getProperties().getProperty("teavm.compactStrings", "false"));
+    }
+
     private void prepareStats() {
         var statsProp = controller.getProperties().getProperty("teavm.wasm.stats");
         var stats = Boolean.parseBoolean(statsProp);
@@ -642,10 +737,24 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
                 debugBuilder != null ? debugBuilder.variables() : null,
                 statsCollector
         );
+        renderer.setParallelism(controller.getParallelism());
         renderer.render(module, buildDebug(dwarfGenerator, dwarfClassGen, debugBuilder));
 
         try (var output = buildTarget.createResource(outputName)) {
-            output.write(writer.getData());
+            writer.writeTo(output);
+            output.flush();
+        }
+    }
+
+    private void writeSecondaryBinaryWasm(BuildTarget buildTarget, String outputName, WasmModule module,
+            WasmBinaryStatsCollector statsCollector) throws IOException {
+        var writer = new WasmBinaryWriter();
+        var renderer = new WasmBinaryRenderer(writer, version, obfuscated, null, null, null, null, statsCollector);
+        renderer.setParallelism(controller.getParallelism());
+        renderer.render(module);
+
+        try (var output = buildTarget.createResource(outputName)) {
+            writer.writeTo(output);
             output.flush();
         }
     }
@@ -69,6 +69,11 @@ public class ControlFlowParser implements CodeSectionListener, CodeListener, Add
         return startBlock(false);
     }
 
+    @Override
+    public int startTry(WasmType type) {
+        return startBlock(false);
+    }
+
     private int startBlock(boolean loop) {
         var token = blocks.size();
         var branch = !loop ? newPendingBranch(false) : null;
@@ -93,6 +98,16 @@ public class ControlFlowParser implements CodeSectionListener, CodeListener, Add
         block.branch.targets.add(address);
     }
 
+    @Override
+    public void startCatch(int token, int tagIndex) {
+        startElseSection(token);
+    }
+
+    @Override
+    public void startCatchAll(int token) {
+        startElseSection(token);
+    }
+
     @Override
     public void endBlock(int token, boolean loop) {
         var block = blocks.remove(blocks.size() - 1);
@@ -130,6 +145,11 @@ public class ControlFlowParser implements CodeSectionListener, CodeListener, Add
         }
     }
 
+    @Override
+    public void throwException(int tagIndex) {
+        newBranch(false);
+    }
+
     @Override
     public void branch(BranchOpcode opcode, int depth, int target) {
         var branch = newBranch(false);
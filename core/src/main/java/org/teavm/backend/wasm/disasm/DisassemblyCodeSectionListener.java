@@ -29,6 +29,9 @@ import org.teavm.backend.wasm.model.expression.WasmInt64Subtype;
 import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
 import org.teavm.backend.wasm.model.expression.WasmIntType;
 import org.teavm.backend.wasm.model.expression.WasmIntUnaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorShape;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnaryOperation;
 import org.teavm.backend.wasm.parser.AddressListener;
 import org.teavm.backend.wasm.parser.BranchOpcode;
 import org.teavm.backend.wasm.parser.CodeListener;
@@ -37,6 +40,7 @@ import org.teavm.backend.wasm.parser.CodeSectionParser;
 import org.teavm.backend.wasm.parser.LocalOpcode;
 import org.teavm.backend.wasm.parser.ModuleParser;
 import org.teavm.backend.wasm.parser.Opcode;
+import org.teavm.backend.wasm.render.WasmVectorNames;
 import org.teavm.common.ByteArrayAsyncInputStream;
 
 public class DisassemblyCodeSectionListener implements AddressListener, CodeSectionListener, CodeListener {
@@ -112,6 +116,8 @@ public class DisassemblyCodeSectionListener implements AddressListener, CodeSect
                     return "f32";
                 case FLOAT64:
                     return "f64";
+                case V128:
+                    return "v128";
                 default:
                     break;
             }
@@ -156,6 +162,32 @@ public class DisassemblyCodeSectionListener implements AddressListener, CodeSect
         writer.address(address).outdent().write("end  (; $label_" + token + " ;)").eol();
     }
 
+    @Override
+    public int startTry(WasmType type) {
+        writer.address(address);
+        var label = blockIdGen++;
+        writer.write("try $label_" + label).write(blockTypeToString(type)).indent().eol();
+        return label;
+    }
+
+    @Override
+    public void startCatch(int token, int tagIndex) {
+        writer.address(address);
+        writer.outdent().write("catch " + tagIndex + "  (; $label_" + token + " ;)").indent().eol();
+    }
+
+    @Override
+    public void startCatchAll(int token) {
+        writer.address(address);
+        writer.outdent().write("catch_all  (; $label_" + token + " ;)").indent().eol();
+    }
+
+    @Override
+    public void throwException(int tagIndex) {
+        writer.address(address);
+        writer.write("throw " + tagIndex).eol();
+    }
+
     @Override
     public void branch(BranchOpcode opcode, int depth, int target) {
         writer.address(address);
@@ -392,6 +424,40 @@ public class DisassemblyCodeSectionListener implements AddressListener, CodeSect
         writer.address(address).write("memory.copy").eol();
     }
 
+    @Override
+    public void loadVector(int align, int offset) {
+        writer.address(address).write("v128.load");
+        writeMemArg(align, 16, offset);
+        writer.eol();
+    }
+
+    @Override
+    public void storeVector(int align, int offset) {
+        writer.address(address).write("v128.store");
+        writeMemArg(align, 16, offset);
+        writer.eol();
+    }
+
+    @Override
+    public void vectorSplat(WasmVectorShape shape) {
+        writer.address(address).write(WasmVectorNames.splat(shape)).eol();
+    }
+
+    @Override
+    public void vectorBinary(WasmVectorBinaryOperation opcode, WasmVectorShape shape) {
+        writer.address(address).write(WasmVectorNames.binary(opcode, shape)).eol();
+    }
+
+    @Override
+    public void vectorUnary(WasmVectorUnaryOperation opcode, WasmVectorShape shape) {
+        writer.address(address).write(WasmVectorNames.unary(opcode, shape)).eol();
+    }
+
+    @Override
+    public void vectorExtractLane(WasmVectorShape shape, int lane, boolean signed) {
+        writer.address(address).write(WasmVectorNames.extractLane(shape, signed) + " " + lane).eol();
+    }
+
     private void writeMemArg(int align, int defaultAlign, int offset) {
         var needsComma = false;
         if (align != defaultAlign) {
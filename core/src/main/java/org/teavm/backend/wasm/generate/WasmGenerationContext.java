@@ -24,6 +24,7 @@ import org.teavm.backend.wasm.generators.WasmMethodGenerator;
 import org.teavm.backend.wasm.intrinsics.WasmIntrinsic;
 import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.diagnostics.Diagnostics;
 import org.teavm.interop.Import;
 import org.teavm.model.AnnotationReader;
@@ -47,6 +48,7 @@ public class WasmGenerationContext {
     private VirtualTableProvider vtableProvider;
     private TagRegistry tagRegistry;
     private WasmStringPool stringPool;
+    private WasmTag exceptionTag;
     public final NameProvider names;
     public final Characteristics characteristics;
     private Map<MethodReference, ImportedMethod> importedMethods = new HashMap<>();
@@ -162,6 +164,14 @@ public class WasmGenerationContext {
         return diagnostics;
     }
 
+    public WasmTag getExceptionTag() {
+        return exceptionTag;
+    }
+
+    public void setExceptionTag(WasmTag exceptionTag) {
+        this.exceptionTag = exceptionTag;
+    }
+
     public static class ImportedMethod {
         public final String name;
         public final String module;
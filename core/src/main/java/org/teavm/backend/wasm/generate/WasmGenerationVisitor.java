@@ -79,6 +79,7 @@ import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmBranch;
 import org.teavm.backend.wasm.model.expression.WasmBreak;
 import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCatch;
 import org.teavm.backend.wasm.model.expression.WasmConditional;
 import org.teavm.backend.wasm.model.expression.WasmConversion;
 import org.teavm.backend.wasm.model.expression.WasmDrop;
@@ -111,6 +112,8 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
 import org.teavm.backend.wasm.render.WasmTypeInference;
 import org.teavm.diagnostics.Diagnostics;
@@ -526,14 +529,10 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
         var call = new WasmCall(context.names.forMethod(THROW_NPE_METHOD));
         block.getBody().add(call);
 
-        var target = throwJumpTarget();
-        var breakExpr = new WasmBreak(target);
-        if (target != rethrowBlock) {
-            breakExpr.setResult(generateGetHandlerId(callSiteId, location));
-            block.getBody().add(new WasmDrop(breakExpr));
-        } else {
-            block.getBody().add(breakExpr);
-        }
+        var jump = generateThrowJump(callSiteId, location);
+        block.getBody().add(jump instanceof WasmBreak && ((WasmBreak) jump).getResult() != null
+                ? new WasmDrop(jump)
+                : jump);
 
         cachedValue.release();
         return block;
@@ -1032,7 +1031,25 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
         }
 
         var callSiteId = generateCallSiteId(expr.getLocation());
-        if (needsCallSiteId() && isManagedMethodCall(context.characteristics, expr.getMethod())) {
+        if (needsCallSiteId() && isManagedMethodCall(context.characteristics, expr.getMethod())
+                && context.getExceptionTag() != null) {
+            var invocation = generateInvocation(expr, callSiteId);
+            if (!expr.getArguments().isEmpty()) {
+                return trivialInvocation(invocation, resultConsumer, expr.getLocation(), willDrop);
+            }
+            var registerCallSite = generateRegisterCallSite(callSiteId, expr.getLocation());
+            if (resultConsumer != null) {
+                resultConsumer.add(registerCallSite);
+                return trivialInvocation(invocation, resultConsumer, expr.getLocation(), willDrop);
+            }
+            var block = new WasmBlock(false);
+            block.setType(WasmGeneratorUtil.mapType(expr.getMethod().getReturnType()));
+            block.setLocation(expr.getLocation());
+            block.getBody().add(registerCallSite);
+            block.getBody().add(invocation);
+            result = block;
+            return block;
+        } else if (needsCallSiteId() && isManagedMethodCall(context.characteristics, expr.getMethod())) {
             var invocation = generateInvocation(expr, callSiteId);
             var type = WasmGeneratorUtil.mapType(expr.getMethod().getReturnType());
 
@@ -1115,6 +1132,9 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
     }
 
     private void checkHandlerId(List<WasmExpression> target, int callSiteId, TextLocation location) {
+        if (context.getExceptionTag() != null) {
+            return;
+        }
         var jumpTarget = throwJumpTarget();
         if (jumpTarget == rethrowBlock) {
             var handlerId = generateGetHandlerId(callSiteId, location);
@@ -1139,6 +1159,18 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
         return lastTryBlock != null ? lastTryBlock : rethrowBlock();
     }
 
+    private WasmExpression generateThrowJump(int callSiteId, TextLocation location) {
+        if (context.getExceptionTag() != null) {
+            return new WasmUnreachable();
+        }
+        var target = throwJumpTarget();
+        var breakExpr = new WasmBreak(target);
+        if (target != rethrowBlock) {
+            breakExpr.setResult(generateGetHandlerId(callSiteId, location));
+        }
+        return breakExpr;
+    }
+
     private WasmExpression generateInvocation(InvocationExpr expr, int callSiteId) {
         if (expr.getType() == InvocationType.STATIC || expr.getType() == InvocationType.SPECIAL) {
             MethodReader method = context.getClassSource().resolve(expr.getMethod());
@@ -1674,13 +1706,9 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
         call.setLocation(statement.getLocation());
         resultConsumer.add(call);
 
-        var target = throwJumpTarget();
-        var breakExpr = new WasmBreak(target);
-        breakExpr.setLocation(statement.getLocation());
-        if (target != rethrowBlock) {
-            breakExpr.setResult(generateGetHandlerId(callSiteId, statement.getLocation()));
-        }
-        resultConsumer.add(breakExpr);
+        var jump = generateThrowJump(callSiteId, statement.getLocation());
+        jump.setLocation(statement.getLocation());
+        resultConsumer.add(jump);
     }
 
     @Override
@@ -1723,12 +1751,7 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
         var call = new WasmCall(context.names.forMethod(THROW_CCE_METHOD));
         block.getBody().add(call);
 
-        var target = throwJumpTarget();
-        var breakExpr = new WasmBreak(target);
-        if (target != rethrowBlock) {
-            breakExpr.setResult(generateGetHandlerId(callSiteId, expr.getLocation()));
-        }
-        block.getBody().add(breakExpr);
+        block.getBody().add(generateThrowJump(callSiteId, expr.getLocation()));
 
         valueToCast.release();
         result = block;
@@ -1777,8 +1800,9 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
         var bodyBlock = new WasmBlock(false);
         bodyBlock.setType(WasmType.INT32);
 
+        var nativeExceptions = context.getExceptionTag() != null;
         var isTopMostTryCatch = lastTryBlock == null;
-        if (isTopMostTryCatch) {
+        if (isTopMostTryCatch && !nativeExceptions) {
             catchLabels.add(rethrowBlock());
         }
 
@@ -1802,14 +1826,24 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
             bodyBlock.getBody().add(new WasmBreak(outerCatchBlock));
         }
         var currentBlock = innerCatchBlock;
-        var handlerIdExpr = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SUB,
-                bodyBlock, new WasmInt32Constant(1));
+        WasmExpression handlerIdExpr;
+        if (nativeExceptions) {
+            handlerIdExpr = bodyBlock;
+            if (stackVariable != null) {
+                var tryExpr = generateNativeTry(bodyBlock.getBody());
+                bodyBlock.getBody().clear();
+                bodyBlock.getBody().add(tryExpr);
+            }
+        } else {
+            handlerIdExpr = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SUB,
+                    bodyBlock, new WasmInt32Constant(1));
+        }
         var switchExpr = new WasmSwitch(handlerIdExpr, outerCatchBlock);
         switchExpr.getTargets().addAll(catchLabels);
         innerCatchBlock.getBody().add(switchExpr);
 
         catchLabels.subList(catchLabels.size() - tryCatchStatements.size(), catchLabels.size()).clear();
-        if (isTopMostTryCatch) {
+        if (isTopMostTryCatch && !nativeExceptions) {
             catchLabels.remove(catchLabels.size() - 1);
             assert catchLabels.isEmpty();
         }
@@ -1834,6 +1868,43 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
         resultConsumer.add(outerCatchBlock);
     }
 
+    /*
+     * ExceptionHandling.jumpToFrame sets the shadow stack top to the frame that handles the exception
+     * and puts id of the handler into call site slot of this frame. Frames that catch the Wasm exception,
+     * but don't handle the Java exception, throw it further.
+     */
+    private WasmTry generateNativeTry(List<WasmExpression> protectedBody) {
+        var tag = context.getExceptionTag();
+        var tryExpr = new WasmTry();
+        tryExpr.setType(WasmType.INT32);
+        tryExpr.getBody().addAll(protectedBody);
+
+        var catchClause = new WasmCatch(tag);
+        tryExpr.getCatches().add(catchClause);
+
+        var stackOffset = classGenerator.getFieldOffset(new FieldReference(WasmHeap.class.getName(), "stack"));
+        var frameVar = tempVars.acquire(WasmType.INT32);
+        var frame = new WasmLoadInt32(4, new WasmInt32Constant(stackOffset), WasmInt32Subtype.INT32);
+        catchClause.getBody().add(new WasmSetLocal(frameVar, frame));
+
+        WasmExpression frameSize = new WasmLoadInt32(4, new WasmGetLocal(frameVar), WasmInt32Subtype.INT32);
+        frameSize = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SHL, frameSize,
+                new WasmInt32Constant(2));
+        WasmExpression handlerPtr = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SUB,
+                new WasmGetLocal(frameVar), frameSize);
+        handlerPtr = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SUB, handlerPtr,
+                new WasmInt32Constant(4));
+        var isOtherFrame = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.NE, handlerPtr,
+                new WasmGetLocal(stackVariable));
+        var rethrow = new WasmConditional(isOtherFrame);
+        rethrow.getThenBlock().getBody().add(new WasmThrow(tag));
+        catchClause.getBody().add(rethrow);
+        tempVars.release(frameVar);
+
+        catchClause.getBody().add(new WasmLoadInt32(4, new WasmGetLocal(stackVariable), WasmInt32Subtype.INT32));
+        return tryExpr;
+    }
+
     private WasmBlock rethrowBlock() {
         if (rethrowBlock == null) {
             rethrowBlock = new WasmBlock(false);
@@ -1924,11 +1995,7 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
         var callSiteId = generateCallSiteId(expr.getLocation());
         block.getBody().add(generateRegisterCallSite(callSiteId, expr.getLocation()));
         block.getBody().add(new WasmCall(context.names.forMethod(THROW_AIOOBE_METHOD)));
-        var br = new WasmBreak(throwJumpTarget());
-        if (br.getTarget() != rethrowBlock) {
-            br.setResult(generateGetHandlerId(callSiteId, expr.getLocation()));
-        }
-        block.getBody().add(br);
+        block.getBody().add(generateThrowJump(callSiteId, expr.getLocation()));
 
         result = block;
     }
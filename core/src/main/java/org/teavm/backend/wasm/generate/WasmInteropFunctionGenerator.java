@@ -39,14 +39,19 @@ import org.teavm.runtime.RuntimeClass;
 
 public class WasmInteropFunctionGenerator {
     private WasmClassGenerator classGenerator;
+    private boolean compactStrings;
 
-    public WasmInteropFunctionGenerator(WasmClassGenerator classGenerator) {
+    public WasmInteropFunctionGenerator(WasmClassGenerator classGenerator, boolean compactStrings) {
         this.classGenerator = classGenerator;
+        this.compactStrings = compactStrings;
     }
 
     public void generateFunctions(WasmModule module) {
         module.add(allocateString());
-        module.add(stringData());
+        module.add(stringData("teavm_stringData", "characters"));
+        if (compactStrings) {
+            module.add(stringData("teavm_stringLatin1Data", "latin1"));
+        }
 
         module.add(allocateArray("teavm_allocateObjectArray", ValueType.parse(Object.class)));
         module.add(allocateArray("teavm_allocateStringArray", ValueType.parse(String.class)));
@@ -110,8 +115,8 @@ public class WasmInteropFunctionGenerator {
         return function;
     }
 
-    private WasmFunction stringData() {
-        WasmFunction function = new WasmFunction("teavm_stringData");
+    private WasmFunction stringData(String name, String fieldName) {
+        WasmFunction function = new WasmFunction(name);
         function.setExportName(function.getName());
         function.setResult(WasmType.INT32);
         function.getParameters().add(WasmType.INT32);
@@ -119,7 +124,7 @@ public class WasmInteropFunctionGenerator {
         WasmLocal stringLocal = new WasmLocal(WasmType.INT32, "string");
         function.add(stringLocal);
 
-        int offset = classGenerator.getFieldOffset(new FieldReference("java.lang.String", "characters"));
+        int offset = classGenerator.getFieldOffset(new FieldReference("java.lang.String", fieldName));
         WasmExpression chars = new WasmLoadInt32(4, new WasmGetLocal(stringLocal), WasmInt32Subtype.INT32, offset);
 
         function.getBody().add(new WasmReturn(chars));
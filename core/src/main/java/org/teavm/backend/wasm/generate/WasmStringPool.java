@@ -39,7 +39,15 @@ public class WasmStringPool {
             DataPrimitives.ADDRESS, /* monitor */
             DataPrimitives.ADDRESS, /* characters */
             DataPrimitives.INT /* hash code */);
+    private DataStructure latin1StringType = new DataStructure((byte) 0,
+            DataPrimitives.INT, /* class pointer */
+            DataPrimitives.ADDRESS, /* monitor */
+            DataPrimitives.ADDRESS, /* characters */
+            DataPrimitives.ADDRESS, /* latin1 */
+            DataPrimitives.BYTE, /* coder */
+            DataPrimitives.INT /* hash code */);
     private WasmBinaryStatsCollector statsCollector;
+    private boolean compactStrings;
 
     public WasmStringPool(WasmClassGenerator classGenerator, BinaryWriter binaryWriter,
             WasmBinaryStatsCollector statsCollector) {
@@ -48,6 +56,10 @@ public class WasmStringPool {
         this.statsCollector = statsCollector;
     }
 
+    public void setCompactStrings(boolean compactStrings) {
+        this.compactStrings = compactStrings;
+    }
+
     public int getStringPointer(String value) {
         Integer pointer = stringMap.get(value);
         if (pointer == null) {
@@ -58,6 +70,10 @@ public class WasmStringPool {
     }
 
     private int generateStringPointer(String value) {
+        if (compactStrings && isLatin1(value)) {
+            return generateLatin1StringPointer(value);
+        }
+
         var start = binaryWriter.getAddress();
 
         DataArray charactersType = new DataArray(DataPrimitives.SHORT, value.length());
@@ -84,4 +100,42 @@ public class WasmStringPool {
 
         return stringPointer;
     }
+
+    private int generateLatin1StringPointer(String value) {
+        var start = binaryWriter.getAddress();
+
+        DataArray bytesType = new DataArray(DataPrimitives.BYTE, value.length());
+        DataStructure wrapperType = new DataStructure((byte) 0, arrayHeaderType, bytesType);
+        DataValue wrapper = wrapperType.createValue();
+        DataValue header = wrapper.getValue(0);
+        DataValue bytes = wrapper.getValue(1);
+
+        int classPointer = classGenerator.getClassPointer(ValueType.arrayOf(ValueType.BYTE));
+        header.setInt(0, (classPointer >>> 3) | RuntimeObject.GC_MARKED);
+        header.setInt(2, value.length());
+        for (int i = 0; i < value.length(); ++i) {
+            bytes.setByte(i, (byte) value.charAt(i));
+        }
+
+        DataValue stringObject = latin1StringType.createValue();
+        int stringPointer = binaryWriter.append(stringObject);
+        classPointer = classGenerator.getClassPointer(ValueType.object(String.class.getName()));
+        stringObject.setInt(0, (classPointer >>> 3) | RuntimeObject.GC_MARKED);
+        stringObject.setAddress(3, binaryWriter.append(wrapper));
+        stringObject.setByte(4, (byte) 1);
+
+        var size = binaryWriter.getAddress() - start;
+        statsCollector.addStringsSize(size);
+
+        return stringPointer;
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -23,13 +23,20 @@ import org.teavm.backend.wasm.binary.BinaryWriter;
 import org.teavm.backend.wasm.generate.CallSiteBinaryGenerator;
 import org.teavm.backend.wasm.generate.WasmClassGenerator;
 import org.teavm.backend.wasm.generate.WasmStringPool;
+import org.teavm.backend.wasm.model.WasmTag;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
 import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
 import org.teavm.backend.wasm.model.expression.WasmInt32Subtype;
 import org.teavm.backend.wasm.model.expression.WasmIntBinary;
 import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
 import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
 import org.teavm.model.FieldReference;
 import org.teavm.model.MethodReference;
@@ -40,12 +47,14 @@ import org.teavm.runtime.ExceptionHandling;
 public class ExceptionHandlingIntrinsic implements WasmIntrinsic {
     private CallSiteBinaryGenerator callSiteBinaryGenerator;
     private WasmClassGenerator classGenerator;
+    private WasmTag exceptionTag;
     private List<WasmInt32Constant> constants = new ArrayList<>();
 
     public ExceptionHandlingIntrinsic(BinaryWriter binaryWriter, WasmClassGenerator classGenerator,
-            WasmStringPool stringPool, boolean obfuscated) {
+            WasmStringPool stringPool, boolean obfuscated, WasmTag exceptionTag) {
         callSiteBinaryGenerator = new CallSiteBinaryGenerator(binaryWriter, classGenerator, stringPool, obfuscated);
         this.classGenerator = classGenerator;
+        this.exceptionTag = exceptionTag;
     }
 
     @Override
@@ -88,14 +97,19 @@ public class ExceptionHandlingIntrinsic implements WasmIntrinsic {
             }
 
             case "isJumpSupported":
+                return new WasmInt32Constant(exceptionTag != null ? 1 : 0);
+
             case "isObfuscated":
                 return new WasmInt32Constant(0);
 
             case "jumpToFrame": {
                 var offset = classGenerator.getFieldOffset(new FieldReference(WasmHeap.class.getName(), "stack"));
                 var ptr = new WasmInt32Constant(offset);
-                return new WasmStoreInt32(4, ptr, manager.generate(invocation.getArguments().get(0)),
-                        WasmInt32Subtype.INT32);
+                var frame = manager.generate(invocation.getArguments().get(0));
+                if (exceptionTag == null) {
+                    return new WasmStoreInt32(4, ptr, frame, WasmInt32Subtype.INT32);
+                }
+                return generateNativeJump(ptr, frame, manager.generate(invocation.getArguments().get(1)), manager);
             }
 
             case "abort":
@@ -105,4 +119,25 @@ public class ExceptionHandlingIntrinsic implements WasmIntrinsic {
                 throw new IllegalArgumentException("Unknown method: " + invocation.getMethod());
         }
     }
+
+    private WasmExpression generateNativeJump(WasmExpression stackPtr, WasmExpression frame,
+            WasmExpression handlerId, WasmIntrinsicManager manager) {
+        var block = new WasmBlock(false);
+        var frameVar = manager.getTemporary(WasmType.INT32);
+        block.getBody().add(new WasmSetLocal(frameVar, frame));
+        block.getBody().add(new WasmStoreInt32(4, stackPtr, new WasmGetLocal(frameVar), WasmInt32Subtype.INT32));
+
+        WasmExpression frameSize = new WasmLoadInt32(4, new WasmGetLocal(frameVar), WasmInt32Subtype.INT32);
+        frameSize = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SHL, frameSize,
+                new WasmInt32Constant(2));
+        WasmExpression handlerPtr = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SUB,
+                new WasmGetLocal(frameVar), frameSize);
+        handlerPtr = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SUB, handlerPtr,
+                new WasmInt32Constant(4));
+        block.getBody().add(new WasmStoreInt32(4, handlerPtr, handlerId, WasmInt32Subtype.INT32));
+        manager.releaseTemporary(frameVar);
+
+        block.getBody().add(new WasmThrow(exceptionTag));
+        return block;
+    }
 }
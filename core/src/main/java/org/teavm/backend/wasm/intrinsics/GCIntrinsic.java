@@ -73,6 +73,8 @@ public class GCIntrinsic implements WasmIntrinsic {
             case "resizeHeap":
             case "writeBarrier":
             case "canShrinkHeap":
+            case "markThreadCount":
+            case "markInParallel":
                 return true;
             default:
                 return false;
@@ -137,6 +139,18 @@ public class GCIntrinsic implements WasmIntrinsic {
                 expr.setLocation(invocation.getLocation());
                 return expr;
             }
+            case "markThreadCount": {
+                var expr = new WasmInt32Constant(1);
+                expr.setLocation(invocation.getLocation());
+                return expr;
+            }
+            case "markInParallel": {
+                var block = new WasmBlock(false);
+                block.setType(WasmType.INT32);
+                block.getBody().add(new WasmUnreachable());
+                block.getBody().add(new WasmInt32Constant(0));
+                return block;
+            }
 
             default:
                 throw new IllegalArgumentException(invocation.getMethod().toString());
@@ -0,0 +1,329 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.intrinsics;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.ast.InvocationExpr;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmLoadVector;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmStoreVector;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinary;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorExtractLane;
+import org.teavm.backend.wasm.model.expression.WasmVectorShape;
+import org.teavm.backend.wasm.model.expression.WasmVectorSplat;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnary;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnaryOperation;
+import org.teavm.backend.wasm.runtime.WasmSimdSupport;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ValueType;
+
+/**
+ * Implements {@link WasmSimdSupport} with loops over 128-bit vectors. Every method is expanded inline,
+ * since each of them has only a few call sites in the class library.
+ */
+public class WasmSimdIntrinsic implements WasmIntrinsic {
+    private static final int VECTOR_SIZE = 16;
+    private static final int HASH_FACTOR_1 = 31;
+    private static final int HASH_FACTOR_2 = HASH_FACTOR_1 * 31;
+    private static final int HASH_FACTOR_3 = HASH_FACTOR_2 * 31;
+    private static final int HASH_FACTOR_4 = HASH_FACTOR_3 * 31;
+
+    @Override
+    public boolean isApplicable(MethodReference methodReference) {
+        if (!methodReference.getClassName().equals(WasmSimdSupport.class.getName())) {
+            return false;
+        }
+        switch (methodReference.getName()) {
+            case "equalBytes":
+            case "fill":
+            case "skipChar":
+            case "inflateAscii":
+            case "compressAscii":
+            case "hashInts":
+            case "hashChars":
+            case "hashShorts":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public WasmExpression apply(InvocationExpr invocation, WasmIntrinsicManager manager) {
+        var generator = new Generator(invocation, manager);
+        switch (invocation.getMethod().getName()) {
+            case "equalBytes":
+                generator.equalBytes();
+                break;
+            case "fill":
+                generator.fill(invocation.getMethod().parameterType(2) == ValueType.LONG
+                        ? WasmVectorShape.INT64X2
+                        : WasmVectorShape.INT32X4);
+                break;
+            case "skipChar":
+                generator.skipChar();
+                break;
+            case "inflateAscii":
+                generator.inflateAscii();
+                break;
+            case "compressAscii":
+                generator.compressAscii();
+                break;
+            case "hashInts":
+                generator.hash(2, null);
+                break;
+            case "hashChars":
+                generator.hash(1, WasmVectorUnaryOperation.EXTEND_LOW_UNSIGNED);
+                break;
+            case "hashShorts":
+                generator.hash(1, WasmVectorUnaryOperation.EXTEND_LOW_SIGNED);
+                break;
+            default:
+                throw new IllegalArgumentException(invocation.getMethod().toString());
+        }
+        return generator.complete();
+    }
+
+    static class Generator {
+        private InvocationExpr invocation;
+        private WasmIntrinsicManager manager;
+        private List<WasmLocal> temporaries = new ArrayList<>();
+        private WasmBlock block = new WasmBlock(false);
+        private WasmBlock exit = new WasmBlock(false);
+        private WasmBlock loop = new WasmBlock(true);
+        private WasmLocal index;
+        private WasmLocal limit;
+
+        Generator(InvocationExpr invocation, WasmIntrinsicManager manager) {
+            this.invocation = invocation;
+            this.manager = manager;
+            block.setType(WasmType.INT32);
+            exit.getBody().add(loop);
+        }
+
+        void equalBytes() {
+            var first = argument(0);
+            var second = argument(1);
+            startLoop(argumentValue(2), VECTOR_SIZE);
+            var difference = new WasmVectorBinary(WasmVectorShape.INT8X16, WasmVectorBinaryOperation.XOR,
+                    load(first, index(), 0), load(second, index(), 0));
+            exitIf(new WasmVectorUnary(WasmVectorShape.INT8X16, WasmVectorUnaryOperation.ANY_TRUE, difference));
+            endLoop(VECTOR_SIZE);
+            result(index());
+        }
+
+        void fill(WasmVectorShape shape) {
+            var address = argument(0);
+            var size = argument(1);
+            var pattern = local(WasmType.V128, new WasmVectorSplat(shape, argumentValue(2)));
+            startLoop(get(size), VECTOR_SIZE);
+            loop.getBody().add(new WasmStoreVector(1, add(get(address), index()), get(pattern)));
+            endLoop(VECTOR_SIZE);
+            result(index());
+        }
+
+        void skipChar() {
+            var chars = argument(0);
+            var size = shl(get(argument(1)), 1);
+            var needle = local(WasmType.V128, new WasmVectorSplat(WasmVectorShape.INT16X8, argumentValue(2)));
+            startLoop(size, VECTOR_SIZE);
+            var matches = new WasmVectorBinary(WasmVectorShape.INT16X8, WasmVectorBinaryOperation.EQ,
+                    load(chars, index(), 0), get(needle));
+            exitIf(new WasmVectorUnary(WasmVectorShape.INT8X16, WasmVectorUnaryOperation.ANY_TRUE, matches));
+            endLoop(VECTOR_SIZE);
+            result(new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SHR_UNSIGNED, index(),
+                    new WasmInt32Constant(1)));
+        }
+
+        void inflateAscii() {
+            var bytes = argument(0);
+            var chars = argument(1);
+            var vector = local(WasmType.V128, null);
+            startLoop(argumentValue(2), VECTOR_SIZE);
+            loop.getBody().add(new WasmSetLocal(vector, load(bytes, index(), 0)));
+            exitIf(new WasmVectorUnary(WasmVectorShape.INT8X16, WasmVectorUnaryOperation.BITMASK, get(vector)));
+            var target = add(get(chars), shl(index(), 1));
+            loop.getBody().add(new WasmStoreVector(1, target, new WasmVectorUnary(WasmVectorShape.INT16X8,
+                    WasmVectorUnaryOperation.EXTEND_LOW_UNSIGNED, get(vector))));
+            var highTarget = new WasmStoreVector(1, add(get(chars), shl(index(), 1)),
+                    new WasmVectorUnary(WasmVectorShape.INT16X8, WasmVectorUnaryOperation.EXTEND_HIGH_UNSIGNED,
+                    get(vector)));
+            highTarget.setOffset(VECTOR_SIZE);
+            loop.getBody().add(highTarget);
+            endLoop(VECTOR_SIZE);
+            result(index());
+        }
+
+        void compressAscii() {
+            var chars = argument(0);
+            var bytes = argument(1);
+            var low = local(WasmType.V128, null);
+            var high = local(WasmType.V128, null);
+            var mask = local(WasmType.V128, new WasmVectorSplat(WasmVectorShape.INT16X8,
+                    new WasmInt32Constant(0xFF80)));
+            startLoop(argumentValue(2), VECTOR_SIZE);
+            var source = add(get(chars), shl(index(), 1));
+            loop.getBody().add(new WasmSetLocal(low, new WasmLoadVector(1, source)));
+            loop.getBody().add(new WasmSetLocal(high, new WasmLoadVector(1, add(get(chars), shl(index(), 1)),
+                    VECTOR_SIZE)));
+            var both = new WasmVectorBinary(WasmVectorShape.INT8X16, WasmVectorBinaryOperation.OR, get(low),
+                    get(high));
+            var nonAscii = new WasmVectorBinary(WasmVectorShape.INT8X16, WasmVectorBinaryOperation.AND, both,
+                    get(mask));
+            exitIf(new WasmVectorUnary(WasmVectorShape.INT8X16, WasmVectorUnaryOperation.ANY_TRUE, nonAscii));
+            loop.getBody().add(new WasmStoreVector(1, add(get(bytes), index()), new WasmVectorBinary(
+                    WasmVectorShape.INT8X16, WasmVectorBinaryOperation.NARROW_UNSIGNED, get(low), get(high))));
+            endLoop(VECTOR_SIZE);
+            result(index());
+        }
+
+        /*
+         * Lane j of the accumulator collects elements 4k + j, multiplied by 31^4 on each step, so the hash
+         * of the processed elements is acc[0] * 31^3 + acc[1] * 31^2 + acc[2] * 31 + acc[3],
+         * and the initial hash is multiplied by 31^n.
+         */
+        void hash(int elementSizeLog, WasmVectorUnaryOperation extension) {
+            var data = argument(0);
+            var size = shl(get(argument(1)), elementSizeLog);
+            var hash = argument(2);
+            var accumulator = local(WasmType.V128, new WasmVectorSplat(WasmVectorShape.INT32X4,
+                    new WasmInt32Constant(0)));
+            var factor = local(WasmType.V128, new WasmVectorSplat(WasmVectorShape.INT32X4,
+                    new WasmInt32Constant(HASH_FACTOR_4)));
+            var power = local(WasmType.INT32, new WasmInt32Constant(1));
+            startLoop(size, VECTOR_SIZE);
+            var powerFactor = HASH_FACTOR_4;
+            if (extension == null) {
+                accumulate(accumulator, factor, load(data, index(), 0));
+            } else {
+                var vector = local(WasmType.V128, null);
+                loop.getBody().add(new WasmSetLocal(vector, load(data, index(), 0)));
+                accumulate(accumulator, factor, new WasmVectorUnary(WasmVectorShape.INT32X4, extension,
+                        get(vector)));
+                var highExtension = extension == WasmVectorUnaryOperation.EXTEND_LOW_SIGNED
+                        ? WasmVectorUnaryOperation.EXTEND_HIGH_SIGNED
+                        : WasmVectorUnaryOperation.EXTEND_HIGH_UNSIGNED;
+                accumulate(accumulator, factor, new WasmVectorUnary(WasmVectorShape.INT32X4, highExtension,
+                        get(vector)));
+                powerFactor *= HASH_FACTOR_4;
+            }
+            loop.getBody().add(new WasmSetLocal(power, mul(get(power), new WasmInt32Constant(powerFactor))));
+            endLoop(VECTOR_SIZE);
+
+            WasmExpression result = mul(get(hash), get(power));
+            int[] laneFactors = { HASH_FACTOR_3, HASH_FACTOR_2, HASH_FACTOR_1 };
+            for (int i = 0; i < 4; ++i) {
+                WasmExpression lane = new WasmVectorExtractLane(WasmVectorShape.INT32X4, i, true,
+                        get(accumulator));
+                if (i < laneFactors.length) {
+                    lane = mul(lane, new WasmInt32Constant(laneFactors[i]));
+                }
+                result = add(result, lane);
+            }
+            result(result);
+        }
+
+        private void accumulate(WasmLocal accumulator, WasmLocal factor, WasmExpression value) {
+            var scaled = new WasmVectorBinary(WasmVectorShape.INT32X4, WasmVectorBinaryOperation.MUL,
+                    get(accumulator), get(factor));
+            loop.getBody().add(new WasmSetLocal(accumulator, new WasmVectorBinary(WasmVectorShape.INT32X4,
+                    WasmVectorBinaryOperation.ADD, scaled, value)));
+        }
+
+        private void startLoop(WasmExpression size, int step) {
+            limit = local(WasmType.INT32, size);
+            index = local(WasmType.INT32, new WasmInt32Constant(0));
+            var next = add(index(), new WasmInt32Constant(step));
+            exitIf(new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.GT_SIGNED, next, get(limit)));
+        }
+
+        private void exitIf(WasmExpression condition) {
+            loop.getBody().add(new WasmBranch(condition, exit));
+        }
+
+        private void endLoop(int step) {
+            loop.getBody().add(new WasmSetLocal(index, add(index(), new WasmInt32Constant(step))));
+            loop.getBody().add(new WasmBreak(loop));
+            block.getBody().add(exit);
+        }
+
+        private void result(WasmExpression result) {
+            block.getBody().add(result);
+        }
+
+        WasmExpression complete() {
+            block.setLocation(invocation.getLocation());
+            for (var temporary : temporaries) {
+                manager.releaseTemporary(temporary);
+            }
+            return block;
+        }
+
+        private WasmExpression argumentValue(int index) {
+            return manager.generate(invocation.getArguments().get(index));
+        }
+
+        private WasmLocal argument(int index) {
+            return local(WasmType.INT32, argumentValue(index));
+        }
+
+        private WasmLocal local(WasmType type, WasmExpression initialValue) {
+            var local = manager.getTemporary(type);
+            temporaries.add(local);
+            if (initialValue != null) {
+                block.getBody().add(new WasmSetLocal(local, initialValue));
+            }
+            return local;
+        }
+
+        private WasmExpression index() {
+            return get(index);
+        }
+
+        private static WasmExpression load(WasmLocal base, WasmExpression offset, int constantOffset) {
+            return new WasmLoadVector(1, add(get(base), offset), constantOffset);
+        }
+
+        private static WasmExpression get(WasmLocal local) {
+            return new WasmGetLocal(local);
+        }
+
+        private static WasmExpression add(WasmExpression a, WasmExpression b) {
+            return new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.ADD, a, b);
+        }
+
+        private static WasmExpression mul(WasmExpression a, WasmExpression b) {
+            return new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.MUL, a, b);
+        }
+
+        private static WasmExpression shl(WasmExpression a, int bits) {
+            return new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SHL, a, new WasmInt32Constant(bits));
+        }
+    }
+}
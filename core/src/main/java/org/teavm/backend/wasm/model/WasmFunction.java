@@ -101,6 +101,17 @@ public class WasmFunction {
         localVariables.add(local);
     }
 
+    public void remove(WasmLocal local) {
+        if (local.function != this) {
+            throw new IllegalArgumentException("This local is not registered in this function");
+        }
+        localVariables.remove(local.index);
+        for (int i = local.index; i < localVariables.size(); ++i) {
+            localVariables.get(i).index = i;
+        }
+        local.function = null;
+    }
+
     public MethodReference getJavaMethod() {
         return javaMethod;
     }
@@ -28,6 +28,11 @@ public class WasmModule {
     private Map<String, WasmFunction> functions = new LinkedHashMap<>();
     private Map<String, WasmFunction> readonlyFunctions = Collections.unmodifiableMap(functions);
     private List<WasmFunction> functionTable = new ArrayList<>();
+    private int functionTableOffset;
+    private boolean functionTableExported;
+    private String memoryAndTableImportModule;
+    private List<WasmTag> tags = new ArrayList<>();
+    private List<WasmTag> readonlyTags = Collections.unmodifiableList(tags);
     private WasmFunction startFunction;
     private Map<String, WasmCustomSection> customSections = new LinkedHashMap<>();
     private Map<String, WasmCustomSection> readonlyCustomSections = Collections.unmodifiableMap(customSections);
@@ -55,6 +60,19 @@ public class WasmModule {
         return readonlyFunctions;
     }
 
+    public void add(WasmTag tag) {
+        if (tag.module != null) {
+            throw new IllegalArgumentException("Given tag is already registered in another module");
+        }
+        tag.module = this;
+        tag.index = tags.size();
+        tags.add(tag);
+    }
+
+    public List<WasmTag> getTags() {
+        return readonlyTags;
+    }
+
     public void add(WasmCustomSection customSection) {
         if (customSections.containsKey(customSection.getName())) {
             throw new IllegalArgumentException("Custom section " + customSection.getName()
@@ -83,6 +101,37 @@ public class WasmModule {
         return functionTable;
     }
 
+    public int getFunctionTableOffset() {
+        return functionTableOffset;
+    }
+
+    /**
+     * Sets index of the table slot where the first entry of {@link #getFunctionTable()} is placed.
+     */
+    public void setFunctionTableOffset(int functionTableOffset) {
+        this.functionTableOffset = functionTableOffset;
+    }
+
+    public boolean isFunctionTableExported() {
+        return functionTableExported;
+    }
+
+    public void setFunctionTableExported(boolean functionTableExported) {
+        this.functionTableExported = functionTableExported;
+    }
+
+    public String getMemoryAndTableImportModule() {
+        return memoryAndTableImportModule;
+    }
+
+    /**
+     * Makes this module import memory and function table from the given module instead of defining its own.
+     * Memory is imported as {@code memory} and table as {@code table}.
+     */
+    public void setMemoryAndTableImportModule(String memoryAndTableImportModule) {
+        this.memoryAndTableImportModule = memoryAndTableImportModule;
+    }
+
     public List<WasmMemorySegment> getSegments() {
         return segments;
     }
@@ -0,0 +1,37 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WasmTag {
+    WasmModule module;
+    int index;
+    private List<WasmType> values = new ArrayList<>();
+
+    public WasmModule getModule() {
+        return module;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public List<WasmType> getValues() {
+        return values;
+    }
+}
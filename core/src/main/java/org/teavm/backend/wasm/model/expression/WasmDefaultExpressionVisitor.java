@@ -65,6 +65,25 @@ public class WasmDefaultExpressionVisitor implements WasmExpressionVisitor {
     public void visit(WasmUnreachable expression) {
     }
 
+    @Override
+    public void visit(WasmTry expression) {
+        for (WasmExpression part : expression.getBody()) {
+            part.acceptVisitor(this);
+        }
+        for (WasmCatch catchClause : expression.getCatches()) {
+            for (WasmExpression part : catchClause.getBody()) {
+                part.acceptVisitor(this);
+            }
+        }
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        for (WasmExpression argument : expression.getArguments()) {
+            argument.acceptVisitor(this);
+        }
+    }
+
     @Override
     public void visit(WasmInt32Constant expression) {
     }
@@ -199,4 +218,36 @@ public class WasmDefaultExpressionVisitor implements WasmExpressionVisitor {
         expression.getSourceIndex().acceptVisitor(this);
         expression.getCount().acceptVisitor(this);
     }
+
+    @Override
+    public void visit(WasmLoadVector expression) {
+        expression.getIndex().acceptVisitor(this);
+    }
+
+    @Override
+    public void visit(WasmStoreVector expression) {
+        expression.getIndex().acceptVisitor(this);
+        expression.getValue().acceptVisitor(this);
+    }
+
+    @Override
+    public void visit(WasmVectorSplat expression) {
+        expression.getValue().acceptVisitor(this);
+    }
+
+    @Override
+    public void visit(WasmVectorBinary expression) {
+        expression.getFirst().acceptVisitor(this);
+        expression.getSecond().acceptVisitor(this);
+    }
+
+    @Override
+    public void visit(WasmVectorUnary expression) {
+        expression.getOperand().acceptVisitor(this);
+    }
+
+    @Override
+    public void visit(WasmVectorExtractLane expression) {
+        expression.getOperand().acceptVisitor(this);
+    }
 }
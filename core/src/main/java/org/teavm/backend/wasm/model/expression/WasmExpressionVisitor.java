@@ -30,6 +30,10 @@ public interface WasmExpressionVisitor {
 
     void visit(WasmUnreachable expression);
 
+    void visit(WasmTry expression);
+
+    void visit(WasmThrow expression);
+
     void visit(WasmInt32Constant expression);
 
     void visit(WasmInt64Constant expression);
@@ -79,4 +83,16 @@ public interface WasmExpressionVisitor {
     void visit(WasmFill expression);
 
     void visit(WasmCopy expression);
+
+    void visit(WasmLoadVector expression);
+
+    void visit(WasmStoreVector expression);
+
+    void visit(WasmVectorSplat expression);
+
+    void visit(WasmVectorBinary expression);
+
+    void visit(WasmVectorUnary expression);
+
+    void visit(WasmVectorExtractLane expression);
 }
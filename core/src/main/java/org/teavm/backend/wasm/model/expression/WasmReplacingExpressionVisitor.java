@@ -89,6 +89,19 @@ public class WasmReplacingExpressionVisitor implements WasmExpressionVisitor {
     public void visit(WasmUnreachable expression) {
     }
 
+    @Override
+    public void visit(WasmTry expression) {
+        replaceExpressions(expression.getBody());
+        for (WasmCatch catchClause : expression.getCatches()) {
+            replaceExpressions(catchClause.getBody());
+        }
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        replaceExpressions(expression.getArguments());
+    }
+
     @Override
     public void visit(WasmInt32Constant expression) {
     }
@@ -112,6 +125,7 @@ public class WasmReplacingExpressionVisitor implements WasmExpressionVisitor {
     @Override
     public void visit(WasmSetLocal expression) {
         expression.getValue().acceptVisitor(this);
+        expression.setValue(mapper.apply(expression.getValue()));
     }
 
     @Override
@@ -251,4 +265,44 @@ public class WasmReplacingExpressionVisitor implements WasmExpressionVisitor {
         expression.getCount().acceptVisitor(this);
         expression.setCount(mapper.apply(expression.getCount()));
     }
+
+    @Override
+    public void visit(WasmLoadVector expression) {
+        expression.getIndex().acceptVisitor(this);
+        expression.setIndex(mapper.apply(expression.getIndex()));
+    }
+
+    @Override
+    public void visit(WasmStoreVector expression) {
+        expression.getIndex().acceptVisitor(this);
+        expression.setIndex(mapper.apply(expression.getIndex()));
+        expression.getValue().acceptVisitor(this);
+        expression.setValue(mapper.apply(expression.getValue()));
+    }
+
+    @Override
+    public void visit(WasmVectorSplat expression) {
+        expression.getValue().acceptVisitor(this);
+        expression.setValue(mapper.apply(expression.getValue()));
+    }
+
+    @Override
+    public void visit(WasmVectorBinary expression) {
+        expression.getFirst().acceptVisitor(this);
+        expression.setFirst(mapper.apply(expression.getFirst()));
+        expression.getSecond().acceptVisitor(this);
+        expression.setSecond(mapper.apply(expression.getSecond()));
+    }
+
+    @Override
+    public void visit(WasmVectorUnary expression) {
+        expression.getOperand().acceptVisitor(this);
+        expression.setOperand(mapper.apply(expression.getOperand()));
+    }
+
+    @Override
+    public void visit(WasmVectorExtractLane expression) {
+        expression.getOperand().acceptVisitor(this);
+        expression.setOperand(mapper.apply(expression.getOperand()));
+    }
 }
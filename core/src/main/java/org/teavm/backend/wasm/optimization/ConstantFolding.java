@@ -0,0 +1,370 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmFloat32Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloat64Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloatBinary;
+import org.teavm.backend.wasm.model.expression.WasmFloatBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmFloatType;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmIntUnary;
+import org.teavm.backend.wasm.model.expression.WasmIntUnaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmReplacingExpressionVisitor;
+
+/**
+ * Evaluates binary operations on constants, drops operations with neutral constant operands,
+ * turns comparisons with zero into {@code eqz} and replaces conditionals on constants with the branch
+ * that is actually taken. Operations that trap (like division by zero) are left as is.
+ */
+public class ConstantFolding {
+    private WasmModule module;
+
+    public ConstantFolding(WasmModule module) {
+        this.module = module;
+    }
+
+    public void apply() {
+        var visitor = new WasmReplacingExpressionVisitor(this::fold);
+        for (WasmFunction function : module.getFunctions().values()) {
+            visitor.replace(function);
+        }
+    }
+
+    private WasmExpression fold(WasmExpression expression) {
+        WasmExpression result = null;
+        if (expression instanceof WasmIntBinary) {
+            result = foldInt((WasmIntBinary) expression);
+        } else if (expression instanceof WasmFloatBinary) {
+            result = foldFloat((WasmFloatBinary) expression);
+        } else if (expression instanceof WasmConditional) {
+            result = foldConditional((WasmConditional) expression);
+        }
+        if (result == null) {
+            return expression;
+        }
+        if (result.getLocation() == null) {
+            result.setLocation(expression.getLocation());
+        }
+        return result;
+    }
+
+    private WasmExpression foldInt(WasmIntBinary expression) {
+        var first = expression.getFirst();
+        var second = expression.getSecond();
+        var operation = expression.getOperation();
+        if (expression.getType() == WasmIntType.INT32) {
+            if (first instanceof WasmInt32Constant && second instanceof WasmInt32Constant) {
+                return evaluate(operation, ((WasmInt32Constant) first).getValue(),
+                        ((WasmInt32Constant) second).getValue());
+            }
+            if (second instanceof WasmInt32Constant) {
+                int value = ((WasmInt32Constant) second).getValue();
+                if (isRightNeutral(operation, value)) {
+                    return first;
+                }
+                if (operation == WasmIntBinaryOperation.EQ && value == 0) {
+                    return new WasmIntUnary(WasmIntType.INT32, WasmIntUnaryOperation.EQZ, first);
+                }
+            }
+            if (first instanceof WasmInt32Constant) {
+                int value = ((WasmInt32Constant) first).getValue();
+                if (isLeftNeutral(operation, value)) {
+                    return second;
+                }
+                if (operation == WasmIntBinaryOperation.EQ && value == 0) {
+                    return new WasmIntUnary(WasmIntType.INT32, WasmIntUnaryOperation.EQZ, second);
+                }
+            }
+        } else {
+            if (first instanceof WasmInt64Constant && second instanceof WasmInt64Constant) {
+                return evaluate(operation, ((WasmInt64Constant) first).getValue(),
+                        ((WasmInt64Constant) second).getValue());
+            }
+            if (second instanceof WasmInt64Constant) {
+                long value = ((WasmInt64Constant) second).getValue();
+                if (isRightNeutral(operation, value)) {
+                    return first;
+                }
+                if (operation == WasmIntBinaryOperation.EQ && value == 0) {
+                    return new WasmIntUnary(WasmIntType.INT64, WasmIntUnaryOperation.EQZ, first);
+                }
+            }
+            if (first instanceof WasmInt64Constant) {
+                long value = ((WasmInt64Constant) first).getValue();
+                if (isLeftNeutral(operation, value)) {
+                    return second;
+                }
+                if (operation == WasmIntBinaryOperation.EQ && value == 0) {
+                    return new WasmIntUnary(WasmIntType.INT64, WasmIntUnaryOperation.EQZ, second);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isRightNeutral(WasmIntBinaryOperation operation, long value) {
+        switch (operation) {
+            case ADD:
+            case SUB:
+            case OR:
+            case XOR:
+            case SHL:
+            case SHR_SIGNED:
+            case SHR_UNSIGNED:
+            case ROTL:
+            case ROTR:
+                return value == 0;
+            case MUL:
+            case DIV_SIGNED:
+            case DIV_UNSIGNED:
+                return value == 1;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isLeftNeutral(WasmIntBinaryOperation operation, long value) {
+        switch (operation) {
+            case ADD:
+            case OR:
+            case XOR:
+                return value == 0;
+            case MUL:
+                return value == 1;
+            default:
+                return false;
+        }
+    }
+
+    private static WasmExpression evaluate(WasmIntBinaryOperation operation, int a, int b) {
+        switch (operation) {
+            case ADD:
+                return new WasmInt32Constant(a + b);
+            case SUB:
+                return new WasmInt32Constant(a - b);
+            case MUL:
+                return new WasmInt32Constant(a * b);
+            case DIV_SIGNED:
+                return b != 0 && (a != Integer.MIN_VALUE || b != -1) ? new WasmInt32Constant(a / b) : null;
+            case DIV_UNSIGNED:
+                return b != 0 ? new WasmInt32Constant(Integer.divideUnsigned(a, b)) : null;
+            case REM_SIGNED:
+                return b != 0 ? new WasmInt32Constant(a % b) : null;
+            case REM_UNSIGNED:
+                return b != 0 ? new WasmInt32Constant(Integer.remainderUnsigned(a, b)) : null;
+            case OR:
+                return new WasmInt32Constant(a | b);
+            case AND:
+                return new WasmInt32Constant(a & b);
+            case XOR:
+                return new WasmInt32Constant(a ^ b);
+            case SHL:
+                return new WasmInt32Constant(a << b);
+            case SHR_SIGNED:
+                return new WasmInt32Constant(a >> b);
+            case SHR_UNSIGNED:
+                return new WasmInt32Constant(a >>> b);
+            case ROTL:
+                return new WasmInt32Constant(Integer.rotateLeft(a, b));
+            case ROTR:
+                return new WasmInt32Constant(Integer.rotateRight(a, b));
+            case EQ:
+                return bool(a == b);
+            case NE:
+                return bool(a != b);
+            case LT_SIGNED:
+                return bool(a < b);
+            case LT_UNSIGNED:
+                return bool(Integer.compareUnsigned(a, b) < 0);
+            case LE_SIGNED:
+                return bool(a <= b);
+            case LE_UNSIGNED:
+                return bool(Integer.compareUnsigned(a, b) <= 0);
+            case GT_SIGNED:
+                return bool(a > b);
+            case GT_UNSIGNED:
+                return bool(Integer.compareUnsigned(a, b) > 0);
+            case GE_SIGNED:
+                return bool(a >= b);
+            case GE_UNSIGNED:
+                return bool(Integer.compareUnsigned(a, b) >= 0);
+            default:
+                return null;
+        }
+    }
+
+    private static WasmExpression evaluate(WasmIntBinaryOperation operation, long a, long b) {
+        switch (operation) {
+            case ADD:
+                return new WasmInt64Constant(a + b);
+            case SUB:
+                return new WasmInt64Constant(a - b);
+            case MUL:
+                return new WasmInt64Constant(a * b);
+            case DIV_SIGNED:
+                return b != 0 && (a != Long.MIN_VALUE || b != -1) ? new WasmInt64Constant(a / b) : null;
+            case DIV_UNSIGNED:
+                return b != 0 ? new WasmInt64Constant(Long.divideUnsigned(a, b)) : null;
+            case REM_SIGNED:
+                return b != 0 ? new WasmInt64Constant(a % b) : null;
+            case REM_UNSIGNED:
+                return b != 0 ? new WasmInt64Constant(Long.remainderUnsigned(a, b)) : null;
+            case OR:
+                return new WasmInt64Constant(a | b);
+            case AND:
+                return new WasmInt64Constant(a & b);
+            case XOR:
+                return new WasmInt64Constant(a ^ b);
+            case SHL:
+                return new WasmInt64Constant(a << b);
+            case SHR_SIGNED:
+                return new WasmInt64Constant(a >> b);
+            case SHR_UNSIGNED:
+                return new WasmInt64Constant(a >>> b);
+            case ROTL:
+                return new WasmInt64Constant(Long.rotateLeft(a, (int) b));
+            case ROTR:
+                return new WasmInt64Constant(Long.rotateRight(a, (int) b));
+            case EQ:
+                return bool(a == b);
+            case NE:
+                return bool(a != b);
+            case LT_SIGNED:
+                return bool(a < b);
+            case LT_UNSIGNED:
+                return bool(Long.compareUnsigned(a, b) < 0);
+            case LE_SIGNED:
+                return bool(a <= b);
+            case LE_UNSIGNED:
+                return bool(Long.compareUnsigned(a, b) <= 0);
+            case GT_SIGNED:
+                return bool(a > b);
+            case GT_UNSIGNED:
+                return bool(Long.compareUnsigned(a, b) > 0);
+            case GE_SIGNED:
+                return bool(a >= b);
+            case GE_UNSIGNED:
+                return bool(Long.compareUnsigned(a, b) >= 0);
+            default:
+                return null;
+        }
+    }
+
+    private WasmExpression foldFloat(WasmFloatBinary expression) {
+        var first = expression.getFirst();
+        var second = expression.getSecond();
+        var operation = expression.getOperation();
+        if (expression.getType() == WasmFloatType.FLOAT32) {
+            if (first instanceof WasmFloat32Constant && second instanceof WasmFloat32Constant) {
+                return evaluate(operation, ((WasmFloat32Constant) first).getValue(),
+                        ((WasmFloat32Constant) second).getValue());
+            }
+        } else {
+            if (first instanceof WasmFloat64Constant && second instanceof WasmFloat64Constant) {
+                return evaluate(operation, ((WasmFloat64Constant) first).getValue(),
+                        ((WasmFloat64Constant) second).getValue());
+            }
+        }
+        return null;
+    }
+
+    private static WasmExpression evaluate(WasmFloatBinaryOperation operation, float a, float b) {
+        switch (operation) {
+            case ADD:
+                return new WasmFloat32Constant(a + b);
+            case SUB:
+                return new WasmFloat32Constant(a - b);
+            case MUL:
+                return new WasmFloat32Constant(a * b);
+            case DIV:
+                return new WasmFloat32Constant(a / b);
+            case MIN:
+                return new WasmFloat32Constant(Math.min(a, b));
+            case MAX:
+                return new WasmFloat32Constant(Math.max(a, b));
+            case EQ:
+                return bool(a == b);
+            case NE:
+                return bool(a != b);
+            case LT:
+                return bool(a < b);
+            case LE:
+                return bool(a <= b);
+            case GT:
+                return bool(a > b);
+            case GE:
+                return bool(a >= b);
+            default:
+                return null;
+        }
+    }
+
+    private static WasmExpression evaluate(WasmFloatBinaryOperation operation, double a, double b) {
+        switch (operation) {
+            case ADD:
+                return new WasmFloat64Constant(a + b);
+            case SUB:
+                return new WasmFloat64Constant(a - b);
+            case MUL:
+                return new WasmFloat64Constant(a * b);
+            case DIV:
+                return new WasmFloat64Constant(a / b);
+            case MIN:
+                return new WasmFloat64Constant(Math.min(a, b));
+            case MAX:
+                return new WasmFloat64Constant(Math.max(a, b));
+            case EQ:
+                return bool(a == b);
+            case NE:
+                return bool(a != b);
+            case LT:
+                return bool(a < b);
+            case LE:
+                return bool(a <= b);
+            case GT:
+                return bool(a > b);
+            case GE:
+                return bool(a >= b);
+            default:
+                return null;
+        }
+    }
+
+    private static WasmExpression bool(boolean value) {
+        return new WasmInt32Constant(value ? 1 : 0);
+    }
+
+    private WasmExpression foldConditional(WasmConditional expression) {
+        if (!(expression.getCondition() instanceof WasmInt32Constant)) {
+            return null;
+        }
+        WasmBlock block = ((WasmInt32Constant) expression.getCondition()).getValue() != 0
+                ? expression.getThenBlock()
+                : expression.getElseBlock();
+        block.setType(expression.getType());
+        return block;
+    }
+}
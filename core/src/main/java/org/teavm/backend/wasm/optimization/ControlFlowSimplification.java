@@ -0,0 +1,207 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmCatch;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmReplacingExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+
+/**
+ * <p>Simplifies structured control flow of functions:</p>
+ *
+ * <ul>
+ *   <li>removes code that follows unconditional transfer of control, like {@code return},
+ *     {@code unreachable} or {@code br};</li>
+ *   <li>removes {@code br} to the enclosing block when it is the last instruction of the block;</li>
+ *   <li>merges blocks that are not targets of any branch into the enclosing instruction sequence
+ *     and replaces such blocks by their only instruction.</li>
+ * </ul>
+ *
+ * <p>Unlike {@link WasmExpression#isTerminating()}, this pass takes into account that a block
+ * is left when a branch targets it, so it can be used to decide what code is dead.</p>
+ */
+public class ControlFlowSimplification {
+    private static final int MAX_ITERATIONS = 4;
+    private WasmModule module;
+    private Set<WasmBlock> targets = new HashSet<>();
+    private boolean changed;
+    private WasmReplacingExpressionVisitor unwrapper = new WasmReplacingExpressionVisitor(this::unwrap);
+
+    public ControlFlowSimplification(WasmModule module) {
+        this.module = module;
+    }
+
+    public void apply() {
+        for (WasmFunction function : module.getFunctions().values()) {
+            for (int i = 0; i < MAX_ITERATIONS; ++i) {
+                targets.clear();
+                for (WasmExpression part : function.getBody()) {
+                    part.acceptVisitor(targetCollector);
+                }
+                changed = false;
+                for (WasmExpression part : function.getBody()) {
+                    part.acceptVisitor(simplifier);
+                }
+                simplify(function.getBody(), null);
+                unwrapper.replace(function);
+                if (!changed) {
+                    break;
+                }
+            }
+        }
+        targets.clear();
+    }
+
+    private void simplify(List<WasmExpression> expressions, WasmBlock owner) {
+        for (int i = 0; i < expressions.size(); ++i) {
+            var part = expressions.get(i);
+            if (part instanceof WasmBlock) {
+                var block = (WasmBlock) part;
+                boolean last = i == expressions.size() - 1;
+                if (!targets.contains(block) && (block.getType() == null || last)) {
+                    expressions.remove(i);
+                    expressions.addAll(i, block.getBody());
+                    changed = true;
+                    --i;
+                    continue;
+                }
+            }
+            if (isTerminating(part) && i + 1 < expressions.size()) {
+                expressions.subList(i + 1, expressions.size()).clear();
+                changed = true;
+            }
+        }
+
+        if (owner != null && !owner.isLoop() && !expressions.isEmpty()) {
+            var last = expressions.get(expressions.size() - 1);
+            if (last instanceof WasmBreak && ((WasmBreak) last).getTarget() == owner) {
+                var result = ((WasmBreak) last).getResult();
+                if (result != null) {
+                    expressions.set(expressions.size() - 1, result);
+                } else {
+                    expressions.remove(expressions.size() - 1);
+                }
+                changed = true;
+            }
+        }
+    }
+
+    private WasmExpression unwrap(WasmExpression expression) {
+        if (expression instanceof WasmBlock) {
+            var block = (WasmBlock) expression;
+            if (block.getBody().size() == 1 && !targets.contains(block)) {
+                changed = true;
+                return block.getBody().get(0);
+            }
+        }
+        return expression;
+    }
+
+    private boolean isTerminating(WasmExpression expression) {
+        if (expression instanceof WasmReturn || expression instanceof WasmUnreachable
+                || expression instanceof WasmBreak || expression instanceof WasmSwitch
+                || expression instanceof WasmThrow) {
+            return true;
+        }
+        if (expression instanceof WasmBlock) {
+            var block = (WasmBlock) expression;
+            return (block.isLoop() || !targets.contains(block)) && isTerminating(block.getBody());
+        }
+        if (expression instanceof WasmConditional) {
+            var conditional = (WasmConditional) expression;
+            return !targets.contains(conditional.getThenBlock()) && !targets.contains(conditional.getElseBlock())
+                    && isTerminating(conditional.getThenBlock().getBody())
+                    && isTerminating(conditional.getElseBlock().getBody());
+        }
+        if (expression instanceof WasmTry) {
+            var tryExpr = (WasmTry) expression;
+            if (!isTerminating(tryExpr.getBody())) {
+                return false;
+            }
+            for (WasmCatch catchClause : tryExpr.getCatches()) {
+                if (!isTerminating(catchClause.getBody())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isTerminating(List<WasmExpression> expressions) {
+        return !expressions.isEmpty() && isTerminating(expressions.get(expressions.size() - 1));
+    }
+
+    private WasmDefaultExpressionVisitor targetCollector = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBranch expression) {
+            super.visit(expression);
+            targets.add(expression.getTarget());
+        }
+
+        @Override
+        public void visit(WasmBreak expression) {
+            super.visit(expression);
+            targets.add(expression.getTarget());
+        }
+
+        @Override
+        public void visit(WasmSwitch expression) {
+            super.visit(expression);
+            targets.addAll(expression.getTargets());
+            targets.add(expression.getDefaultTarget());
+        }
+    };
+
+    private WasmDefaultExpressionVisitor simplifier = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBlock expression) {
+            super.visit(expression);
+            simplify(expression.getBody(), expression);
+        }
+
+        @Override
+        public void visit(WasmConditional expression) {
+            super.visit(expression);
+            simplify(expression.getThenBlock().getBody(), expression.getThenBlock());
+            simplify(expression.getElseBlock().getBody(), expression.getElseBlock());
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            super.visit(expression);
+            simplify(expression.getBody(), null);
+            for (WasmCatch catchClause : expression.getCatches()) {
+                simplify(catchClause.getBody(), null);
+            }
+        }
+    };
+}
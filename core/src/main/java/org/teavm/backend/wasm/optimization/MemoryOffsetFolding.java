@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmLoadFloat32;
+import org.teavm.backend.wasm.model.expression.WasmLoadFloat64;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt64;
+import org.teavm.backend.wasm.model.expression.WasmLoadVector;
+import org.teavm.backend.wasm.model.expression.WasmMemoryAccess;
+import org.teavm.backend.wasm.model.expression.WasmStoreFloat32;
+import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
+import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
+import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
+import org.teavm.backend.wasm.model.expression.WasmStoreVector;
+
+/**
+ * Moves constant terms of address computations, like {@code (i32.load (i32.add (x) (i32.const 8)))},
+ * into the offset immediate of memory instructions. Unlike {@code i32.add}, effective address computation
+ * does not wrap around, so this relies on addresses produced by TeaVM never overflowing, and only
+ * non-negative constants are moved.
+ */
+public class MemoryOffsetFolding {
+    private WasmModule module;
+
+    public MemoryOffsetFolding(WasmModule module) {
+        this.module = module;
+    }
+
+    public void apply() {
+        for (WasmFunction function : module.getFunctions().values()) {
+            for (WasmExpression part : function.getBody()) {
+                part.acceptVisitor(visitor);
+            }
+        }
+    }
+
+    private static void fold(WasmMemoryAccess access) {
+        while (foldStep(access)) {
+            // continue while there are constant terms left
+        }
+    }
+
+    private static boolean foldStep(WasmMemoryAccess access) {
+        var index = asAddition(access.getIndex());
+        if (index == null) {
+            return false;
+        }
+        var constant = constantTerm(index);
+        if (constant != null) {
+            var base = index.getFirst() == constant ? index.getSecond() : index.getFirst();
+            return moveToOffset(access, constant.getValue(), base);
+        }
+
+        // (x + c) + y and x + (y + c) are treated as (x + y) + c
+        var nested = asAddition(index.getFirst());
+        constant = nested != null ? constantTerm(nested) : null;
+        if (constant != null && moveToOffset(access, constant.getValue(), index)) {
+            index.setFirst(nested.getFirst() == constant ? nested.getSecond() : nested.getFirst());
+            return true;
+        }
+        nested = asAddition(index.getSecond());
+        constant = nested != null ? constantTerm(nested) : null;
+        if (constant != null && moveToOffset(access, constant.getValue(), index)) {
+            index.setSecond(nested.getFirst() == constant ? nested.getSecond() : nested.getFirst());
+            return true;
+        }
+        return false;
+    }
+
+    private static WasmIntBinary asAddition(WasmExpression expression) {
+        if (!(expression instanceof WasmIntBinary)) {
+            return null;
+        }
+        var binary = (WasmIntBinary) expression;
+        return binary.getType() == WasmIntType.INT32 && binary.getOperation() == WasmIntBinaryOperation.ADD
+                ? binary
+                : null;
+    }
+
+    private static WasmInt32Constant constantTerm(WasmIntBinary addition) {
+        if (addition.getSecond() instanceof WasmInt32Constant) {
+            return (WasmInt32Constant) addition.getSecond();
+        }
+        if (addition.getFirst() instanceof WasmInt32Constant) {
+            return (WasmInt32Constant) addition.getFirst();
+        }
+        return null;
+    }
+
+    private static boolean moveToOffset(WasmMemoryAccess access, int offset, WasmExpression base) {
+        if (offset < 0 || (long) access.getOffset() + offset > Integer.MAX_VALUE) {
+            return false;
+        }
+        access.setOffset(access.getOffset() + offset);
+        access.setIndex(base);
+        return true;
+    }
+
+    private WasmDefaultExpressionVisitor visitor = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmLoadInt32 expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmLoadInt64 expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmLoadFloat32 expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmLoadFloat64 expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreInt32 expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreInt64 expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreFloat32 expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreFloat64 expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmLoadVector expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreVector expression) {
+            super.visit(expression);
+            fold(expression);
+        }
+    };
+}
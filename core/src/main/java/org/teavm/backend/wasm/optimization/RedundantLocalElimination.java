@@ -0,0 +1,275 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.List;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCatch;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmCopy;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmFill;
+import org.teavm.backend.wasm.model.expression.WasmFloat32Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloat64Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloatBinary;
+import org.teavm.backend.wasm.model.expression.WasmFloatUnary;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmIndirectCall;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntUnary;
+import org.teavm.backend.wasm.model.expression.WasmMemoryAccess;
+import org.teavm.backend.wasm.model.expression.WasmMemoryGrow;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+
+/**
+ * <p>Removes local variables that only pass a value from one statement to the next one.
+ * When a local is written once and read once, and the read is the first thing the following statement
+ * evaluates, the written value is moved right into the place of the read.
+ * Writes to locals that are never read are replaced by drops, and locals that are no longer referenced
+ * are removed from the function.</p>
+ *
+ * <p>This pass makes variables disappear from the debugger, so it should not run when debug information
+ * is generated.</p>
+ */
+public class RedundantLocalElimination {
+    private WasmModule module;
+    private int[] getCount;
+    private int[] setCount;
+    private WasmLocal inlinedLocal;
+    private WasmExpression inlinedValue;
+    private boolean inlined;
+
+    public RedundantLocalElimination(WasmModule module) {
+        this.module = module;
+    }
+
+    public void apply() {
+        for (WasmFunction function : module.getFunctions().values()) {
+            if (function.getLocalVariables().isEmpty()) {
+                continue;
+            }
+            countUsages(function);
+            for (WasmExpression part : function.getBody()) {
+                part.acceptVisitor(listVisitor);
+            }
+            optimize(function.getBody());
+
+            countUsages(function);
+            removeUnusedLocals(function);
+        }
+    }
+
+    private void countUsages(WasmFunction function) {
+        getCount = new int[function.getLocalVariables().size()];
+        setCount = new int[function.getLocalVariables().size()];
+        for (WasmExpression part : function.getBody()) {
+            part.acceptVisitor(usageVisitor);
+        }
+    }
+
+    private void removeUnusedLocals(WasmFunction function) {
+        var locals = function.getLocalVariables();
+        for (int i = locals.size() - 1; i >= function.getParameters().size(); --i) {
+            if (getCount[i] == 0 && setCount[i] == 0) {
+                function.remove(locals.get(i));
+            }
+        }
+    }
+
+    private void optimize(List<WasmExpression> expressions) {
+        int i = 0;
+        while (i < expressions.size()) {
+            if (expressions.get(i) instanceof WasmSetLocal) {
+                var set = (WasmSetLocal) expressions.get(i);
+                int index = set.getLocal().getIndex();
+                var value = set.getValue();
+                if (getCount[index] == 0 || isGetOf(value, set.getLocal())) {
+                    if (isPure(value)) {
+                        expressions.remove(i);
+                    } else {
+                        var drop = new WasmDrop(value);
+                        drop.setLocation(set.getLocation());
+                        expressions.set(i++, drop);
+                    }
+                    continue;
+                }
+                if (getCount[index] == 1 && setCount[index] == 1 && i + 1 < expressions.size()
+                        && inline(expressions, i + 1, set.getLocal(), value)) {
+                    expressions.remove(i);
+                    continue;
+                }
+            }
+            ++i;
+        }
+    }
+
+    private static boolean isGetOf(WasmExpression expression, WasmLocal local) {
+        return expression instanceof WasmGetLocal && ((WasmGetLocal) expression).getLocal() == local;
+    }
+
+    private static boolean isPure(WasmExpression expression) {
+        return expression instanceof WasmGetLocal
+                || expression instanceof WasmInt32Constant
+                || expression instanceof WasmInt64Constant
+                || expression instanceof WasmFloat32Constant
+                || expression instanceof WasmFloat64Constant;
+    }
+
+    private boolean inline(List<WasmExpression> expressions, int index, WasmLocal local, WasmExpression value) {
+        inlinedLocal = local;
+        inlinedValue = value;
+        inlined = false;
+        expressions.set(index, replaceFirstEvaluated(expressions.get(index)));
+        inlinedLocal = null;
+        inlinedValue = null;
+        return inlined;
+    }
+
+    private WasmExpression replaceFirstEvaluated(WasmExpression expression) {
+        if (expression instanceof WasmGetLocal) {
+            if (((WasmGetLocal) expression).getLocal() == inlinedLocal) {
+                inlined = true;
+                return inlinedValue;
+            }
+        } else if (expression instanceof WasmIntBinary) {
+            var binary = (WasmIntBinary) expression;
+            binary.setFirst(replaceFirstEvaluated(binary.getFirst()));
+        } else if (expression instanceof WasmFloatBinary) {
+            var binary = (WasmFloatBinary) expression;
+            binary.setFirst(replaceFirstEvaluated(binary.getFirst()));
+        } else if (expression instanceof WasmIntUnary) {
+            var unary = (WasmIntUnary) expression;
+            unary.setOperand(replaceFirstEvaluated(unary.getOperand()));
+        } else if (expression instanceof WasmFloatUnary) {
+            var unary = (WasmFloatUnary) expression;
+            unary.setOperand(replaceFirstEvaluated(unary.getOperand()));
+        } else if (expression instanceof WasmConversion) {
+            var conversion = (WasmConversion) expression;
+            conversion.setOperand(replaceFirstEvaluated(conversion.getOperand()));
+        } else if (expression instanceof WasmDrop) {
+            var drop = (WasmDrop) expression;
+            drop.setOperand(replaceFirstEvaluated(drop.getOperand()));
+        } else if (expression instanceof WasmSetLocal) {
+            var set = (WasmSetLocal) expression;
+            set.setValue(replaceFirstEvaluated(set.getValue()));
+        } else if (expression instanceof WasmMemoryAccess) {
+            var access = (WasmMemoryAccess) expression;
+            access.setIndex(replaceFirstEvaluated(access.getIndex()));
+        } else if (expression instanceof WasmCall) {
+            var arguments = ((WasmCall) expression).getArguments();
+            if (!arguments.isEmpty()) {
+                arguments.set(0, replaceFirstEvaluated(arguments.get(0)));
+            }
+        } else if (expression instanceof WasmIndirectCall) {
+            var call = (WasmIndirectCall) expression;
+            if (!call.getArguments().isEmpty()) {
+                call.getArguments().set(0, replaceFirstEvaluated(call.getArguments().get(0)));
+            } else {
+                call.setSelector(replaceFirstEvaluated(call.getSelector()));
+            }
+        } else if (expression instanceof WasmReturn) {
+            var ret = (WasmReturn) expression;
+            if (ret.getValue() != null) {
+                ret.setValue(replaceFirstEvaluated(ret.getValue()));
+            }
+        } else if (expression instanceof WasmBreak) {
+            var br = (WasmBreak) expression;
+            if (br.getResult() != null) {
+                br.setResult(replaceFirstEvaluated(br.getResult()));
+            }
+        } else if (expression instanceof WasmBranch) {
+            var branch = (WasmBranch) expression;
+            if (branch.getResult() != null) {
+                branch.setResult(replaceFirstEvaluated(branch.getResult()));
+            } else {
+                branch.setCondition(replaceFirstEvaluated(branch.getCondition()));
+            }
+        } else if (expression instanceof WasmSwitch) {
+            var switchExpr = (WasmSwitch) expression;
+            switchExpr.setSelector(replaceFirstEvaluated(switchExpr.getSelector()));
+        } else if (expression instanceof WasmConditional) {
+            var conditional = (WasmConditional) expression;
+            conditional.setCondition(replaceFirstEvaluated(conditional.getCondition()));
+        } else if (expression instanceof WasmMemoryGrow) {
+            var grow = (WasmMemoryGrow) expression;
+            grow.setAmount(replaceFirstEvaluated(grow.getAmount()));
+        } else if (expression instanceof WasmFill) {
+            var fill = (WasmFill) expression;
+            fill.setIndex(replaceFirstEvaluated(fill.getIndex()));
+        } else if (expression instanceof WasmCopy) {
+            var copy = (WasmCopy) expression;
+            copy.setDestinationIndex(replaceFirstEvaluated(copy.getDestinationIndex()));
+        } else if (expression instanceof WasmBlock) {
+            // Loop body may run several times, while the inlined value must be computed once
+            var block = (WasmBlock) expression;
+            if (!block.isLoop() && !block.getBody().isEmpty()) {
+                block.getBody().set(0, replaceFirstEvaluated(block.getBody().get(0)));
+            }
+        }
+        return expression;
+    }
+
+    private WasmDefaultExpressionVisitor usageVisitor = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmGetLocal expression) {
+            getCount[expression.getLocal().getIndex()]++;
+        }
+
+        @Override
+        public void visit(WasmSetLocal expression) {
+            super.visit(expression);
+            setCount[expression.getLocal().getIndex()]++;
+        }
+    };
+
+    private WasmDefaultExpressionVisitor listVisitor = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBlock expression) {
+            super.visit(expression);
+            optimize(expression.getBody());
+        }
+
+        @Override
+        public void visit(WasmConditional expression) {
+            super.visit(expression);
+            optimize(expression.getThenBlock().getBody());
+            optimize(expression.getElseBlock().getBody());
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            super.visit(expression);
+            optimize(expression.getBody());
+            for (WasmCatch catchClause : expression.getCatches()) {
+                optimize(catchClause.getBody());
+            }
+        }
+    };
+}
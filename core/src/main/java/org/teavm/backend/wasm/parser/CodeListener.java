@@ -24,6 +24,9 @@ import org.teavm.backend.wasm.model.expression.WasmInt64Subtype;
 import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
 import org.teavm.backend.wasm.model.expression.WasmIntType;
 import org.teavm.backend.wasm.model.expression.WasmIntUnaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorShape;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnaryOperation;
 
 public interface CodeListener {
     default void error(int depth) {
@@ -43,6 +46,19 @@ public interface CodeListener {
     default void endBlock(int token, boolean loop) {
     }
 
+    default int startTry(WasmType type) {
+        return 0;
+    }
+
+    default void startCatch(int token, int tagIndex) {
+    }
+
+    default void startCatchAll(int token) {
+    }
+
+    default void throwException(int tagIndex) {
+    }
+
     default void branch(BranchOpcode opcode, int depth, int target) {
     }
 
@@ -109,6 +125,24 @@ public interface CodeListener {
     default void memoryCopy() {
     }
 
+    default void loadVector(int align, int offset) {
+    }
+
+    default void storeVector(int align, int offset) {
+    }
+
+    default void vectorSplat(WasmVectorShape shape) {
+    }
+
+    default void vectorBinary(WasmVectorBinaryOperation opcode, WasmVectorShape shape) {
+    }
+
+    default void vectorUnary(WasmVectorUnaryOperation opcode, WasmVectorShape shape) {
+    }
+
+    default void vectorExtractLane(WasmVectorShape shape, int lane, boolean signed) {
+    }
+
     default void int32Constant(int value) {
     }
 
@@ -26,6 +26,9 @@ import org.teavm.backend.wasm.model.expression.WasmInt64Subtype;
 import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
 import org.teavm.backend.wasm.model.expression.WasmIntType;
 import org.teavm.backend.wasm.model.expression.WasmIntUnaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorShape;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnaryOperation;
 
 public class CodeSectionParser {
     private AddressListener addressListener;
@@ -124,6 +127,11 @@ public class CodeSectionParser {
                 return parseBlock(true);
             case 0x04:
                 return parseConditional();
+            case 0x06:
+                return parseTry();
+            case 0x08:
+                codeListener.throwException(readLEB());
+                break;
             case 0x0C:
                 parseBranch(BranchOpcode.BR);
                 break;
@@ -618,6 +626,8 @@ public class CodeSectionParser {
 
             case 0xFC:
                 return parseExtExpr();
+            case 0xFD:
+                return parseVectorExpr();
 
             default:
                 return false;
@@ -647,6 +657,149 @@ public class CodeSectionParser {
         }
     }
 
+    private boolean parseVectorExpr() {
+        var opcode = readLEB();
+        switch (opcode) {
+            case 0x00:
+                codeListener.loadVector(1 << readLEB(), readLEB());
+                return true;
+            case 0x0B:
+                codeListener.storeVector(1 << readLEB(), readLEB());
+                return true;
+            case 0x0F:
+                codeListener.vectorSplat(WasmVectorShape.INT8X16);
+                return true;
+            case 0x10:
+                codeListener.vectorSplat(WasmVectorShape.INT16X8);
+                return true;
+            case 0x11:
+                codeListener.vectorSplat(WasmVectorShape.INT32X4);
+                return true;
+            case 0x12:
+                codeListener.vectorSplat(WasmVectorShape.INT64X2);
+                return true;
+            case 0x15:
+            case 0x16:
+                codeListener.vectorExtractLane(WasmVectorShape.INT8X16, data[ptr++], opcode == 0x15);
+                return true;
+            case 0x18:
+            case 0x19:
+                codeListener.vectorExtractLane(WasmVectorShape.INT16X8, data[ptr++], opcode == 0x18);
+                return true;
+            case 0x1B:
+                codeListener.vectorExtractLane(WasmVectorShape.INT32X4, data[ptr++], true);
+                return true;
+            case 0x1D:
+                codeListener.vectorExtractLane(WasmVectorShape.INT64X2, data[ptr++], true);
+                return true;
+            case 0x4D:
+                codeListener.vectorUnary(WasmVectorUnaryOperation.NOT, WasmVectorShape.INT8X16);
+                return true;
+            case 0x4E:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.AND, WasmVectorShape.INT8X16);
+                return true;
+            case 0x50:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.OR, WasmVectorShape.INT8X16);
+                return true;
+            case 0x51:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.XOR, WasmVectorShape.INT8X16);
+                return true;
+            case 0x53:
+                codeListener.vectorUnary(WasmVectorUnaryOperation.ANY_TRUE, WasmVectorShape.INT8X16);
+                return true;
+            case 0x66:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.NARROW_UNSIGNED, WasmVectorShape.INT8X16);
+                return true;
+            case 0x86:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.NARROW_UNSIGNED, WasmVectorShape.INT16X8);
+                return true;
+            case 0xD6:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.EQ, WasmVectorShape.INT64X2);
+                return true;
+            case 0xD7:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.NE, WasmVectorShape.INT64X2);
+                return true;
+            default:
+                return parseVectorLaneExpr(opcode);
+        }
+    }
+
+    private boolean parseVectorLaneExpr(int opcode) {
+        WasmVectorShape shape;
+        int base;
+        if (opcode >= 0xC0) {
+            shape = WasmVectorShape.INT64X2;
+            base = 0xC0;
+        } else if (opcode >= 0xA0) {
+            shape = WasmVectorShape.INT32X4;
+            base = 0xA0;
+        } else if (opcode >= 0x80) {
+            shape = WasmVectorShape.INT16X8;
+            base = 0x80;
+        } else if (opcode >= 0x60) {
+            shape = WasmVectorShape.INT8X16;
+            base = 0x60;
+        } else if (opcode == 0x23 || opcode == 0x2D || opcode == 0x37) {
+            shape = WasmVectorShape.values()[(opcode - 0x23) / 10];
+            codeListener.vectorBinary(WasmVectorBinaryOperation.EQ, shape);
+            return true;
+        } else if (opcode == 0x24 || opcode == 0x2E || opcode == 0x38) {
+            shape = WasmVectorShape.values()[(opcode - 0x24) / 10];
+            codeListener.vectorBinary(WasmVectorBinaryOperation.NE, shape);
+            return true;
+        } else {
+            return false;
+        }
+
+        // Integer lane-wise instructions of all shapes are laid out with the same offsets
+        switch (opcode - base) {
+            case 0x03:
+                codeListener.vectorUnary(WasmVectorUnaryOperation.ALL_TRUE, shape);
+                return true;
+            case 0x04:
+                codeListener.vectorUnary(WasmVectorUnaryOperation.BITMASK, shape);
+                return true;
+            case 0x07:
+                if (shape == WasmVectorShape.INT8X16) {
+                    return false;
+                }
+                codeListener.vectorUnary(WasmVectorUnaryOperation.EXTEND_LOW_SIGNED, shape);
+                return true;
+            case 0x08:
+                if (shape == WasmVectorShape.INT8X16) {
+                    return false;
+                }
+                codeListener.vectorUnary(WasmVectorUnaryOperation.EXTEND_HIGH_SIGNED, shape);
+                return true;
+            case 0x09:
+                if (shape == WasmVectorShape.INT8X16) {
+                    return false;
+                }
+                codeListener.vectorUnary(WasmVectorUnaryOperation.EXTEND_LOW_UNSIGNED, shape);
+                return true;
+            case 0x0A:
+                if (shape == WasmVectorShape.INT8X16) {
+                    return false;
+                }
+                codeListener.vectorUnary(WasmVectorUnaryOperation.EXTEND_HIGH_UNSIGNED, shape);
+                return true;
+            case 0x0E:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.ADD, shape);
+                return true;
+            case 0x11:
+                codeListener.vectorBinary(WasmVectorBinaryOperation.SUB, shape);
+                return true;
+            case 0x15:
+                if (shape == WasmVectorShape.INT8X16) {
+                    return false;
+                }
+                codeListener.vectorBinary(WasmVectorBinaryOperation.MUL, shape);
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private boolean parseBlock(boolean isLoop) {
         var type = readType();
         var token = codeListener.startBlock(isLoop, type);
@@ -692,6 +845,46 @@ public class CodeSectionParser {
         return true;
     }
 
+    private boolean parseTry() {
+        var type = readType();
+        var token = codeListener.startTry(type);
+        blockStack.add(new Block(token));
+        var hasCatchAll = false;
+        loop: while (true) {
+            switch (data[ptr]) {
+                case 0x0B:
+                    break loop;
+                case 0x07:
+                    if (hasCatchAll) {
+                        return false;
+                    }
+                    reportAddress();
+                    ++ptr;
+                    codeListener.startCatch(token, readLEB());
+                    break;
+                case 0x19:
+                    if (hasCatchAll) {
+                        return false;
+                    }
+                    hasCatchAll = true;
+                    reportAddress();
+                    ++ptr;
+                    codeListener.startCatchAll(token);
+                    break;
+                default:
+                    if (!parseExpr()) {
+                        return false;
+                    }
+                    break;
+            }
+        }
+        blockStack.remove(blockStack.size() - 1);
+        reportAddress();
+        codeListener.endBlock(token, false);
+        ++ptr;
+        return true;
+    }
+
     private void parseBranch(BranchOpcode opcode) {
         var depth = readLEB();
         var target = blockStack.get(blockStack.size() - depth - 1);
@@ -723,6 +916,8 @@ public class CodeSectionParser {
                 return WasmType.FLOAT32;
             case 0x7C:
                 return WasmType.FLOAT64;
+            case 0x7B:
+                return WasmType.V128;
             default:
                 return null;
         }
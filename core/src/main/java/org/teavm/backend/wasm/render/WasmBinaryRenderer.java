@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.teavm.backend.wasm.debug.DebugLines;
@@ -31,6 +33,7 @@ import org.teavm.backend.wasm.model.WasmCustomSection;
 import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 
@@ -46,8 +49,10 @@ public class WasmBinaryRenderer {
     private static final int SECTION_ELEMENT = 9;
     private static final int SECTION_CODE = 10;
     private static final int SECTION_DATA = 11;
+    private static final int SECTION_TAG = 13;
 
     private static final int EXTERNAL_KIND_FUNCTION = 0;
+    private static final int EXTERNAL_KIND_TABLE = 1;
     private static final int EXTERNAL_KIND_MEMORY = 2;
 
     private WasmBinaryWriter output;
@@ -61,6 +66,7 @@ public class WasmBinaryRenderer {
     private DebugLines debugLines;
     private DebugVariables debugVariables;
     private WasmBinaryStatsCollector statsCollector;
+    private int parallelism = 1;
 
     public WasmBinaryRenderer(WasmBinaryWriter output, WasmBinaryVersion version, boolean obfuscated,
             DwarfGenerator dwarfGenerator, DwarfClassGenerator dwarfClassGen, DebugLines debugLines,
@@ -75,6 +81,13 @@ public class WasmBinaryRenderer {
         this.statsCollector = statsCollector;
     }
 
+    /**
+     * Sets number of threads used to encode function bodies. Output does not depend on this value.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     public void render(WasmModule module) {
         render(module, Collections::emptyList);
     }
@@ -92,6 +105,7 @@ public class WasmBinaryRenderer {
         renderFunctions(module);
         renderTable(module);
         renderMemory(module);
+        renderTags(module);
         renderExport(module);
         renderStart(module);
         renderElement(module);
@@ -113,6 +127,9 @@ public class WasmBinaryRenderer {
                 part.acceptVisitor(signatureCollector);
             }
         }
+        for (WasmTag tag : module.getTags()) {
+            registerSignature(WasmSignature.fromTag(tag));
+        }
 
         section.writeLEB(signatures.size());
         for (WasmSignature signature : signatures) {
@@ -129,7 +146,7 @@ public class WasmBinaryRenderer {
             }
         }
 
-        writeSection(SECTION_TYPE, "type", section.getData());
+        writeSection(SECTION_TYPE, "type", section);
     }
 
     private void renderImports(WasmModule module) {
@@ -141,13 +158,14 @@ public class WasmBinaryRenderer {
             functionIndexes.put(function.getName(), functions.size());
             functions.add(function);
         }
-        if (functions.isEmpty()) {
+        var sharedModule = module.getMemoryAndTableImportModule();
+        if (functions.isEmpty() && sharedModule == null) {
             return;
         }
 
         WasmBinaryWriter section = new WasmBinaryWriter();
 
-        section.writeLEB(functions.size());
+        section.writeLEB(functions.size() + (sharedModule != null ? 2 : 0));
         for (WasmFunction function : functions) {
             WasmSignature signature = WasmSignature.fromFunction(function);
             int signatureIndex = signatureIndexes.get(signature);
@@ -164,7 +182,23 @@ public class WasmBinaryRenderer {
             section.writeLEB(signatureIndex);
         }
 
-        writeSection(SECTION_IMPORT, "import", section.getData());
+        if (sharedModule != null) {
+            section.writeAsciiString(sharedModule);
+            section.writeAsciiString("table");
+            section.writeByte(EXTERNAL_KIND_TABLE);
+            section.writeByte(0x70);
+            section.writeByte(0);
+            section.writeLEB(module.getFunctionTableOffset() + module.getFunctionTable().size());
+
+            section.writeAsciiString(sharedModule);
+            section.writeAsciiString("memory");
+            section.writeByte(EXTERNAL_KIND_MEMORY);
+            section.writeByte(1);
+            section.writeLEB(module.getMinMemorySize());
+            section.writeLEB(module.getMaxMemorySize());
+        }
+
+        writeSection(SECTION_IMPORT, "import", section);
     }
 
     private void renderFunctions(WasmModule module) {
@@ -183,11 +217,11 @@ public class WasmBinaryRenderer {
             section.writeLEB(signatureIndexes.get(signature));
         }
 
-        writeSection(SECTION_FUNCTION, "function", section.getData());
+        writeSection(SECTION_FUNCTION, "function", section);
     }
 
     private void renderTable(WasmModule module) {
-        if (module.getFunctionTable().isEmpty()) {
+        if (module.getFunctionTable().isEmpty() || module.getMemoryAndTableImportModule() != null) {
             return;
         }
 
@@ -196,12 +230,17 @@ public class WasmBinaryRenderer {
         section.writeByte(1);
         section.writeByte(0x70);
         section.writeByte(0);
-        section.writeLEB(functionIndexes.size());
+        section.writeLEB(Math.max(functionIndexes.size(),
+                module.getFunctionTableOffset() + module.getFunctionTable().size()));
 
-        writeSection(SECTION_TABLE, "table", section.getData());
+        writeSection(SECTION_TABLE, "table", section);
     }
 
     private void renderMemory(WasmModule module) {
+        if (module.getMemoryAndTableImportModule() != null) {
+            return;
+        }
+
         WasmBinaryWriter section = new WasmBinaryWriter();
 
         section.writeByte(1);
@@ -209,7 +248,22 @@ public class WasmBinaryRenderer {
         section.writeLEB(module.getMinMemorySize());
         section.writeLEB(module.getMaxMemorySize());
 
-        writeSection(SECTION_MEMORY, "memory", section.getData());
+        writeSection(SECTION_MEMORY, "memory", section);
+    }
+
+    private void renderTags(WasmModule module) {
+        if (module.getTags().isEmpty()) {
+            return;
+        }
+
+        WasmBinaryWriter section = new WasmBinaryWriter();
+        section.writeLEB(module.getTags().size());
+        for (WasmTag tag : module.getTags()) {
+            section.writeByte(0);
+            section.writeLEB(signatureIndexes.get(WasmSignature.fromTag(tag)));
+        }
+
+        writeSection(SECTION_TAG, "tag", section);
     }
 
     private void renderExport(WasmModule module) {
@@ -222,7 +276,9 @@ public class WasmBinaryRenderer {
                 .filter(function -> function.getExportName() != null)
                 .collect(Collectors.toList());
 
-        section.writeLEB(functions.size() + 1);
+        var memoryExported = module.getMemoryAndTableImportModule() == null;
+        var tableExported = module.isFunctionTableExported() && !module.getFunctionTable().isEmpty();
+        section.writeLEB(functions.size() + (memoryExported ? 1 : 0) + (tableExported ? 1 : 0));
         for (WasmFunction function : functions) {
             int functionIndex = functionIndexes.get(function.getName());
 
@@ -233,11 +289,19 @@ public class WasmBinaryRenderer {
         }
 
         // We also need to export the memory to make it accessible
-        section.writeAsciiString("memory");
-        section.writeByte(EXTERNAL_KIND_MEMORY);
-        section.writeLEB(0);
+        if (memoryExported) {
+            section.writeAsciiString("memory");
+            section.writeByte(EXTERNAL_KIND_MEMORY);
+            section.writeLEB(0);
+        }
+
+        if (tableExported) {
+            section.writeAsciiString("table");
+            section.writeByte(EXTERNAL_KIND_TABLE);
+            section.writeLEB(0);
+        }
 
-        writeSection(SECTION_EXPORT, "export", section.getData());
+        writeSection(SECTION_EXPORT, "export", section);
     }
 
     private void renderStart(WasmModule module) {
@@ -248,7 +312,7 @@ public class WasmBinaryRenderer {
         WasmBinaryWriter section = new WasmBinaryWriter();
         section.writeLEB(functionIndexes.get(module.getStartFunction().getName()));
 
-        writeSection(SECTION_START, "start", section.getData());
+        writeSection(SECTION_START, "start", section);
     }
 
     private void renderElement(WasmModule module) {
@@ -260,14 +324,14 @@ public class WasmBinaryRenderer {
         section.writeLEB(1);
         section.writeLEB(0);
 
-        renderInitializer(section, 0);
+        renderInitializer(section, module.getFunctionTableOffset());
 
         section.writeLEB(module.getFunctionTable().size());
         for (WasmFunction function : module.getFunctionTable()) {
             section.writeLEB(functionIndexes.get(function.getName()));
         }
 
-        writeSection(SECTION_ELEMENT, "element", section.getData());
+        writeSection(SECTION_ELEMENT, "element", section);
     }
 
     private void renderCode(WasmModule module) {
@@ -276,13 +340,16 @@ public class WasmBinaryRenderer {
         var functions = module.getFunctions().values().stream()
                 .filter(function -> function.getImportName() == null)
                 .collect(Collectors.toList());
+        var bodies = renderFunctions(functions);
 
         section.writeLEB(functions.size());
-        for (var function : functions) {
-            var body = renderFunction(function, section.getPosition() + 4);
+        for (var i = 0; i < functions.size(); ++i) {
+            var function = functions.get(i);
+            var body = bodies.get(i);
             var startPos = section.getPosition();
-            section.writeLEB4(body.length);
-            section.writeBytes(body);
+            section.writeLEB4(body.code.getPosition());
+            placeFunction(function, body, section.getPosition());
+            section.writeBytes(body.code);
             var size = section.getPosition() - startPos;
             if (function.getJavaMethod() != null) {
                 statsCollector.addClassCodeSize(function.getJavaMethod().getClassName(), size);
@@ -293,19 +360,54 @@ public class WasmBinaryRenderer {
             dwarfGenerator.setCodeSize(section.getPosition());
         }
 
-        writeSection(SECTION_CODE, "code", section.getData());
+        writeSection(SECTION_CODE, "code", section);
     }
 
-    private byte[] renderFunction(WasmFunction function, int offset) {
-        var code = new WasmBinaryWriter();
+    private List<RenderedFunction> renderFunctions(List<WasmFunction> functions) {
+        var result = new ArrayList<RenderedFunction>(functions.size());
+        if (parallelism <= 1 || functions.size() < 2) {
+            for (var function : functions) {
+                result.add(renderFunction(function));
+            }
+            return result;
+        }
+
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            var tasks = new ArrayList<ForkJoinTask<RenderedFunction>>(functions.size());
+            for (var function : functions) {
+                tasks.add(pool.submit(() -> renderFunction(function)));
+            }
+            for (var task : tasks) {
+                result.add(task.join());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
 
+    private void placeFunction(WasmFunction function, RenderedFunction body, int offset) {
         var dwarfSubprogram = dwarfClassGen != null ? dwarfClassGen.getSubprogram(function.getName()) : null;
         if (dwarfSubprogram != null) {
             dwarfSubprogram.startOffset = offset - 4;
+            dwarfSubprogram.endOffset = offset + body.code.getPosition();
             dwarfSubprogram.function = function;
         }
-        if (debugLines != null && function.getJavaMethod() != null) {
-            debugLines.start(function.getJavaMethod());
+        if (body.debugEvents != null) {
+            body.debugEvents.replay(offset, dwarfGenerator, debugLines);
+        }
+        if (debugVariables != null) {
+            writeDebugVariables(function, offset, body.code.getPosition());
+        }
+    }
+
+    private RenderedFunction renderFunction(WasmFunction function) {
+        var code = new WasmBinaryWriter();
+        var debugEvents = dwarfGenerator != null || debugLines != null ? new WasmDebugEventRecorder() : null;
+        var functionDebugLines = debugLines != null && function.getJavaMethod() != null ? debugEvents : null;
+        if (functionDebugLines != null) {
+            functionDebugLines.start(function.getJavaMethod());
         }
 
         var localVariables = function.getLocalVariables();
@@ -336,7 +438,7 @@ public class WasmBinaryRenderer {
 
         var importIndexes = this.functionIndexes;
         var visitor = new WasmBinaryRenderingVisitor(code, version, functionIndexes, importIndexes,
-                signatureIndexes, dwarfGenerator, function.getJavaMethod() != null ? debugLines : null, offset);
+                signatureIndexes, dwarfGenerator != null ? debugEvents : null, functionDebugLines);
         for (var part : function.getBody()) {
             part.acceptVisitor(visitor);
         }
@@ -344,14 +446,7 @@ public class WasmBinaryRenderer {
 
         code.writeByte(0x0B);
 
-        if (dwarfSubprogram != null) {
-            dwarfSubprogram.endOffset = code.getPosition() + offset;
-        }
-        if (debugVariables != null) {
-            writeDebugVariables(function, offset, code.getPosition());
-        }
-
-        return code.getData();
+        return new RenderedFunction(code, debugEvents);
     }
 
     private void writeDebugVariables(WasmFunction function, int offset, int size) {
@@ -391,7 +486,7 @@ public class WasmBinaryRenderer {
             }
         }
 
-        writeSection(SECTION_DATA, "data", section.getData());
+        writeSection(SECTION_DATA, "data", section);
     }
 
     private void renderNames(WasmModule module) {
@@ -407,12 +502,11 @@ public class WasmBinaryRenderer {
             functionsSubsection.writeAsciiString(function.getName());
         }
 
-        byte[] payload = functionsSubsection.getData();
         section.writeLEB(1);
-        section.writeLEB(payload.length);
-        section.writeBytes(payload);
+        section.writeLEB(functionsSubsection.getPosition());
+        section.writeBytes(functionsSubsection);
 
-        writeSection(SECTION_UNKNOWN, "name", section.getData());
+        writeSection(SECTION_UNKNOWN, "name", section);
     }
 
     private void renderCustomSections(WasmModule module,
@@ -428,7 +522,17 @@ public class WasmBinaryRenderer {
     }
 
     private void renderCustomSection(WasmCustomSection customSection) {
-        writeSection(SECTION_UNKNOWN, customSection.getName(), customSection.getData());
+        writeSection(SECTION_UNKNOWN, customSection.getName(), WasmBinaryWriter.wrap(customSection.getData()));
+    }
+
+    static class RenderedFunction {
+        final WasmBinaryWriter code;
+        final WasmDebugEventRecorder debugEvents;
+
+        RenderedFunction(WasmBinaryWriter code, WasmDebugEventRecorder debugEvents) {
+            this.code = code;
+            this.debugEvents = debugEvents;
+        }
     }
 
     static class LocalEntry {
@@ -448,10 +552,10 @@ public class WasmBinaryRenderer {
         });
     }
 
-    private void writeSection(int id, String name, byte[] data) {
+    private void writeSection(int id, String name, WasmBinaryWriter data) {
         var start = output.getPosition();
         output.writeByte(id);
-        int length = data.length;
+        int length = data.getPosition();
         if (id == 0) {
             length += name.length() + 1;
         }
@@ -22,12 +22,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import org.teavm.backend.wasm.debug.DebugLines;
-import org.teavm.backend.wasm.generate.DwarfGenerator;
 import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmBranch;
 import org.teavm.backend.wasm.model.expression.WasmBreak;
 import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCatch;
 import org.teavm.backend.wasm.model.expression.WasmConditional;
 import org.teavm.backend.wasm.model.expression.WasmConversion;
 import org.teavm.backend.wasm.model.expression.WasmCopy;
@@ -49,6 +49,7 @@ import org.teavm.backend.wasm.model.expression.WasmLoadFloat32;
 import org.teavm.backend.wasm.model.expression.WasmLoadFloat64;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt64;
+import org.teavm.backend.wasm.model.expression.WasmLoadVector;
 import org.teavm.backend.wasm.model.expression.WasmMemoryGrow;
 import org.teavm.backend.wasm.model.expression.WasmReturn;
 import org.teavm.backend.wasm.model.expression.WasmSetLocal;
@@ -56,8 +57,18 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat32;
 import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
+import org.teavm.backend.wasm.model.expression.WasmStoreVector;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinary;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorExtractLane;
+import org.teavm.backend.wasm.model.expression.WasmVectorShape;
+import org.teavm.backend.wasm.model.expression.WasmVectorSplat;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnary;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnaryOperation;
 import org.teavm.model.MethodReference;
 import org.teavm.model.TextLocation;
 
@@ -67,9 +78,8 @@ class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
     private Map<String, Integer> functionIndexes;
     private Map<String, Integer> importedIndexes;
     private Map<WasmSignature, Integer> signatureIndexes;
-    private DwarfGenerator dwarfGenerator;
+    private WasmDebugEventRecorder dwarfGenerator;
     private DebugLines debugLines;
-    private int addressOffset;
     private int depth;
     private Map<WasmBlock, Integer> blockDepths = new HashMap<>();
     private List<MethodReference> methodStack = new ArrayList<>();
@@ -82,14 +92,13 @@ class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
 
     WasmBinaryRenderingVisitor(WasmBinaryWriter writer, WasmBinaryVersion version, Map<String, Integer> functionIndexes,
             Map<String, Integer> importedIndexes, Map<WasmSignature, Integer> signatureIndexes,
-            DwarfGenerator dwarfGenerator, DebugLines debugLines, int addressOffset) {
+            WasmDebugEventRecorder dwarfGenerator, DebugLines debugLines) {
         this.writer = writer;
         this.version = version;
         this.functionIndexes = functionIndexes;
         this.importedIndexes = importedIndexes;
         this.signatureIndexes = signatureIndexes;
         this.dwarfGenerator = dwarfGenerator;
-        this.addressOffset = addressOffset;
         this.debugLines = debugLines;
     }
 
@@ -206,6 +215,42 @@ class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
         popLocation();
     }
 
+    @Override
+    public void visit(WasmTry expression) {
+        pushLocation(expression);
+        pushLocation(expression);
+        writer.writeByte(0x06);
+        writeBlockType(expression.getType());
+
+        ++depth;
+        for (WasmExpression part : expression.getBody()) {
+            part.acceptVisitor(this);
+        }
+        for (WasmCatch catchClause : expression.getCatches()) {
+            writer.writeByte(0x07);
+            writer.writeLEB(catchClause.getTag().getIndex());
+            for (WasmExpression part : catchClause.getBody()) {
+                part.acceptVisitor(this);
+            }
+        }
+        --depth;
+
+        popLocation();
+        writer.writeByte(0x0B);
+        popLocation();
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        pushLocation(expression);
+        for (WasmExpression argument : expression.getArguments()) {
+            argument.acceptVisitor(this);
+        }
+        writer.writeByte(0x08);
+        writer.writeLEB(expression.getTag().getIndex());
+        popLocation();
+    }
+
     @Override
     public void visit(WasmInt32Constant expression) {
         pushLocation(expression);
@@ -945,6 +990,162 @@ class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
         writer.writeByte(0);
     }
 
+    @Override
+    public void visit(WasmLoadVector expression) {
+        pushLocation(expression);
+        expression.getIndex().acceptVisitor(this);
+        writeVectorOpcode(0x00);
+        writer.writeByte(alignment(expression.getAlignment()));
+        writer.writeLEB(expression.getOffset());
+        popLocation();
+    }
+
+    @Override
+    public void visit(WasmStoreVector expression) {
+        pushLocation(expression);
+        expression.getIndex().acceptVisitor(this);
+        expression.getValue().acceptVisitor(this);
+        writeVectorOpcode(0x0B);
+        writer.writeByte(alignment(expression.getAlignment()));
+        writer.writeLEB(expression.getOffset());
+        popLocation();
+    }
+
+    @Override
+    public void visit(WasmVectorSplat expression) {
+        pushLocation(expression);
+        expression.getValue().acceptVisitor(this);
+        switch (expression.getShape()) {
+            case INT8X16:
+                writeVectorOpcode(0x0F);
+                break;
+            case INT16X8:
+                writeVectorOpcode(0x10);
+                break;
+            case INT32X4:
+                writeVectorOpcode(0x11);
+                break;
+            case INT64X2:
+                writeVectorOpcode(0x12);
+                break;
+        }
+        popLocation();
+    }
+
+    @Override
+    public void visit(WasmVectorBinary expression) {
+        pushLocation(expression);
+        expression.getFirst().acceptVisitor(this);
+        expression.getSecond().acceptVisitor(this);
+        writeVectorOpcode(vectorOpcode(expression.getOperation(), expression.getShape()));
+        popLocation();
+    }
+
+    private static int vectorOpcode(WasmVectorBinaryOperation operation, WasmVectorShape shape) {
+        switch (operation) {
+            case AND:
+                return 0x4E;
+            case OR:
+                return 0x50;
+            case XOR:
+                return 0x51;
+            case EQ:
+                return vectorOpcode(shape, 0x23, 0x2D, 0x37, 0xD6);
+            case NE:
+                return vectorOpcode(shape, 0x24, 0x2E, 0x38, 0xD7);
+            case ADD:
+                return vectorOpcode(shape, 0x6E, 0x8E, 0xAE, 0xCE);
+            case SUB:
+                return vectorOpcode(shape, 0x71, 0x91, 0xB1, 0xD1);
+            case MUL:
+                return vectorOpcode(shape, -1, 0x95, 0xB5, 0xD5);
+            case NARROW_UNSIGNED:
+                return vectorOpcode(shape, 0x66, 0x86, -1, -1);
+        }
+        throw new AssertionError(operation.toString());
+    }
+
+    @Override
+    public void visit(WasmVectorUnary expression) {
+        pushLocation(expression);
+        expression.getOperand().acceptVisitor(this);
+        writeVectorOpcode(vectorOpcode(expression.getOperation(), expression.getShape()));
+        popLocation();
+    }
+
+    private static int vectorOpcode(WasmVectorUnaryOperation operation, WasmVectorShape shape) {
+        switch (operation) {
+            case NOT:
+                return 0x4D;
+            case ANY_TRUE:
+                return 0x53;
+            case ALL_TRUE:
+                return vectorOpcode(shape, 0x63, 0x83, 0xA3, 0xC3);
+            case BITMASK:
+                return vectorOpcode(shape, 0x64, 0x84, 0xA4, 0xC4);
+            case EXTEND_LOW_SIGNED:
+                return vectorOpcode(shape, -1, 0x87, 0xA7, 0xC7);
+            case EXTEND_HIGH_SIGNED:
+                return vectorOpcode(shape, -1, 0x88, 0xA8, 0xC8);
+            case EXTEND_LOW_UNSIGNED:
+                return vectorOpcode(shape, -1, 0x89, 0xA9, 0xC9);
+            case EXTEND_HIGH_UNSIGNED:
+                return vectorOpcode(shape, -1, 0x8A, 0xAA, 0xCA);
+        }
+        throw new AssertionError(operation.toString());
+    }
+
+    private static int vectorOpcode(WasmVectorShape shape, int int8x16, int int16x8, int int32x4, int int64x2) {
+        int opcode;
+        switch (shape) {
+            case INT8X16:
+                opcode = int8x16;
+                break;
+            case INT16X8:
+                opcode = int16x8;
+                break;
+            case INT32X4:
+                opcode = int32x4;
+                break;
+            case INT64X2:
+                opcode = int64x2;
+                break;
+            default:
+                throw new AssertionError(shape.toString());
+        }
+        if (opcode < 0) {
+            throw new IllegalArgumentException("Operation is not supported for shape " + shape);
+        }
+        return opcode;
+    }
+
+    @Override
+    public void visit(WasmVectorExtractLane expression) {
+        pushLocation(expression);
+        expression.getOperand().acceptVisitor(this);
+        switch (expression.getShape()) {
+            case INT8X16:
+                writeVectorOpcode(expression.isSigned() ? 0x15 : 0x16);
+                break;
+            case INT16X8:
+                writeVectorOpcode(expression.isSigned() ? 0x18 : 0x19);
+                break;
+            case INT32X4:
+                writeVectorOpcode(0x1B);
+                break;
+            case INT64X2:
+                writeVectorOpcode(0x1D);
+                break;
+        }
+        writer.writeByte(expression.getLane());
+        popLocation();
+    }
+
+    private void writeVectorOpcode(int opcode) {
+        writer.writeByte(0xFD);
+        writer.writeLEB(opcode);
+    }
+
     private int alignment(int value) {
         return 31 - Integer.numberOfLeadingZeros(Math.max(1, value));
     }
@@ -999,7 +1200,7 @@ class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
         deferTextLocationToEmit = false;
         flushLocation();
         if (debugLines != null) {
-            debugLines.advance(writer.getPosition() + addressOffset);
+            debugLines.advance(writer.getPosition());
             debugLines.end();
         }
     }
@@ -1015,7 +1216,7 @@ class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
     }
 
     private void doEmitLocation() {
-        var address = positionToEmit + addressOffset;
+        var address = positionToEmit;
         if (dwarfGenerator != null) {
             if (textLocationToEmit == null || textLocationToEmit.getFileName() == null) {
                 dwarfGenerator.endLineNumberSequence(address);
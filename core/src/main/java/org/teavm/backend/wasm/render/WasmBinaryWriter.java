@@ -15,12 +15,21 @@
  */
 package org.teavm.backend.wasm.render;
 
+import com.carrotsearch.hppc.IntArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.teavm.backend.wasm.model.WasmType;
 
 public class WasmBinaryWriter {
+    private static final int MIN_SHARED_CHUNK = 4096;
     private byte[] data = new byte[1024];
     private int pointer;
+    private List<byte[]> chunks = new ArrayList<>();
+    private IntArrayList chunkSizes = new IntArrayList();
+    private int chunksSize;
 
     public void writeByte(int v) {
         alloc(1);
@@ -45,17 +54,64 @@ public class WasmBinaryWriter {
             case FLOAT64:
                 writeByte(0x7C);
                 break;
+            case V128:
+                writeByte(0x7B);
+                break;
         }
     }
 
     public int getPosition() {
-        return pointer;
+        return chunksSize + pointer;
     }
 
     public void writeBytes(byte[] bytes) {
-        alloc(bytes.length);
-        System.arraycopy(bytes, 0, data, pointer, bytes.length);
-        pointer += bytes.length;
+        writeBytes(bytes, bytes.length);
+    }
+
+    private void writeBytes(byte[] bytes, int length) {
+        alloc(length);
+        System.arraycopy(bytes, 0, data, pointer, length);
+        pointer += length;
+    }
+
+    /**
+     * Appends content of another writer. Large buffers are shared instead of being copied,
+     * so the other writer should not be used after this call.
+     */
+    public void writeBytes(WasmBinaryWriter other) {
+        if (other.getPosition() < MIN_SHARED_CHUNK) {
+            for (var i = 0; i < other.chunks.size(); ++i) {
+                writeBytes(other.chunks.get(i), other.chunkSizes.get(i));
+            }
+            writeBytes(other.data, other.pointer);
+            return;
+        }
+        seal();
+        chunks.addAll(other.chunks);
+        chunkSizes.addAll(other.chunkSizes);
+        chunksSize += other.chunksSize;
+        if (other.pointer > 0) {
+            chunks.add(other.data);
+            chunkSizes.add(other.pointer);
+            chunksSize += other.pointer;
+        }
+    }
+
+    static WasmBinaryWriter wrap(byte[] data) {
+        var result = new WasmBinaryWriter();
+        result.data = data;
+        result.pointer = data.length;
+        return result;
+    }
+
+    private void seal() {
+        if (pointer > 0) {
+            chunks.add(data);
+            chunkSizes.add(pointer);
+            chunksSize += pointer;
+            data = new byte[1024];
+            pointer = 0;
+        }
     }
 
     public void writeAsciiString(String str) {
@@ -178,6 +234,24 @@ public class WasmBinaryWriter {
     }
 
     public byte[] getData() {
-        return Arrays.copyOf(data, pointer);
+        if (chunks.isEmpty()) {
+            return Arrays.copyOf(data, pointer);
+        }
+        var result = new byte[getPosition()];
+        var offset = 0;
+        for (var i = 0; i < chunks.size(); ++i) {
+            var size = chunkSizes.get(i);
+            System.arraycopy(chunks.get(i), 0, result, offset, size);
+            offset += size;
+        }
+        System.arraycopy(data, 0, result, offset, pointer);
+        return result;
+    }
+
+    public void writeTo(OutputStream output) throws IOException {
+        for (var i = 0; i < chunks.size(); ++i) {
+            output.write(chunks.get(i), 0, chunkSizes.get(i));
+        }
+        output.write(data, 0, pointer);
     }
 }
@@ -25,7 +25,9 @@ import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmLocal;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.model.TextLocation;
 
 public class WasmCRenderer {
@@ -180,6 +182,9 @@ public class WasmCRenderer {
         WasmCRenderingVisitor visitor = new WasmCRenderingVisitor(function.getResult(),
                 function.getLocalVariables().size(), function.getModule());
         visitor.setMemoryAccessChecked(memoryAccessChecked);
+        boolean hasTry = containsTry(function);
+        visitor.setVolatileVariables(hasTry);
+        String modifier = hasTry ? "volatile " : "";
 
         StringBuilder declaration = new StringBuilder();
         renderFunctionModifiers(declaration, function);
@@ -190,7 +195,7 @@ public class WasmCRenderer {
             if (i > 0) {
                 declaration.append(", ");
             }
-            declaration.append(WasmCRenderingVisitor.mapType(function.getParameters().get(i)));
+            declaration.append(modifier).append(WasmCRenderingVisitor.mapType(function.getParameters().get(i)));
             WasmLocal var = function.getLocalVariables().get(i);
             declaration.append(' ').append(visitor.getVariableName(var));
         }
@@ -200,7 +205,8 @@ public class WasmCRenderer {
 
         List<WasmLocal> variables = function.getLocalVariables().subList(sz, function.getLocalVariables().size());
         for (WasmLocal variable : variables) {
-            line(WasmCRenderingVisitor.mapType(variable.getType()) + " " + visitor.getVariableName(variable) + ";");
+            line(modifier + WasmCRenderingVisitor.mapType(variable.getType()) + " "
+                    + visitor.getVariableName(variable) + ";");
         }
 
         List<WasmExpression> body = function.getBody();
@@ -229,6 +235,20 @@ public class WasmCRenderer {
         line("");
     }
 
+    private static boolean containsTry(WasmFunction function) {
+        boolean[] result = new boolean[1];
+        var visitor = new WasmDefaultExpressionVisitor() {
+            @Override
+            public void visit(WasmTry expression) {
+                result[0] = true;
+            }
+        };
+        for (WasmExpression part : function.getBody()) {
+            part.acceptVisitor(visitor);
+        }
+        return result[0];
+    }
+
     private String functionDeclaration(WasmFunction function) {
         StringBuilder sb = new StringBuilder();
         renderFunctionModifiers(sb, function);
@@ -30,6 +30,7 @@ import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmBranch;
 import org.teavm.backend.wasm.model.expression.WasmBreak;
 import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCatch;
 import org.teavm.backend.wasm.model.expression.WasmConditional;
 import org.teavm.backend.wasm.model.expression.WasmConversion;
 import org.teavm.backend.wasm.model.expression.WasmCopy;
@@ -53,6 +54,7 @@ import org.teavm.backend.wasm.model.expression.WasmLoadFloat32;
 import org.teavm.backend.wasm.model.expression.WasmLoadFloat64;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt64;
+import org.teavm.backend.wasm.model.expression.WasmLoadVector;
 import org.teavm.backend.wasm.model.expression.WasmMemoryGrow;
 import org.teavm.backend.wasm.model.expression.WasmReturn;
 import org.teavm.backend.wasm.model.expression.WasmSetLocal;
@@ -60,8 +62,16 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat32;
 import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
+import org.teavm.backend.wasm.model.expression.WasmStoreVector;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinary;
+import org.teavm.backend.wasm.model.expression.WasmVectorExtractLane;
+import org.teavm.backend.wasm.model.expression.WasmVectorShape;
+import org.teavm.backend.wasm.model.expression.WasmVectorSplat;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnary;
 import org.teavm.model.TextLocation;
 
 class WasmCRenderingVisitor implements WasmExpressionVisitor {
@@ -75,6 +85,9 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
     private String[] localVariableNames;
     private Set<String> usedVariableNames = new HashSet<>();
     private boolean memoryAccessChecked;
+    private boolean volatileVariables;
+    private List<String> exceptionHandlers = new ArrayList<>();
+    private int handlerIndex;
 
     WasmCRenderingVisitor(WasmType functionType, int variableCount, WasmModule module) {
         localVariableNames = new String[variableCount];
@@ -90,6 +103,18 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
         this.memoryAccessChecked = memoryAccessChecked;
     }
 
+    public boolean isVolatileVariables() {
+        return volatileVariables;
+    }
+
+    /**
+     * Declares temporary variables as {@code volatile}, which is required for functions
+     * that contain {@code try}, since it is lowered to {@code setjmp}.
+     */
+    public void setVolatileVariables(boolean volatileVariables) {
+        this.volatileVariables = volatileVariables;
+    }
+
     public CExpression getValue() {
         return value;
     }
@@ -103,28 +128,23 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
         BlockInfo info = new BlockInfo();
         info.type = requiredType;
         info.index = blockInfoMap.size();
+        info.tryDepth = exceptionHandlers.size();
         blockInfoMap.put(expression, info);
 
         List<WasmExpression> body = expression.getBody();
         CExpression result = new CExpression();
 
         if (!body.isEmpty()) {
-            for (int i = 0; i < body.size() - 1; ++i) {
-                requiredType = null;
-                body.get(i).acceptVisitor(this);
-                result.getLines().addAll(value.getLines());
-            }
-
-            requiredType = info.type;
-            WasmExpression last = body.get(body.size() - 1);
-            last.acceptVisitor(this);
-            result.getLines().addAll(value.getLines());
+            String text = renderBody(body, info.type, result.getLines());
             if (info.type != null) {
                 if (info.temporaryVariable != null) {
-                    result.getLines().add(new CSingleLine(info.temporaryVariable + " = " + value.getText() + ";"));
+                    if (text != null) {
+                        result.getLines().add(new CSingleLine(info.temporaryVariable + " = " + text + ";"));
+                    }
                     result.setText(info.temporaryVariable);
                 } else {
-                    result.setText(value.getText());
+                    // Block that never completes normally still must produce something for the enclosing expression
+                    result.setText(text != null ? text : "0");
                 }
             }
 
@@ -148,6 +168,54 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
         value = result;
     }
 
+    private String renderBody(List<WasmExpression> body, WasmType type, List<CLine> lines) {
+        int valueIndex = body.size() - 1;
+        if (type != null && valueIndex > 0 && isStatement(body.get(valueIndex))
+                && !isStatement(body.get(valueIndex - 1))) {
+            // Value may be left on the stack by an instruction followed by a statement,
+            // like (block (result i32) (call $f) (i32.store ...))
+            --valueIndex;
+        }
+
+        for (int i = 0; i < valueIndex; ++i) {
+            requiredType = null;
+            body.get(i).acceptVisitor(this);
+            lines.addAll(value.getLines());
+        }
+
+        requiredType = type;
+        body.get(valueIndex).acceptVisitor(this);
+        lines.addAll(value.getLines());
+        String text = value.getText();
+
+        if (valueIndex < body.size() - 1) {
+            if (text != null) {
+                String temporary = "tmp_" + temporaryIndex++;
+                lines.add(declareVariable(temporary, type));
+                lines.add(new CSingleLine(temporary + " = " + text + ";"));
+                text = temporary;
+            }
+            for (int i = valueIndex + 1; i < body.size(); ++i) {
+                requiredType = null;
+                body.get(i).acceptVisitor(this);
+                lines.addAll(value.getLines());
+            }
+        }
+
+        return text;
+    }
+
+    private boolean isStatement(WasmExpression expression) {
+        if (expression instanceof WasmCall) {
+            WasmFunction function = module.getFunctions().get(((WasmCall) expression).getFunctionName());
+            return function != null && function.getResult() == null;
+        }
+        return expression instanceof WasmStoreInt32 || expression instanceof WasmStoreInt64
+                || expression instanceof WasmStoreFloat32 || expression instanceof WasmStoreFloat64
+                || expression instanceof WasmSetLocal || expression instanceof WasmDrop
+                || expression instanceof WasmFill || expression instanceof WasmCopy;
+    }
+
     @Override
     public void visit(WasmBranch expression) {
         CExpression result = new CExpression();
@@ -186,6 +254,9 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
             lines.add(new CSingleLine(targetInfo.temporaryVariable + " = " + value.getText() + ";",
                     result.getLocation()));
         }
+        if (exceptionHandlers.size() > targetInfo.tryDepth) {
+            lines.add(new CSingleLine(restoreExceptionHandler(targetInfo.tryDepth)));
+        }
         lines.add(new CSingleLine("goto " + getLabel(targetInfo) + ";", location));
 
         return lines;
@@ -211,17 +282,29 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
         result.getLines().add(switchBlock);
         for (int i = 0; i < expression.getTargets().size(); ++i) {
             BlockInfo targetInfo = blockInfoMap.get(expression.getTargets().get(i));
-            switchBlock.getLines().add(new CSingleLine("case " + i + ": goto " + getLabel(targetInfo) + ";"));
+            switchBlock.getLines().add(new CSingleLine("case " + i + ": " + switchJump(targetInfo)));
         }
 
         BlockInfo defaultTargetInfo = blockInfoMap.get(expression.getDefaultTarget());
-        switchBlock.getLines().add(new CSingleLine("default: goto " + getLabel(defaultTargetInfo) + ";"));
+        switchBlock.getLines().add(new CSingleLine("default: " + switchJump(defaultTargetInfo)));
 
         result.getLines().add(new CSingleLine("}"));
 
         value = result;
     }
 
+    private String switchJump(BlockInfo targetInfo) {
+        String jump = "goto " + getLabel(targetInfo) + ";";
+        if (exceptionHandlers.size() > targetInfo.tryDepth) {
+            jump = restoreExceptionHandler(targetInfo.tryDepth) + " " + jump;
+        }
+        return jump;
+    }
+
+    private String restoreExceptionHandler(int depth) {
+        return "wasm_exception_handler = " + exceptionHandlers.get(depth) + ".next;";
+    }
+
     @Override
     public void visit(WasmConditional expression) {
         WasmType type = requiredType;
@@ -284,8 +367,19 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
             requiredType = functionType;
             expression.getValue().acceptVisitor(this);
             result.getLines().addAll(value.getLines());
-            result.addLine("return " + value.getText() + ";", expression.getLocation());
+            if (!exceptionHandlers.isEmpty()) {
+                String temporary = "tmp_" + temporaryIndex++;
+                result.getLines().add(declareVariable(temporary, functionType));
+                result.addLine(temporary + " = " + value.getText() + ";");
+                result.addLine(restoreExceptionHandler(0));
+                result.addLine("return " + temporary + ";", expression.getLocation());
+            } else {
+                result.addLine("return " + value.getText() + ";", expression.getLocation());
+            }
         } else {
+            if (!exceptionHandlers.isEmpty()) {
+                result.addLine(restoreExceptionHandler(0));
+            }
             result.addLine("return;", expression.getLocation());
         }
 
@@ -299,6 +393,75 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
         value = result;
     }
 
+    @Override
+    public void visit(WasmTry expression) {
+        WasmType type = requiredType;
+        CExpression result = new CExpression();
+
+        String temporary = null;
+        if (type != null) {
+            temporary = "tmp_" + temporaryIndex++;
+            result.getLines().add(declareVariable(temporary, type));
+            result.setText(temporary);
+        }
+
+        String handler = "handler_" + handlerIndex++;
+        result.addLine("WasmExceptionHandler " + handler + ";", expression.getLocation());
+        result.addLine(handler + ".next = wasm_exception_handler;");
+        result.addLine("if (!setjmp(" + handler + ".buffer)) {");
+
+        CBlock tryBlock = new CBlock();
+        tryBlock.getLines().add(new CSingleLine("wasm_exception_handler = &" + handler + ";"));
+        exceptionHandlers.add(handler);
+        renderTryPart(expression.getBody(), type, temporary, tryBlock.getLines());
+        exceptionHandlers.remove(exceptionHandlers.size() - 1);
+        tryBlock.getLines().add(new CSingleLine("wasm_exception_handler = " + handler + ".next;"));
+        result.getLines().add(tryBlock);
+
+        result.addLine("} else {");
+        CBlock catchBlock = new CBlock();
+        catchBlock.getLines().add(new CSingleLine("wasm_exception_handler = " + handler + ".next;"));
+        for (int i = 0; i < expression.getCatches().size(); ++i) {
+            WasmCatch catchClause = expression.getCatches().get(i);
+            String condition = "wasm_exception_tag == " + catchClause.getTag().getIndex();
+            catchBlock.getLines().add(new CSingleLine((i == 0 ? "if (" : "} else if (") + condition + ") {"));
+            CBlock clauseBlock = new CBlock();
+            renderTryPart(catchClause.getBody(), type, temporary, clauseBlock.getLines());
+            catchBlock.getLines().add(clauseBlock);
+        }
+        if (!expression.getCatches().isEmpty()) {
+            catchBlock.getLines().add(new CSingleLine("} else {"));
+            catchBlock.getLines().add(new CBlock(List.of(new CSingleLine("wasm_throw(wasm_exception_tag);"))));
+            catchBlock.getLines().add(new CSingleLine("}"));
+        } else {
+            catchBlock.getLines().add(new CSingleLine("wasm_throw(wasm_exception_tag);"));
+        }
+        result.getLines().add(catchBlock);
+        result.addLine("}");
+
+        value = result;
+    }
+
+    private void renderTryPart(List<WasmExpression> body, WasmType type, String temporary, List<CLine> lines) {
+        if (body.isEmpty()) {
+            return;
+        }
+        String text = renderBody(body, type, lines);
+        if (temporary != null && text != null) {
+            lines.add(new CSingleLine(temporary + " = " + text + ";"));
+        }
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        if (!expression.getArguments().isEmpty()) {
+            throw new IllegalArgumentException("Tags with values are not supported");
+        }
+        CExpression result = new CExpression();
+        result.addLine("wasm_throw(" + expression.getTag().getIndex() + ");", expression.getLocation());
+        value = result;
+    }
+
     @Override
     public void visit(WasmInt32Constant expression) {
         value = CExpression.relocatable("INT32_C(" + String.valueOf(expression.getValue()) + ")");
@@ -568,6 +731,9 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
                 case CTZ:
                     result.setText("ctz(" + operand.getText() + ")");
                     break;
+                case EQZ:
+                    result.setText("(" + operand.getText() + " == 0)");
+                    break;
             }
             result.setRelocatable(operand.isRelocatable());
         }
@@ -1110,6 +1276,191 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
         value = result;
     }
 
+    @Override
+    public void visit(WasmLoadVector expression) {
+        CExpression result = new CExpression();
+        WasmType type = requiredType;
+
+        requiredType = WasmType.INT32;
+        expression.getIndex().acceptVisitor(this);
+        CExpression index = checkAddress(value);
+        if (type == null) {
+            value = index;
+            return;
+        }
+
+        result.getLines().addAll(index.getLines());
+        result.setText("wasm_v128_load(" + index.getText() + " + " + expression.getOffset() + ")");
+
+        value = result;
+    }
+
+    @Override
+    public void visit(WasmStoreVector expression) {
+        CExpression result = new CExpression();
+
+        requiredType = WasmType.INT32;
+        expression.getIndex().acceptVisitor(this);
+        CExpression index = checkAddress(value);
+
+        requiredType = WasmType.V128;
+        expression.getValue().acceptVisitor(this);
+        CExpression valueToStore = value;
+
+        result.getLines().addAll(index.getLines());
+        result.getLines().addAll(valueToStore.getLines());
+
+        result.addLine("wasm_v128_store(" + index.getText() + " + " + expression.getOffset() + ", "
+                + valueToStore.getText() + ");", expression.getLocation());
+
+        value = result;
+    }
+
+    @Override
+    public void visit(WasmVectorSplat expression) {
+        WasmType type = requiredType;
+        CExpression result = new CExpression();
+
+        requiredType = expression.getShape() == WasmVectorShape.INT64X2 ? WasmType.INT64 : WasmType.INT32;
+        expression.getValue().acceptVisitor(this);
+        CExpression operand = value;
+
+        result.getLines().addAll(operand.getLines());
+        if (type != null) {
+            result.setText("wasm_v128_splat(" + expression.getShape().ordinal() + ", " + operand.getText() + ")");
+            result.setRelocatable(operand.isRelocatable());
+        }
+
+        value = result;
+    }
+
+    @Override
+    public void visit(WasmVectorBinary expression) {
+        WasmType type = requiredType;
+        CExpression result = new CExpression();
+
+        requiredType = WasmType.V128;
+        expression.getFirst().acceptVisitor(this);
+        CExpression first = value;
+
+        requiredType = WasmType.V128;
+        expression.getSecond().acceptVisitor(this);
+        CExpression second = value;
+
+        result.getLines().addAll(first.getLines());
+        if (type == null) {
+            result.getLines().addAll(second.getLines());
+        } else {
+            if (!second.getLines().isEmpty()) {
+                first = cacheIfNeeded(WasmType.V128, first, result);
+                result.getLines().addAll(second.getLines());
+            }
+
+            String operands = first.getText() + ", " + second.getText();
+            String shapeAndOperands = expression.getShape().ordinal() + ", " + operands;
+            switch (expression.getOperation()) {
+                case AND:
+                    result.setText("wasm_v128_and(" + operands + ")");
+                    break;
+                case OR:
+                    result.setText("wasm_v128_or(" + operands + ")");
+                    break;
+                case XOR:
+                    result.setText("wasm_v128_xor(" + operands + ")");
+                    break;
+                case EQ:
+                    result.setText("wasm_v128_eq(" + shapeAndOperands + ")");
+                    break;
+                case NE:
+                    result.setText("wasm_v128_ne(" + shapeAndOperands + ")");
+                    break;
+                case ADD:
+                    result.setText("wasm_v128_add(" + shapeAndOperands + ")");
+                    break;
+                case SUB:
+                    result.setText("wasm_v128_sub(" + shapeAndOperands + ")");
+                    break;
+                case MUL:
+                    result.setText("wasm_v128_mul(" + shapeAndOperands + ")");
+                    break;
+                case NARROW_UNSIGNED:
+                    result.setText("wasm_v128_narrow_u(" + shapeAndOperands + ")");
+                    break;
+            }
+            result.setRelocatable(first.isRelocatable() && second.isRelocatable());
+        }
+
+        value = result;
+    }
+
+    @Override
+    public void visit(WasmVectorUnary expression) {
+        WasmType type = requiredType;
+        CExpression result = new CExpression();
+
+        requiredType = WasmType.V128;
+        expression.getOperand().acceptVisitor(this);
+        CExpression operand = value;
+
+        result.getLines().addAll(operand.getLines());
+        if (type != null) {
+            String shape = String.valueOf(expression.getShape().ordinal());
+            String text = operand.getText();
+            switch (expression.getOperation()) {
+                case NOT:
+                    result.setText("wasm_v128_not(" + text + ")");
+                    break;
+                case ANY_TRUE:
+                    result.setText("wasm_v128_any_true(" + text + ")");
+                    break;
+                case ALL_TRUE:
+                    result.setText("wasm_v128_all_true(" + shape + ", " + text + ")");
+                    break;
+                case BITMASK:
+                    result.setText("wasm_v128_bitmask(" + shape + ", " + text + ")");
+                    break;
+                case EXTEND_LOW_SIGNED:
+                    result.setText("wasm_v128_extend(" + shape + ", 0, 1, " + text + ")");
+                    break;
+                case EXTEND_HIGH_SIGNED:
+                    result.setText("wasm_v128_extend(" + shape + ", 1, 1, " + text + ")");
+                    break;
+                case EXTEND_LOW_UNSIGNED:
+                    result.setText("wasm_v128_extend(" + shape + ", 0, 0, " + text + ")");
+                    break;
+                case EXTEND_HIGH_UNSIGNED:
+                    result.setText("wasm_v128_extend(" + shape + ", 1, 0, " + text + ")");
+                    break;
+            }
+            result.setRelocatable(operand.isRelocatable());
+        }
+
+        value = result;
+    }
+
+    @Override
+    public void visit(WasmVectorExtractLane expression) {
+        WasmType type = requiredType;
+        CExpression result = new CExpression();
+
+        requiredType = WasmType.V128;
+        expression.getOperand().acceptVisitor(this);
+        CExpression operand = value;
+
+        result.getLines().addAll(operand.getLines());
+        if (type != null) {
+            String text = "wasm_v128_lane(" + operand.getText() + ", " + expression.getShape().ordinal() + ", "
+                    + expression.getLane() + ", " + (expression.isSigned() ? 1 : 0) + ")";
+            if (expression.getShape() != WasmVectorShape.INT64X2) {
+                text = "(int32_t) " + text;
+            }
+            result.setText(text);
+            result.setRelocatable(operand.isRelocatable());
+        }
+
+        value = result;
+    }
+
     private CExpression checkAddress(CExpression index) {
         if (!memoryAccessChecked) {
             return index;
@@ -1132,7 +1483,7 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
     }
 
     private CLine declareVariable(String name, WasmType type) {
-        return new CSingleLine(mapType(type) + " " + name + ";");
+        return new CSingleLine((volatileVariables ? "volatile " : "") + mapType(type) + " " + name + ";");
     }
 
     static String mapType(WasmType type) {
@@ -1148,6 +1499,8 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
                 return "float";
             case FLOAT64:
                 return "double";
+            case V128:
+                return "wasm_v128";
         }
         throw new AssertionError(type.toString());
     }
@@ -1177,6 +1530,7 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
         String label;
         String temporaryVariable;
         WasmType type;
+        int tryDepth;
     }
 
     String getVariableName(WasmLocal local) {
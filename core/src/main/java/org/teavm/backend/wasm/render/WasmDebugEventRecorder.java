@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.render;
+
+import com.carrotsearch.hppc.ByteArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.backend.wasm.debug.DebugLines;
+import org.teavm.backend.wasm.generate.DwarfGenerator;
+import org.teavm.model.MethodReference;
+
+/*
+ * Function bodies are encoded independently, before their position in the code section is known.
+ * Debug information is recorded here with addresses relative to the start of the body and passed
+ * to actual generators when the body gets its place.
+ */
+class WasmDebugEventRecorder implements DebugLines {
+    private static final byte ADVANCE = 0;
+    private static final byte LOCATION = 1;
+    private static final byte EMPTY_LOCATION = 2;
+    private static final byte START = 3;
+    private static final byte END = 4;
+    private static final byte DWARF_LINE = 5;
+    private static final byte DWARF_END_SEQUENCE = 6;
+
+    private ByteArrayList commands = new ByteArrayList();
+    private IntArrayList ints = new IntArrayList();
+    private List<Object> objects = new ArrayList<>();
+
+    @Override
+    public void advance(int ptr) {
+        commands.add(ADVANCE);
+        ints.add(ptr);
+    }
+
+    @Override
+    public void location(String file, int line) {
+        commands.add(LOCATION);
+        objects.add(file);
+        ints.add(line);
+    }
+
+    @Override
+    public void emptyLocation() {
+        commands.add(EMPTY_LOCATION);
+    }
+
+    @Override
+    public void start(MethodReference methodReference) {
+        commands.add(START);
+        objects.add(methodReference);
+    }
+
+    @Override
+    public void end() {
+        commands.add(END);
+    }
+
+    void lineNumber(int address, String fileName, int lineNumber) {
+        commands.add(DWARF_LINE);
+        ints.add(address);
+        objects.add(fileName);
+        ints.add(lineNumber);
+    }
+
+    void endLineNumberSequence(int address) {
+        commands.add(DWARF_END_SEQUENCE);
+        ints.add(address);
+    }
+
+    void replay(int offset, DwarfGenerator dwarfGenerator, DebugLines debugLines) {
+        var intIndex = 0;
+        var objectIndex = 0;
+        for (var i = 0; i < commands.size(); ++i) {
+            switch (commands.get(i)) {
+                case ADVANCE:
+                    debugLines.advance(ints.get(intIndex++) + offset);
+                    break;
+                case LOCATION:
+                    debugLines.location((String) objects.get(objectIndex++), ints.get(intIndex++));
+                    break;
+                case EMPTY_LOCATION:
+                    debugLines.emptyLocation();
+                    break;
+                case START:
+                    debugLines.start((MethodReference) objects.get(objectIndex++));
+                    break;
+                case END:
+                    debugLines.end();
+                    break;
+                case DWARF_LINE: {
+                    var address = ints.get(intIndex++) + offset;
+                    dwarfGenerator.lineNumber(address, (String) objects.get(objectIndex++), ints.get(intIndex++));
+                    break;
+                }
+                case DWARF_END_SEQUENCE:
+                    dwarfGenerator.endLineNumberSequence(ints.get(intIndex++) + offset);
+                    break;
+            }
+        }
+    }
+}
@@ -20,6 +20,8 @@ import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmLocal;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
+import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 
 public class WasmRenderer {
@@ -71,6 +73,7 @@ public class WasmRenderer {
 
         renderTable(module);
         renderMemory(module);
+        renderTags(module);
         renderElement(module);
         renderData(module);
 
@@ -85,6 +88,20 @@ public class WasmRenderer {
         visitor.open().append("memory (export \"memory\") " + module.getMinMemorySize()).close().lf();
     }
 
+    public void renderTags(WasmModule module) {
+        for (WasmTag tag : module.getTags()) {
+            visitor.lf().open().append("tag $tag" + tag.getIndex());
+            if (!tag.getValues().isEmpty()) {
+                visitor.append(" (param");
+                for (WasmType type : tag.getValues()) {
+                    visitor.append(" " + visitor.type(type));
+                }
+                visitor.append(")");
+            }
+            visitor.close().lf();
+        }
+    }
+
     public void renderData(WasmModule module) {
         for (WasmMemorySegment segment : module.getSegments()) {
             visitor.lf().open().append("data (i32.const " + segment.getOffset() + ")");
@@ -25,6 +25,7 @@ import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmBranch;
 import org.teavm.backend.wasm.model.expression.WasmBreak;
 import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCatch;
 import org.teavm.backend.wasm.model.expression.WasmConditional;
 import org.teavm.backend.wasm.model.expression.WasmConversion;
 import org.teavm.backend.wasm.model.expression.WasmCopy;
@@ -53,6 +54,7 @@ import org.teavm.backend.wasm.model.expression.WasmLoadFloat32;
 import org.teavm.backend.wasm.model.expression.WasmLoadFloat64;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt64;
+import org.teavm.backend.wasm.model.expression.WasmLoadVector;
 import org.teavm.backend.wasm.model.expression.WasmMemoryGrow;
 import org.teavm.backend.wasm.model.expression.WasmReturn;
 import org.teavm.backend.wasm.model.expression.WasmSetLocal;
@@ -60,8 +62,15 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat32;
 import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
+import org.teavm.backend.wasm.model.expression.WasmStoreVector;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinary;
+import org.teavm.backend.wasm.model.expression.WasmVectorExtractLane;
+import org.teavm.backend.wasm.model.expression.WasmVectorSplat;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnary;
 
 class WasmRenderingVisitor implements WasmExpressionVisitor {
     StringBuilder sb = new StringBuilder();
@@ -247,6 +256,39 @@ class WasmRenderingVisitor implements WasmExpressionVisitor {
         open().append("unreachable").close();
     }
 
+    @Override
+    public void visit(WasmTry expression) {
+        open().append("try");
+        if (expression.getType() != null) {
+            append(" " + type(expression.getType()));
+        }
+
+        lf().open().append("do");
+        for (WasmExpression part : expression.getBody()) {
+            line(part);
+        }
+        close();
+
+        for (WasmCatch catchClause : expression.getCatches()) {
+            lf().open().append("catch $tag" + catchClause.getTag().getIndex());
+            for (WasmExpression part : catchClause.getBody()) {
+                line(part);
+            }
+            close();
+        }
+
+        close();
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        open().append("throw $tag" + expression.getTag().getIndex());
+        for (WasmExpression argument : expression.getArguments()) {
+            line(argument);
+        }
+        close();
+    }
+
     @Override
     public void visit(WasmInt32Constant expression) {
         open().append("i32.const " + expression.getValue()).close();
@@ -620,7 +662,60 @@ class WasmRenderingVisitor implements WasmExpressionVisitor {
         close();
     }
 
-    private String type(WasmType type) {
+    @Override
+    public void visit(WasmLoadVector expression) {
+        open().append("v128.load");
+        if (expression.getOffset() > 0) {
+            append(" offset=" + expression.getOffset());
+        }
+        append(" align=" + expression.getAlignment());
+        line(expression.getIndex());
+        close();
+    }
+
+    @Override
+    public void visit(WasmStoreVector expression) {
+        open().append("v128.store");
+        if (expression.getOffset() > 0) {
+            append(" offset=" + expression.getOffset());
+        }
+        append(" align=" + expression.getAlignment());
+        line(expression.getIndex());
+        line(expression.getValue());
+        close();
+    }
+
+    @Override
+    public void visit(WasmVectorSplat expression) {
+        open().append(WasmVectorNames.splat(expression.getShape()));
+        line(expression.getValue());
+        close();
+    }
+
+    @Override
+    public void visit(WasmVectorBinary expression) {
+        open().append(WasmVectorNames.binary(expression.getOperation(), expression.getShape()));
+        line(expression.getFirst());
+        line(expression.getSecond());
+        close();
+    }
+
+    @Override
+    public void visit(WasmVectorUnary expression) {
+        open().append(WasmVectorNames.unary(expression.getOperation(), expression.getShape()));
+        line(expression.getOperand());
+        close();
+    }
+
+    @Override
+    public void visit(WasmVectorExtractLane expression) {
+        open().append(WasmVectorNames.extractLane(expression.getShape(), expression.isSigned()))
+                .append(" " + expression.getLane());
+        line(expression.getOperand());
+        close();
+    }
+
+    String type(WasmType type) {
         switch (type) {
             case INT32:
                 return "i32";
@@ -630,6 +725,8 @@ class WasmRenderingVisitor implements WasmExpressionVisitor {
                 return "f32";
             case FLOAT64:
                 return "f64";
+            case V128:
+                return "v128";
         }
         throw new AssertionError(type.toString());
     }
@@ -17,6 +17,7 @@ package org.teavm.backend.wasm.render;
 
 import java.util.Arrays;
 import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.WasmType;
 
 final class WasmSignature {
@@ -51,4 +52,12 @@ final class WasmSignature {
         }
         return new WasmSignature(types);
     }
+
+    public static WasmSignature fromTag(WasmTag tag) {
+        WasmType[] types = new WasmType[tag.getValues().size() + 1];
+        for (int i = 0; i < tag.getValues().size(); ++i) {
+            types[i + 1] = tag.getValues().get(i);
+        }
+        return new WasmSignature(types);
+    }
 }
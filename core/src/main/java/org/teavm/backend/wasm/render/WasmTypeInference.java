@@ -44,6 +44,7 @@ import org.teavm.backend.wasm.model.expression.WasmLoadFloat32;
 import org.teavm.backend.wasm.model.expression.WasmLoadFloat64;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt64;
+import org.teavm.backend.wasm.model.expression.WasmLoadVector;
 import org.teavm.backend.wasm.model.expression.WasmMemoryGrow;
 import org.teavm.backend.wasm.model.expression.WasmReturn;
 import org.teavm.backend.wasm.model.expression.WasmSetLocal;
@@ -51,8 +52,16 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat32;
 import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
+import org.teavm.backend.wasm.model.expression.WasmStoreVector;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+import org.teavm.backend.wasm.model.expression.WasmVectorBinary;
+import org.teavm.backend.wasm.model.expression.WasmVectorExtractLane;
+import org.teavm.backend.wasm.model.expression.WasmVectorShape;
+import org.teavm.backend.wasm.model.expression.WasmVectorSplat;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnary;
 
 public class WasmTypeInference implements WasmExpressionVisitor {
     private WasmGenerationContext context;
@@ -101,6 +110,16 @@ public class WasmTypeInference implements WasmExpressionVisitor {
         result = null;
     }
 
+    @Override
+    public void visit(WasmTry expression) {
+        result = expression.getType();
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        result = null;
+    }
+
     @Override
     public void visit(WasmInt32Constant expression) {
         result = WasmType.INT32;
@@ -227,6 +246,45 @@ public class WasmTypeInference implements WasmExpressionVisitor {
         result = null;
     }
 
+    @Override
+    public void visit(WasmLoadVector expression) {
+        result = WasmType.V128;
+    }
+
+    @Override
+    public void visit(WasmStoreVector expression) {
+        result = null;
+    }
+
+    @Override
+    public void visit(WasmVectorSplat expression) {
+        result = WasmType.V128;
+    }
+
+    @Override
+    public void visit(WasmVectorBinary expression) {
+        result = WasmType.V128;
+    }
+
+    @Override
+    public void visit(WasmVectorUnary expression) {
+        switch (expression.getOperation()) {
+            case ANY_TRUE:
+            case ALL_TRUE:
+            case BITMASK:
+                result = WasmType.INT32;
+                break;
+            default:
+                result = WasmType.V128;
+                break;
+        }
+    }
+
+    @Override
+    public void visit(WasmVectorExtractLane expression) {
+        result = expression.getShape() == WasmVectorShape.INT64X2 ? WasmType.INT64 : WasmType.INT32;
+    }
+
     private static WasmType map(WasmIntType type) {
         switch (type) {
             case INT32:
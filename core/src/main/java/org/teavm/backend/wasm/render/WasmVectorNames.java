@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.render;
+
+import org.teavm.backend.wasm.model.expression.WasmVectorBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmVectorShape;
+import org.teavm.backend.wasm.model.expression.WasmVectorUnaryOperation;
+
+/**
+ * Names of SIMD instructions in the text format, shared by the text renderer and the disassembler.
+ */
+public final class WasmVectorNames {
+    private WasmVectorNames() {
+    }
+
+    public static String shape(WasmVectorShape shape) {
+        switch (shape) {
+            case INT8X16:
+                return "i8x16";
+            case INT16X8:
+                return "i16x8";
+            case INT32X4:
+                return "i32x4";
+            case INT64X2:
+                return "i64x2";
+        }
+        throw new AssertionError(shape.toString());
+    }
+
+    public static String splat(WasmVectorShape shape) {
+        return shape(shape) + ".splat";
+    }
+
+    public static String extractLane(WasmVectorShape shape, boolean signed) {
+        switch (shape) {
+            case INT8X16:
+            case INT16X8:
+                return shape(shape) + (signed ? ".extract_lane_s" : ".extract_lane_u");
+            default:
+                return shape(shape) + ".extract_lane";
+        }
+    }
+
+    public static String binary(WasmVectorBinaryOperation operation, WasmVectorShape shape) {
+        switch (operation) {
+            case AND:
+                return "v128.and";
+            case OR:
+                return "v128.or";
+            case XOR:
+                return "v128.xor";
+            case EQ:
+                return shape(shape) + ".eq";
+            case NE:
+                return shape(shape) + ".ne";
+            case ADD:
+                return shape(shape) + ".add";
+            case SUB:
+                return shape(shape) + ".sub";
+            case MUL:
+                return shape(shape) + ".mul";
+            case NARROW_UNSIGNED:
+                return shape(shape) + ".narrow_" + shape(wider(shape)) + "_u";
+        }
+        throw new AssertionError(operation.toString());
+    }
+
+    public static String unary(WasmVectorUnaryOperation operation, WasmVectorShape shape) {
+        switch (operation) {
+            case NOT:
+                return "v128.not";
+            case ANY_TRUE:
+                return "v128.any_true";
+            case ALL_TRUE:
+                return shape(shape) + ".all_true";
+            case BITMASK:
+                return shape(shape) + ".bitmask";
+            case EXTEND_LOW_SIGNED:
+                return shape(shape) + ".extend_low_" + shape(narrower(shape)) + "_s";
+            case EXTEND_HIGH_SIGNED:
+                return shape(shape) + ".extend_high_" + shape(narrower(shape)) + "_s";
+            case EXTEND_LOW_UNSIGNED:
+                return shape(shape) + ".extend_low_" + shape(narrower(shape)) + "_u";
+            case EXTEND_HIGH_UNSIGNED:
+                return shape(shape) + ".extend_high_" + shape(narrower(shape)) + "_u";
+        }
+        throw new AssertionError(operation.toString());
+    }
+
+    private static WasmVectorShape wider(WasmVectorShape shape) {
+        return WasmVectorShape.values()[shape.ordinal() + 1];
+    }
+
+    private static WasmVectorShape narrower(WasmVectorShape shape) {
+        return WasmVectorShape.values()[shape.ordinal() - 1];
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.runtime;
+
+import org.teavm.interop.Address;
+import org.teavm.interop.Unmanaged;
+
+/**
+ * <p>Bulk memory operations that are replaced by SIMD code when the Wasm target is configured with
+ * {@link org.teavm.backend.wasm.WasmTarget#setSimd(boolean)}.</p>
+ *
+ * <p>Most methods handle only a prefix of the given range that consists of whole 16-byte vectors
+ * and return the size of this prefix, so that callers finish the rest with their usual scalar loop.
+ * These Java implementations, used when SIMD is disabled, handle nothing.</p>
+ *
+ * <p>The class is unmanaged, so that calls to it are never inlined and reach the intrinsic.</p>
+ */
+@Unmanaged
+public final class WasmSimdSupport {
+    private WasmSimdSupport() {
+    }
+
+    /**
+     * Compares two memory blocks of {@code size} bytes.
+     *
+     * @return the number of leading bytes known to be equal, a multiple of 16.
+     */
+    public static int equalBytes(Address a, Address b, int size) {
+        return 0;
+    }
+
+    /**
+     * Fills a memory block of {@code size} bytes with a repeated 32-bit pattern.
+     *
+     * @return the number of leading bytes filled, a multiple of 16.
+     */
+    public static int fill(Address address, int size, int pattern) {
+        return 0;
+    }
+
+    /**
+     * Fills a memory block of {@code size} bytes with a repeated 64-bit pattern.
+     *
+     * @return the number of leading bytes filled, a multiple of 16.
+     */
+    public static int fill(Address address, int size, long pattern) {
+        return 0;
+    }
+
+    /**
+     * Looks for a character in an array of {@code count} characters.
+     *
+     * @return the number of leading characters known not to be equal to {@code ch}, a multiple of 8.
+     */
+    public static int skipChar(Address chars, int count, char ch) {
+        return 0;
+    }
+
+    /**
+     * Copies bytes to characters while all of them are in the ASCII range.
+     *
+     * @return the number of leading bytes copied, a multiple of 16.
+     */
+    public static int inflateAscii(Address bytes, Address chars, int count) {
+        return 0;
+    }
+
+    /**
+     * Copies characters to bytes while all of them are in the ASCII range.
+     *
+     * @return the number of leading characters copied, a multiple of 16.
+     */
+    public static int compressAscii(Address chars, Address bytes, int count) {
+        return 0;
+    }
+
+    /**
+     * Continues the {@code 31 * hash + element} hash computation over {@code count} ints.
+     * Unlike other methods, handles the whole range, which must consist of a multiple of 4 elements.
+     */
+    public static int hashInts(Address data, int count, int hash) {
+        for (int i = 0; i < count; ++i) {
+            hash = 31 * hash + data.add(i * 4).getInt();
+        }
+        return hash;
+    }
+
+    /**
+     * Continues the {@code 31 * hash + element} hash computation over {@code count} chars.
+     * Unlike other methods, handles the whole range, which must consist of a multiple of 8 elements.
+     */
+    public static int hashChars(Address data, int count, int hash) {
+        for (int i = 0; i < count; ++i) {
+            hash = 31 * hash + data.add(i * 2).getChar();
+        }
+        return hash;
+    }
+
+    /**
+     * Continues the {@code 31 * hash + element} hash computation over {@code count} shorts.
+     * Unlike other methods, handles the whole range, which must consist of a multiple of 8 elements.
+     */
+    public static int hashShorts(Address data, int count, int hash) {
+        for (int i = 0; i < count; ++i) {
+            hash = 31 * hash + data.add(i * 2).getShort();
+        }
+        return hash;
+    }
+}
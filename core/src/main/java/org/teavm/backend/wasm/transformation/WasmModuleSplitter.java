@@ -0,0 +1,358 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.transformation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmIndirectCall;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Moves code that is only reachable from given <em>split point</em> classes into secondary modules, which
+ * can be loaded after the primary module starts. Every split point class gets its own secondary module,
+ * which contains methods of the class and all methods reachable from them, except for methods that are
+ * reachable from the rest of the program or from another split point. These remain in the primary module.</p>
+ *
+ * <p>Secondary modules import memory, function table and functions they call from the primary module.
+ * A function of a secondary module that is called from outside of it gets a slot in the function table.
+ * Until the module is loaded, the slot holds a thunk that asks the runtime to load the module
+ * (see {@code teavmSplit.load} in {@code wasm-runtime.js}). When instantiated, the secondary module replaces
+ * thunks with actual functions. Direct calls from other modules are redirected to a stub, which calls
+ * the slot indirectly.</p>
+ */
+public class WasmModuleSplitter {
+    public static final String PRIMARY_MODULE_NAME = "primary";
+    private static final String LOADER_MODULE_NAME = "teavmSplit";
+
+    private WasmModule module;
+    private CallGraph callGraph;
+    private Map<String, Integer> splitClasses = new LinkedHashMap<>();
+    private Map<WasmFunction, Integer> partitions = new HashMap<>();
+    private List<WasmModule> secondaryModules = new ArrayList<>();
+    private Map<WasmFunction, WasmFunction> stubs = new HashMap<>();
+    private WasmFunction loaderFunction;
+    private int exportIndex;
+
+    public WasmModuleSplitter(WasmModule module, CallGraph callGraph, Collection<String> splitClasses) {
+        this.module = module;
+        this.callGraph = callGraph;
+        for (var className : splitClasses) {
+            this.splitClasses.putIfAbsent(className, this.splitClasses.size() + 1);
+        }
+    }
+
+    /**
+     * Performs splitting. Functions are removed from the primary module passed to constructor.
+     *
+     * @return secondary modules, the one at index {@code i} is loaded by {@code teavmSplit.load(i + 1)}.
+     * Empty list if none of the split points contains any code.
+     */
+    public List<WasmModule> split() {
+        assignPartitions();
+        var functionsByPartition = new ArrayList<List<WasmFunction>>();
+        for (var i = 0; i <= splitClasses.size(); ++i) {
+            functionsByPartition.add(new ArrayList<>());
+        }
+        for (var function : module.getFunctions().values()) {
+            functionsByPartition.get(getPartition(function)).add(function);
+        }
+        if (functionsByPartition.stream().skip(1).allMatch(List::isEmpty)) {
+            return secondaryModules;
+        }
+
+        loaderFunction = new WasmFunction("teavm_splitLoad");
+        loaderFunction.setImportModule(LOADER_MODULE_NAME);
+        loaderFunction.setImportName("load");
+        loaderFunction.getParameters().add(WasmType.INT32);
+        module.add(loaderFunction);
+
+        var countFunction = new WasmFunction("teavm_splitPartitionCount");
+        countFunction.setExportName("teavm_splitPartitionCount");
+        countFunction.setResult(WasmType.INT32);
+        countFunction.getBody().add(new WasmReturn(new WasmInt32Constant(splitClasses.size())));
+        module.add(countFunction);
+
+        var referencedFromOutside = findReferencedFromOutside();
+        for (var i = 1; i <= splitClasses.size(); ++i) {
+            var secondaryModule = new WasmModule();
+            secondaryModule.setMemoryAndTableImportModule(PRIMARY_MODULE_NAME);
+            secondaryModule.setMinMemorySize(module.getMinMemorySize());
+            secondaryModule.setMaxMemorySize(module.getMaxMemorySize());
+            secondaryModule.setFunctionTableOffset(module.getFunctionTable().size());
+            for (var function : functionsByPartition.get(i)) {
+                if (referencedFromOutside.contains(function)) {
+                    createSlot(function, i, secondaryModule);
+                }
+            }
+            secondaryModules.add(secondaryModule);
+        }
+
+        for (var i = 0; i < module.getFunctionTable().size(); ++i) {
+            var stub = stubs.get(module.getFunctionTable().get(i));
+            if (stub != null) {
+                module.getFunctionTable().set(i, stub);
+            }
+        }
+        module.setFunctionTableExported(true);
+
+        for (var i = 1; i <= splitClasses.size(); ++i) {
+            for (var function : functionsByPartition.get(i)) {
+                module.remove(function);
+                secondaryModules.get(i - 1).add(function);
+            }
+        }
+        for (var function : module.getFunctions().values()) {
+            redirectCalls(function, null);
+        }
+        for (var i = 1; i <= splitClasses.size(); ++i) {
+            var secondaryModule = secondaryModules.get(i - 1);
+            for (var function : functionsByPartition.get(i)) {
+                redirectCalls(function, secondaryModule);
+            }
+        }
+
+        return secondaryModules;
+    }
+
+    private int getPartition(WasmFunction function) {
+        return partitions.getOrDefault(function, 0);
+    }
+
+    private void assignPartitions() {
+        var functionsByMethod = new HashMap<MethodReference, WasmFunction>();
+        for (var function : module.getFunctions().values()) {
+            if (function.getJavaMethod() != null && function.getImportName() == null
+                    && function.getExportName() == null && function != module.getStartFunction()) {
+                functionsByMethod.put(function.getJavaMethod(), function);
+            }
+        }
+
+        var primaryRoots = new LinkedHashSet<MethodReference>();
+        var collector = new WasmDefaultExpressionVisitor() {
+            @Override
+            public void visit(WasmCall expression) {
+                super.visit(expression);
+                var callee = module.getFunctions().get(expression.getFunctionName());
+                if (callee != null && callee.getJavaMethod() != null) {
+                    primaryRoots.add(callee.getJavaMethod());
+                }
+            }
+        };
+        for (var function : module.getFunctions().values()) {
+            var method = function.getJavaMethod();
+            if (method == null || !functionsByMethod.containsKey(method)) {
+                // Code generated by the backend, as well as exported functions, stays in the primary module.
+                // Methods it calls are not in the call graph, so they are treated as roots.
+                if (method != null) {
+                    primaryRoots.add(method);
+                }
+                for (var part : function.getBody()) {
+                    part.acceptVisitor(collector);
+                }
+            } else {
+                var node = callGraph.getNode(method);
+                if (node == null || node.getCallerCallSites().isEmpty()) {
+                    primaryRoots.add(method);
+                }
+            }
+        }
+        primaryRoots.removeIf(method -> splitClasses.containsKey(method.getClassName()));
+        var primaryReachable = reach(primaryRoots, method -> splitClasses.containsKey(method.getClassName()));
+
+        var owners = new HashMap<MethodReference, Integer>();
+        for (var entry : splitClasses.entrySet()) {
+            var className = entry.getKey();
+            int partition = entry.getValue();
+            var seeds = new ArrayList<MethodReference>();
+            for (var method : functionsByMethod.keySet()) {
+                if (method.getClassName().equals(className)) {
+                    seeds.add(method);
+                }
+            }
+            var reachable = reach(seeds, method -> !method.getClassName().equals(className)
+                    && splitClasses.containsKey(method.getClassName()));
+            for (var method : reachable) {
+                if (!primaryReachable.contains(method)) {
+                    // Methods shared by several split points stay in the primary module
+                    owners.merge(method, partition, (a, b) -> 0);
+                }
+            }
+        }
+
+        for (var entry : owners.entrySet()) {
+            var function = functionsByMethod.get(entry.getKey());
+            if (function != null && entry.getValue() != 0) {
+                partitions.put(function, entry.getValue());
+            }
+        }
+    }
+
+    private Set<MethodReference> reach(Collection<MethodReference> roots, Predicate<MethodReference> boundary) {
+        var result = new HashSet<>(roots);
+        var queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            var node = callGraph.getNode(queue.remove());
+            if (node == null) {
+                continue;
+            }
+            for (var callSite : node.getCallSites()) {
+                for (var callee : callSite.getCalledMethods()) {
+                    var method = callee.getMethod();
+                    if (!boundary.test(method) && result.add(method)) {
+                        queue.add(method);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private Set<WasmFunction> findReferencedFromOutside() {
+        var result = new HashSet<WasmFunction>();
+        for (var function : module.getFunctionTable()) {
+            if (getPartition(function) != 0) {
+                result.add(function);
+            }
+        }
+        for (var function : module.getFunctions().values()) {
+            var partition = getPartition(function);
+            var visitor = new WasmDefaultExpressionVisitor() {
+                @Override
+                public void visit(WasmCall expression) {
+                    super.visit(expression);
+                    var callee = module.getFunctions().get(expression.getFunctionName());
+                    if (callee != null && getPartition(callee) != 0 && getPartition(callee) != partition) {
+                        result.add(callee);
+                    }
+                }
+            };
+            for (var part : function.getBody()) {
+                part.acceptVisitor(visitor);
+            }
+        }
+        return result;
+    }
+
+    private void createSlot(WasmFunction function, int partition, WasmModule secondaryModule) {
+        var slot = module.getFunctionTable().size();
+        secondaryModule.getFunctionTable().add(function);
+
+        var thunk = createForwardingFunction(function, "teavm_splitThunk_", slot);
+        var load = new WasmCall(loaderFunction.getName(), new WasmInt32Constant(partition));
+        load.setImported(true);
+        thunk.getBody().add(0, load);
+        module.add(thunk);
+        module.getFunctionTable().add(thunk);
+
+        var stub = createForwardingFunction(function, "teavm_splitStub_", slot);
+        module.add(stub);
+        stubs.put(function, stub);
+    }
+
+    private WasmFunction createForwardingFunction(WasmFunction function, String prefix, int slot) {
+        var result = new WasmFunction(prefix + function.getName());
+        result.getParameters().addAll(function.getParameters());
+        result.setResult(function.getResult());
+
+        var call = new WasmIndirectCall(new WasmInt32Constant(slot));
+        call.getParameterTypes().addAll(function.getParameters());
+        call.setReturnType(function.getResult());
+        for (var type : function.getParameters()) {
+            var local = new WasmLocal(type);
+            result.add(local);
+            call.getArguments().add(new WasmGetLocal(local));
+        }
+        if (function.getResult() != null) {
+            result.getBody().add(new WasmReturn(call));
+        } else {
+            result.getBody().add(call);
+        }
+        return result;
+    }
+
+    /*
+     * Calls to functions of other secondary modules go to stubs. Functions of the primary module, including
+     * stubs, are called by secondary modules through imports.
+     */
+    private void redirectCalls(WasmFunction function, WasmModule targetModule) {
+        var visitor = new WasmDefaultExpressionVisitor() {
+            @Override
+            public void visit(WasmCall expression) {
+                super.visit(expression);
+                var callee = module.getFunctions().get(expression.getFunctionName());
+                if (callee == null) {
+                    var stub = findStub(expression.getFunctionName());
+                    if (stub == null) {
+                        return;
+                    }
+                    callee = stub;
+                    expression.setFunctionName(stub.getName());
+                    expression.setImported(false);
+                }
+                if (targetModule != null) {
+                    if (!targetModule.getFunctions().containsKey(callee.getName())) {
+                        importFunction(callee, targetModule);
+                    }
+                    expression.setImported(true);
+                }
+            }
+
+            private WasmFunction findStub(String name) {
+                for (var secondaryModule : secondaryModules) {
+                    var target = secondaryModule.getFunctions().get(name);
+                    if (target != null) {
+                        return secondaryModule == targetModule ? null : stubs.get(target);
+                    }
+                }
+                return null;
+            }
+        };
+        for (var part : function.getBody()) {
+            part.acceptVisitor(visitor);
+        }
+    }
+
+    private void importFunction(WasmFunction function, WasmModule targetModule) {
+        if (function.getExportName() == null) {
+            function.setExportName("teavm_split_" + exportIndex++);
+        }
+        var imported = new WasmFunction(function.getName());
+        imported.setImportModule(PRIMARY_MODULE_NAME);
+        imported.setImportName(function.getExportName());
+        imported.getParameters().addAll(function.getParameters());
+        imported.setResult(function.getResult());
+        targetModule.add(imported);
+    }
+}
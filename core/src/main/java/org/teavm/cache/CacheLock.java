@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock of a cache directory, that may be shared by several builds, either running
+ * in separate processes or in the same JVM. File locks are held by the whole JVM, so builds within
+ * the same JVM are additionally serialized by an in-process lock.
+ */
+public final class CacheLock implements Closeable {
+    private static final ConcurrentMap<String, ReentrantLock> localLocks = new ConcurrentHashMap<>();
+    private ReentrantLock localLock;
+    private FileChannel channel;
+    private FileLock fileLock;
+
+    private CacheLock(ReentrantLock localLock, FileChannel channel, FileLock fileLock) {
+        this.localLock = localLock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    public static CacheLock acquire(File file) throws IOException {
+        file = file.getCanonicalFile();
+        ReentrantLock localLock = localLocks.computeIfAbsent(file.getPath(), k -> new ReentrantLock());
+        localLock.lock();
+        FileChannel channel = null;
+        try {
+            file.getParentFile().mkdirs();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            return new CacheLock(localLock, channel, channel.lock());
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            localLock.unlock();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            fileLock.release();
+            channel.close();
+        } finally {
+            localLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Keeps cache entries in a single append-only file, which is memory-mapped for reading.
+ * Each entry is a blob of bytes identified by a string key and stamped with the time it was written.
+ * The index of entries is rebuilt from record headers when the store is opened.</p>
+ *
+ * <p>Entries put into the store become visible to {@link #get(String)} immediately, but are written
+ * to disk only by {@link #flush()}. Rewriting an entry leaves the old record in the file; when
+ * such obsolete records take more space than live ones, flush compacts the file.</p>
+ *
+ * <p>The data lives in generation files named after the given file with a numeric suffix, and the one with
+ * the highest number is current. Compaction writes live records to the next generation and then deletes
+ * older ones. Deleting may fail while another process still maps the file (Windows does not allow removing
+ * such a file); the stale generation is deleted by a later flush then. Data is only ever appended to
+ * a generation, never truncated or overwritten below the last valid record, so no file is resized or
+ * replaced under a live mapping.</p>
+ *
+ * <p>Several builds may share one store, provided that they hold {@link CacheLock} while calling
+ * {@link #update()} and {@link #flush()}. A build that is still running keeps reading from the
+ * generation it mapped, even after another build has compacted the store.</p>
+ */
+public class DiskCacheStore {
+    private static final int MAGIC = 0x5456_4D43;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final long MIN_COMPACTION_SIZE = 1 << 20;
+    private File file;
+    private int generation = -1;
+    private MappedByteBuffer mapping;
+    private long size;
+    private long obsoleteSize;
+    private Map<String, Entry> entries = new HashMap<>();
+    private Map<String, byte[]> pendingEntries = new LinkedHashMap<>();
+
+    public DiskCacheStore(File file) {
+        this.file = file;
+    }
+
+    public void update() throws IOException {
+        pendingEntries.clear();
+        open();
+    }
+
+    public ByteBuffer get(String key) {
+        byte[] pending = pendingEntries.get(key);
+        if (pending != null) {
+            return ByteBuffer.wrap(pending).asReadOnlyBuffer();
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer result = mapping.duplicate();
+        result.position((int) entry.offset);
+        result.limit((int) entry.offset + entry.length);
+        return result.slice();
+    }
+
+    public InputStream getStream(String key) {
+        ByteBuffer buffer = get(key);
+        return buffer != null ? new ByteBufferInputStream(buffer) : null;
+    }
+
+    public long getTimestamp(String key) {
+        if (pendingEntries.containsKey(key)) {
+            return System.currentTimeMillis();
+        }
+        Entry entry = entries.get(key);
+        return entry != null ? entry.timestamp : 0;
+    }
+
+    public void put(String key, byte[] data) {
+        pendingEntries.put(key, data);
+    }
+
+    public void flush() throws IOException {
+        if (pendingEntries.isEmpty()) {
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+
+        // Another build that shares the cache could have appended records or compacted the store since
+        // this one was opened, so pick up its changes instead of overwriting them
+        open();
+        if (generation < 0) {
+            generation = 0;
+        }
+
+        long newSize = Math.max(size, HEADER_SIZE) + 4;
+        for (Map.Entry<String, byte[]> pending : pendingEntries.entrySet()) {
+            newSize += recordSize(pending.getKey(), pending.getValue().length);
+        }
+        if (newSize > Integer.MAX_VALUE) {
+            throw new IOException("Cache file " + getDataFile() + " would exceed maximum size");
+        }
+
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (FileChannel channel = FileChannel.open(getDataFile().toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            if (size == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(channel, header, 0);
+                size = HEADER_SIZE;
+            }
+            long position = size;
+            for (Map.Entry<String, byte[]> pending : pendingEntries.entrySet()) {
+                position += writeRecord(channel, position, pending.getKey(), timestamp, pending.getValue());
+            }
+
+            // A truncated record left by an interrupted build may still follow. Instead of truncating
+            // the file, which fails while it is mapped, mark the end of valid records.
+            if (channel.size() > position) {
+                writeFully(channel, ByteBuffer.allocate(4).putInt(0, -1), position);
+            }
+        }
+        pendingEntries.clear();
+
+        map();
+        if (obsoleteSize > MIN_COMPACTION_SIZE && obsoleteSize > size - obsoleteSize) {
+            compact();
+        }
+        deleteStaleGenerations();
+    }
+
+    File getDataFile() {
+        return new File(file.getPath() + "." + generation);
+    }
+
+    private void open() throws IOException {
+        entries.clear();
+        mapping = null;
+        size = 0;
+        obsoleteSize = 0;
+        generation = findLatestGeneration();
+        if (generation >= 0) {
+            map();
+        }
+    }
+
+    private void compact() throws IOException {
+        File target = new File(file.getPath() + "." + (generation + 1));
+        File tmpFile = new File(target.getPath() + ".tmp");
+        List<String> keys = new ArrayList<>(entries.keySet());
+        try (FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(channel, header, 0);
+            long position = HEADER_SIZE;
+            for (String key : keys) {
+                Entry entry = entries.get(key);
+                ByteBuffer data = get(key);
+                byte[] bytes = new byte[data.remaining()];
+                data.get(bytes);
+                position += writeRecord(channel, position, key, entry.timestamp, bytes);
+            }
+        }
+
+        // The target name is new, so the rename does not replace a file that could be mapped
+        try {
+            Files.move(tmpFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), target.toPath());
+        }
+        ++generation;
+        map();
+    }
+
+    private void deleteStaleGenerations() {
+        String[] names = file.getAbsoluteFile().getParentFile().list();
+        if (names == null) {
+            return;
+        }
+        for (String name : names) {
+            int nameGeneration = parseGeneration(name);
+            if (nameGeneration >= 0 && nameGeneration < generation) {
+                // Fails while another process maps the file on Windows; the next flush retries
+                new File(file.getAbsoluteFile().getParentFile(), name).delete();
+            }
+        }
+    }
+
+    private int findLatestGeneration() {
+        String[] names = file.getAbsoluteFile().getParentFile().list();
+        int result = -1;
+        if (names != null) {
+            for (String name : names) {
+                result = Math.max(result, parseGeneration(name));
+            }
+        }
+        return result;
+    }
+
+    private int parseGeneration(String name) {
+        String prefix = file.getName() + ".";
+        if (!name.startsWith(prefix) || name.length() == prefix.length()
+                || name.length() - prefix.length() > 9) {
+            return -1;
+        }
+        for (int i = prefix.length(); i < name.length(); ++i) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(name.substring(prefix.length()));
+    }
+
+    private void map() throws IOException {
+        entries.clear();
+        obsoleteSize = 0;
+        try (FileChannel channel = FileChannel.open(getDataFile().toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                fileSize = 0;
+            }
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+
+        if (mapping.limit() < HEADER_SIZE || mapping.getInt(0) != MAGIC || mapping.getInt(4) != VERSION) {
+            size = 0;
+            return;
+        }
+
+        int position = HEADER_SIZE;
+        while (position + 4 <= mapping.limit()) {
+            int keyLength = mapping.getInt(position);
+            if (keyLength < 0 || position + 16L + keyLength > mapping.limit()) {
+                break;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            ByteBuffer keyBuffer = mapping.duplicate();
+            keyBuffer.position(position + 4);
+            keyBuffer.get(keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+            long timestamp = mapping.getLong(position + 4 + keyLength);
+            int length = mapping.getInt(position + 4 + keyLength + 8);
+            int dataOffset = position + 4 + keyLength + 12;
+            if (length < 0 || dataOffset + (long) length > mapping.limit()) {
+                break;
+            }
+
+            Entry entry = new Entry();
+            entry.offset = dataOffset;
+            entry.length = length;
+            entry.timestamp = timestamp;
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                obsoleteSize += recordSize(key, previous.length);
+            }
+            position = dataOffset + length;
+        }
+        size = position;
+    }
+
+    private static long writeRecord(FileChannel channel, long position, String key, long timestamp, byte[] data)
+            throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(4 + keyBytes.length + 12);
+        header.putInt(keyBytes.length).put(keyBytes).putLong(timestamp).putInt(data.length).flip();
+        writeFully(channel, header, position);
+        writeFully(channel, ByteBuffer.wrap(data), position + header.limit());
+        return header.limit() + data.length;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static long recordSize(String key, int length) {
+        return 4 + key.getBytes(StandardCharsets.UTF_8).length + 12 + length;
+    }
+
+    static class Entry {
+        long offset;
+        int length;
+        long timestamp;
+    }
+
+    static class ByteBufferInputStream extends InputStream {
+        private ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
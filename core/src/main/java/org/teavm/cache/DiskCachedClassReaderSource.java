@@ -15,14 +15,12 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -34,21 +32,36 @@ import org.teavm.model.ClassReaderSource;
 import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
 import org.teavm.parsing.ClassDateProvider;
+import org.teavm.parsing.ClassHashProvider;
 
 public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStatus {
-    private File directory;
+    private DiskCacheStore store;
     private ClassHolderSource innerSource;
     private ClassDateProvider classDateProvider;
+    private ClassHashProvider classHashProvider;
     private Map<String, Item> cache = new LinkedHashMap<>();
     private Set<String> newClasses = new HashSet<>();
     private ClassIO classIO;
 
-    public DiskCachedClassReaderSource(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
+    public DiskCachedClassReaderSource(DiskCacheStore store, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable, ClassHolderSource innerSource,
             ClassDateProvider classDateProvider) {
-        this.directory = directory;
+        this(store, referenceCache, symbolTable, fileTable, variableTable, innerSource, classDateProvider, null);
+    }
+
+    /**
+     * Creates class source that validates cached classes by digests of their class files, if
+     * {@code classHashProvider} is given. Unlike modification dates, digests stay valid when the cache
+     * is shared between several checkouts or machines, so the date provider is only used for classes
+     * that have no digest.
+     */
+    public DiskCachedClassReaderSource(DiskCacheStore store, ReferenceCache referenceCache, SymbolTable symbolTable,
+            SymbolTable fileTable, SymbolTable variableTable, ClassHolderSource innerSource,
+            ClassDateProvider classDateProvider, ClassHashProvider classHashProvider) {
+        this.store = store;
         this.innerSource = innerSource;
         this.classDateProvider = classDateProvider;
+        this.classHashProvider = classHashProvider;
         classIO = new ClassIO(referenceCache, symbolTable, fileTable, variableTable);
     }
 
@@ -72,16 +85,16 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         if (item == null) {
             item = new Item();
             cache.put(name, item);
-            File classFile = new File(directory, name.replace('.', '/') + ".teavm-cls");
-            if (classFile.exists()) {
-                Date classDate = classDateProvider.getModificationDate(name);
-                if (classDate != null && classDate.before(new Date(classFile.lastModified()))) {
-                    try (InputStream input = new BufferedInputStream(new FileInputStream(classFile))) {
+            InputStream input = store.getStream(getKey(name));
+            if (input != null) {
+                try {
+                    byte[] storedHash = readHash(input);
+                    if (isUpToDate(name, storedHash)) {
                         item.cls = classIO.readClass(input, name);
-                    } catch (IOException e) {
-                        // We could not access cache file, so let's parse class file
-                        item.cls = null;
                     }
+                } catch (IOException e) {
+                    // We could not access cache file, so let's parse class file
+                    item.cls = null;
                 }
             }
             if (item.cls == null) {
@@ -93,6 +106,22 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         return item;
     }
 
+    private boolean isUpToDate(String name, byte[] storedHash) {
+        byte[] hash = classHashProvider != null ? classHashProvider.getContentHash(name) : null;
+        if (hash != null) {
+            return Arrays.equals(hash, storedHash);
+        }
+        Date classDate = classDateProvider.getModificationDate(name);
+        return classDate != null && classDate.before(new Date(store.getTimestamp(getKey(name))));
+    }
+
+    private static byte[] readHash(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        byte[] hash = new byte[data.readUnsignedByte()];
+        data.readFully(hash);
+        return hash;
+    }
+
     private static class Item {
         ClassReader cls;
         boolean dirty;
@@ -102,12 +131,22 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         for (String className : newClasses) {
             Item item = cache.get(className);
             if (item.cls != null) {
-                File classFile = new File(directory, className.replace('.', '/') + ".teavm-cls");
-                classFile.getParentFile().mkdirs();
-                try (OutputStream output = new BufferedOutputStream(new FileOutputStream(classFile))) {
-                    classIO.writeClass(output, item.cls);
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] hash = classHashProvider != null ? classHashProvider.getContentHash(className) : null;
+                if (hash == null) {
+                    hash = new byte[0];
                 }
+                DataOutputStream data = new DataOutputStream(output);
+                data.writeByte(hash.length);
+                data.write(hash);
+                classIO.writeClass(output, item.cls);
+                store.put(getKey(className), output.toByteArray());
             }
         }
+        newClasses.clear();
+    }
+
+    private static String getKey(String className) {
+        return "class:" + className;
     }
 }
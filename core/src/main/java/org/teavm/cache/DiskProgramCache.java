@@ -15,18 +15,13 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -38,14 +33,14 @@ import org.teavm.model.ProgramCache;
 import org.teavm.model.ReferenceCache;
 
 public class DiskProgramCache implements ProgramCache {
-    private File directory;
+    private DiskCacheStore store;
     private ProgramIO programIO;
     private Map<MethodReference, Item> cache = new HashMap<>();
     private Set<MethodReference> newMethods = new HashSet<>();
 
-    public DiskProgramCache(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
+    public DiskProgramCache(DiskCacheStore store, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable) {
-        this.directory = directory;
+        this.store = store;
         programIO = new ProgramIO(referenceCache, symbolTable, fileTable, variableTable);
     }
 
@@ -55,9 +50,9 @@ public class DiskProgramCache implements ProgramCache {
         if (item == null) {
             item = new Item();
             cache.put(method, item);
-            File file = getMethodFile(method);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            InputStream stream = store.getStream(getKey(method));
+            if (stream != null) {
+                try {
                     DataInput input = new DataInputStream(stream);
                     int depCount = input.readShort();
                     boolean dependenciesChanged = false;
@@ -91,24 +86,21 @@ public class DiskProgramCache implements ProgramCache {
     public void flush() throws IOException {
         for (MethodReference method : newMethods) {
             Item item = cache.get(method);
-            File file = getMethodFile(method);
-            file.getParentFile().mkdirs();
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            DataOutput output = new DataOutputStream(stream);
 
-            try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
-                DataOutput output = new DataOutputStream(stream);
-
-                output.writeShort(item.dependencies.length);
-                for (String dep : item.dependencies) {
-                    output.writeUTF(dep);
-                }
-                programIO.write(item.program, stream);
+            output.writeShort(item.dependencies.length);
+            for (String dep : item.dependencies) {
+                output.writeUTF(dep);
             }
+            programIO.write(item.program, stream);
+            store.put(getKey(method), stream.toByteArray());
         }
+        newMethods.clear();
     }
 
-    private File getMethodFile(MethodReference method) {
-        File dir = new File(directory, method.getClassName().replace('.', '/'));
-        return new File(dir, FileNameEncoder.encodeFileName(method.getDescriptor().toString()) + ".teavm-opt");
+    private static String getKey(MethodReference method) {
+        return "program:" + method;
     }
 
     static class Item {
@@ -35,6 +35,9 @@ public class FileSymbolTable implements SymbolTable {
         symbols.clear();
         symbolMap.clear();
         firstUnstoredIndex = 0;
+        if (!file.exists()) {
+            return;
+        }
         try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
             while (true) {
                 int length = input.read();
@@ -15,7 +15,10 @@
  */
 package org.teavm.dependency;
 
+import java.util.AbstractSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -48,6 +51,39 @@ class ClassClosureAnalyzer extends AbstractInstructionReader {
         return analyzer.result;
     }
 
+    /**
+     * Same as {@link #build(ClassReaderSource, Collection)}, but computes closure on first access, so that
+     * it costs nothing when the caller ignores it. Should be read before the class source gets disposed.
+     */
+    static Set<? extends String> buildLazily(ClassReaderSource classSource,
+            Collection<? extends String> initialClasses) {
+        return new AbstractSet<>() {
+            Set<? extends String> closure;
+
+            private Set<? extends String> closure() {
+                if (closure == null) {
+                    closure = build(classSource, initialClasses);
+                }
+                return closure;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return Collections.<String>unmodifiableSet(closure()).iterator();
+            }
+
+            @Override
+            public int size() {
+                return closure().size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return closure().contains(o);
+            }
+        };
+    }
+
     void build(String className) {
         if (!result.add(className)) {
             return;
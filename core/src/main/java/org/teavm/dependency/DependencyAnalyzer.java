@@ -21,12 +21,14 @@ import com.carrotsearch.hppc.cursors.IntCursor;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -698,8 +700,20 @@ public abstract class DependencyAnalyzer implements DependencyInfo {
             listener.complete();
         }
 
+        shareTypeSets();
+
         if (dependencyReport) {
             reportDependencies();
+            reportMemory();
+        }
+    }
+
+    private void shareTypeSets() {
+        Map<BitSet, BitSet> sharedTypes = new HashMap<>();
+        for (DependencyNode node : allNodes) {
+            if (node.typeSet != null && node.typeSet.origin == node) {
+                node.typeSet.share(sharedTypes);
+            }
         }
     }
 
@@ -724,6 +738,32 @@ public abstract class DependencyAnalyzer implements DependencyInfo {
         System.out.println("Total domains: " + domainCount);
     }
 
+    private void reportMemory() {
+        int domainCount = 0;
+        int[] sizeHistogram = new int[5];
+        long typeSetBytes = 0;
+        Set<Object> storages = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DependencyNode node : allNodes) {
+            if (node.typeSet == null || node.typeSet.origin != node) {
+                continue;
+            }
+            ++domainCount;
+            int count = node.typeSet.typeCount();
+            sizeHistogram[count == 0 ? 0 : count == 1 ? 1 : count <= 3 ? 2 : count <= 15 ? 3 : 4]++;
+            Object storage = node.typeSet.getStorage();
+            if (storage != null && storages.add(storage)) {
+                typeSetBytes += TypeSet.storageSize(storage);
+            }
+        }
+
+        System.out.println("Dependency nodes: " + allNodes.size());
+        System.out.println("Type sets: " + domainCount + " (" + sizeHistogram[0] + " empty, "
+                + sizeHistogram[1] + " with 1 type, " + sizeHistogram[2] + " with 2-3 types, "
+                + sizeHistogram[3] + " with 4-15 types, " + sizeHistogram[4] + " with more types)");
+        System.out.println("Distinct type storages: " + storages.size() + ", " + typeSetBytes + " bytes");
+        System.out.println("Types: " + types.size());
+    }
+
     public void cleanup(ClassSourcePacker classSourcePacker) {
         for (DependencyNode node : allNodes) {
             node.followers = null;
@@ -764,8 +804,10 @@ public abstract class DependencyAnalyzer implements DependencyInfo {
         agent.cleanup();
         listeners.clear();
 
+        // Computing class closure reads programs of all loaded methods, even of ones that were never reached,
+        // so don't do it unless the packer actually looks at the closure
         agentClassSource = classSourcePacker.pack(classSource,
-                ClassClosureAnalyzer.build(classSource, new ArrayList<>(classSource.cache.keySet())));
+                ClassClosureAnalyzer.buildLazily(classSource, new ArrayList<>(classSource.cache.keySet())));
         if (classSource != agentClassSource) {
             classHierarchy = new ClassHierarchy(agentClassSource);
             generatedClassNames.addAll(classSource.getGeneratedClassNames());
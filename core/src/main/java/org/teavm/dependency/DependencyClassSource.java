@@ -31,9 +31,11 @@ import org.teavm.model.ClassHolderTransformerContext;
 import org.teavm.model.ClassReader;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReader;
 import org.teavm.model.optimization.UnreachableBasicBlockEliminator;
 import org.teavm.model.transformation.ClassInitInsertion;
 import org.teavm.model.util.ModelUtils;
+import org.teavm.model.util.ProgramUtils;
 
 class DependencyClassSource implements ClassHolderSource {
     private ClassReaderSource innerSource;
@@ -92,14 +94,10 @@ class DependencyClassSource implements ClassHolderSource {
                 }
             }
             for (var method : cls.getMethods()) {
-                if (method.getProgram() != null) {
-                    var program = method.getProgram();
-                    method.setProgramSupplier(m -> {
-                        referenceResolver.resolve(m, program);
-                        classInitInsertion.apply(m, program);
-                        return program;
-                    });
-                }
+                method.transformProgram(program -> {
+                    referenceResolver.resolve(method, program);
+                    classInitInsertion.apply(method, program);
+                });
             }
         }
         return cls;
@@ -108,11 +106,22 @@ class DependencyClassSource implements ClassHolderSource {
     private ClassHolder findClass(String name) {
         ClassReader cls = innerSource.get(name);
         if (cls != null) {
-            return ModelUtils.copyClass(cls);
+            ClassHolder copy = ModelUtils.copyClass(cls, false);
+            for (MethodHolder method : copy.getMethods()) {
+                MethodReader original = cls.getMethod(method.getDescriptor());
+                if (hasProgram(original)) {
+                    method.setProgramSupplier(m -> ProgramUtils.copy(original.getProgram()));
+                }
+            }
+            return copy;
         }
         return generatedClasses.get(name);
     }
 
+    private static boolean hasProgram(MethodReader method) {
+        return method instanceof MethodHolder ? ((MethodHolder) method).hasProgram() : method.getProgram() != null;
+    }
+
     Collection<String> getGeneratedClassNames() {
         return generatedClasses.keySet();
     }
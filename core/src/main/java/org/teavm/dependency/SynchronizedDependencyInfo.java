@@ -0,0 +1,275 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import java.util.Collection;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReference;
+import org.teavm.model.SynchronizedClassReaderSource;
+
+/**
+ * Read-only view of dependency information which can be shared between threads once dependency analysis
+ * has finished. Lookups are serialized, since the analyzer resolves some of them lazily. This also applies
+ * to method, field and value information obtained through this view.
+ */
+public class SynchronizedDependencyInfo implements DependencyInfo {
+    private final DependencyInfo innerInfo;
+    private final ClassReaderSource classSource;
+    private final Object lock;
+
+    public SynchronizedDependencyInfo(DependencyInfo innerInfo, Object lock) {
+        this.innerInfo = innerInfo;
+        this.lock = lock;
+        classSource = new SynchronizedClassReaderSource(innerInfo.getClassSource(), lock);
+    }
+
+    @Override
+    public ClassReaderSource getClassSource() {
+        return classSource;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return innerInfo.getClassLoader();
+    }
+
+    @Override
+    public Collection<MethodReference> getReachableMethods() {
+        synchronized (lock) {
+            return innerInfo.getReachableMethods();
+        }
+    }
+
+    @Override
+    public Collection<FieldReference> getReachableFields() {
+        synchronized (lock) {
+            return innerInfo.getReachableFields();
+        }
+    }
+
+    @Override
+    public Collection<String> getReachableClasses() {
+        synchronized (lock) {
+            return innerInfo.getReachableClasses();
+        }
+    }
+
+    @Override
+    public FieldDependencyInfo getField(FieldReference fieldRef) {
+        FieldDependencyInfo field;
+        synchronized (lock) {
+            field = innerInfo.getField(fieldRef);
+        }
+        return field != null ? new SynchronizedFieldInfo(field) : null;
+    }
+
+    @Override
+    public MethodDependencyInfo getMethod(MethodReference methodRef) {
+        MethodDependencyInfo method;
+        synchronized (lock) {
+            method = innerInfo.getMethod(methodRef);
+        }
+        return method != null ? new SynchronizedMethodInfo(method) : null;
+    }
+
+    @Override
+    public MethodDependencyInfo getMethodImplementation(MethodReference methodRef) {
+        MethodDependencyInfo method;
+        synchronized (lock) {
+            method = innerInfo.getMethodImplementation(methodRef);
+        }
+        return method != null ? new SynchronizedMethodInfo(method) : null;
+    }
+
+    @Override
+    public ClassDependencyInfo getClass(String className) {
+        synchronized (lock) {
+            return innerInfo.getClass(className);
+        }
+    }
+
+    @Override
+    public CallGraph getCallGraph() {
+        synchronized (lock) {
+            return innerInfo.getCallGraph();
+        }
+    }
+
+    private ValueDependencyInfo wrap(ValueDependencyInfo value) {
+        return value != null ? new SynchronizedValueInfo(value) : null;
+    }
+
+    class SynchronizedMethodInfo implements MethodDependencyInfo {
+        private final MethodDependencyInfo inner;
+
+        SynchronizedMethodInfo(MethodDependencyInfo inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public ValueDependencyInfo[] getVariables() {
+            ValueDependencyInfo[] variables;
+            synchronized (lock) {
+                variables = inner.getVariables();
+            }
+            var result = new ValueDependencyInfo[variables.length];
+            for (int i = 0; i < variables.length; ++i) {
+                result[i] = wrap(variables[i]);
+            }
+            return result;
+        }
+
+        @Override
+        public int getVariableCount() {
+            synchronized (lock) {
+                return inner.getVariableCount();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getVariable(int index) {
+            synchronized (lock) {
+                return wrap(inner.getVariable(index));
+            }
+        }
+
+        @Override
+        public int getParameterCount() {
+            synchronized (lock) {
+                return inner.getParameterCount();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getResult() {
+            synchronized (lock) {
+                return wrap(inner.getResult());
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getThrown() {
+            synchronized (lock) {
+                return wrap(inner.getThrown());
+            }
+        }
+
+        @Override
+        public MethodReference getReference() {
+            return inner.getReference();
+        }
+
+        @Override
+        public boolean isUsed() {
+            synchronized (lock) {
+                return inner.isUsed();
+            }
+        }
+
+        @Override
+        public boolean isCalled() {
+            synchronized (lock) {
+                return inner.isCalled();
+            }
+        }
+
+        @Override
+        public boolean isMissing() {
+            synchronized (lock) {
+                return inner.isMissing();
+            }
+        }
+    }
+
+    class SynchronizedFieldInfo implements FieldDependencyInfo {
+        private final FieldDependencyInfo inner;
+
+        SynchronizedFieldInfo(FieldDependencyInfo inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public ValueDependencyInfo getValue() {
+            synchronized (lock) {
+                return wrap(inner.getValue());
+            }
+        }
+
+        @Override
+        public FieldReference getReference() {
+            return inner.getReference();
+        }
+
+        @Override
+        public boolean isMissing() {
+            synchronized (lock) {
+                return inner.isMissing();
+            }
+        }
+    }
+
+    class SynchronizedValueInfo implements ValueDependencyInfo {
+        private final ValueDependencyInfo inner;
+
+        SynchronizedValueInfo(ValueDependencyInfo inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public String[] getTypes() {
+            synchronized (lock) {
+                return inner.getTypes();
+            }
+        }
+
+        @Override
+        public boolean hasType(String type) {
+            synchronized (lock) {
+                return inner.hasType(type);
+            }
+        }
+
+        @Override
+        public boolean hasMoreTypesThan(int limit) {
+            synchronized (lock) {
+                return inner.hasMoreTypesThan(limit);
+            }
+        }
+
+        @Override
+        public boolean hasArrayType() {
+            synchronized (lock) {
+                return inner.hasArrayType();
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getArrayItem() {
+            synchronized (lock) {
+                return wrap(inner.getArrayItem());
+            }
+        }
+
+        @Override
+        public ValueDependencyInfo getClassValueNode() {
+            synchronized (lock) {
+                return wrap(inner.getClassValueNode());
+            }
+        }
+    }
+}
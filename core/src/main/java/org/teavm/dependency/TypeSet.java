@@ -22,16 +22,26 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 
+/*
+ * Types are kept in one of three forms. Up to SMALL_TYPES_THRESHOLD types are stored in an array in insertion
+ * order. Up to SORTED_TYPES_THRESHOLD types are stored in a sorted array, so they are iterated in the same order
+ * as a bit set would be. Larger sets are stored in a bit set that only grows as far as the largest index it
+ * contains. Arrays are never modified in place, and a bit set marked as shared is cloned before modification,
+ * so both can be shared between type sets.
+ */
 class TypeSet {
     private static final int SMALL_TYPES_THRESHOLD = 3;
+    private static final int SORTED_TYPES_THRESHOLD = 15;
     static final DependencyType[] EMPTY_TYPES = new DependencyType[0];
     private DependencyAnalyzer dependencyAnalyzer;
     DependencyNode origin;
     private int[] smallTypes;
     private BitSet types;
+    private boolean typesShared;
     private int typesCount;
 
     Set<DependencyNode> domain = new LinkedHashSet<>();
@@ -50,20 +60,34 @@ class TypeSet {
                 smallTypes = new int[] { type.index };
                 return;
             }
-        }
-        if (smallTypes != null) {
-            if (smallTypes.length == SMALL_TYPES_THRESHOLD) {
-                types = new BitSet(dependencyAnalyzer.types.size() * 2);
-                for (int existingType : smallTypes) {
-                    types.set(existingType);
-                }
-                typesCount = smallTypes.length;
-                smallTypes = null;
-            } else {
+            if (smallTypes.length < SMALL_TYPES_THRESHOLD) {
                 smallTypes = Arrays.copyOf(smallTypes, smallTypes.length + 1);
                 smallTypes[smallTypes.length - 1] = type.index;
                 return;
             }
+            if (smallTypes.length < SORTED_TYPES_THRESHOLD) {
+                int[] sortedTypes = smallTypes;
+                if (smallTypes.length == SMALL_TYPES_THRESHOLD) {
+                    sortedTypes = smallTypes.clone();
+                    Arrays.sort(sortedTypes);
+                }
+                int position = -Arrays.binarySearch(sortedTypes, type.index) - 1;
+                smallTypes = new int[sortedTypes.length + 1];
+                System.arraycopy(sortedTypes, 0, smallTypes, 0, position);
+                smallTypes[position] = type.index;
+                System.arraycopy(sortedTypes, position, smallTypes, position + 1, sortedTypes.length - position);
+                return;
+            }
+
+            types = new BitSet(Math.max(type.index, smallTypes[smallTypes.length - 1]) + 1);
+            for (int existingType : smallTypes) {
+                types.set(existingType);
+            }
+            typesCount = smallTypes.length;
+            smallTypes = null;
+        } else if (typesShared) {
+            types = (BitSet) types.clone();
+            typesShared = false;
         }
         types.set(type.index);
         typesCount++;
@@ -183,6 +207,9 @@ class TypeSet {
 
     boolean hasType(DependencyType type) {
         if (smallTypes != null) {
+            if (smallTypes.length > SMALL_TYPES_THRESHOLD) {
+                return Arrays.binarySearch(smallTypes, type.index) >= 0;
+            }
             for (int i = 0; i < smallTypes.length; ++i) {
                 if (smallTypes[i] == type.index) {
                     return true;
@@ -199,12 +226,37 @@ class TypeSet {
 
     TypeSet copy(DependencyNode origin) {
         TypeSet result = new TypeSet(dependencyAnalyzer, origin);
-        result.types = types != null ? (BitSet) types.clone() : null;
+        result.types = types;
         result.smallTypes = smallTypes;
         result.typesCount = typesCount;
+        if (types != null) {
+            typesShared = true;
+            result.typesShared = true;
+        }
         return result;
     }
 
+    void share(Map<BitSet, BitSet> sharedTypes) {
+        if (types != null) {
+            types = sharedTypes.computeIfAbsent(types, key -> key);
+            typesShared = true;
+        }
+    }
+
+    Object getStorage() {
+        return types != null ? types : smallTypes;
+    }
+
+    static long storageSize(Object storage) {
+        if (storage instanceof BitSet) {
+            return 40 + ((((BitSet) storage).size() / 8 + 7) & ~7);
+        } else if (storage instanceof int[]) {
+            return 16 + ((((int[]) storage).length * 4 + 7) & ~7);
+        } else {
+            return 0;
+        }
+    }
+
     void invalidate() {
         transitions = null;
         consumers = null;
@@ -16,6 +16,7 @@
 package org.teavm.model;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class MethodHolder extends MemberHolder implements MethodReader {
@@ -172,6 +173,25 @@ public class MethodHolder extends MemberHolder implements MethodReader {
         this.programSupplier = programSupplier;
     }
 
+    /**
+     * Applies transformation to the program of this method when the program is requested for the first time.
+     * Postponed transformations are applied in the same order they were passed to this method.
+     */
+    public void transformProgram(Consumer<Program> transformation) {
+        if (!hasProgram()) {
+            return;
+        }
+        Function<MethodHolder, Program> previousSupplier = programSupplier;
+        Program previousProgram = program;
+        setProgramSupplier(method -> {
+            Program result = previousSupplier != null ? previousSupplier.apply(method) : previousProgram;
+            if (result != null) {
+                transformation.accept(result);
+            }
+            return result;
+        });
+    }
+
     @Override
     public AnnotationValue getAnnotationDefault() {
         return annotationDefault;
@@ -51,11 +51,11 @@ public class PreOptimizingClassHolderSource implements ClassHolderSource {
         }
         NoSuchFieldCatchElimination noSuchFieldCatchElimination = new NoSuchFieldCatchElimination();
         for (MethodHolder method : cls.getMethods()) {
-            if (method.getProgram() != null) {
-                noSuchFieldCatchElimination.apply(method.getProgram());
-                new GlobalValueNumbering(true).optimize(method.getProgram());
-                new UnusedVariableElimination().optimize(method, method.getProgram());
-            }
+            method.transformProgram(program -> {
+                noSuchFieldCatchElimination.apply(program);
+                new GlobalValueNumbering(true).optimize(program);
+                new UnusedVariableElimination().optimize(method, program);
+            });
         }
         return cls;
     }
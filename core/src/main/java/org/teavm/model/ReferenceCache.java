@@ -15,18 +15,22 @@
  */
 package org.teavm.model;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Keeps a single instance of every equal reference, type and name. Can be shared between threads, which
+ * is what compilations running in parallel do to share parsed method bodies as well.
+ */
 public class ReferenceCache {
-    private Map<String, Map<MethodDescriptor, MethodReference>> referenceCache = new HashMap<>();
-    private Map<FieldReference, FieldReference> fieldRefenceCache = new HashMap<>();
-    private Map<MethodDescriptor, MethodDescriptor> descriptorCache = new HashMap<>();
-    private Map<ValueType, ValueType> valueTypeCache = new HashMap<>();
-    private Map<GenericValueType, GenericValueType> genericValueTypeCache = new HashMap<>();
-    private Map<String, String> stringCache = new HashMap<>();
-    private Map<String, MethodDescriptor> descriptorParseCache = new HashMap<>();
-    private Map<String, ValueType> valueTypeParseCache = new HashMap<>();
+    private Map<String, Map<MethodDescriptor, MethodReference>> referenceCache = new ConcurrentHashMap<>();
+    private Map<FieldReference, FieldReference> fieldRefenceCache = new ConcurrentHashMap<>();
+    private Map<MethodDescriptor, MethodDescriptor> descriptorCache = new ConcurrentHashMap<>();
+    private Map<ValueType, ValueType> valueTypeCache = new ConcurrentHashMap<>();
+    private Map<GenericValueType, GenericValueType> genericValueTypeCache = new ConcurrentHashMap<>();
+    private Map<String, String> stringCache = new ConcurrentHashMap<>();
+    private Map<String, MethodDescriptor> descriptorParseCache = new ConcurrentHashMap<>();
+    private Map<String, ValueType> valueTypeParseCache = new ConcurrentHashMap<>();
 
     public MethodReference getCached(MethodReference reference) {
         return getCached(reference.getClassName(), reference.getDescriptor());
@@ -34,7 +38,7 @@ public class ReferenceCache {
 
     public MethodReference getCached(String className, MethodDescriptor descriptor) {
         return referenceCache
-                .computeIfAbsent(className, key -> new HashMap<>())
+                .computeIfAbsent(className, key -> new ConcurrentHashMap<>())
                 .computeIfAbsent(getCached(descriptor), key -> new MethodReference(className, key));
     }
 
@@ -58,7 +62,7 @@ public class ReferenceCache {
             if (signatureChanged) {
                 result = new MethodDescriptor(descriptor.getName(), signature);
             }
-            descriptorCache.put(result, result);
+            result = putIfAbsent(descriptorCache, result);
         }
         return result;
     }
@@ -72,13 +76,13 @@ public class ReferenceCache {
             if (classNameCached != reference.getClassName() || fieldNameCached != reference.getFieldName()) {
                 result = new FieldReference(classNameCached, fieldNameCached);
             }
-            fieldRefenceCache.put(result, result);
+            result = putIfAbsent(fieldRefenceCache, result);
         }
         return result;
     }
 
     public ValueType getCached(ValueType valueType) {
-        if (valueType instanceof ValueType.Primitive) {
+        if (valueType == null || valueType instanceof ValueType.Primitive) {
             return valueType;
         }
 
@@ -98,13 +102,13 @@ public class ReferenceCache {
                     result = ValueType.arrayOf(cachedItem);
                 }
             }
-            valueTypeCache.put(result, result);
+            result = putIfAbsent(valueTypeCache, result);
         }
         return result;
     }
 
     public GenericValueType getCached(GenericValueType valueType) {
-        if (valueType instanceof GenericValueType.Primitive
+        if (valueType == null || valueType instanceof GenericValueType.Primitive
                 || valueType instanceof GenericValueType.Variable
                 || valueType instanceof GenericValueType.Void) {
             return valueType;
@@ -158,17 +162,19 @@ public class ReferenceCache {
                     result = new GenericValueType.Array(cachedItem);
                 }
             }
-            genericValueTypeCache.put(result, result);
+            result = putIfAbsent(genericValueTypeCache, result);
         }
 
         return result;
     }
 
     public String getCached(String s) {
+        if (s == null) {
+            return null;
+        }
         String result = stringCache.get(s);
         if (result == null) {
-            result = s;
-            stringCache.put(result, result);
+            result = putIfAbsent(stringCache, s);
         }
         return result;
     }
@@ -177,7 +183,7 @@ public class ReferenceCache {
         MethodDescriptor result = descriptorParseCache.get(value);
         if (result == null) {
             result = getCached(MethodDescriptor.parse(value));
-            descriptorParseCache.put(value, result);
+            descriptorParseCache.putIfAbsent(value, result);
         }
         return result;
     }
@@ -186,8 +192,13 @@ public class ReferenceCache {
         ValueType result = valueTypeParseCache.get(value);
         if (result == null) {
             result = getCached(ValueType.parse(value));
-            valueTypeParseCache.put(value, result);
+            valueTypeParseCache.putIfAbsent(value, result);
         }
         return result;
     }
+
+    private static <T> T putIfAbsent(Map<T, T> cache, T value) {
+        T existing = cache.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model;
+
+/**
+ * Serializes access to a class source that was not designed for concurrent use (for example, one that
+ * lazily transforms or caches classes). All instances that share the same lock are mutually exclusive.
+ */
+public class SynchronizedClassReaderSource implements ClassReaderSource {
+    private final ClassReaderSource innerSource;
+    private final Object lock;
+
+    public SynchronizedClassReaderSource(ClassReaderSource innerSource, Object lock) {
+        this.innerSource = innerSource;
+        this.lock = lock;
+    }
+
+    public SynchronizedClassReaderSource(ClassReaderSource innerSource) {
+        this(innerSource, new Object());
+    }
+
+    @Override
+    public ClassReader get(String name) {
+        synchronized (lock) {
+            return innerSource.get(name);
+        }
+    }
+}
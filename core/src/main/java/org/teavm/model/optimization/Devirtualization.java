@@ -224,4 +224,15 @@ public class Devirtualization {
     public Set<? extends MethodReference> getVirtualMethods() {
         return readonlyVirtualMethods;
     }
+
+    /**
+     * Adds results collected by another instance, which was applied to a disjoint set of methods.
+     */
+    public void merge(Devirtualization other) {
+        virtualMethods.addAll(other.virtualMethods);
+        virtualCallSites += other.virtualCallSites;
+        directCallSites += other.directCallSites;
+        remainingCasts += other.remainingCasts;
+        eliminatedCasts += other.eliminatedCasts;
+    }
 }
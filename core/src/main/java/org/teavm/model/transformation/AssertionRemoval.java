@@ -33,9 +33,7 @@ public class AssertionRemoval implements ClassHolderTransformer {
     @Override
     public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
         for (MethodHolder method : cls.getMethods()) {
-            if (method.getProgram() != null) {
-                removeAssertions(method.getProgram());
-            }
+            method.transformProgram(this::removeAssertions);
         }
     }
 
@@ -37,7 +37,7 @@ public class ClassPatch implements ClassHolderTransformer {
             return;
         }
         for (MethodHolder method : cls.getMethods()) {
-            patchProgram(method.getProgram());
+            method.transformProgram(this::patchProgram);
         }
     }
     
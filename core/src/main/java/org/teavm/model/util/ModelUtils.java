@@ -71,7 +71,7 @@ public final class ModelUtils {
         MethodHolder copy = new MethodHolder(method.getDescriptor());
         copy.setLevel(method.getLevel());
         copy.getModifiers().addAll(method.readModifiers());
-        if (method.getProgram() != null && withProgram) {
+        if (withProgram && method.getProgram() != null) {
             copy.setProgram(ProgramUtils.copy(method.getProgram()));
         }
         copyAnnotations(method.getAnnotations(), copy.getAnnotations());
@@ -0,0 +1,31 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing;
+
+/**
+ * Provides digests of class files, so that cached data can be validated by content rather than by
+ * modification date. Unlike dates, digests do not change when the same class file is checked out anew or
+ * built on another machine.
+ */
+public interface ClassHashProvider {
+    /**
+     * Computes digest of the class file the given class is parsed from.
+     *
+     * @param className name of the class, as seen by the compiler.
+     * @return digest of the class file or {@code null}, if the class file is not available.
+     */
+    byte[] getContentHash(String className);
+}
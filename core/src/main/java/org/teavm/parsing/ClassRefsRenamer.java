@@ -127,16 +127,15 @@ public class ClassRefsRenamer extends AbstractInstructionVisitor {
                 new MethodDescriptor(methodName, signature)));
         renamedMethod.getModifiers().addAll(method.getModifiers());
         renamedMethod.setLevel(method.getLevel());
-        renamedMethod.setProgram(method.getProgram());
+        if (method.hasProgram()) {
+            renamedMethod.setProgramSupplier(m -> method.getProgram());
+            renamedMethod.transformProgram(this::rename);
+        }
         rename(method.getAnnotations(), renamedMethod.getAnnotations());
         for (int i = 0; i < method.parameterCount(); ++i) {
             rename(method.parameterAnnotation(i), renamedMethod.parameterAnnotation(i));
         }
 
-        if (renamedMethod.getProgram() != null) {
-            rename(renamedMethod.getProgram());
-        }
-
         renamedMethod.setTypeParameters(rename(method.getTypeParameters()));
         GenericValueType genericResultType = method.getGenericResultType();
         if (genericResultType != null) {
@@ -23,7 +23,7 @@ import org.teavm.parsing.resource.ClasspathResourceReader;
 import org.teavm.parsing.resource.MapperClassHolderSource;
 import org.teavm.parsing.resource.ResourceClassHolderMapper;
 
-public class ClasspathClassHolderSource implements ClassHolderSource, ClassDateProvider {
+public class ClasspathClassHolderSource implements ClassHolderSource, ClassDateProvider, ClassHashProvider {
     private MapperClassHolderSource innerClassSource;
     private ClasspathResourceMapper classPathMapper;
 
@@ -47,4 +47,9 @@ public class ClasspathClassHolderSource implements ClassHolderSource, ClassDateP
     public Date getModificationDate(String className) {
         return classPathMapper.getModificationDate(className);
     }
+
+    @Override
+    public byte[] getContentHash(String className) {
+        return classPathMapper.getContentHash(className);
+    }
 }
@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Enumeration;
@@ -28,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import org.teavm.common.CachedFunction;
 import org.teavm.model.ClassHolder;
@@ -40,7 +43,8 @@ import org.teavm.parsing.substitution.OrderedProperties;
 import org.teavm.parsing.substitution.PrefixMapping;
 import org.teavm.vm.spi.ElementFilter;
 
-public class ClasspathResourceMapper implements Function<String, ClassHolder>, ClassDateProvider {
+public class ClasspathResourceMapper implements Function<String, ClassHolder>, ClassDateProvider,
+        ClassHashProvider {
     private static final String STRIP_PREFIX_FROM_PREFIX = "stripPrefixFrom";
     private static final String STRIP_PREFIX_FROM_PACKAGE_HIERARCHY_PREFIX =
             STRIP_PREFIX_FROM_PREFIX + "PackageHierarchyClasses";
@@ -54,10 +58,13 @@ public class ClasspathResourceMapper implements Function<String, ClassHolder>, C
     private static final String INCLUDE_PACKAGE_PREFIX = INCLUDE_PREFIX + "Package";
     private static final String INCLUDE_CLASS_PREFIX = INCLUDE_PREFIX + "Class";
     private static final Date VOID_DATE = new Date(0);
+    private static final byte[] VOID_HASH = new byte[0];
+    private static final Map<String, CachedDigest> digestCache = new ConcurrentHashMap<>();
     private Function<String, ClassHolder> innerMapper;
     private ClassRefsRenamer renamer;
     private ClassLoader classLoader;
     private Map<String, Date> modificationDates = new HashMap<>();
+    private Map<String, byte[]> contentHashes = new HashMap<>();
     private List<ElementFilter> elementFilters = new ArrayList<>();
     private ClassMappings classMappings = new ClassMappings();
     private PrefixMapping prefixMapping = new PrefixMapping();
@@ -167,6 +174,16 @@ public class ClasspathResourceMapper implements Function<String, ClassHolder>, C
         return mdate == VOID_DATE ? null : mdate;
     }
 
+    @Override
+    public byte[] getContentHash(String className) {
+        byte[] hash = contentHashes.get(className);
+        if (hash == null) {
+            hash = getOriginalContentHash(className);
+            contentHashes.put(className, hash);
+        }
+        return hash == VOID_HASH ? null : hash;
+    }
+
     private String toUnmappedClassName(String name) {
         if (classExclusions.apply(name)) {
             return name;
@@ -189,10 +206,92 @@ public class ClasspathResourceMapper implements Function<String, ClassHolder>, C
         if (url == null) {
             return null;
         }
+        File file = getClassFileLocation(url);
+        return file != null && file.exists() ? new Date(file.lastModified()) : null;
+    }
+
+    private URL findClassResource(String name) {
+        for (String mappedClassName : classMappings.apply(name)) {
+            URL url = getClassResource(mappedClassName);
+            if (url != null) {
+                return url;
+            }
+        }
+        for (String mappedClassName : packageMappings.apply(name)) {
+            URL url = getClassResource(prefixMapping.apply(mappedClassName));
+            if (url != null) {
+                return url;
+            }
+        }
+        return getClassResource(name);
+    }
+
+    private URL getClassResource(String className) {
+        if (classExclusions.apply(className)) {
+            return null;
+        }
+        return classLoader.getResource(className.replace('.', '/') + ".class");
+    }
+
+    /*
+     * Hash is a digest of class file content, so it is the same in every checkout and on every machine.
+     * To avoid reading every class file on each build, digests are remembered for the lifetime of the process
+     * and reused while the file they were read from (a class file or a jar) keeps its size and modification date.
+     */
+    private byte[] getOriginalContentHash(String className) {
+        if (classLoader == null) {
+            return VOID_HASH;
+        }
+        URL url = findClassResource(className);
+        if (url == null) {
+            return VOID_HASH;
+        }
+        String key = url.toString();
+        File file = getClassFileLocation(url);
+        long length = 0;
+        long lastModified = 0;
+        if (file != null) {
+            length = file.length();
+            lastModified = file.lastModified();
+            CachedDigest cached = digestCache.get(key);
+            if (cached != null && cached.length == length && cached.lastModified == lastModified) {
+                return cached.digest;
+            }
+        }
+        byte[] digest = digest(url);
+        if (file != null && digest != VOID_HASH) {
+            digestCache.put(key, new CachedDigest(length, lastModified, digest));
+        }
+        return digest;
+    }
+
+    private static byte[] digest(URL url) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            return VOID_HASH;
+        }
+        try (InputStream input = url.openStream()) {
+            byte[] buffer = new byte[4096];
+            while (true) {
+                int bytesRead = input.read(buffer);
+                if (bytesRead < 0) {
+                    break;
+                }
+                digest.update(buffer, 0, bytesRead);
+            }
+        } catch (IOException e) {
+            // If class file can't be read, we just report that class should be reparsed
+            return VOID_HASH;
+        }
+        return digest.digest();
+    }
+
+    private static File getClassFileLocation(URL url) {
         if (url.getProtocol().equals("file")) {
             try {
-                File file = new File(url.toURI());
-                return file.exists() ? new Date(file.lastModified()) : null;
+                return new File(url.toURI());
             } catch (URISyntaxException e) {
                 // If URI is invalid, we just report that class should be reparsed
                 return null;
@@ -200,8 +299,7 @@ public class ClasspathResourceMapper implements Function<String, ClassHolder>, C
         } else if (url.getProtocol().equals("jar") && url.getPath().startsWith("file:")) {
             int exclIndex = url.getPath().indexOf('!');
             String jarFileName = exclIndex >= 0 ? url.getPath().substring(0, exclIndex) : url.getPath();
-            File file = new File(jarFileName.substring("file:".length()));
-            return file.exists() ? new Date(file.lastModified()) : null;
+            return new File(jarFileName.substring("file:".length()));
         } else {
             return null;
         }
@@ -252,4 +350,16 @@ public class ClasspathResourceMapper implements Function<String, ClassHolder>, C
             }
         }
     }
-}
\ No newline at end of file
+
+    private static class CachedDigest {
+        final long length;
+        final long lastModified;
+        final byte[] digest;
+
+        CachedDigest(long length, long lastModified, byte[] digest) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+    }
+}
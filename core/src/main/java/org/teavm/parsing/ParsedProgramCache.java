@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.Program;
+import org.teavm.model.ReferenceCache;
+import org.teavm.model.util.ProgramUtils;
+
+/**
+ * <p>Cache of method bodies parsed from class files. Repeated builds that share a {@link ReferenceCache},
+ * like ones run by the build daemon or the development server, parse each method of the class library
+ * only once.</p>
+ *
+ * <p>Parsed programs contain references taken from the reference cache of the parser, so cached bodies
+ * are kept per reference cache and are never handed to a build that uses another one. The reference cache
+ * is held weakly, so all bodies parsed with it are dropped together with it.</p>
+ *
+ * <p>Entries are identified by class name and content of the class file, so a class that was recompiled
+ * between builds is parsed again. Entries are softly referenced and may be dropped whenever memory gets
+ * low. Every build receives its own copy of a cached program, since programs are modified by later
+ * phases.</p>
+ */
+public final class ParsedProgramCache {
+    private static final Map<ReferenceCache, Entries> entriesByReferenceCache = new WeakHashMap<>();
+    private final byte[] classFile;
+    private final Map<MethodDescriptor, Program> programs = new HashMap<>();
+
+    private ParsedProgramCache(byte[] classFile) {
+        this.classFile = classFile;
+    }
+
+    public static ParsedProgramCache forClass(ReferenceCache referenceCache, String className, byte[] classFile) {
+        Entries entries;
+        synchronized (entriesByReferenceCache) {
+            entries = entriesByReferenceCache.computeIfAbsent(referenceCache, k -> new Entries());
+        }
+        return entries.get(className, classFile);
+    }
+
+    public synchronized Program get(MethodDescriptor method, Supplier<Program> parser) {
+        Program program = programs.get(method);
+        if (program == null) {
+            program = parser.get();
+            programs.put(method, program);
+        }
+        return ProgramUtils.copy(program);
+    }
+
+    private static class Entries {
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final ReferenceQueue<ParsedProgramCache> queue = new ReferenceQueue<>();
+
+        synchronized ParsedProgramCache get(String className, byte[] classFile) {
+            removeClearedEntries();
+            Entry entry = entries.get(className);
+            ParsedProgramCache cache = entry != null ? entry.get() : null;
+            if (cache == null || !Arrays.equals(cache.classFile, classFile)) {
+                cache = new ParsedProgramCache(classFile);
+                entries.put(className, new Entry(className, cache, queue));
+            }
+            return cache;
+        }
+
+        private void removeClearedEntries() {
+            while (true) {
+                Entry entry = (Entry) queue.poll();
+                if (entry == null) {
+                    break;
+                }
+                entries.remove(entry.className, entry);
+            }
+        }
+    }
+
+    private static class Entry extends SoftReference<ParsedProgramCache> {
+        final String className;
+
+        Entry(String className, ParsedProgramCache cache, ReferenceQueue<ParsedProgramCache> queue) {
+            super(cache, queue);
+            this.className = className;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.commons.JSRInlinerAdapter;
@@ -71,53 +72,19 @@ public class Parser {
     }
 
     public MethodHolder parseMethod(MethodNode node, String fileName) {
-        MethodNode nodeWithoutJsr = new MethodNode(AsmUtil.API_VERSION, node.access, node.name, node.desc,
-                node.signature, node.exceptions.toArray(new String[0]));
-        JSRInlinerAdapter adapter = new JSRInlinerAdapter(nodeWithoutJsr, node.access, node.name, node.desc,
-                node.signature, node.exceptions.toArray(new String[0]));
-        node.accept(adapter);
-        node = nodeWithoutJsr;
+        MethodHolder method = parseMethodHeader(node);
+        if (node.instructions.size() > 0) {
+            method.setProgram(parseProgram(node, fileName, method.getDescriptor()));
+        }
+        return method;
+    }
+
+    private MethodHolder parseMethodHeader(MethodNode node) {
         ValueType[] signature = MethodDescriptor.parseSignature(node.desc);
         MethodHolder method = new MethodHolder(referenceCache.getCached(new MethodDescriptor(node.name, signature)));
         parseModifiers(node.access, method, DECL_METHOD);
         parseAnnotations(method.getAnnotations(), node.visibleAnnotations, node.invisibleAnnotations);
 
-        if (node.instructions.size() > 0) {
-            ProgramParser programParser = new ProgramParser(referenceCache);
-            programParser.setFileName(fileName);
-            Program program = programParser.parse(node);
-            new UnreachableBasicBlockEliminator().optimize(program);
-
-            Graph cfg = ProgramUtils.buildControlFlowGraph(program);
-            if (GraphUtils.isIrreducible(cfg)) {
-                ProgramNodeSplittingBackend be = new ProgramNodeSplittingBackend(program);
-                int[] weights = new int[program.basicBlockCount()];
-                for (int i = 0; i < weights.length; ++i) {
-                    int count = 0;
-                    Instruction insn = program.basicBlockAt(i).getFirstInstruction();
-                    while (insn != null) {
-                        count++;
-                        insn = insn.getNext();
-                    }
-                    weights[i] = count;
-                }
-                GraphUtils.splitIrreducibleGraph(cfg, weights, be);
-            }
-
-            PhiUpdater phiUpdater = new PhiUpdater();
-            Variable[] argumentMapping = applySignature(program, method.getParameterTypes());
-            phiUpdater.updatePhis(program, argumentMapping);
-            method.setProgram(program);
-            applyDebugNames(program, phiUpdater, programParser, argumentMapping);
-
-            applyDebugNames(program, phiUpdater, programParser,
-                    applySignature(program, method.getDescriptor().getParameterTypes()));
-
-            while (program.variableCount() <= method.parameterCount()) {
-                program.createVariable();
-            }
-        }
-
         if (node.annotationDefault != null) {
             method.setAnnotationDefault(parseAnnotationValue(node.annotationDefault));
         }
@@ -134,6 +101,50 @@ public class Parser {
         return method;
     }
 
+    private Program parseProgram(MethodNode node, String fileName, MethodDescriptor descriptor) {
+        MethodNode nodeWithoutJsr = new MethodNode(AsmUtil.API_VERSION, node.access, node.name, node.desc,
+                node.signature, node.exceptions.toArray(new String[0]));
+        JSRInlinerAdapter adapter = new JSRInlinerAdapter(nodeWithoutJsr, node.access, node.name, node.desc,
+                node.signature, node.exceptions.toArray(new String[0]));
+        node.accept(adapter);
+        node = nodeWithoutJsr;
+
+        ProgramParser programParser = new ProgramParser(referenceCache);
+        programParser.setFileName(fileName);
+        Program program = programParser.parse(node);
+        new UnreachableBasicBlockEliminator().optimize(program);
+
+        Graph cfg = ProgramUtils.buildControlFlowGraph(program);
+        if (GraphUtils.isIrreducible(cfg)) {
+            ProgramNodeSplittingBackend be = new ProgramNodeSplittingBackend(program);
+            int[] weights = new int[program.basicBlockCount()];
+            for (int i = 0; i < weights.length; ++i) {
+                int count = 0;
+                Instruction insn = program.basicBlockAt(i).getFirstInstruction();
+                while (insn != null) {
+                    count++;
+                    insn = insn.getNext();
+                }
+                weights[i] = count;
+            }
+            GraphUtils.splitIrreducibleGraph(cfg, weights, be);
+        }
+
+        PhiUpdater phiUpdater = new PhiUpdater();
+        Variable[] argumentMapping = applySignature(program, descriptor.getParameterTypes());
+        phiUpdater.updatePhis(program, argumentMapping);
+        applyDebugNames(program, phiUpdater, programParser, argumentMapping);
+
+        applyDebugNames(program, phiUpdater, programParser,
+                applySignature(program, descriptor.getParameterTypes()));
+
+        while (program.variableCount() <= descriptor.parameterCount()) {
+            program.createVariable();
+        }
+
+        return program;
+    }
+
     private void parseMethodGenericSignature(String signature, MethodHolder method) {
         GenericValueType.ParsePosition position = new GenericValueType.ParsePosition();
 
@@ -294,6 +305,17 @@ public class Parser {
     }
 
     public ClassHolder parseClass(ClassNode node) {
+        return parseClass(node, null);
+    }
+
+    /**
+     * Parses class structure. Method bodies are parsed only when requested for the first time,
+     * since most of the methods of library classes never become reachable.
+     *
+     * @param node class to parse.
+     * @param programCache cache to take parsed method bodies from, or {@code null}.
+     */
+    public ClassHolder parseClass(ClassNode node, ParsedProgramCache programCache) {
         ClassHolder cls = new ClassHolder(referenceCache.getCached(node.name.replace('/', '.')));
         parseModifiers(node.access, cls, DECL_CLASS);
         if (node.superName != null) {
@@ -321,7 +343,11 @@ public class Parser {
         String fullFileName = referenceCache.getCached(node.name.substring(0, node.name.lastIndexOf('/') + 1)
                 + node.sourceFile);
         for (MethodNode methodNode : node.methods) {
-            MethodHolder method = parseMethod(methodNode, fullFileName);
+            MethodHolder method = parseMethodHeader(methodNode);
+            if (methodNode.instructions.size() > 0) {
+                var supplier = new ProgramSupplier(methodNode, fullFileName, method.getDescriptor(), programCache);
+                method.setProgramSupplier(supplier);
+            }
             cls.addMethod(method);
             method.updateReference(referenceCache);
         }
@@ -600,4 +626,36 @@ public class Parser {
             throw new AssertionError();
         }
     }
+
+    /*
+     * Forgets the method node as soon as the program is built, so that the ASM tree is not retained by
+     * anything that still holds the supplier, like postponed transformations of copied classes.
+     */
+    private class ProgramSupplier implements Function<MethodHolder, Program> {
+        private MethodNode node;
+        private final String fileName;
+        private final MethodDescriptor descriptor;
+        private final ParsedProgramCache programCache;
+
+        ProgramSupplier(MethodNode node, String fileName, MethodDescriptor descriptor,
+                ParsedProgramCache programCache) {
+            this.node = node;
+            this.fileName = fileName;
+            this.descriptor = descriptor;
+            this.programCache = programCache;
+        }
+
+        @Override
+        public Program apply(MethodHolder method) {
+            MethodNode node = this.node;
+            if (node == null) {
+                throw new IllegalStateException("Program of method " + descriptor + " was already requested");
+            }
+            Program program = programCache != null
+                    ? programCache.get(descriptor, () -> parseProgram(node, fileName, descriptor))
+                    : parseProgram(node, fileName, descriptor);
+            this.node = null;
+            return program;
+        }
+    }
 }
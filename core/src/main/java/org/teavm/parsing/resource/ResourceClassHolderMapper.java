@@ -22,14 +22,17 @@ import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.tree.ClassNode;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ParsedProgramCache;
 import org.teavm.parsing.Parser;
 
 public class ResourceClassHolderMapper implements Function<String, ClassHolder> {
     private Parser parser;
     private ResourceReader resourceReader;
+    private ReferenceCache referenceCache;
 
     public ResourceClassHolderMapper(ResourceReader resourceReader, ReferenceCache referenceCache) {
         this.resourceReader = resourceReader;
+        this.referenceCache = referenceCache;
         parser = new Parser(referenceCache);
     }
 
@@ -40,12 +43,14 @@ public class ResourceClassHolderMapper implements Function<String, ClassHolder>
         if (!resourceReader.hasResource(resourceName)) {
             return null;
         }
+        byte[] classFile;
         try (InputStream input = resourceReader.openResource(resourceName)) {
-            ClassReader reader = new ClassReader(input);
-            reader.accept(clsNode, 0);
+            classFile = input.readAllBytes();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        return parser.parseClass(clsNode);
+        ClassReader reader = new ClassReader(classFile);
+        reader.accept(clsNode, 0);
+        return parser.parseClass(clsNode, ParsedProgramCache.forClass(referenceCache, name, classFile));
     }
 }
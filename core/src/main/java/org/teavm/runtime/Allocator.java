@@ -30,6 +30,7 @@ public final class Allocator {
         RuntimeObject object = GC.alloc(tag.size);
         fillZero(object.toAddress(), tag.size);
         object.classReference = tag.pack();
+        MemoryTrace.objectAllocated(object.toAddress());
         return object.toAddress();
     }
 
@@ -44,6 +45,7 @@ public final class Allocator {
         RuntimeArray array = result.toStructure();
         array.classReference = tag.pack();
         array.size = size;
+        MemoryTrace.objectAllocated(result);
 
         return result;
     }
@@ -46,6 +46,7 @@ public final class GC {
     static RelocationBlock lastRelocationBlock;
     static boolean isFullGC = true;
     private static int youngGCCount;
+    private static boolean parallelMark;
 
     static native Address gcStorageAddress();
 
@@ -67,6 +68,21 @@ public final class GC {
 
     public static native void resizeHeap(long size);
 
+    /**
+     * Returns the number of threads that take part in the mark phase, including the thread that runs GC.
+     * When it is greater than one, roots are only collected to the mark queue, and the transitive closure
+     * is computed by {@link #markInParallel(int, boolean)}.
+     */
+    private static native int markThreadCount();
+
+    /**
+     * Marks everything reachable from the given number of objects stored at the beginning of the mark queue.
+     * These objects are already marked, but their fields are not scanned yet.
+     *
+     * @return the list of weak references found, linked through their {@code next} field.
+     */
+    private static native RuntimeReference markInParallel(int rootCount, boolean fullGC);
+
     public static native boolean canShrinkHeap();
 
     private static native int regionSize();
@@ -258,6 +274,10 @@ public final class GC {
     private static void mark() {
         MemoryTrace.markStarted();
         firstWeakReference = null;
+        parallelMark = markThreadCount() > 1;
+        if (parallelMark) {
+            MarkQueue.init();
+        }
 
         markFromStaticFields();
         markFromClasses();
@@ -266,9 +286,25 @@ public final class GC {
             markFromOldGeneration();
         }
 
+        if (parallelMark) {
+            processMarkQueueInParallel();
+        }
         MemoryTrace.markCompleted();
     }
 
+    private static void processMarkQueueInParallel() {
+        RuntimeReference weakReferences = markInParallel(MarkQueue.size(), isFullGC);
+        MarkQueue.init();
+        if (weakReferences != null) {
+            RuntimeReference last = weakReferences;
+            while (last.next != null) {
+                last = last.next;
+            }
+            last.next = firstWeakReference;
+            firstWeakReference = weakReferences;
+        }
+    }
+
     private static void markFromStaticFields() {
         Address staticRoots = Mutator.getStaticGCRoots();
         int staticCount = staticRoots.getInt();
@@ -382,12 +418,26 @@ public final class GC {
         if (object == null || isMarked(object)) {
             return;
         }
+        if (parallelMark) {
+            doEnqueueMark(object);
+            if (MarkQueue.isHalfFull()) {
+                processMarkQueueInParallel();
+            }
+            return;
+        }
         MarkQueue.init();
         enqueueMark(object);
         doProcessMarkQueue();
     }
 
     private static boolean doMarkOldGeneration(RuntimeObject object) {
+        if (parallelMark) {
+            boolean hasObjectsFromYoungGen = markObjectData(object);
+            if (MarkQueue.isHalfFull()) {
+                processMarkQueueInParallel();
+            }
+            return hasObjectsFromYoungGen;
+        }
         MarkQueue.init();
         boolean hasObjectsFromYoungGen = markObjectData(object);
         doProcessMarkQueue();
@@ -65,4 +65,12 @@ final class MarkQueue {
     static boolean isEmpty() {
         return head == tail;
     }
+
+    static int size() {
+        return tail >= head ? tail - head : tail + limit - head;
+    }
+
+    static boolean isHalfFull() {
+        return size() >= limit / 2;
+    }
 }
@@ -25,6 +25,9 @@ public class MemoryTrace {
     @Import(name = "allocate", module = "teavmHeapTrace")
     public static native void allocate(Address address, int size);
 
+    @Import(name = "objectAllocated", module = "teavmHeapTrace")
+    public static native void objectAllocated(Address address);
+
     @Import(name = "free", module = "teavmHeapTrace")
     public static native void free(Address address, int size);
 
@@ -30,6 +30,10 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -47,6 +51,7 @@ import org.teavm.dependency.DependencyListener;
 import org.teavm.dependency.DependencyPlugin;
 import org.teavm.dependency.Linker;
 import org.teavm.dependency.MethodDependencyInfo;
+import org.teavm.dependency.SynchronizedDependencyInfo;
 import org.teavm.diagnostics.AccumulationDiagnostics;
 import org.teavm.diagnostics.Diagnostics;
 import org.teavm.diagnostics.ProblemProvider;
@@ -70,6 +75,7 @@ import org.teavm.model.MethodReference;
 import org.teavm.model.MutableClassHolderSource;
 import org.teavm.model.Program;
 import org.teavm.model.ProgramCache;
+import org.teavm.model.ProgramReader;
 import org.teavm.model.ValueType;
 import org.teavm.model.analysis.ClassInitializerAnalysis;
 import org.teavm.model.analysis.ClassInitializerInfo;
@@ -148,7 +154,11 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     private CacheStatus rawCacheStatus = AlwaysStaleCacheStatus.INSTANCE;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
     private TeaVMProgressListener progressListener;
-    private boolean cancelled;
+    private volatile boolean cancelled;
+    private int parallelism = 1;
+    private ForkJoinPool workerPool;
+    private Object workerLock;
+    private SynchronizedDependencyInfo workerDependencyInfo;
     private ListableClassHolderSource writtenClasses;
     private TeaVMTarget target;
     private Map<Class<?>, TeaVMHostExtension> extensions = new HashMap<>();
@@ -263,6 +273,24 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         this.optimizationLevel = optimizationLevel;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads that TeaVM may use for the phases that can process methods independently.
+     * The output does not depend on this value. Default is {@code 1}, which means that everything runs
+     * on the calling thread.
+     *
+     * @param parallelism number of worker threads, should be positive.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
     public TeaVMProgressListener getProgressListener() {
         return progressListener;
     }
@@ -432,6 +460,23 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     }
 
     private ListableClassHolderSource eagerPipeline() {
+        if (parallelism == 1) {
+            return eagerPipelineImpl();
+        }
+        workerLock = new Object();
+        workerDependencyInfo = new SynchronizedDependencyInfo(dependencyAnalyzer, workerLock);
+        workerPool = new ForkJoinPool(parallelism);
+        try {
+            return eagerPipelineImpl();
+        } finally {
+            workerPool.shutdownNow();
+            workerPool = null;
+            workerLock = null;
+            workerDependencyInfo = null;
+        }
+    }
+
+    private ListableClassHolderSource eagerPipelineImpl() {
         compileProgressValue = 0;
         compileProgressLimit = dependencyAnalyzer.getReachableClasses().size();
         if (optimizationLevel == TeaVMOptimizationLevel.ADVANCED) {
@@ -500,38 +545,42 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     }
 
     private void insertClassInit(ListableClassHolderSource classes) {
+        if (workerPool != null) {
+            var clinitInsertion = new ClassInitializerInsertionTransformer(workerDependencyInfo.getClassSource(),
+                    classInitializerInfo);
+            processConcurrently(classes.getClassNames(), className -> {
+                insertClassInit(clinitInsertion, classes.get(className));
+                return null;
+            }, result -> { });
+            return;
+        }
+
         var clinitInsertion = new ClassInitializerInsertionTransformer(
                 dependencyAnalyzer.getClassSource(), classInitializerInfo);
         for (String className : classes.getClassNames()) {
-            ClassHolder cls = classes.get(className);
-            for (MethodHolder method : cls.getMethods()) {
-                Program program = method.getProgram();
-                if (program == null) {
-                    continue;
-                }
-                clinitInsertion.apply(method, program);
+            insertClassInit(clinitInsertion, classes.get(className));
+        }
+    }
+
+    private void insertClassInit(ClassInitializerInsertionTransformer clinitInsertion, ClassHolder cls) {
+        for (MethodHolder method : cls.getMethods()) {
+            Program program = method.getProgram();
+            if (program == null) {
+                continue;
             }
+            clinitInsertion.apply(method, program);
         }
     }
 
     private void eliminateClassInit(ListableClassHolderSource classes) {
-        for (String className : classes.getClassNames()) {
-            ClassHolder cls = classes.get(className);
-            for (MethodHolder method : cls.getMethods()) {
-                Program program = method.getProgram();
-                if (program == null) {
-                    continue;
-                }
-                for (BasicBlock block : program.getBasicBlocks()) {
-                    for (Instruction instruction : block) {
-                        if (instruction instanceof InitClassInstruction) {
-                            var clinit = (InitClassInstruction) instruction;
-                            if (!classInitializerInfo.isDynamicInitializer(clinit.getClassName())) {
-                                clinit.delete();
-                            }
-                        }
-                    }
-                }
+        if (workerPool != null) {
+            processConcurrently(classes.getClassNames(), className -> {
+                eliminateClassInit(classes.get(className));
+                return null;
+            }, result -> { });
+        } else {
+            for (String className : classes.getClassNames()) {
+                eliminateClassInit(classes.get(className));
             }
         }
 
@@ -544,6 +593,25 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
     }
 
+    private void eliminateClassInit(ClassHolder cls) {
+        for (MethodHolder method : cls.getMethods()) {
+            Program program = method.getProgram();
+            if (program == null) {
+                continue;
+            }
+            for (BasicBlock block : program.getBasicBlocks()) {
+                for (Instruction instruction : block) {
+                    if (instruction instanceof InitClassInstruction) {
+                        var clinit = (InitClassInstruction) instruction;
+                        if (!classInitializerInfo.isDynamicInitializer(clinit.getClassName())) {
+                            clinit.delete();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     private void addInitializersToEntryPoint(ClassHolderSource classes, MethodReference methodRef) {
         ClassHolder cls = classes.get(methodRef.getClassName());
         if (cls == null) {
@@ -576,12 +644,23 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             return cutClasses;
         }
 
+        if (workerPool != null && dependency == dependencyAnalyzer) {
+            var concurrentLinker = new Linker(workerDependencyInfo);
+            processConcurrently(dependency.getReachableClasses(),
+                    className -> linkClass(concurrentLinker, workerDependencyInfo.getClassSource(), className),
+                    cls -> {
+                        if (cls != null) {
+                            cutClasses.putClassHolder(cls);
+                        }
+                        reportCompileProgress(++compileProgressValue);
+                    });
+            return cutClasses;
+        }
+
         for (String className : dependency.getReachableClasses()) {
-            ClassReader clsReader = dependency.getClassSource().get(className);
-            if (clsReader != null) {
-                ClassHolder cls = ModelUtils.copyClass(clsReader);
+            ClassHolder cls = linkClass(linker, dependency.getClassSource(), className);
+            if (cls != null) {
                 cutClasses.putClassHolder(cls);
-                linker.link(cls);
             }
             reportCompileProgress(++compileProgressValue);
             if (wasCancelled()) {
@@ -591,6 +670,56 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         return cutClasses;
     }
 
+    /*
+     * Does not copy programs of methods that are going to be removed by the linker, since materializing them
+     * would require parsing and resolving methods nobody is going to read.
+     */
+    private ClassHolder linkClass(Linker linker, ClassReaderSource classSource, String className) {
+        ClassReader clsReader = classSource.get(className);
+        if (clsReader == null) {
+            return null;
+        }
+        ClassHolder cls = ModelUtils.copyClass(clsReader, false);
+        linker.link(cls);
+        for (MethodHolder method : cls.getMethods()) {
+            if (method.hasModifier(ElementModifier.ABSTRACT)) {
+                continue;
+            }
+            ProgramReader program;
+            if (workerLock != null) {
+                synchronized (workerLock) {
+                    program = clsReader.getMethod(method.getDescriptor()).getProgram();
+                }
+            } else {
+                program = clsReader.getMethod(method.getDescriptor()).getProgram();
+            }
+            if (program != null) {
+                method.setProgram(ProgramUtils.copy(program));
+            }
+        }
+        return cls;
+    }
+
+    /*
+     * Runs action for every class on worker threads. Results are passed to the consumer on the calling thread
+     * in the order of class names, so that everything the consumer does is deterministic.
+     * Stops passing results as soon as the build gets cancelled.
+     */
+    private <T> void processConcurrently(Collection<String> classNames, Function<String, T> action,
+            Consumer<T> consumer) {
+        var tasks = new ArrayList<ForkJoinTask<T>>(classNames.size());
+        for (String className : classNames) {
+            tasks.add(workerPool.submit(() -> !wasCancelled() ? action.apply(className) : null));
+        }
+        for (var task : tasks) {
+            T result = task.join();
+            if (wasCancelled()) {
+                break;
+            }
+            consumer.accept(result);
+        }
+    }
+
     private void reportPhase(TeaVMPhase phase, int progressLimit) {
         if (progressListener.phaseStarted(phase, progressLimit) == TeaVMProgressFeedback.CANCEL) {
             cancelled = true;
@@ -619,16 +748,28 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
 
         var devirtualization = new Devirtualization(dependencyAnalyzer, dependencyAnalyzer.getClassHierarchy());
-        for (String className : classes.getClassNames()) {
-            ClassHolder cls = classes.get(className);
-            for (MethodHolder method : cls.getMethods()) {
-                if (method.getProgram() != null) {
-                    devirtualization.apply(method);
-                }
+        if (workerPool != null) {
+            var workerDevirtualizations = new ConcurrentLinkedQueue<Devirtualization>();
+            var localDevirtualization = ThreadLocal.withInitial(() -> {
+                var result = new Devirtualization(workerDependencyInfo,
+                        new ClassHierarchy(workerDependencyInfo.getClassSource()));
+                workerDevirtualizations.add(result);
+                return result;
+            });
+            processConcurrently(classes.getClassNames(), className -> {
+                devirtualize(localDevirtualization.get(), classes.get(className));
+                return null;
+            }, result -> reportCompileProgress(++compileProgressValue));
+            for (var workerDevirtualization : workerDevirtualizations) {
+                devirtualization.merge(workerDevirtualization);
             }
-            reportCompileProgress(++compileProgressValue);
-            if (wasCancelled()) {
-                break;
+        } else {
+            for (String className : classes.getClassNames()) {
+                devirtualize(devirtualization, classes.get(className));
+                reportCompileProgress(++compileProgressValue);
+                if (wasCancelled()) {
+                    break;
+                }
             }
         }
         virtualMethods = devirtualization.getVirtualMethods();
@@ -640,6 +781,14 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
     }
 
+    private void devirtualize(Devirtualization devirtualization, ClassHolder cls) {
+        for (MethodHolder method : cls.getMethods()) {
+            if (method.getProgram() != null) {
+                devirtualization.apply(method);
+            }
+        }
+    }
+
     private void inline(ListableClassHolderSource classes) {
         if (optimizationLevel == TeaVMOptimizationLevel.SIMPLE) {
             return;
@@ -693,6 +842,10 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     }
 
     private void optimize(ListableClassHolderSource classSource) {
+        if (workerPool != null) {
+            optimizeConcurrently(classSource);
+            return;
+        }
         for (String className : classSource.getClassNames()) {
             ClassHolder cls = classSource.get(className);
             for (MethodHolder method : cls.getMethods()) {
@@ -710,60 +863,175 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             return;
         }
 
-        Program optimizedProgram = !cacheStatus.isStaleMethod(method.getReference())
-                ? programCache.get(method.getReference(), cacheStatus)
-                : null;
+        Program optimizedProgram = getCachedProgram(method);
         if (optimizedProgram == null) {
             optimizedProgram = optimizeMethodCacheMiss(method, ProgramUtils.copy(method.getProgram()));
-            Program finalProgram = optimizedProgram;
-            programCache.store(method.getReference(), finalProgram,
-                    () -> programDependencyExtractor.extractDependencies(finalProgram));
+            storeCachedProgram(method, optimizedProgram);
         }
         method.setProgram(optimizedProgram);
     }
 
-    private Program optimizeMethodCacheMiss(MethodHolder method, Program optimizedProgram) {
-        target.beforeOptimizations(optimizedProgram, method);
+    /*
+     * Optimization pipeline that splits work between several threads. Everything that touches state shared
+     * between methods (program cache, target hooks, progress reporting) happens on the calling thread.
+     * Worker threads only run the optimization loop and register allocation on their own copy of a program.
+     *
+     * Unlike the serial pipeline, which runs both target hooks for one method before moving to the next one,
+     * this one calls beforeOptimizations for all methods first and afterOptimizations for all methods next,
+     * so that workers have something to do meanwhile. Each hook is still called in the same method order
+     * as in the serial pipeline, which is all TeaVMTarget guarantees.
+     */
+    private void optimizeConcurrently(ListableClassHolderSource classSource) {
+        var dependencyInfo = workerDependencyInfo;
+        var hierarchies = ThreadLocal.withInitial(() -> new ClassHierarchy(dependencyInfo.getClassSource()));
+        var classTasks = new ArrayList<List<ConcurrentOptimizationTask>>();
+        for (String className : classSource.getClassNames()) {
+            var tasks = new ArrayList<ConcurrentOptimizationTask>();
+            for (MethodHolder method : classSource.get(className).getMethods()) {
+                if (method.getProgram() == null) {
+                    continue;
+                }
+                var task = new ConcurrentOptimizationTask(method);
+                task.program = getCachedProgram(method);
+                if (task.program == null) {
+                    var program = ProgramUtils.copy(method.getProgram());
+                    target.beforeOptimizations(program, method);
+                    task.program = program;
+                    task.cacheMiss = true;
+                    if (program.basicBlockCount() > 0) {
+                        task.pending = workerPool.submit(() -> {
+                            if (!wasCancelled()) {
+                                var context = new MethodOptimizationContextImpl(method, dependencyInfo,
+                                        hierarchies.get());
+                                runOptimizations(method, program, context);
+                            }
+                            return program;
+                        });
+                    }
+                }
+                tasks.add(task);
+            }
+            classTasks.add(tasks);
+            if (wasCancelled()) {
+                return;
+            }
+        }
 
-        if (optimizedProgram.basicBlockCount() > 0) {
-            var context = new MethodOptimizationContextImpl(method);
-            boolean changed;
-            do {
-                changed = false;
-                for (MethodOptimization optimization : getOptimizations()) {
-                    try {
-                        changed |= optimization.optimize(context, optimizedProgram);
-                    } catch (Exception | AssertionError e) {
-                        ListingBuilder listingBuilder = new ListingBuilder();
-                        try {
-                            String listing = listingBuilder.buildListing(optimizedProgram, "");
-                            System.err.println("Error optimizing program for method " + method.getReference()
-                                    + ":\n" + listing);
-                        } catch (RuntimeException e2) {
-                            System.err.println("Error optimizing program for method " + method.getReference());
-                            // do nothing
+        for (var tasks : classTasks) {
+            for (var task : tasks) {
+                if (task.pending == null) {
+                    continue;
+                }
+                var program = task.pending.join();
+                target.afterOptimizations(program, task.method);
+                if (target.requiresRegisterAllocation()) {
+                    task.pending = workerPool.submit(() -> {
+                        if (!wasCancelled()) {
+                            allocateRegisters(task.method, program);
                         }
-                        throw new RuntimeException(e);
-                    }
+                        return program;
+                    });
+                } else {
+                    task.pending = null;
+                }
+            }
+            reportCompileProgress(++compileProgressValue);
+            if (wasCancelled()) {
+                return;
+            }
+        }
+
+        for (var tasks : classTasks) {
+            for (var task : tasks) {
+                if (task.pending != null) {
+                    task.pending.join();
+                }
+                if (task.cacheMiss) {
+                    storeCachedProgram(task.method, task.program);
                 }
-            } while (changed);
+                task.method.setProgram(task.program);
+            }
+        }
+    }
 
+    private Program getCachedProgram(MethodHolder method) {
+        return !cacheStatus.isStaleMethod(method.getReference())
+                ? programCache.get(method.getReference(), cacheStatus)
+                : null;
+    }
+
+    private void storeCachedProgram(MethodHolder method, Program program) {
+        programCache.store(method.getReference(), program,
+                () -> programDependencyExtractor.extractDependencies(program));
+    }
+
+    private Program optimizeMethodCacheMiss(MethodHolder method, Program optimizedProgram) {
+        target.beforeOptimizations(optimizedProgram, method);
+
+        if (optimizedProgram.basicBlockCount() > 0) {
+            runOptimizations(method, optimizedProgram, new MethodOptimizationContextImpl(method));
             target.afterOptimizations(optimizedProgram, method);
             if (target.requiresRegisterAllocation()) {
-                RegisterAllocator allocator = new RegisterAllocator();
-                allocator.allocateRegisters(method.getReference(), optimizedProgram,
-                        optimizationLevel == TeaVMOptimizationLevel.SIMPLE);
+                allocateRegisters(method, optimizedProgram);
             }
         }
 
         return optimizedProgram;
     }
 
+    private void runOptimizations(MethodHolder method, Program optimizedProgram, MethodOptimizationContext context) {
+        boolean changed;
+        do {
+            changed = false;
+            for (MethodOptimization optimization : getOptimizations()) {
+                try {
+                    changed |= optimization.optimize(context, optimizedProgram);
+                } catch (Exception | AssertionError e) {
+                    ListingBuilder listingBuilder = new ListingBuilder();
+                    try {
+                        String listing = listingBuilder.buildListing(optimizedProgram, "");
+                        System.err.println("Error optimizing program for method " + method.getReference()
+                                + ":\n" + listing);
+                    } catch (RuntimeException e2) {
+                        System.err.println("Error optimizing program for method " + method.getReference());
+                        // do nothing
+                    }
+                    throw new RuntimeException(e);
+                }
+            }
+        } while (changed);
+    }
+
+    private void allocateRegisters(MethodHolder method, Program program) {
+        RegisterAllocator allocator = new RegisterAllocator();
+        allocator.allocateRegisters(method.getReference(), program,
+                optimizationLevel == TeaVMOptimizationLevel.SIMPLE);
+    }
+
+    static class ConcurrentOptimizationTask {
+        final MethodHolder method;
+        Program program;
+        boolean cacheMiss;
+        ForkJoinTask<Program> pending;
+
+        ConcurrentOptimizationTask(MethodHolder method) {
+            this.method = method;
+        }
+    }
+
     class MethodOptimizationContextImpl implements MethodOptimizationContext {
         private MethodReader method;
+        private DependencyInfo dependencyInfo;
+        private ClassHierarchy hierarchy;
 
         MethodOptimizationContextImpl(MethodReader method) {
+            this(method, dependencyAnalyzer, dependencyAnalyzer.getClassHierarchy());
+        }
+
+        MethodOptimizationContextImpl(MethodReader method, DependencyInfo dependencyInfo, ClassHierarchy hierarchy) {
             this.method = method;
+            this.dependencyInfo = dependencyInfo;
+            this.hierarchy = hierarchy;
         }
 
         @Override
@@ -773,17 +1041,17 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
 
         @Override
         public DependencyInfo getDependencyInfo() {
-            return dependencyAnalyzer;
+            return dependencyInfo;
         }
 
         @Override
         public ClassReaderSource getClassSource() {
-            return dependencyAnalyzer.getClassSource();
+            return dependencyInfo.getClassSource();
         }
 
         @Override
         public ClassHierarchy getHierarchy() {
-            return dependencyAnalyzer.getClassHierarchy();
+            return hierarchy;
         }
     }
 
@@ -928,6 +1196,11 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             return optimizationLevel == TeaVMOptimizationLevel.SIMPLE;
         }
 
+        @Override
+        public int getParallelism() {
+            return parallelism;
+        }
+
         @Override
         public boolean isVirtual(MethodReference method) {
             return TeaVM.this.isVirtual(method);
@@ -984,17 +1257,13 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                 }
 
                 Function<MethodHolder, Program> programSupplier = method -> {
-                    Program program = !cacheStatus.isStaleMethod(method.getReference())
-                            ? programCache.get(method.getReference(), cacheStatus)
-                            : null;
+                    Program program = getCachedProgram(method);
                     if (program == null) {
                         program = ProgramUtils.copy(classReader.getMethod(method.getDescriptor()).getProgram());
                         clinitInsertion.apply(method, program);
                         target.beforeInlining(program, method);
                         program = optimizeMethodCacheMiss(method, program);
-                        Program finalProgram = program;
-                        programCache.store(method.getReference(), finalProgram,
-                                () -> programDependencyExtractor.extractDependencies(finalProgram));
+                        storeCachedProgram(method, program);
                     }
                     return program;
                 };
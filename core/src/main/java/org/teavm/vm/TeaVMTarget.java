@@ -48,8 +48,23 @@ public interface TeaVMTarget {
     default void analyzeBeforeOptimizations(ListableClassReaderSource classSource) {
     }
 
+    /**
+     * <p>Called for a method before its program is optimized. Hooks are always called on the thread that
+     * runs the build, one at a time, and methods come in the same order for both
+     * {@code beforeOptimizations} and {@link #afterOptimizations}.</p>
+     *
+     * <p>Apart from that, no particular interleaving of these hooks is guaranteed. They may be called
+     * one method after another, or {@code beforeOptimizations} may be called for all methods before
+     * {@code afterOptimizations} is called for any of them, when methods are optimized concurrently.
+     * So implementations should not expect {@code afterOptimizations} of one method to run before
+     * {@code beforeOptimizations} of the next one.</p>
+     */
     void beforeOptimizations(Program program, MethodReader method);
 
+    /**
+     * Called for a method after its program is optimized, unless the program is empty. See
+     * {@link #beforeOptimizations} for ordering guarantees.
+     */
     void afterOptimizations(Program program, MethodReader method);
 
     void emit(ListableClassHolderSource classes, BuildTarget buildTarget, String outputName) throws IOException;
@@ -48,6 +48,8 @@ public interface TeaVMTargetController {
 
     boolean isFriendlyToDebugger();
 
+    int getParallelism();
+
     Map<? extends String, ? extends TeaVMEntryPoint> getEntryPoints();
 
     Set<? extends String> getPreservedClasses();
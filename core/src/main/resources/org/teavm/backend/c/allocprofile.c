@@ -0,0 +1,557 @@
+#include "heaptrace.h"
+#include "core.h"
+#include "memory.h"
+#include "stack.h"
+#include "string.h"
+#include "definitions.h"
+#include <string.h>
+#include <stdint.h>
+#include <inttypes.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <signal.h>
+
+#if TEAVM_ALLOC_PROFILE
+
+#define TEAVM_ALLOC_PROFILE_MAX_DEPTH 64
+
+int32_t teavm_gc_allocationsUntilSample = TEAVM_ALLOC_PROFILE;
+static volatile sig_atomic_t teavm_gc_profileRequested = 0;
+static int32_t teavm_gc_histogramRequested = 0;
+static int32_t teavm_gc_fullCollection = 0;
+
+static void teavm_gc_writeAllocationProfileFile();
+
+/*
+ * Samples with equal stacks are merged. The table uses open addressing, a slot with NULL frames is empty.
+ */
+typedef struct {
+    uint32_t hash;
+    int32_t depth;
+    TeaVM_CallSite** frames;
+    int64_t count;
+    int64_t bytes;
+} TeaVM_AllocationSample;
+
+static TeaVM_AllocationSample* teavm_gc_samples = NULL;
+static int32_t teavm_gc_sampleCapacity = 0;
+static int32_t teavm_gc_sampleCount = 0;
+
+typedef struct {
+    void** keys;
+    int32_t* values;
+    int32_t capacity;
+    int32_t size;
+} TeaVM_PointerMap;
+
+typedef struct {
+    uint8_t* data;
+    size_t size;
+    size_t capacity;
+} TeaVM_ProfileBuffer;
+
+typedef struct {
+    char** data;
+    int32_t size;
+    int32_t capacity;
+} TeaVM_ProfileStrings;
+
+static void* teavm_gc_profileAlloc(void* data, size_t size) {
+    void* result = realloc(data, size);
+    if (result == NULL) {
+        teavm_outOfMemory();
+    }
+    return result;
+}
+
+static uint32_t teavm_gc_hashPointer(void* pointer) {
+    uint64_t value = (uint64_t) (uintptr_t) pointer;
+    value *= UINT64_C(0x9E3779B97F4A7C15);
+    return (uint32_t) (value >> 32);
+}
+
+static int32_t teavm_gc_pointerMapGet(TeaVM_PointerMap* map, void* key) {
+    if (map->capacity == 0) {
+        return 0;
+    }
+    int32_t mask = map->capacity - 1;
+    int32_t index = (int32_t) (teavm_gc_hashPointer(key) & mask);
+    while (map->keys[index] != NULL) {
+        if (map->keys[index] == key) {
+            return map->values[index];
+        }
+        index = (index + 1) & mask;
+    }
+    return 0;
+}
+
+static void teavm_gc_pointerMapPut(TeaVM_PointerMap* map, void* key, int32_t value);
+
+static void teavm_gc_pointerMapGrow(TeaVM_PointerMap* map) {
+    void** oldKeys = map->keys;
+    int32_t* oldValues = map->values;
+    int32_t oldCapacity = map->capacity;
+
+    map->capacity = oldCapacity == 0 ? 64 : oldCapacity * 2;
+    map->keys = calloc(map->capacity, sizeof(void*));
+    map->values = calloc(map->capacity, sizeof(int32_t));
+    if (map->keys == NULL || map->values == NULL) {
+        teavm_outOfMemory();
+    }
+    map->size = 0;
+    for (int32_t i = 0; i < oldCapacity; ++i) {
+        if (oldKeys[i] != NULL) {
+            teavm_gc_pointerMapPut(map, oldKeys[i], oldValues[i]);
+        }
+    }
+    free(oldKeys);
+    free(oldValues);
+}
+
+static void teavm_gc_pointerMapPut(TeaVM_PointerMap* map, void* key, int32_t value) {
+    if ((map->size + 1) * 2 > map->capacity) {
+        teavm_gc_pointerMapGrow(map);
+    }
+    int32_t mask = map->capacity - 1;
+    int32_t index = (int32_t) (teavm_gc_hashPointer(key) & mask);
+    while (map->keys[index] != NULL) {
+        if (map->keys[index] == key) {
+            map->values[index] = value;
+            return;
+        }
+        index = (index + 1) & mask;
+    }
+    map->keys[index] = key;
+    map->values[index] = value;
+    map->size++;
+}
+
+static void teavm_gc_pointerMapDispose(TeaVM_PointerMap* map) {
+    free(map->keys);
+    free(map->values);
+}
+
+static int32_t teavm_gc_sameStack(TeaVM_AllocationSample* sample, TeaVM_CallSite** frames, int32_t depth,
+        uint32_t hash) {
+    if (sample->hash != hash || sample->depth != depth) {
+        return 0;
+    }
+    for (int32_t i = 0; i < depth; ++i) {
+        if (sample->frames[i] != frames[i]) {
+            return 0;
+        }
+    }
+    return 1;
+}
+
+static TeaVM_AllocationSample* teavm_gc_findSample(TeaVM_AllocationSample* samples, int32_t capacity,
+        TeaVM_CallSite** frames, int32_t depth, uint32_t hash) {
+    int32_t mask = capacity - 1;
+    int32_t index = (int32_t) (hash & mask);
+    while (samples[index].frames != NULL) {
+        if (teavm_gc_sameStack(&samples[index], frames, depth, hash)) {
+            break;
+        }
+        index = (index + 1) & mask;
+    }
+    return &samples[index];
+}
+
+static void teavm_gc_growSamples() {
+    int32_t newCapacity = teavm_gc_sampleCapacity == 0 ? 256 : teavm_gc_sampleCapacity * 2;
+    TeaVM_AllocationSample* newSamples = calloc(newCapacity, sizeof(TeaVM_AllocationSample));
+    if (newSamples == NULL) {
+        teavm_outOfMemory();
+    }
+    for (int32_t i = 0; i < teavm_gc_sampleCapacity; ++i) {
+        TeaVM_AllocationSample* sample = &teavm_gc_samples[i];
+        if (sample->frames != NULL) {
+            *teavm_gc_findSample(newSamples, newCapacity, sample->frames, sample->depth, sample->hash) = *sample;
+        }
+    }
+    free(teavm_gc_samples);
+    teavm_gc_samples = newSamples;
+    teavm_gc_sampleCapacity = newCapacity;
+}
+
+void teavm_gc_sampleAllocation(void* address) {
+    teavm_gc_allocationsUntilSample = TEAVM_ALLOC_PROFILE;
+    if (teavm_gc_profileRequested) {
+        teavm_gc_profileRequested = 0;
+        teavm_gc_writeAllocationProfileFile();
+        teavm_gc_histogramRequested = 1;
+        return;
+    }
+
+    TeaVM_CallSite* frames[TEAVM_ALLOC_PROFILE_MAX_DEPTH];
+    int32_t depth = 0;
+    uint32_t hash = 0;
+    TeaVM_StackFrame* frame = teavm_stackTop;
+    while (frame != NULL && depth < TEAVM_ALLOC_PROFILE_MAX_DEPTH) {
+        TeaVM_CallSite* callSite = TEAVM_FIND_CALLSITE(frame->callSiteId, frame);
+        frames[depth++] = callSite;
+        hash = hash * 31 + teavm_gc_hashPointer(callSite);
+        frame = frame->next;
+    }
+
+    if ((teavm_gc_sampleCount + 1) * 2 > teavm_gc_sampleCapacity) {
+        teavm_gc_growSamples();
+    }
+    TeaVM_AllocationSample* sample = teavm_gc_findSample(teavm_gc_samples, teavm_gc_sampleCapacity,
+            frames, depth, hash);
+    if (sample->frames == NULL) {
+        sample->hash = hash;
+        sample->depth = depth;
+        sample->frames = teavm_gc_profileAlloc(NULL, depth > 0 ? depth * sizeof(TeaVM_CallSite*) : 1);
+        memcpy(sample->frames, frames, depth * sizeof(TeaVM_CallSite*));
+        teavm_gc_sampleCount++;
+    }
+    sample->count++;
+    sample->bytes += teavm_gc_objectSize(address);
+}
+
+static void teavm_gc_bufferWrite(TeaVM_ProfileBuffer* buffer, const void* data, size_t size) {
+    if (size == 0) {
+        return;
+    }
+    if (buffer->size + size > buffer->capacity) {
+        size_t newCapacity = buffer->capacity == 0 ? 256 : buffer->capacity * 2;
+        while (newCapacity < buffer->size + size) {
+            newCapacity *= 2;
+        }
+        buffer->data = teavm_gc_profileAlloc(buffer->data, newCapacity);
+        buffer->capacity = newCapacity;
+    }
+    memcpy(buffer->data + buffer->size, data, size);
+    buffer->size += size;
+}
+
+static void teavm_gc_bufferVarint(TeaVM_ProfileBuffer* buffer, uint64_t value) {
+    uint8_t bytes[10];
+    int32_t count = 0;
+    do {
+        uint8_t byte = value & 0x7F;
+        value >>= 7;
+        if (value != 0) {
+            byte |= 0x80;
+        }
+        bytes[count++] = byte;
+    } while (value != 0);
+    teavm_gc_bufferWrite(buffer, bytes, count);
+}
+
+static void teavm_gc_bufferIntField(TeaVM_ProfileBuffer* buffer, int32_t field, uint64_t value) {
+    teavm_gc_bufferVarint(buffer, (uint64_t) field << 3);
+    teavm_gc_bufferVarint(buffer, value);
+}
+
+static void teavm_gc_bufferBytesField(TeaVM_ProfileBuffer* buffer, int32_t field, const void* data, size_t size) {
+    teavm_gc_bufferVarint(buffer, ((uint64_t) field << 3) | 2);
+    teavm_gc_bufferVarint(buffer, size);
+    teavm_gc_bufferWrite(buffer, data, size);
+}
+
+static void teavm_gc_bufferMessageField(TeaVM_ProfileBuffer* buffer, int32_t field, TeaVM_ProfileBuffer* message) {
+    teavm_gc_bufferBytesField(buffer, field, message->data, message->size);
+    message->size = 0;
+}
+
+static int32_t teavm_gc_addProfileString(TeaVM_ProfileStrings* strings, const char* value) {
+    if (strings->size == strings->capacity) {
+        strings->capacity = strings->capacity == 0 ? 64 : strings->capacity * 2;
+        strings->data = teavm_gc_profileAlloc(strings->data, strings->capacity * sizeof(char*));
+    }
+    size_t length = strlen(value);
+    char* copy = teavm_gc_profileAlloc(NULL, length + 1);
+    memcpy(copy, value, length + 1);
+    strings->data[strings->size] = copy;
+    return strings->size++;
+}
+
+static int32_t teavm_gc_addProfileJavaString(TeaVM_ProfileStrings* strings, TeaVM_String** value) {
+    if (value == NULL || *value == NULL) {
+        return 0;
+    }
+    char* str = teavm_stringToC(*value);
+    int32_t result = teavm_gc_addProfileString(strings, str);
+    free(str);
+    return result;
+}
+
+static int32_t teavm_gc_addProfileMethodName(TeaVM_ProfileStrings* strings, TeaVM_MethodLocation* method) {
+    char* className = method->className != NULL ? teavm_stringToC(*method->className) : NULL;
+    char* methodName = method->methodName != NULL ? teavm_stringToC(*method->methodName) : NULL;
+    const char* safeClassName = className != NULL ? className : "";
+    const char* safeMethodName = methodName != NULL ? methodName : "<unknown>";
+
+    size_t classNameLength = strlen(safeClassName);
+    size_t methodNameLength = strlen(safeMethodName);
+    char* fullName = teavm_gc_profileAlloc(NULL, classNameLength + methodNameLength + 2);
+    char* ptr = fullName;
+    if (classNameLength > 0) {
+        memcpy(ptr, safeClassName, classNameLength);
+        ptr += classNameLength;
+        *ptr++ = '.';
+    }
+    memcpy(ptr, safeMethodName, methodNameLength + 1);
+
+    int32_t result = teavm_gc_addProfileString(strings, fullName);
+    free(fullName);
+    free(className);
+    free(methodName);
+    return result;
+}
+
+static void teavm_gc_writeAllocationProfileTo(FILE* out) {
+    TeaVM_ProfileStrings strings = { 0 };
+    TeaVM_ProfileBuffer profile = { 0 };
+    TeaVM_ProfileBuffer message = { 0 };
+    TeaVM_ProfileBuffer line = { 0 };
+    TeaVM_ProfileBuffer packed = { 0 };
+    TeaVM_PointerMap locationIds = { 0 };
+    TeaVM_PointerMap functionIds = { 0 };
+    TeaVM_CallSite** locations = NULL;
+    TeaVM_MethodLocation** functions = NULL;
+    int32_t locationCount = 0;
+    int32_t functionCount = 0;
+
+    teavm_gc_addProfileString(&strings, "");
+    int32_t allocObjects = teavm_gc_addProfileString(&strings, "alloc_objects");
+    int32_t count = teavm_gc_addProfileString(&strings, "count");
+    int32_t allocSpace = teavm_gc_addProfileString(&strings, "alloc_space");
+    int32_t bytes = teavm_gc_addProfileString(&strings, "bytes");
+
+    teavm_gc_bufferIntField(&message, 1, allocObjects);
+    teavm_gc_bufferIntField(&message, 2, count);
+    teavm_gc_bufferMessageField(&profile, 1, &message);
+    teavm_gc_bufferIntField(&message, 1, allocSpace);
+    teavm_gc_bufferIntField(&message, 2, bytes);
+    teavm_gc_bufferMessageField(&profile, 1, &message);
+
+    for (int32_t i = 0; i < teavm_gc_sampleCapacity; ++i) {
+        TeaVM_AllocationSample* sample = &teavm_gc_samples[i];
+        if (sample->frames == NULL) {
+            continue;
+        }
+        for (int32_t j = 0; j < sample->depth; ++j) {
+            TeaVM_CallSite* callSite = sample->frames[j];
+            int32_t id = teavm_gc_pointerMapGet(&locationIds, callSite);
+            if (id == 0) {
+                locations = teavm_gc_profileAlloc(locations, (locationCount + 1) * sizeof(TeaVM_CallSite*));
+                locations[locationCount++] = callSite;
+                id = locationCount;
+                teavm_gc_pointerMapPut(&locationIds, callSite, id);
+            }
+            teavm_gc_bufferVarint(&packed, id);
+        }
+        teavm_gc_bufferMessageField(&message, 1, &packed);
+        teavm_gc_bufferVarint(&packed, sample->count * TEAVM_ALLOC_PROFILE);
+        teavm_gc_bufferVarint(&packed, sample->bytes * TEAVM_ALLOC_PROFILE);
+        teavm_gc_bufferMessageField(&message, 2, &packed);
+        teavm_gc_bufferMessageField(&profile, 2, &message);
+    }
+
+    for (int32_t i = 0; i < locationCount; ++i) {
+        teavm_gc_bufferIntField(&message, 1, i + 1);
+        TeaVM_CallSiteLocation* location = locations[i]->location;
+        while (location != NULL) {
+            TeaVM_MethodLocation* method = location->method;
+            if (method != NULL) {
+                int32_t functionId = teavm_gc_pointerMapGet(&functionIds, method);
+                if (functionId == 0) {
+                    functions = teavm_gc_profileAlloc(functions,
+                            (functionCount + 1) * sizeof(TeaVM_MethodLocation*));
+                    functions[functionCount++] = method;
+                    functionId = functionCount;
+                    teavm_gc_pointerMapPut(&functionIds, method, functionId);
+                }
+                teavm_gc_bufferIntField(&line, 1, functionId);
+            }
+            if (location->lineNumber >= 0) {
+                teavm_gc_bufferIntField(&line, 2, location->lineNumber);
+            }
+            teavm_gc_bufferMessageField(&message, 4, &line);
+            location = location->next;
+        }
+        teavm_gc_bufferMessageField(&profile, 4, &message);
+    }
+
+    for (int32_t i = 0; i < functionCount; ++i) {
+        TeaVM_MethodLocation* method = functions[i];
+        int32_t name = teavm_gc_addProfileMethodName(&strings, method);
+        teavm_gc_bufferIntField(&message, 1, i + 1);
+        teavm_gc_bufferIntField(&message, 2, name);
+        teavm_gc_bufferIntField(&message, 3, name);
+        teavm_gc_bufferIntField(&message, 4, teavm_gc_addProfileJavaString(&strings, method->fileName));
+        teavm_gc_bufferMessageField(&profile, 5, &message);
+    }
+
+    for (int32_t i = 0; i < strings.size; ++i) {
+        teavm_gc_bufferBytesField(&profile, 6, strings.data[i], strlen(strings.data[i]));
+        free(strings.data[i]);
+    }
+
+    teavm_gc_bufferIntField(&message, 1, allocObjects);
+    teavm_gc_bufferIntField(&message, 2, count);
+    teavm_gc_bufferMessageField(&profile, 11, &message);
+    teavm_gc_bufferIntField(&profile, 12, TEAVM_ALLOC_PROFILE);
+
+    fwrite(profile.data, 1, profile.size, out);
+
+    free(strings.data);
+    free(profile.data);
+    free(message.data);
+    free(line.data);
+    free(packed.data);
+    free(locations);
+    free(functions);
+    teavm_gc_pointerMapDispose(&locationIds);
+    teavm_gc_pointerMapDispose(&functionIds);
+}
+
+typedef struct {
+    TeaVM_Class* cls;
+    int64_t instances;
+    int64_t bytes;
+} TeaVM_HistogramEntry;
+
+static int teavm_gc_compareHistogramEntries(const void* a, const void* b) {
+    const TeaVM_HistogramEntry* first = a;
+    const TeaVM_HistogramEntry* second = b;
+    if (first->bytes != second->bytes) {
+        return first->bytes > second->bytes ? -1 : 1;
+    }
+    if (first->instances != second->instances) {
+        return first->instances > second->instances ? -1 : 1;
+    }
+    return 0;
+}
+
+static char* teavm_gc_histogramClassName(TeaVM_Class* cls) {
+    if (cls->name != NULL && *cls->name != NULL) {
+        return teavm_stringToC(*cls->name);
+    }
+    if (cls->itemType != NULL) {
+        char* itemName = teavm_gc_histogramClassName(cls->itemType);
+        size_t length = strlen(itemName);
+        char* result = teavm_gc_profileAlloc(itemName, length + 3);
+        memcpy(result + length, "[]", 3);
+        return result;
+    }
+    char* result = teavm_gc_profileAlloc(NULL, 32);
+    snprintf(result, 32, "<class %p>", (void*) cls);
+    return result;
+}
+
+/*
+ * Walks the heap right after a full collection, when it contains live objects only. The walk can't simply run
+ * a collection itself: allocation samples are taken when the new object is not reachable from roots yet.
+ */
+static void teavm_gc_writeHeapHistogramTo(FILE* out) {
+    int32_t classCount = teavm_classReferencesCount;
+    TeaVM_HistogramEntry* entries = calloc(classCount > 0 ? classCount : 1, sizeof(TeaVM_HistogramEntry));
+    if (entries == NULL) {
+        teavm_outOfMemory();
+    }
+    TeaVM_PointerMap classIndexes = { 0 };
+    for (int32_t i = 0; i < classCount; ++i) {
+        entries[i].cls = teavm_classReferences[i];
+        teavm_gc_pointerMapPut(&classIndexes, teavm_classReferences[i], i + 1);
+    }
+
+    TeaVM_Object* obj = teavm_gc_heapAddress;
+    char* limit = (char*) teavm_gc_heapAddress + teavm_gc_availableBytes;
+    while ((char*) obj < limit) {
+        int32_t size;
+        if (obj->header == 0) {
+            size = obj->hash;
+        } else {
+            size = teavm_gc_objectSize(obj);
+            int32_t index = teavm_gc_pointerMapGet(&classIndexes, TEAVM_CLASS_OF(obj));
+            if (index > 0) {
+                entries[index - 1].instances++;
+                entries[index - 1].bytes += size;
+            }
+        }
+        obj = (TeaVM_Object*) ((char*) obj + size);
+    }
+    teavm_gc_pointerMapDispose(&classIndexes);
+
+    qsort(entries, classCount, sizeof(TeaVM_HistogramEntry), teavm_gc_compareHistogramEntries);
+
+    int64_t totalInstances = 0;
+    int64_t totalBytes = 0;
+    fprintf(out, "%12s %16s  %s\n", "instances", "bytes", "class");
+    for (int32_t i = 0; i < classCount; ++i) {
+        TeaVM_HistogramEntry* entry = &entries[i];
+        if (entry->instances == 0) {
+            break;
+        }
+        char* name = teavm_gc_histogramClassName(entry->cls);
+        fprintf(out, "%12" PRId64 " %16" PRId64 "  %s\n", entry->instances, entry->bytes, name);
+        free(name);
+        totalInstances += entry->instances;
+        totalBytes += entry->bytes;
+    }
+    fprintf(out, "%12" PRId64 " %16" PRId64 "  total\n", totalInstances, totalBytes);
+
+    free(entries);
+}
+
+static void teavm_gc_writeAllocationProfileFile() {
+    FILE* out = teavm_gc_openBinaryDumpFile(L"teavm-alloc-profile.pb");
+    if (out == NULL) {
+        fprintf(stderr, "Error: could not write allocation profile\n");
+    } else {
+        teavm_gc_writeAllocationProfileTo(out);
+        fclose(out);
+    }
+}
+
+static void teavm_gc_writeHeapHistogram() {
+    FILE* out = teavm_gc_openDumpFile(L"teavm-heap-histogram.txt");
+    if (out == NULL) {
+        fprintf(stderr, "Error: could not write heap histogram\n");
+    } else {
+        teavm_gc_writeHeapHistogramTo(out);
+        fclose(out);
+    }
+}
+
+void teavm_gc_allocProfileGcStarted(int32_t full) {
+    teavm_gc_fullCollection = full;
+}
+
+void teavm_gc_allocProfileGcCompleted() {
+    if (teavm_gc_histogramRequested && teavm_gc_fullCollection) {
+        teavm_gc_histogramRequested = 0;
+        teavm_gc_writeHeapHistogram();
+    }
+}
+
+/*
+ * Runs at exit. On signal the histogram waits for the next full collection, here the collection is forced.
+ */
+void teavm_gc_writeAllocationProfile() {
+    teavm_gc_writeAllocationProfileFile();
+    if (teavm_gc_heapAddress != NULL) {
+        teavm_gc_histogramRequested = 1;
+        teavm_gc_collectFull();
+    }
+}
+
+#if TEAVM_UNIX
+    static void teavm_gc_handleProfileSignal(int signal) {
+        teavm_gc_profileRequested = 1;
+        teavm_gc_allocationsUntilSample = 0;
+    }
+#endif
+
+void teavm_gc_initAllocationProfile() {
+    atexit(teavm_gc_writeAllocationProfile);
+    #if TEAVM_UNIX
+        signal(SIGUSR2, teavm_gc_handleProfileSignal);
+    #endif
+}
+
+#endif
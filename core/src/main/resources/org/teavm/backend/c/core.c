@@ -1,6 +1,7 @@
 #include "runtime.h"
 #include "time.h"
 #include "fiber.h"
+#include "heaptrace.h"
 #include "string.h"
 #include "definitions.h"
 #include <string.h>
@@ -37,6 +38,10 @@ void teavm_beforeInit() {
 
     teavm_initFiber();
     teavm_initTime();
+
+    #if TEAVM_ALLOC_PROFILE
+        teavm_gc_initAllocationProfile();
+    #endif
 }
 
 TeaVM_Array* teavm_parseArguments(int argc, char** argv) {
@@ -59,6 +64,9 @@ TeaVM_Class* teavm_classClass;
 TeaVM_Class* teavm_objectClass;
 TeaVM_Class* teavm_stringClass;
 TeaVM_Class* teavm_charArrayClass;
+#if TEAVM_COMPACT_STRINGS
+    TeaVM_Class* teavm_byteArrayClass;
+#endif
 
 void teavm_initClasses() {
     teavm_beforeClasses = (char*) teavm_classReferences[0];
@@ -66,6 +66,10 @@ typedef struct TeaVM_Services {
 typedef struct TeaVM_String {
     TeaVM_Object parent;
     TeaVM_Array* characters;
+    #if TEAVM_COMPACT_STRINGS
+        TeaVM_Array* latin1;
+        int8_t coder;
+    #endif
     int32_t hashCode;
 } TeaVM_String;
 
@@ -193,6 +197,9 @@ extern TeaVM_Class* teavm_classClass;
 extern TeaVM_Class* teavm_objectClass;
 extern TeaVM_Class* teavm_stringClass;
 extern TeaVM_Class* teavm_charArrayClass;
+#if TEAVM_COMPACT_STRINGS
+    extern TeaVM_Class* teavm_byteArrayClass;
+#endif
 extern int32_t teavm_classReferencesCount;
 extern void teavm_initClasses();
 
@@ -67,6 +67,14 @@
     #define TEAVM_GC_STATS 0
 #endif
 
+#ifndef TEAVM_ALLOC_PROFILE
+    #define TEAVM_ALLOC_PROFILE 0
+#endif
+
+#ifndef TEAVM_GC_MARK_THREADS
+    #define TEAVM_GC_MARK_THREADS 1
+#endif
+
 #ifndef TEAVM_OBFUSCATED
     #define TEAVM_OBFUSCATED 0
 #endif
\ No newline at end of file
@@ -0,0 +1,423 @@
+#include "gcmark.h"
+#include "core.h"
+#include "memory.h"
+#include "heaptrace.h"
+#include "references.h"
+#include "definitions.h"
+#include <stdint.h>
+#include <stdlib.h>
+
+#if TEAVM_UNIX && TEAVM_GC_MARK_THREADS > 1 && !TEAVM_MEMORY_TRACE
+    #define TEAVM_GC_PARALLEL_MARK 1
+#else
+    #define TEAVM_GC_PARALLEL_MARK 0
+#endif
+
+int32_t teavm_gc_markThreadCount() {
+    #if TEAVM_GC_PARALLEL_MARK
+        return TEAVM_GC_MARK_THREADS;
+    #else
+        return 1;
+    #endif
+}
+
+#if TEAVM_GC_PARALLEL_MARK
+
+#include <pthread.h>
+#include <sched.h>
+
+#define TEAVM_GC_MARKED ((int32_t) 0x80000000)
+#define TEAVM_GC_OLD_GENERATION ((int32_t) 0x40000000)
+#define TEAVM_GC_CARD_YOUNG_GEN 2
+#define TEAVM_GC_CLASS_PRIMITIVE 2
+#define TEAVM_GC_VM_TYPE(cls) (((cls)->flags >> 6) & 7)
+#define TEAVM_GC_VM_TYPE_WEAKREFERENCE 1
+#define TEAVM_GC_VM_TYPE_REFERENCEQUEUE 2
+
+#define TEAVM_GC_DEQUE_CAPACITY (1 << 15)
+#define TEAVM_GC_OVERFLOW_BATCH 256
+
+/*
+ * Work-stealing deque of Chase and Lev with a fixed capacity. Only the owner pushes and pops at the bottom,
+ * other workers steal from the top. When the deque is full, the owner moves half of it to the shared
+ * overflow stack.
+ */
+typedef struct {
+    int64_t top;
+    char padding1[64 - sizeof(int64_t)];
+    int64_t bottom;
+    char padding2[64 - sizeof(int64_t)];
+    TeaVM_Object** items;
+    int32_t markCount;
+    int32_t index;
+    char padding3[64 - sizeof(TeaVM_Object**) - 2 * sizeof(int32_t)];
+} TeaVM_MarkWorker;
+
+typedef struct {
+    int16_t start;
+} TeaVM_MarkRegion;
+
+static TeaVM_MarkWorker* teavm_gc_markWorkers;
+static int32_t teavm_gc_markFull;
+static TeaVM_Reference* teavm_gc_markWeakReferences;
+static int32_t teavm_gc_markIdleCount;
+
+static pthread_mutex_t teavm_gc_overflowLock = PTHREAD_MUTEX_INITIALIZER;
+static TeaVM_Object** teavm_gc_overflow;
+static int32_t teavm_gc_overflowSize;
+static int32_t teavm_gc_overflowCapacity;
+
+static pthread_mutex_t teavm_gc_markLock = PTHREAD_MUTEX_INITIALIZER;
+static pthread_cond_t teavm_gc_markStartCondition = PTHREAD_COND_INITIALIZER;
+static pthread_cond_t teavm_gc_markDoneCondition = PTHREAD_COND_INITIALIZER;
+static int64_t teavm_gc_markEpoch;
+static int32_t teavm_gc_markRunningHelpers;
+
+static void teavm_gc_overflowPush(TeaVM_Object** objects, int32_t count) {
+    pthread_mutex_lock(&teavm_gc_overflowLock);
+    if (teavm_gc_overflowSize + count > teavm_gc_overflowCapacity) {
+        int32_t newCapacity = teavm_gc_overflowCapacity * 2;
+        if (newCapacity < teavm_gc_overflowSize + count) {
+            newCapacity = teavm_gc_overflowSize + count;
+        }
+        TeaVM_Object** newOverflow = realloc(teavm_gc_overflow, newCapacity * sizeof(TeaVM_Object*));
+        if (newOverflow == NULL) {
+            teavm_outOfMemory();
+        }
+        teavm_gc_overflow = newOverflow;
+        teavm_gc_overflowCapacity = newCapacity;
+    }
+    for (int32_t i = 0; i < count; ++i) {
+        teavm_gc_overflow[teavm_gc_overflowSize + i] = objects[i];
+    }
+    __atomic_store_n(&teavm_gc_overflowSize, teavm_gc_overflowSize + count, __ATOMIC_RELAXED);
+    pthread_mutex_unlock(&teavm_gc_overflowLock);
+}
+
+static int32_t teavm_gc_overflowTake(TeaVM_Object** objects, int32_t count) {
+    if (__atomic_load_n(&teavm_gc_overflowSize, __ATOMIC_RELAXED) == 0) {
+        return 0;
+    }
+    pthread_mutex_lock(&teavm_gc_overflowLock);
+    if (count > teavm_gc_overflowSize) {
+        count = teavm_gc_overflowSize;
+    }
+    int32_t newSize = teavm_gc_overflowSize - count;
+    for (int32_t i = 0; i < count; ++i) {
+        objects[i] = teavm_gc_overflow[newSize + i];
+    }
+    __atomic_store_n(&teavm_gc_overflowSize, newSize, __ATOMIC_RELAXED);
+    pthread_mutex_unlock(&teavm_gc_overflowLock);
+    return count;
+}
+
+static TeaVM_Object* teavm_gc_dequePop(TeaVM_MarkWorker* worker) {
+    int64_t b = __atomic_load_n(&worker->bottom, __ATOMIC_RELAXED) - 1;
+    __atomic_store_n(&worker->bottom, b, __ATOMIC_RELAXED);
+    __atomic_thread_fence(__ATOMIC_SEQ_CST);
+    int64_t t = __atomic_load_n(&worker->top, __ATOMIC_RELAXED);
+    if (t > b) {
+        __atomic_store_n(&worker->bottom, b + 1, __ATOMIC_RELAXED);
+        return NULL;
+    }
+    TeaVM_Object* result = __atomic_load_n(&worker->items[b & (TEAVM_GC_DEQUE_CAPACITY - 1)], __ATOMIC_RELAXED);
+    if (t == b) {
+        if (!__atomic_compare_exchange_n(&worker->top, &t, t + 1, 0, __ATOMIC_SEQ_CST, __ATOMIC_RELAXED)) {
+            result = NULL;
+        }
+        __atomic_store_n(&worker->bottom, b + 1, __ATOMIC_RELAXED);
+    }
+    return result;
+}
+
+static void teavm_gc_dequePush(TeaVM_MarkWorker* worker, TeaVM_Object* object) {
+    int64_t b = __atomic_load_n(&worker->bottom, __ATOMIC_RELAXED);
+    int64_t t = __atomic_load_n(&worker->top, __ATOMIC_ACQUIRE);
+    if (b - t >= TEAVM_GC_DEQUE_CAPACITY) {
+        TeaVM_Object* batch[TEAVM_GC_OVERFLOW_BATCH];
+        int32_t moved = 0;
+        for (int32_t i = 0; i < TEAVM_GC_DEQUE_CAPACITY / 2; ++i) {
+            TeaVM_Object* item = teavm_gc_dequePop(worker);
+            if (item == NULL) {
+                break;
+            }
+            batch[moved++] = item;
+            if (moved == TEAVM_GC_OVERFLOW_BATCH) {
+                teavm_gc_overflowPush(batch, moved);
+                moved = 0;
+            }
+        }
+        teavm_gc_overflowPush(batch, moved);
+        b = __atomic_load_n(&worker->bottom, __ATOMIC_RELAXED);
+    }
+    __atomic_store_n(&worker->items[b & (TEAVM_GC_DEQUE_CAPACITY - 1)], object, __ATOMIC_RELAXED);
+    __atomic_thread_fence(__ATOMIC_RELEASE);
+    __atomic_store_n(&worker->bottom, b + 1, __ATOMIC_RELAXED);
+}
+
+static TeaVM_Object* teavm_gc_dequeSteal(TeaVM_MarkWorker* worker) {
+    int64_t t = __atomic_load_n(&worker->top, __ATOMIC_ACQUIRE);
+    __atomic_thread_fence(__ATOMIC_SEQ_CST);
+    int64_t b = __atomic_load_n(&worker->bottom, __ATOMIC_ACQUIRE);
+    if (t >= b) {
+        return NULL;
+    }
+    TeaVM_Object* result = __atomic_load_n(&worker->items[t & (TEAVM_GC_DEQUE_CAPACITY - 1)], __ATOMIC_RELAXED);
+    if (!__atomic_compare_exchange_n(&worker->top, &t, t + 1, 0, __ATOMIC_SEQ_CST, __ATOMIC_RELAXED)) {
+        return NULL;
+    }
+    return result;
+}
+
+static int32_t teavm_gc_dequeIsEmpty(TeaVM_MarkWorker* worker) {
+    int64_t t = __atomic_load_n(&worker->top, __ATOMIC_ACQUIRE);
+    int64_t b = __atomic_load_n(&worker->bottom, __ATOMIC_ACQUIRE);
+    return t >= b;
+}
+
+static inline int32_t teavm_gc_isMarked(int32_t header) {
+    return (header & TEAVM_GC_MARKED) != 0 || (!teavm_gc_markFull && (header & TEAVM_GC_OLD_GENERATION) != 0);
+}
+
+static inline void teavm_gc_enqueueMark(TeaVM_MarkWorker* worker, TeaVM_Object* object) {
+    if (object == NULL || teavm_gc_isMarked(__atomic_load_n(&object->header, __ATOMIC_RELAXED))) {
+        return;
+    }
+    int32_t bits = teavm_gc_markFull ? TEAVM_GC_MARKED | TEAVM_GC_OLD_GENERATION : TEAVM_GC_MARKED;
+    int32_t header = __atomic_fetch_or(&object->header, bits, __ATOMIC_RELAXED);
+    if (!teavm_gc_isMarked(header)) {
+        teavm_gc_dequePush(worker, object);
+    }
+}
+
+static void teavm_gc_markWeakReference(TeaVM_MarkWorker* worker, TeaVM_Reference* reference) {
+    if (reference->queue != NULL) {
+        teavm_gc_enqueueMark(worker, (TeaVM_Object*) reference->queue);
+        if (reference->next != NULL && reference->object != NULL) {
+            teavm_gc_enqueueMark(worker, reference->object);
+        }
+    }
+    if (reference->next != NULL) {
+        teavm_gc_enqueueMark(worker, (TeaVM_Object*) reference->next);
+    } else if (reference->object != NULL) {
+        TeaVM_Reference* first = __atomic_load_n(&teavm_gc_markWeakReferences, __ATOMIC_RELAXED);
+        do {
+            reference->next = first;
+        } while (!__atomic_compare_exchange_n(&teavm_gc_markWeakReferences, &first, reference, 1,
+                __ATOMIC_RELEASE, __ATOMIC_RELAXED));
+    }
+}
+
+static void teavm_gc_markFields(TeaVM_MarkWorker* worker, TeaVM_Class* cls, TeaVM_Object* object) {
+    int16_t* layout = cls->layout;
+    if (layout == NULL) {
+        return;
+    }
+    int16_t fieldCount = *layout;
+    while (fieldCount-- > 0) {
+        ++layout;
+        teavm_gc_enqueueMark(worker, *(TeaVM_Object**) ((char*) object + *layout));
+    }
+}
+
+static void teavm_gc_markArray(TeaVM_MarkWorker* worker, TeaVM_Class* cls, TeaVM_Array* array) {
+    if ((cls->itemType->flags & TEAVM_GC_CLASS_PRIMITIVE) != 0) {
+        return;
+    }
+    TeaVM_Object** data = TEAVM_ARRAY_DATA(array, TeaVM_Object*);
+    for (int32_t i = 0; i < array->size; ++i) {
+        teavm_gc_enqueueMark(worker, data[i]);
+    }
+}
+
+static void teavm_gc_markObjectData(TeaVM_MarkWorker* worker, TeaVM_Object* object) {
+    worker->markCount++;
+
+    int64_t offset = (char*) object - (char*) teavm_gc_heapAddress;
+    int32_t regionIndex = (int32_t) (offset / teavm_gc_regionSize);
+    TeaVM_MarkRegion* region = (TeaVM_MarkRegion*) teavm_gc_regionsAddress + regionIndex;
+    int16_t relativeOffset = (int16_t) (offset % teavm_gc_regionSize + 1);
+    int16_t start = __atomic_load_n(&region->start, __ATOMIC_RELAXED);
+    while (start == 0 || start > relativeOffset) {
+        if (__atomic_compare_exchange_n(&region->start, &start, relativeOffset, 1,
+                __ATOMIC_RELAXED, __ATOMIC_RELAXED)) {
+            break;
+        }
+    }
+    uint8_t* card = (uint8_t*) teavm_gc_cardTable + regionIndex;
+    if ((__atomic_load_n(card, __ATOMIC_RELAXED) & TEAVM_GC_CARD_YOUNG_GEN) == 0) {
+        __atomic_fetch_or(card, TEAVM_GC_CARD_YOUNG_GEN, __ATOMIC_RELAXED);
+    }
+
+    TeaVM_Class* cls = TEAVM_UNPACK_CLASS(__atomic_load_n(&object->header, __ATOMIC_RELAXED));
+    if (cls->itemType != NULL) {
+        teavm_gc_markArray(worker, cls, (TeaVM_Array*) object);
+        return;
+    }
+    while (cls != NULL) {
+        switch (TEAVM_GC_VM_TYPE(cls)) {
+            case TEAVM_GC_VM_TYPE_WEAKREFERENCE:
+                teavm_gc_markWeakReference(worker, (TeaVM_Reference*) object);
+                break;
+            case TEAVM_GC_VM_TYPE_REFERENCEQUEUE:
+                teavm_gc_enqueueMark(worker, (TeaVM_Object*) ((TeaVM_ReferenceQueue*) object)->first);
+                break;
+            default:
+                teavm_gc_markFields(worker, cls, object);
+                break;
+        }
+        cls = cls->superclass;
+    }
+}
+
+static TeaVM_Object* teavm_gc_findWork(TeaVM_MarkWorker* worker) {
+    TeaVM_Object* object = teavm_gc_dequePop(worker);
+    if (object != NULL) {
+        return object;
+    }
+
+    TeaVM_Object* batch[TEAVM_GC_OVERFLOW_BATCH];
+    int32_t taken = teavm_gc_overflowTake(batch, TEAVM_GC_OVERFLOW_BATCH);
+    if (taken > 0) {
+        for (int32_t i = 1; i < taken; ++i) {
+            teavm_gc_dequePush(worker, batch[i]);
+        }
+        return batch[0];
+    }
+
+    for (int32_t i = 1; i < TEAVM_GC_MARK_THREADS; ++i) {
+        TeaVM_MarkWorker* victim = &teavm_gc_markWorkers[(worker->index + i) % TEAVM_GC_MARK_THREADS];
+        object = teavm_gc_dequeSteal(victim);
+        if (object != NULL) {
+            return object;
+        }
+    }
+    return NULL;
+}
+
+static int32_t teavm_gc_hasWork() {
+    if (__atomic_load_n(&teavm_gc_overflowSize, __ATOMIC_RELAXED) > 0) {
+        return 1;
+    }
+    for (int32_t i = 0; i < TEAVM_GC_MARK_THREADS; ++i) {
+        if (!teavm_gc_dequeIsEmpty(&teavm_gc_markWorkers[i])) {
+            return 1;
+        }
+    }
+    return 0;
+}
+
+static void teavm_gc_runMarkWorker(TeaVM_MarkWorker* worker) {
+    while (1) {
+        TeaVM_Object* object = teavm_gc_findWork(worker);
+        if (object != NULL) {
+            teavm_gc_markObjectData(worker, object);
+            continue;
+        }
+
+        __atomic_fetch_add(&teavm_gc_markIdleCount, 1, __ATOMIC_SEQ_CST);
+        while (1) {
+            if (__atomic_load_n(&teavm_gc_markIdleCount, __ATOMIC_SEQ_CST) == TEAVM_GC_MARK_THREADS) {
+                return;
+            }
+            if (teavm_gc_hasWork()) {
+                __atomic_fetch_sub(&teavm_gc_markIdleCount, 1, __ATOMIC_SEQ_CST);
+                break;
+            }
+            sched_yield();
+        }
+    }
+}
+
+static void* teavm_gc_markHelper(void* argument) {
+    TeaVM_MarkWorker* worker = argument;
+    int64_t epoch = 0;
+    while (1) {
+        pthread_mutex_lock(&teavm_gc_markLock);
+        while (teavm_gc_markEpoch == epoch) {
+            pthread_cond_wait(&teavm_gc_markStartCondition, &teavm_gc_markLock);
+        }
+        epoch = teavm_gc_markEpoch;
+        pthread_mutex_unlock(&teavm_gc_markLock);
+
+        teavm_gc_runMarkWorker(worker);
+
+        pthread_mutex_lock(&teavm_gc_markLock);
+        if (--teavm_gc_markRunningHelpers == 0) {
+            pthread_cond_signal(&teavm_gc_markDoneCondition);
+        }
+        pthread_mutex_unlock(&teavm_gc_markLock);
+    }
+    return NULL;
+}
+
+static void teavm_gc_initMarkWorkers() {
+    teavm_gc_markWorkers = aligned_alloc(64, TEAVM_GC_MARK_THREADS * sizeof(TeaVM_MarkWorker));
+    if (teavm_gc_markWorkers == NULL) {
+        teavm_outOfMemory();
+    }
+    for (int32_t i = 0; i < TEAVM_GC_MARK_THREADS; ++i) {
+        TeaVM_MarkWorker* worker = &teavm_gc_markWorkers[i];
+        worker->top = 0;
+        worker->bottom = 0;
+        worker->index = i;
+        worker->items = malloc(TEAVM_GC_DEQUE_CAPACITY * sizeof(TeaVM_Object*));
+        if (worker->items == NULL) {
+            teavm_outOfMemory();
+        }
+    }
+    for (int32_t i = 1; i < TEAVM_GC_MARK_THREADS; ++i) {
+        pthread_t thread;
+        pthread_create(&thread, NULL, teavm_gc_markHelper, &teavm_gc_markWorkers[i]);
+        pthread_detach(thread);
+    }
+}
+
+TeaVM_Reference* teavm_gc_markInParallel(int32_t rootCount, int32_t fullGC) {
+    if (teavm_gc_markWorkers == NULL) {
+        teavm_gc_initMarkWorkers();
+    }
+    teavm_gc_markFull = fullGC;
+    teavm_gc_markWeakReferences = NULL;
+    teavm_gc_markIdleCount = 0;
+
+    int32_t* roots = teavm_gc_gcStorageAddress;
+    for (int32_t i = 0; i < TEAVM_GC_MARK_THREADS; ++i) {
+        teavm_gc_markWorkers[i].markCount = 0;
+    }
+    for (int32_t i = 0; i < rootCount; ++i) {
+        TeaVM_Object* root = (TeaVM_Object*) ((char*) teavm_gc_heapAddress + ((int64_t) roots[i] << 2));
+        teavm_gc_dequePush(&teavm_gc_markWorkers[i % TEAVM_GC_MARK_THREADS], root);
+    }
+
+    pthread_mutex_lock(&teavm_gc_markLock);
+    teavm_gc_markRunningHelpers = TEAVM_GC_MARK_THREADS - 1;
+    teavm_gc_markEpoch++;
+    pthread_cond_broadcast(&teavm_gc_markStartCondition);
+    pthread_mutex_unlock(&teavm_gc_markLock);
+
+    teavm_gc_runMarkWorker(&teavm_gc_markWorkers[0]);
+
+    pthread_mutex_lock(&teavm_gc_markLock);
+    while (teavm_gc_markRunningHelpers > 0) {
+        pthread_cond_wait(&teavm_gc_markDoneCondition, &teavm_gc_markLock);
+    }
+    pthread_mutex_unlock(&teavm_gc_markLock);
+
+    int32_t markCount = 0;
+    for (int32_t i = 0; i < TEAVM_GC_MARK_THREADS; ++i) {
+        markCount += teavm_gc_markWorkers[i].markCount;
+    }
+    teavm_gc_reportParallelMark(markCount, TEAVM_GC_MARK_THREADS);
+
+    return __atomic_load_n(&teavm_gc_markWeakReferences, __ATOMIC_ACQUIRE);
+}
+
+#else
+
+TeaVM_Reference* teavm_gc_markInParallel(int32_t rootCount, int32_t fullGC) {
+    abort();
+    return NULL;
+}
+
+#endif
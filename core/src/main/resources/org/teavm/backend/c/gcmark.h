@@ -0,0 +1,7 @@
+#pragma once
+#include <stdint.h>
+#include "definitions.h"
+#include "references.h"
+
+extern int32_t teavm_gc_markThreadCount();
+extern TeaVM_Reference* teavm_gc_markInParallel(int32_t rootCount, int32_t fullGC);
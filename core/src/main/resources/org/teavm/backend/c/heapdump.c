@@ -312,6 +312,12 @@
                 fprintf(out, "\n");
                 teavm_gc_writeHeapDumpObject(out, (TeaVM_Object*) str);
                 fprintf(out, ",\n");
+                #if TEAVM_COMPACT_STRINGS
+                if (str->characters == NULL) {
+                    teavm_gc_writeHeapDumpObject(out, (TeaVM_Object*) str->latin1);
+                    continue;
+                }
+                #endif
                 teavm_gc_writeHeapDumpObject(out, (TeaVM_Object*) str->characters);
             }
             strings = strings->next;
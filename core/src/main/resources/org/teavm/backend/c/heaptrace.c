@@ -42,6 +42,7 @@ static wchar_t* teavm_gc_dumpDirectory = NULL;
     static int32_t teavm_gc_freeCount = 0;
     static int32_t teavm_gc_freeByteCount = 0;
     static int32_t teavm_gc_markCount = 0;
+    static int32_t teavm_gc_markThreads = 1;
     static int32_t teavm_gc_dirtyRegionCount = 0;
     static int32_t teavm_gc_relocatedBlocks = 0;
     static int32_t teavm_gc_relocatedBytes = 0;
@@ -260,7 +261,7 @@ void teavm_gc_move(void* from, void* to, int32_t size) {
 
 static FILE* teavm_gc_traceFile = NULL;
 
-FILE* teavm_gc_openDumpFile(wchar_t* name) {
+static FILE* teavm_gc_openFile(wchar_t* name, int binary) {
     wchar_t* fullName = name;
     size_t fullNameLen = wcslen(name);
     if (teavm_gc_dumpDirectory != NULL) {
@@ -274,13 +275,13 @@ FILE* teavm_gc_openDumpFile(wchar_t* name) {
 
     FILE* result;
     #if TEAVM_WINDOWS
-        _wfopen_s(&result, fullName, L"w");
+        _wfopen_s(&result, fullName, binary ? L"wb" : L"w");
     #else
         size_t fullNameMbSize = 3 * (fullNameLen + 1);
         char* fullNameMb = malloc(fullNameMbSize);
         mbstate_t state = { 0 };
         wcsrtombs(fullNameMb, (const wchar_t **) &fullName, fullNameMbSize, &state);
-        result = fopen(fullNameMb, "w");
+        result = fopen(fullNameMb, binary ? "wb" : "w");
         free(fullNameMb);
     #endif
 
@@ -291,6 +292,14 @@ FILE* teavm_gc_openDumpFile(wchar_t* name) {
     return result;
 }
 
+FILE* teavm_gc_openDumpFile(wchar_t* name) {
+    return teavm_gc_openFile(name, 0);
+}
+
+FILE* teavm_gc_openBinaryDumpFile(wchar_t* name) {
+    return teavm_gc_openFile(name, 1);
+}
+
 #if TEAVM_MEMORY_TRACE
     static void teavm_writeHeapMemory(char* name) {
         #if TEAVM_GC_LOG
@@ -413,6 +422,10 @@ void teavm_gc_gcStarted(int32_t full) {
         teavm_gc_startTimeMillis = teavm_currentTimeMillis();
         teavm_gc_full = full;
     #endif
+
+    #if TEAVM_ALLOC_PROFILE
+        teavm_gc_allocProfileGcStarted(full);
+    #endif
 }
 
 void teavm_gc_sweepStarted() {
@@ -466,6 +479,12 @@ void teavm_gc_defragCompleted() {
                 " objects reached\n", teavm_gc_markEndTime - teavm_gc_markStartTime, teavm_gc_markCount);
         teavm_gc_print(buffer);
 
+        if (teavm_gc_markThreads > 1) {
+            swprintf(buffer, TEAVM_GC_LOG_BUFFER_SIZE, L"[GC]     Marked in parallel by %" PRId32 " threads\n",
+                    teavm_gc_markThreads);
+            teavm_gc_print(buffer);
+        }
+
         if (!teavm_gc_full) {
             swprintf(buffer, TEAVM_GC_LOG_BUFFER_SIZE, L"[GC]     Regions scanned from remembered set: %" PRIu32 "\n",
                     teavm_gc_dirtyRegionCount);
@@ -489,6 +508,7 @@ void teavm_gc_defragCompleted() {
     static void teavm_gc_resetStats() {
         teavm_gc_allocationCount = 0;
         teavm_gc_markCount = 0;
+        teavm_gc_markThreads = 1;
         teavm_gc_dirtyRegionCount = 0;
         teavm_gc_freeCount = 0;
         teavm_gc_freeByteCount = 0;
@@ -503,6 +523,10 @@ void teavm_gc_gcCompleted() {
         teavm_gc_printStats();
         teavm_gc_resetStats();
     #endif
+
+    #if TEAVM_ALLOC_PROFILE
+        teavm_gc_allocProfileGcCompleted();
+    #endif
 }
 
 void teavm_gc_heapResized(int64_t newSize) {
@@ -520,6 +544,13 @@ void teavm_gc_reportDirtyRegion(void* address) {
     #endif
 }
 
+void teavm_gc_reportParallelMark(int32_t objectCount, int32_t threadCount) {
+    #if TEAVM_GC_STATS
+        teavm_gc_markCount += objectCount;
+        teavm_gc_markThreads = threadCount;
+    #endif
+}
+
 void teavm_gc_setDumpDirectory(const wchar_t* path) {
     if (teavm_gc_dumpDirectory != NULL) {
         free(teavm_gc_dumpDirectory);
@@ -24,8 +24,28 @@ extern void teavm_gc_defragCompleted();
 extern void teavm_gc_gcCompleted();
 extern void teavm_gc_heapResized(int64_t newSize);
 extern void teavm_gc_reportDirtyRegion(void* address);
+extern void teavm_gc_reportParallelMark(int32_t objectCount, int32_t threadCount);
 extern void teavm_gc_setDumpDirectory(const wchar_t* path);
 extern void teavm_gc_fixHeap();
+extern void teavm_gc_collectFull();
 extern void teavm_gc_writeHeapDump();
 extern FILE* teavm_gc_openDumpFile(wchar_t* name);
-extern int32_t teavm_gc_objectSize(void* address);
\ No newline at end of file
+extern FILE* teavm_gc_openBinaryDumpFile(wchar_t* name);
+extern int32_t teavm_gc_objectSize(void* address);
+
+#if TEAVM_ALLOC_PROFILE
+    extern int32_t teavm_gc_allocationsUntilSample;
+    extern void teavm_gc_sampleAllocation(void* address);
+    extern void teavm_gc_initAllocationProfile();
+    extern void teavm_gc_writeAllocationProfile();
+    extern void teavm_gc_allocProfileGcStarted(int32_t full);
+    extern void teavm_gc_allocProfileGcCompleted();
+
+    static inline void teavm_gc_objectAllocated(void* address) {
+        if (--teavm_gc_allocationsUntilSample <= 0) {
+            teavm_gc_sampleAllocation(address);
+        }
+    }
+#else
+    #define teavm_gc_objectAllocated(address) ((void) 0)
+#endif
\ No newline at end of file
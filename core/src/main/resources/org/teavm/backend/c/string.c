@@ -10,6 +10,16 @@
 
 int32_t teavm_hashCode(TeaVM_String* string) {
     int32_t hashCode = INT32_C(0);
+    #if TEAVM_COMPACT_STRINGS
+    if (string->characters == NULL) {
+        int32_t length = string->latin1->size;
+        uint8_t* bytes = TEAVM_ARRAY_DATA(string->latin1, uint8_t);
+        for (int32_t i = INT32_C(0); i < length; ++i) {
+            hashCode = 31 * hashCode + bytes[i];
+        }
+        return hashCode;
+    }
+    #endif
     int32_t length = string->characters->size;
     char16_t* chars = TEAVM_ARRAY_DATA(string->characters, char16_t);
     for (int32_t i = INT32_C(0); i < length; ++i) {
@@ -23,6 +33,26 @@ int32_t teavm_equals(TeaVM_String* first, TeaVM_String* second) {
         return 1;
     }
 
+    #if TEAVM_COMPACT_STRINGS
+    if (first->characters == NULL || second->characters == NULL) {
+        // Strings created by runtime may keep Latin-1 content in UTF-16 form, so compare char by char
+        int32_t length = teavm_stringLength(first);
+        if (length != teavm_stringLength(second)) {
+            return 0;
+        }
+        if (first->characters == NULL && second->characters == NULL) {
+            return memcmp(TEAVM_ARRAY_DATA(first->latin1, uint8_t), TEAVM_ARRAY_DATA(second->latin1, uint8_t),
+                    length) == 0;
+        }
+        for (int32_t i = INT32_C(0); i < length; ++i) {
+            if (teavm_stringCharAt(first, i) != teavm_stringCharAt(second, i)) {
+                return 0;
+            }
+        }
+        return 1;
+    }
+    #endif
+
     if (first->characters->size != second->characters->size) {
         return 0;
     }
@@ -75,6 +105,30 @@ char* teavm_stringToC(void* obj) {
     }
 
     TeaVM_String* javaString = (TeaVM_String*) obj;
+    #if TEAVM_COMPACT_STRINGS
+    if (javaString->characters == NULL) {
+        TeaVM_Array* byteArray = javaString->latin1;
+        uint8_t* bytes = TEAVM_ARRAY_DATA(byteArray, uint8_t);
+        int32_t ascii = 1;
+        for (int32_t i = 0; i < byteArray->size; ++i) {
+            if (bytes[i] >= 0x80) {
+                ascii = 0;
+                break;
+            }
+        }
+        if (ascii) {
+            char* result = malloc(byteArray->size + 1);
+            memcpy(result, bytes, byteArray->size);
+            result[byteArray->size] = '\0';
+            return result;
+        }
+
+        char16_t* chars = teavm_stringToC16(obj);
+        char* result = teavm_char16ToMb(chars, byteArray->size);
+        free(chars);
+        return result;
+    }
+    #endif
     TeaVM_Array* charArray = javaString->characters;
     char16_t* javaChars = TEAVM_ARRAY_DATA(charArray, char16_t);
 
@@ -100,6 +154,18 @@ char16_t* teavm_stringToC16(void* obj) {
     }
 
     TeaVM_String* javaString = (TeaVM_String*) obj;
+    #if TEAVM_COMPACT_STRINGS
+    if (javaString->characters == NULL) {
+        TeaVM_Array* byteArray = javaString->latin1;
+        uint8_t* bytes = TEAVM_ARRAY_DATA(byteArray, uint8_t);
+        char16_t* result = malloc((byteArray->size + 1) * sizeof(char16_t));
+        for (int32_t i = 0; i < byteArray->size; ++i) {
+            result[i] = bytes[i];
+        }
+        result[byteArray->size] = 0;
+        return result;
+    }
+    #endif
     TeaVM_Array* charArray = javaString->characters;
     char16_t* javaChars = TEAVM_ARRAY_DATA(charArray, char16_t);
     size_t sz = charArray->size;
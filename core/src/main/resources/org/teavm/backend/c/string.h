@@ -18,6 +18,27 @@
     .hashCode = INT32_C(hash) \
 }
 
+#if TEAVM_COMPACT_STRINGS
+    #define TEAVM_LATIN1_STRING(length, hash, s) &(TeaVM_String) { \
+        .latin1 = (TeaVM_Array*) & (struct { TeaVM_Array hdr; char data[(length) + 1]; }) { \
+            .hdr = { .size = length }, \
+            .data = s \
+        }, \
+        .coder = 1, \
+        .hashCode = INT32_C(hash) \
+    }
+
+    static inline int32_t teavm_stringLength(TeaVM_String* string) {
+        return string->characters != NULL ? string->characters->size : string->latin1->size;
+    }
+
+    static inline char16_t teavm_stringCharAt(TeaVM_String* string, int32_t index) {
+        return string->characters != NULL
+            ? TEAVM_ARRAY_DATA(string->characters, char16_t)[index]
+            : TEAVM_ARRAY_DATA(string->latin1, uint8_t)[index];
+    }
+#endif
+
 extern int32_t teavm_hashCode(TeaVM_String*);
 extern int32_t teavm_equals(TeaVM_String*, TeaVM_String*);
 extern TeaVM_Array* teavm_allocateStringArray(int32_t size);
@@ -67,6 +67,11 @@ static void teavm_rehashStrings() {
 
 TeaVM_String* teavm_registerString(TeaVM_String* str) {
     str->parent.header = TEAVM_PACK_CLASS(teavm_stringClass) | (int32_t) INT32_C(0x80000000);
+    #if TEAVM_COMPACT_STRINGS
+    if (str->characters == NULL) {
+        str->latin1->parent.header = TEAVM_PACK_CLASS(teavm_byteArrayClass) | (int32_t) INT32_C(0x80000000);
+    } else
+    #endif
     str->characters->parent.header = TEAVM_PACK_CLASS(teavm_charArrayClass) | (int32_t) INT32_C(0x80000000);
 
     if (teavm_stringHashtable == NULL) {
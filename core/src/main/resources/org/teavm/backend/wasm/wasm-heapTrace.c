@@ -79,6 +79,9 @@ void teavmHeapTrace_allocate(int32_t address, int32_t size) {
     #endif
 }
 
+void teavmHeapTrace_objectAllocated(int32_t address) {
+}
+
 void teavmHeapTrace_free(int32_t address, int32_t size) {
     #if TEAVM_MEMORY_TRACE
         teavmHeapTrace_assertAddress(address);
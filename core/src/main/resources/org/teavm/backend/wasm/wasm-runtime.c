@@ -9,6 +9,7 @@
 #include <time.h>
 #include <uchar.h>
 #include <unistd.h>
+#include <setjmp.h>
 
 static int8_t *wasm_heap;
 static int32_t wasm_heap_size;
@@ -39,6 +40,23 @@ double teavm_nanoTime() {
     return time.tv_sec * 1000000000 + (int64_t) round(time.tv_nsec);
 }
 
+typedef struct WasmExceptionHandler {
+    jmp_buf buffer;
+    struct WasmExceptionHandler* next;
+} WasmExceptionHandler;
+
+static WasmExceptionHandler* wasm_exception_handler;
+static int32_t wasm_exception_tag;
+
+static void wasm_throw(int32_t tag) {
+    if (wasm_exception_handler == NULL) {
+        fprintf(stderr, "Uncaught exception with tag %" PRId32 "\n", tag);
+        abort();
+    }
+    wasm_exception_tag = tag;
+    longjmp(wasm_exception_handler->buffer, 1);
+}
+
 static union { float f; int32_t i; } reinterpret_union_32;
 static union { double f; int64_t i; } reinterpret_union_64;
 
@@ -62,6 +80,140 @@ float reinterpret_int32(int32_t v) {
     return reinterpret_union_32.f;
 }
 
+typedef union {
+    int8_t i8[16];
+    int16_t i16[8];
+    int32_t i32[4];
+    int64_t i64[2];
+} wasm_v128;
+
+#define WASM_V128_LANES(shape) (16 >> (shape))
+
+static int64_t wasm_v128_lane(wasm_v128 v, int32_t shape, int32_t lane, int32_t is_signed) {
+    switch (shape) {
+        case 0:
+            return is_signed ? v.i8[lane] : (uint8_t) v.i8[lane];
+        case 1:
+            return is_signed ? v.i16[lane] : (uint16_t) v.i16[lane];
+        case 2:
+            return v.i32[lane];
+        default:
+            return v.i64[lane];
+    }
+}
+
+static void wasm_v128_set_lane(wasm_v128* v, int32_t shape, int32_t lane, int64_t value) {
+    switch (shape) {
+        case 0:
+            v->i8[lane] = (int8_t) value;
+            break;
+        case 1:
+            v->i16[lane] = (int16_t) value;
+            break;
+        case 2:
+            v->i32[lane] = (int32_t) value;
+            break;
+        default:
+            v->i64[lane] = value;
+            break;
+    }
+}
+
+static wasm_v128 wasm_v128_load(int32_t address) {
+    wasm_v128 result;
+    memcpy(&result, wasm_heap + address, sizeof(result));
+    return result;
+}
+
+static void wasm_v128_store(int32_t address, wasm_v128 value) {
+    memcpy(wasm_heap + address, &value, sizeof(value));
+}
+
+static wasm_v128 wasm_v128_splat(int32_t shape, int64_t value) {
+    wasm_v128 result;
+    for (int32_t i = 0; i < WASM_V128_LANES(shape); ++i) {
+        wasm_v128_set_lane(&result, shape, i, value);
+    }
+    return result;
+}
+
+#define WASM_V128_LANEWISE(name, expr) \
+    static wasm_v128 wasm_v128_##name(int32_t shape, wasm_v128 a, wasm_v128 b) { \
+        wasm_v128 result; \
+        for (int32_t i = 0; i < WASM_V128_LANES(shape); ++i) { \
+            uint64_t x = (uint64_t) wasm_v128_lane(a, shape, i, 1); \
+            uint64_t y = (uint64_t) wasm_v128_lane(b, shape, i, 1); \
+            wasm_v128_set_lane(&result, shape, i, (int64_t) (expr)); \
+        } \
+        return result; \
+    }
+
+WASM_V128_LANEWISE(eq, x == y ? -1 : 0)
+WASM_V128_LANEWISE(ne, x != y ? -1 : 0)
+WASM_V128_LANEWISE(add, x + y)
+WASM_V128_LANEWISE(sub, x - y)
+WASM_V128_LANEWISE(mul, x * y)
+
+#define WASM_V128_BITWISE(name, op) \
+    static wasm_v128 wasm_v128_##name(wasm_v128 a, wasm_v128 b) { \
+        a.i64[0] = a.i64[0] op b.i64[0]; \
+        a.i64[1] = a.i64[1] op b.i64[1]; \
+        return a; \
+    }
+
+WASM_V128_BITWISE(and, &)
+WASM_V128_BITWISE(or, |)
+WASM_V128_BITWISE(xor, ^)
+
+static wasm_v128 wasm_v128_not(wasm_v128 a) {
+    a.i64[0] = ~a.i64[0];
+    a.i64[1] = ~a.i64[1];
+    return a;
+}
+
+static wasm_v128 wasm_v128_narrow_u(int32_t shape, wasm_v128 a, wasm_v128 b) {
+    wasm_v128 result;
+    int32_t half = WASM_V128_LANES(shape) / 2;
+    int64_t max = ((int64_t) 1 << (8 << shape)) - 1;
+    for (int32_t i = 0; i < WASM_V128_LANES(shape); ++i) {
+        int64_t x = wasm_v128_lane(i < half ? a : b, shape + 1, i % half, 1);
+        wasm_v128_set_lane(&result, shape, i, x < 0 ? 0 : x > max ? max : x);
+    }
+    return result;
+}
+
+static wasm_v128 wasm_v128_extend(int32_t shape, int32_t high, int32_t is_signed, wasm_v128 a) {
+    wasm_v128 result;
+    int32_t offset = high ? WASM_V128_LANES(shape) : 0;
+    for (int32_t i = 0; i < WASM_V128_LANES(shape); ++i) {
+        wasm_v128_set_lane(&result, shape, i, wasm_v128_lane(a, shape - 1, i + offset, is_signed));
+    }
+    return result;
+}
+
+static int32_t wasm_v128_any_true(wasm_v128 a) {
+    return a.i64[0] != 0 || a.i64[1] != 0;
+}
+
+static int32_t wasm_v128_all_true(int32_t shape, wasm_v128 a) {
+    for (int32_t i = 0; i < WASM_V128_LANES(shape); ++i) {
+        if (wasm_v128_lane(a, shape, i, 1) == 0) {
+            return 0;
+        }
+    }
+    return 1;
+}
+
+static int32_t wasm_v128_bitmask(int32_t shape, wasm_v128 a) {
+    int32_t result = 0;
+    for (int32_t i = 0; i < WASM_V128_LANES(shape); ++i) {
+        if (wasm_v128_lane(a, shape, i, 1) < 0) {
+            result |= 1 << i;
+        }
+    }
+    return result;
+}
+
 void teavm_logOutOfMemory() {
     abort();
 }
@@ -147,13 +299,21 @@ int32_t wasi_snapshot_preview1_fd_write(int32_t fd, int32_t iovs, int32_t count,
     WasiIOVec* vec = (WasiIOVec*) (wasm_heap + iovs);
     int32_t written = 0;
     for (int32_t i = 0; i < count; ++i) {
-        written += write((int) fd, (char*) (wasm_heap + vec->buf), vec->buf_len);
+        written += write((int) fd, (char*) (wasm_heap + vec[i].buf), vec[i].buf_len);
     }
     int32_t* resultPtr = (int32_t*) (wasm_heap + result);
     *resultPtr = written;
     return 0;
 }
 
+int32_t wasi_snapshot_preview1_random_get(int32_t buffer, int32_t buffer_length) {
+    uint8_t* bufferPtr = (uint8_t*) (wasm_heap + buffer);
+    for (int32_t i = 0; i < buffer_length; ++i) {
+        bufferPtr[i] = (uint8_t) rand();
+    }
+    return 0;
+}
+
 void teavm_putwcharsOut(int32_t chars, int32_t count) {
     char* chars_array = (char*) (wasm_heap + chars);
     for (int32_t i = 0; i < count; ++i) {
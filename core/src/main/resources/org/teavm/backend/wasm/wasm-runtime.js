@@ -49,6 +49,15 @@ TeaVM.wasm = function() {
         let instance = controller.instance;
         let memory = instance.exports.memory.buffer;
         let arrayPtr = instance.exports.teavm_stringData(string);
+        if (arrayPtr === 0 && instance.exports.teavm_stringLatin1Data) {
+            arrayPtr = instance.exports.teavm_stringLatin1Data(string);
+            let length = instance.exports.teavm_arrayLength(arrayPtr);
+            let arrayData = new Uint8Array(memory, instance.exports.teavm_byteArrayData(arrayPtr), length);
+            for (let i = 0; i < length; ++i) {
+                putwchar(arrayData[i]);
+            }
+            return;
+        }
         let length = instance.exports.teavm_arrayLength(arrayPtr);
         let arrayData = new Uint16Array(memory, instance.exports.teavm_charArrayData(arrayPtr), length * 2);
         for (let i = 0; i < length; ++i) {
@@ -99,6 +108,9 @@ TeaVM.wasm = function() {
         controller.resolve = null;
         controller.reject = null;
         controller.complete = false;
+        controller.options = {};
+        controller.partitions = [];
+        controller.basePath = "";
         obj.teavm = {
             currentTimeMillis: currentTimeMillis,
             nanoTime: () => performance.now(),
@@ -114,8 +126,13 @@ TeaVM.wasm = function() {
 
         obj.teavmMath = Math;
 
+        obj.teavmSplit = {
+            load: id => loadPartition(controller, id)
+        };
+
         obj.teavmHeapTrace = {
             allocate: function(address, size) {},
+            objectAllocated: function(address) {},
             free: function(address, size) {},
             assertFree: function(address, size) {},
             markStarted: function() {},
@@ -180,18 +197,98 @@ TeaVM.wasm = function() {
 
         const importObj = {};
         const controller = defaults(importObj);
+        controller.options = options;
         if (typeof options.installImports !== "undefined") {
             options.installImports(importObj, controller);
         }
 
         return WebAssembly.instantiateStreaming(fetch(path), importObj).then((obj => {
             controller.instance = obj.instance;
+            controller.basePath = path.endsWith(".wasm") ? path.substring(0, path.length - 5) : path;
             let teavm = createTeaVM(obj.instance);
             teavm.main = createMain(teavm, controller);
+            teavm.loadPartitions = createPartitionLoader(controller);
+            if (options.prefetchPartitions !== false) {
+                teavm.loadPartitions();
+            }
             return teavm;
         }));
     }
 
+    // Modules produced by code splitting are named after the main module: classes.wasm -> classes.1.wasm.
+    // They are fetched and compiled in background. A call into a module that is not compiled yet
+    // falls back to options.loadPartitionSync(url), which should return module bytes. This is also the case
+    // for every module when prefetching is off and teavm.loadPartitions() was not called.
+    function createPartitionLoader(controller) {
+        let promise = null;
+        return () => {
+            if (promise === null) {
+                promise = preparePartitions(controller);
+            }
+            return promise;
+        };
+    }
+
+    function preparePartitions(controller) {
+        let exports = controller.instance.exports;
+        if (typeof exports.teavm_splitPartitionCount !== "function") {
+            return Promise.resolve();
+        }
+        let options = controller.options;
+        let fetchPartition = typeof options.loadPartition === "function" ? options.loadPartition : fetch;
+        let count = exports.teavm_splitPartitionCount();
+        let promises = [];
+        for (let i = 1; i <= count; ++i) {
+            let partition = getPartition(controller, i);
+            promises.push(Promise.resolve()
+                .then(() => fetchPartition(partition.url))
+                .then(compilePartition)
+                .then(module => {
+                    if (partition.module === null) {
+                        partition.module = module;
+                    }
+                }, e => {
+                    partition.error = e;
+                }));
+        }
+        return Promise.all(promises).then(() => {});
+    }
+
+    function getPartition(controller, id) {
+        let partition = controller.partitions[id];
+        if (typeof partition === "undefined") {
+            partition = { url: controller.basePath + "." + id + ".wasm", module: null, instance: null, error: null };
+            controller.partitions[id] = partition;
+        }
+        return partition;
+    }
+
+    function compilePartition(source) {
+        if (source instanceof WebAssembly.Module) {
+            return source;
+        }
+        if (typeof Response !== "undefined" && source instanceof Response) {
+            return WebAssembly.compileStreaming(source);
+        }
+        return WebAssembly.compile(source);
+    }
+
+    function loadPartition(controller, id) {
+        let partition = getPartition(controller, id);
+        if (partition.instance !== null) {
+            return;
+        }
+        if (partition.module === null) {
+            if (typeof controller.options.loadPartitionSync !== "function") {
+                throw partition.error !== null
+                    ? partition.error
+                    : new Error("WebAssembly module " + partition.url + " is not loaded yet");
+            }
+            partition.module = new WebAssembly.Module(controller.options.loadPartitionSync(partition.url));
+        }
+        partition.instance = new WebAssembly.Instance(partition.module, { primary: controller.instance.exports });
+    }
+
     function createMain(teavm, controller) {
         return function(args) {
             if (typeof args === "undefined") {
@@ -0,0 +1,185 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiskCacheStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void entriesSurviveReopening() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        DiskCacheStore store = new DiskCacheStore(file);
+        store.update();
+        store.put("a", bytes("first"));
+        store.put("b", bytes("second"));
+        assertArrayEquals(bytes("first"), read(store, "a"));
+        store.flush();
+
+        store = new DiskCacheStore(file);
+        store.update();
+        assertArrayEquals(bytes("first"), read(store, "a"));
+        assertArrayEquals(bytes("second"), read(store, "b"));
+        assertNull(store.get("c"));
+        assertTrue(store.getTimestamp("a") > 0);
+    }
+
+    @Test
+    public void latestEntryWins() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        DiskCacheStore store = new DiskCacheStore(file);
+        store.update();
+        store.put("a", bytes("old"));
+        store.flush();
+        store.put("a", bytes("new"));
+        store.flush();
+
+        store = new DiskCacheStore(file);
+        store.update();
+        assertArrayEquals(bytes("new"), read(store, "a"));
+    }
+
+    @Test
+    public void truncatedRecordIgnored() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        DiskCacheStore store = new DiskCacheStore(file);
+        store.update();
+        store.put("a", bytes("first"));
+        store.flush();
+        File dataFile = store.getDataFile();
+        long validLength = dataFile.length();
+        store.put("b", bytes("second"));
+        store.flush();
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "rw")) {
+            raf.setLength(dataFile.length() - 2);
+        }
+
+        store = new DiskCacheStore(file);
+        store.update();
+        assertArrayEquals(bytes("first"), read(store, "a"));
+        assertNull(store.get("b"));
+
+        store.put("c", bytes("third"));
+        store.flush();
+        store = new DiskCacheStore(file);
+        store.update();
+        assertArrayEquals(bytes("first"), read(store, "a"));
+        assertArrayEquals(bytes("third"), read(store, "c"));
+        assertTrue(dataFile.length() > validLength);
+    }
+
+    @Test
+    public void shorterTailAfterRewriteIgnored() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        DiskCacheStore store = new DiskCacheStore(file);
+        store.update();
+        store.put("a", bytes("first"));
+        store.put("b", new byte[1000]);
+        store.flush();
+        File dataFile = store.getDataFile();
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "rw")) {
+            raf.setLength(dataFile.length() - 1);
+        }
+
+        store = new DiskCacheStore(file);
+        store.update();
+        store.put("c", bytes("third"));
+        store.flush();
+
+        store = new DiskCacheStore(file);
+        store.update();
+        assertArrayEquals(bytes("first"), read(store, "a"));
+        assertArrayEquals(bytes("third"), read(store, "c"));
+        assertNull(store.get("b"));
+
+        // Zeros left from the truncated record would read as records with empty keys
+        assertNull(store.get(""));
+    }
+
+    @Test
+    public void obsoleteEntriesCompacted() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        DiskCacheStore store = new DiskCacheStore(file);
+        store.update();
+        byte[] data = new byte[1 << 20];
+        for (int i = 0; i < 3; ++i) {
+            data[0] = (byte) i;
+            store.put("a", data.clone());
+            store.put("b", bytes("small"));
+            store.flush();
+        }
+        assertTrue(store.getDataFile().length() < 2 * data.length);
+        assertEquals(1, folder.getRoot().list().length);
+
+        store = new DiskCacheStore(file);
+        store.update();
+        assertEquals(2, read(store, "a")[0]);
+        assertArrayEquals(bytes("small"), read(store, "b"));
+    }
+
+    @Test
+    public void compactionKeepsOtherMappingReadable() throws IOException {
+        File file = new File(folder.getRoot(), "store");
+        DiskCacheStore writer = new DiskCacheStore(file);
+        writer.update();
+        byte[] data = new byte[1 << 20];
+        writer.put("a", data.clone());
+        writer.put("b", bytes("small"));
+        writer.flush();
+
+        DiskCacheStore reader = new DiskCacheStore(file);
+        reader.update();
+        File readerFile = reader.getDataFile();
+        for (int i = 1; i < 3; ++i) {
+            data[0] = (byte) i;
+            writer.put("a", data.clone());
+            writer.flush();
+        }
+        assertTrue(!writer.getDataFile().equals(readerFile));
+
+        assertEquals(0, read(reader, "a")[0]);
+        assertArrayEquals(bytes("small"), read(reader, "b"));
+        reader.put("c", bytes("third"));
+        reader.flush();
+        assertEquals(writer.getDataFile(), reader.getDataFile());
+        assertEquals(2, read(reader, "a")[0]);
+        assertArrayEquals(bytes("third"), read(reader, "c"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] read(DiskCacheStore store, String key) {
+        ByteBuffer buffer = store.get(key);
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+}
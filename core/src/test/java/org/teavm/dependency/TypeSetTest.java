@@ -0,0 +1,230 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.teavm.common.ServiceRepository;
+import org.teavm.diagnostics.AccumulationDiagnostics;
+import org.teavm.model.ReferenceCache;
+
+public class TypeSetTest {
+    private static final int[] ORDER = { 17, 3, 9, 1, 12, 20, 5, 14, 7, 18, 2, 11, 16, 4, 10, 19, 6, 13, 8, 15 };
+    private DependencyAnalyzer analyzer;
+    private DependencyType[] types;
+
+    @Before
+    public void createTypes() {
+        analyzer = new PreciseDependencyAnalyzer(name -> null, TypeSetTest.class.getClassLoader(),
+                new ServiceRepository() {
+                    @Override
+                    public <T> T getService(Class<T> type) {
+                        return null;
+                    }
+                }, new AccumulationDiagnostics(), new ReferenceCache(), new String[0]);
+        types = new DependencyType[ORDER.length + 1];
+        for (int i = 1; i < types.length; ++i) {
+            types[i] = analyzer.getType("T" + i);
+        }
+    }
+
+    @Test
+    public void addedTypesVisibleAtEveryTier() {
+        TypeSet set = createSet();
+        List<DependencyType> added = new ArrayList<>();
+        assertFalse(set.hasAnyType());
+        for (int index : ORDER) {
+            set.addType(types[index]);
+            added.add(types[index]);
+
+            assertTrue(set.hasAnyType());
+            assertEquals(added.size(), set.typeCount());
+            assertEquals(added.size(), set.getTypes().length);
+            for (int i = 1; i < types.length; ++i) {
+                assertEquals(added.contains(types[i]), set.hasType(types[i]));
+            }
+            assertTrue(set.hasMoreTypesThan(added.size() - 1, null));
+            assertFalse(set.hasMoreTypesThan(added.size(), null));
+        }
+    }
+
+    @Test
+    public void iterationOrderAcrossThresholds() {
+        TypeSet set = createSet();
+        set.addType(types[17]);
+        set.addType(types[3]);
+        set.addType(types[9]);
+        assertTrue(set.getStorage() instanceof int[]);
+        assertArrayEquals(types(17, 3, 9), set.getTypes());
+
+        set.addType(types[1]);
+        assertTrue(set.getStorage() instanceof int[]);
+        assertArrayEquals(types(1, 3, 9, 17), set.getTypes());
+
+        for (int i = 4; i < 15; ++i) {
+            set.addType(types[ORDER[i]]);
+        }
+        assertEquals(15, set.typeCount());
+        assertTrue(set.getStorage() instanceof int[]);
+        assertArrayEquals(sortedTypes(15), set.getTypes());
+
+        set.addType(types[ORDER[15]]);
+        assertEquals(16, set.typeCount());
+        assertTrue(set.getStorage() instanceof BitSet);
+        assertArrayEquals(sortedTypes(16), set.getTypes());
+    }
+
+    @Test
+    public void filteredCountAcrossThresholds() {
+        TypeSet set = createSet();
+        for (int count = 0; count < ORDER.length; ++count) {
+            int evenCount = 0;
+            for (int i = 0; i < count; ++i) {
+                if (ORDER[i] % 2 == 0) {
+                    evenCount++;
+                }
+            }
+            assertFalse(set.hasMoreTypesThan(evenCount, this::isEven));
+            if (evenCount > 0) {
+                assertTrue(set.hasMoreTypesThan(evenCount - 1, this::isEven));
+            }
+            set.addType(types[ORDER[count]]);
+        }
+    }
+
+    @Test
+    public void unionPromotesSmallSet() {
+        TypeSet first = createSet();
+        first.addType(types[19]);
+        first.addType(types[6]);
+        TypeSet second = createSet();
+        for (int i = 0; i < 15; ++i) {
+            second.addType(types[ORDER[i]]);
+        }
+
+        addAll(first, second);
+
+        assertTrue(first.getStorage() instanceof BitSet);
+        assertEquals(17, first.typeCount());
+        assertArrayEquals(sortedTypes(17), first.getTypes());
+        assertEquals(15, second.typeCount());
+    }
+
+    @Test
+    public void unionWithinSmallTiers() {
+        TypeSet first = createSet();
+        first.addType(types[8]);
+        TypeSet second = createSet();
+        second.addType(types[6]);
+        second.addType(types[8]);
+
+        addAll(first, second);
+        assertArrayEquals(types(8, 6), first.getTypes());
+
+        TypeSet third = createSet();
+        third.addType(types[1]);
+        third.addType(types[4]);
+        addAll(first, third);
+        assertTrue(first.getStorage() instanceof int[]);
+        assertArrayEquals(types(1, 4, 6, 8), first.getTypes());
+    }
+
+    @Test
+    public void copiesDoNotAffectEachOther() {
+        for (int size : new int[] { 1, 3, 4, 15, 16 }) {
+            TypeSet original = createSet();
+            for (int i = 0; i < size; ++i) {
+                original.addType(types[ORDER[i]]);
+            }
+            TypeSet copy = original.copy(analyzer.createNode());
+            assertSame(original.getStorage(), copy.getStorage());
+
+            copy.addType(types[ORDER[size]]);
+            original.addType(types[ORDER[size + 1]]);
+
+            assertEquals(size + 1, original.typeCount());
+            assertEquals(size + 1, copy.typeCount());
+            assertTrue(copy.hasType(types[ORDER[size]]));
+            assertFalse(original.hasType(types[ORDER[size]]));
+            assertTrue(original.hasType(types[ORDER[size + 1]]));
+            assertFalse(copy.hasType(types[ORDER[size + 1]]));
+        }
+    }
+
+    @Test
+    public void equalBitSetsShared() {
+        TypeSet first = createSet();
+        TypeSet second = createSet();
+        for (int i = 0; i < 16; ++i) {
+            first.addType(types[ORDER[i]]);
+            second.addType(types[ORDER[15 - i]]);
+        }
+        assertNotSame(first.getStorage(), second.getStorage());
+
+        var sharedTypes = new HashMap<BitSet, BitSet>();
+        first.share(sharedTypes);
+        second.share(sharedTypes);
+        assertSame(first.getStorage(), second.getStorage());
+
+        second.addType(types[ORDER[16]]);
+        assertEquals(16, first.typeCount());
+        assertFalse(first.hasType(types[ORDER[16]]));
+        assertArrayEquals(sortedTypes(16), first.getTypes());
+        assertTrue(second.hasType(types[ORDER[16]]));
+    }
+
+    private TypeSet createSet() {
+        return new TypeSet(analyzer, analyzer.createNode());
+    }
+
+    private void addAll(TypeSet target, TypeSet source) {
+        for (DependencyType type : source.getTypes()) {
+            if (!target.hasType(type)) {
+                target.addType(type);
+            }
+        }
+    }
+
+    private boolean isEven(DependencyType type) {
+        return type.index % 2 == 0;
+    }
+
+    private DependencyType[] types(int... indexes) {
+        DependencyType[] result = new DependencyType[indexes.length];
+        for (int i = 0; i < indexes.length; ++i) {
+            result[i] = types[indexes[i]];
+        }
+        return result;
+    }
+
+    private DependencyType[] sortedTypes(int count) {
+        int[] indexes = new int[count];
+        System.arraycopy(ORDER, 0, indexes, 0, count);
+        Arrays.sort(indexes);
+        return types(indexes);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import org.junit.Test;
+
+public class ReferenceCacheTest {
+    private static final int THREADS = 4;
+    private static final int CLASSES = 500;
+
+    @Test
+    public void threadsGetSameInstances() throws Exception {
+        var cache = new ReferenceCache();
+        var results = new MethodReference[THREADS][CLASSES];
+        var barrier = new CyclicBarrier(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (var i = 0; i < THREADS; ++i) {
+            var threadResults = results[i];
+            var thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                for (var j = 0; j < CLASSES; ++j) {
+                    var descriptor = cache.parseDescriptorCached("m(Lfoo/C" + j + ";[I)Lfoo/R" + j + ";");
+                    threadResults[j] = cache.getCached("foo.C" + j, descriptor);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        for (var j = 0; j < CLASSES; ++j) {
+            for (var i = 1; i < THREADS; ++i) {
+                assertSame(results[0][j], results[i][j]);
+                assertSame(results[0][j].getDescriptor(), results[i][j].getDescriptor());
+                assertSame(results[0][j].getReturnType(), results[i][j].getReturnType());
+            }
+        }
+    }
+
+    @Test
+    public void passesNullThrough() {
+        var cache = new ReferenceCache();
+        assertNull(cache.getCached((String) null));
+        assertNull(cache.getCached((ValueType) null));
+    }
+}
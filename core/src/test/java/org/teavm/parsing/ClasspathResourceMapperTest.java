@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.teavm.model.ReferenceCache;
+
+public class ClasspathResourceMapperTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void hashDoesNotDependOnLocation() throws IOException {
+        File first = folder.newFolder("first");
+        File second = folder.newFolder("second");
+        writeClass(first, "foo.A", "content");
+        File file = writeClass(second, "foo.A", "content");
+        file.setLastModified(file.lastModified() - 100000);
+
+        byte[] hash = hash(first, "foo.A");
+        assertNotNull(hash);
+        assertArrayEquals(hash, hash(second, "foo.A"));
+        assertNull(hash(first, "foo.B"));
+    }
+
+    @Test
+    public void hashFollowsContent() throws IOException {
+        File dir = folder.newFolder("classes");
+        File file = writeClass(dir, "foo.A", "content");
+        byte[] hash = hash(dir, "foo.A");
+
+        writeClass(dir, "foo.A", "changed content");
+        file.setLastModified(file.lastModified() + 100000);
+        assertFalse(Arrays.equals(hash, hash(dir, "foo.A")));
+    }
+
+    @Test
+    public void hashOfUnchangedClassInRebuiltJarIsKept() throws IOException {
+        File jar = new File(folder.getRoot(), "lib.jar");
+        writeJar(jar, "first", "second");
+        byte[] firstHash = hash(jar, "foo.A");
+        byte[] secondHash = hash(jar, "foo.B");
+
+        writeJar(jar, "first", "changed");
+        jar.setLastModified(jar.lastModified() + 100000);
+        assertArrayEquals(firstHash, hash(jar, "foo.A"));
+        assertFalse(Arrays.equals(secondHash, hash(jar, "foo.B")));
+    }
+
+    private byte[] hash(File classPath, String className) throws IOException {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classPath.toURI().toURL() }, null)) {
+            return new ClasspathResourceMapper(classLoader, new ReferenceCache(), name -> null)
+                    .getContentHash(className);
+        }
+    }
+
+    private static File writeClass(File dir, String className, String content) throws IOException {
+        File file = new File(dir, className.replace('.', '/') + ".class");
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void writeJar(File jar, String firstContent, String secondContent) throws IOException {
+        try (OutputStream output = new FileOutputStream(jar);
+                ZipOutputStream zip = new ZipOutputStream(output)) {
+            zip.putNextEntry(new ZipEntry("foo/A.class"));
+            zip.write(firstContent.getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("foo/B.class"));
+            zip.write(secondContent.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
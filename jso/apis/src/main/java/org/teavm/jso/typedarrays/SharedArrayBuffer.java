@@ -0,0 +1,33 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.jso.typedarrays;
+
+import org.teavm.jso.JSBody;
+
+/**
+ * Buffer which is shared rather than copied when posted to a worker. Typed arrays can be created over
+ * it in the same way as over {@link ArrayBuffer}. Only available when the page is cross-origin isolated.
+ */
+public abstract class SharedArrayBuffer extends ArrayBuffer {
+    @Override
+    public abstract SharedArrayBuffer slice(int begin, int end);
+
+    @JSBody(params = "length", script = "return new SharedArrayBuffer(length);")
+    public static native SharedArrayBuffer create(int length);
+
+    @JSBody(script = "return typeof SharedArrayBuffer !== 'undefined';")
+    public static native boolean isSupported();
+}
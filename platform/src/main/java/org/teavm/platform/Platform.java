@@ -191,6 +191,14 @@ public final class Platform {
         schedule(runnable, 0);
     }
 
+    /**
+     * Runs the given action as soon as the current task finishes, before the browser gets a chance to process
+     * timers, I/O or rendering. Unlike {@link #postpone(PlatformRunnable)}, does not suffer from timer clamping.
+     */
+    @GeneratedBy(PlatformGenerator.class)
+    @PluggableDependency(PlatformGenerator.class)
+    public static native void scheduleMicrotask(PlatformRunnable runnable);
+
     @GeneratedBy(PlatformGenerator.class)
     @PluggableDependency(PlatformGenerator.class)
     public static native int schedule(PlatformRunnable runnable, int timeout);
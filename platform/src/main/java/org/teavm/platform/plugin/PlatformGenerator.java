@@ -49,7 +49,8 @@ public class PlatformGenerator implements Generator, Injector, DependencyPlugin
                 method.getVariable(1).connect(method.getResult());
                 break;
             case "startThread":
-            case "schedule": {
+            case "schedule":
+            case "scheduleMicrotask": {
                 MethodDependency launchMethod = agent.linkMethod(new MethodReference(Platform.class,
                         "launchThread", PlatformRunnable.class, void.class));
                 method.getVariable(1).connect(launchMethod.getVariable(1));
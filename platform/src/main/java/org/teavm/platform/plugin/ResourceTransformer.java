@@ -19,16 +19,13 @@ import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderTransformer;
 import org.teavm.model.ClassHolderTransformerContext;
 import org.teavm.model.MethodHolder;
-import org.teavm.model.Program;
 
 class ResourceTransformer implements ClassHolderTransformer {
     @Override
     public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
         for (MethodHolder method : cls.getMethods()) {
-            Program program = method.getProgram();
-            if (program != null) {
-                new ResourceProgramTransformer(context.getHierarchy(), program).transformProgram();
-            }
+            method.transformProgram(program -> new ResourceProgramTransformer(context.getHierarchy(), program)
+                    .transformProgram());
         }
     }
 }
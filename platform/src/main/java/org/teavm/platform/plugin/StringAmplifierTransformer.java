@@ -34,9 +34,7 @@ public class StringAmplifierTransformer implements ClassHolderTransformer {
     @Override
     public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
         for (MethodHolder method : cls.getMethods()) {
-            if (method.getProgram() != null) {
-                transformProgram(context.getHierarchy(), method.getProgram());
-            }
+            method.transformProgram(program -> transformProgram(context.getHierarchy(), program));
         }
     }
 
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSFunctor;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.core.JSArrayReader;
+
+/**
+ * Hides difference between Web Workers in browsers and {@code worker_threads} in Node.js.
+ */
+final class WorkerBindings {
+    private WorkerBindings() {
+    }
+
+    @JSFunctor
+    interface MessageHandler extends JSObject {
+        void handle(WorkerMessage message);
+    }
+
+    @JSFunctor
+    interface ErrorHandler extends JSObject {
+        void handle(String message);
+    }
+
+    @JSBody(script = ""
+            + "if (typeof WorkerGlobalScope !== 'undefined' && self instanceof WorkerGlobalScope) {"
+                + "return true;"
+            + "}"
+            + "try {"
+                + "return typeof process !== 'undefined' && !require('worker_threads').isMainThread;"
+            + "} catch (e) {"
+                + "return false;"
+            + "}")
+    static native boolean isWorker();
+
+    @JSBody(script = ""
+            + "return typeof Worker !== 'undefined' || typeof process !== 'undefined' "
+                + "&& typeof require === 'function';")
+    static native boolean isSupported();
+
+    @JSBody(script = ""
+            + "if (typeof navigator !== 'undefined' && navigator.hardwareConcurrency) {"
+                + "return navigator.hardwareConcurrency;"
+            + "}"
+            + "try {"
+                + "return require('os').cpus().length;"
+            + "} catch (e) {"
+                + "return 1;"
+            + "}")
+    static native int hardwareConcurrency();
+
+    @JSBody(params = "url", script = ""
+            + "return typeof Worker !== 'undefined' ? new Worker(url) : new (require('worker_threads').Worker)(url);")
+    static native JSObject createWorker(String url);
+
+    @JSBody(params = { "worker", "onMessage", "onError" }, script = ""
+            + "if (typeof worker.on === 'function') {"
+                + "worker.on('message', onMessage);"
+                + "worker.on('error', function(e) { onError(String(e)); });"
+            + "} else {"
+                + "worker.onmessage = function(e) { onMessage(e.data); };"
+                + "worker.onerror = function(e) { e.preventDefault(); onError(String(e.message)); };"
+            + "}")
+    static native void listen(JSObject worker, MessageHandler onMessage, ErrorHandler onError);
+
+    @JSBody(params = { "worker", "message", "transfer" }, script = "worker.postMessage(message, transfer || []);")
+    static native void post(JSObject worker, WorkerMessage message, JSArrayReader<? extends JSObject> transfer);
+
+    @JSBody(params = "worker", script = "worker.terminate();")
+    static native void terminate(JSObject worker);
+
+    @JSBody(params = "onMessage", script = ""
+            + "if (typeof WorkerGlobalScope !== 'undefined' && self instanceof WorkerGlobalScope) {"
+                + "self.onmessage = function(e) { onMessage(e.data); };"
+            + "} else {"
+                + "require('worker_threads').parentPort.on('message', onMessage);"
+            + "}")
+    static native void listenParent(MessageHandler onMessage);
+
+    @JSBody(params = "message", script = ""
+            + "if (typeof WorkerGlobalScope !== 'undefined' && self instanceof WorkerGlobalScope) {"
+                + "self.postMessage(message);"
+            + "} else {"
+                + "require('worker_threads').parentPort.postMessage(message);"
+            + "}")
+    static native void postToParent(WorkerMessage message);
+
+    @JSBody(params = { "message", "transfer" }, script = ""
+            + "return structuredClone(message, { transfer: transfer || [] });")
+    static native WorkerMessage cloneMessage(WorkerMessage message, JSArrayReader<? extends JSObject> transfer);
+
+    @JSBody(params = "message", script = "return 'error' in message;")
+    static native boolean isError(WorkerMessage message);
+
+    @JSBody(params = { "id", "task", "data" }, script = "return { id: id, task: task, data: data };")
+    static native WorkerMessage request(int id, String task, JSObject data);
+
+    @JSBody(params = { "id", "result" }, script = "return { id: id, result: result };")
+    static native WorkerMessage result(int id, JSObject result);
+
+    @JSBody(params = { "id", "error" }, script = "return { id: id, error: error };")
+    static native WorkerMessage error(int id, String error);
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.core.JSArrayReader;
+
+/**
+ * Runs tasks registered in {@link Workers} in a pool of workers which load given script. Workers are started
+ * lazily, a task goes to an idle worker or to the least loaded one when all of them are busy.
+ */
+public class WorkerPool implements AutoCloseable {
+    private final String scriptUrl;
+    private final int size;
+    private final List<Slot> slots = new ArrayList<>();
+    private final Map<Integer, Pending> pending = new HashMap<>();
+    private int nextId;
+    private boolean closed;
+
+    public WorkerPool(String scriptUrl) {
+        this(scriptUrl, WorkerBindings.hardwareConcurrency());
+    }
+
+    public WorkerPool(String scriptUrl, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + size);
+        }
+        this.scriptUrl = scriptUrl;
+        this.size = size;
+    }
+
+    /**
+     * Creates pool that runs tasks in the current worker, still passing both data and results through structured
+     * cloning, and moving transferred objects, as real workers do. Useful as a fallback for environments without
+     * workers and for testing.
+     */
+    public static WorkerPool inline() {
+        return new WorkerPool(null, 1);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public <R extends JSObject> CompletableFuture<R> submit(String task, JSObject data) {
+        return submit(task, data, null);
+    }
+
+    /**
+     * Submits task to a worker.
+     *
+     * @param transfer objects, like array buffers, whose ownership is moved to the worker instead of copying.
+     */
+    @SuppressWarnings("unchecked")
+    public <R extends JSObject> CompletableFuture<R> submit(String task, JSObject data,
+            JSArrayReader<? extends JSObject> transfer) {
+        if (closed) {
+            throw new RejectedExecutionException("Worker pool is closed");
+        }
+        var future = new CompletableFuture<JSObject>();
+        int id = nextId++;
+        if (scriptUrl == null) {
+            var request = WorkerBindings.cloneMessage(WorkerBindings.request(id, task, data), transfer);
+            new Thread(() -> complete(future, WorkerBindings.cloneMessage(Workers.run(request), null))).start();
+        } else {
+            var slot = selectSlot();
+            slot.load++;
+            pending.put(id, new Pending(future, slot));
+            WorkerBindings.post(slot.worker, WorkerBindings.request(id, task, data), transfer);
+        }
+        return (CompletableFuture<R>) future;
+    }
+
+    private Slot selectSlot() {
+        Slot best = null;
+        for (var slot : slots) {
+            if (best == null || slot.load < best.load) {
+                best = slot;
+            }
+        }
+        if ((best == null || best.load > 0) && slots.size() < size) {
+            best = new Slot(WorkerBindings.createWorker(scriptUrl));
+            var slot = best;
+            WorkerBindings.listen(slot.worker, this::onMessage, error -> onError(slot, error));
+            slots.add(slot);
+        }
+        return best;
+    }
+
+    private void onMessage(WorkerMessage message) {
+        var entry = pending.remove(message.getId());
+        if (entry != null) {
+            entry.slot.load--;
+            new Thread(() -> complete(entry.future, message)).start();
+        }
+    }
+
+    private void onError(Slot slot, String error) {
+        slots.remove(slot);
+        WorkerBindings.terminate(slot.worker);
+        var failed = new ArrayList<CompletableFuture<JSObject>>();
+        for (var it = pending.values().iterator(); it.hasNext();) {
+            var entry = it.next();
+            if (entry.slot == slot) {
+                failed.add(entry.future);
+                it.remove();
+            }
+        }
+        if (!failed.isEmpty()) {
+            new Thread(() -> {
+                for (var future : failed) {
+                    future.completeExceptionally(new WorkerException(error));
+                }
+            }).start();
+        }
+    }
+
+    private static void complete(CompletableFuture<JSObject> future, WorkerMessage message) {
+        if (WorkerBindings.isError(message)) {
+            future.completeExceptionally(new WorkerException(message.getError()));
+        } else {
+            future.complete(message.getResult());
+        }
+    }
+
+    /**
+     * Terminates all workers. Tasks that are still running are failed with {@link WorkerException}.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (var slot : slots) {
+            WorkerBindings.terminate(slot.worker);
+        }
+        slots.clear();
+        var failed = new ArrayList<>(pending.values());
+        pending.clear();
+        for (var entry : failed) {
+            entry.future.completeExceptionally(new WorkerException("Worker pool closed"));
+        }
+    }
+
+    private static class Slot {
+        final JSObject worker;
+        int load;
+
+        Slot(JSObject worker) {
+            this.worker = worker;
+        }
+    }
+
+    private static class Pending {
+        final CompletableFuture<JSObject> future;
+        final Slot slot;
+
+        Pending(CompletableFuture<JSObject> future, Slot slot) {
+            this.future = future;
+            this.slot = slot;
+        }
+    }
+}
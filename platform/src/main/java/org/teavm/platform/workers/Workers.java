@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.teavm.jso.JSObject;
+
+/**
+ * <p>Registry of functions that can be run in workers. Java objects can't be passed between workers, since each
+ * of them has its own heap, so every worker loads the same compiled program, and tasks are referred by name.
+ * Arguments and results are passed by structured cloning, so they may be plain JS objects, strings, numbers and
+ * typed arrays. Typed arrays over {@link org.teavm.jso.typedarrays.SharedArrayBuffer} are shared instead of
+ * being copied.</p>
+ *
+ * <p>Typical entry point registers tasks and then serves requests if it runs in a worker:</p>
+ *
+ * <pre>
+ * public static void main(String[] args) {
+ *     Workers.register("blur", Blur::apply);
+ *     if (Workers.serve()) {
+ *         return;
+ *     }
+ *     var pool = new WorkerPool("worker.js");
+ *     ...
+ * }
+ * </pre>
+ *
+ * <p>where {@code worker.js} loads the same script and calls {@code main}. In Node.js the same script can be
+ * passed to {@code worker_threads}.</p>
+ */
+public final class Workers {
+    private static final Map<String, WorkerFunction<?, ?>> functions = new HashMap<>();
+
+    private Workers() {
+    }
+
+    public static <T extends JSObject, R extends JSObject> void register(String name, WorkerFunction<T, R> function) {
+        functions.put(name, function);
+    }
+
+    public static boolean isWorker() {
+        return WorkerBindings.isWorker();
+    }
+
+    public static boolean isSupported() {
+        return WorkerBindings.isSupported();
+    }
+
+    /**
+     * Starts serving task requests when running in a worker.
+     *
+     * @return {@code true} if current program is running in a worker, {@code false} otherwise.
+     */
+    public static boolean serve() {
+        if (!isWorker()) {
+            return false;
+        }
+        WorkerBindings.listenParent(message -> new Thread(() -> WorkerBindings.postToParent(run(message))).start());
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    static WorkerMessage run(WorkerMessage request) {
+        var function = (WorkerFunction<JSObject, JSObject>) functions.get(request.getTask());
+        if (function == null) {
+            return WorkerBindings.error(request.getId(), "Unknown task: " + request.getTask());
+        }
+        try {
+            return WorkerBindings.result(request.getId(), function.apply(request.getData()));
+        } catch (Throwable e) {
+            return WorkerBindings.error(request.getId(), e.toString());
+        }
+    }
+}
@@ -59,4 +59,11 @@ function schedule(runnable, timeout) {
         teavm_javaMethod("org.teavm.platform.Platform",
                 "launchThread(Lorg/teavm/platform/PlatformRunnable;)V")(runnable);
     }, timeout);
+}
+
+function scheduleMicrotask(runnable) {
+    teavm_globals.queueMicrotask(() => {
+        teavm_javaMethod("org.teavm.platform.Platform",
+                "launchThread(Lorg/teavm/platform/PlatformRunnable;)V")(runnable);
+    });
 }
\ No newline at end of file
@@ -57,6 +57,7 @@ tasks.test {
 
     systemProperty("teavm.junit.wasm", providers.gradleProperty("teavm.tests.wasm").orElse("true").get())
     systemProperty("teavm.junit.wasm.runner", browser)
+    systemProperty("teavm.junit.wasm.simd", providers.gradleProperty("teavm.tests.wasm.simd").orElse("false").get())
 
     systemProperty("teavm.junit.wasi", providers.gradleProperty("teavm.tests.wasi").orElse("true").get())
     systemProperty("teavm.junit.wasi.runner", providers.gradleProperty("teavm.tests.wasi.runner")
@@ -65,6 +66,12 @@ tasks.test {
     systemProperty("teavm.junit.c", providers.gradleProperty("teavm.tests.c").orElse("true").get())
     systemProperty("teavm.junit.c.compiler", providers.gradleProperty("teavm.tests.c.compiler")
             .orElse("compile-c-unix-fast.sh").get())
+    systemProperty("teavm.junit.c.gcMarkThreads", providers.gradleProperty("teavm.tests.c.gcMarkThreads")
+            .orElse("1").get())
+
+    systemProperty("teavm.junit.threads", providers.gradleProperty("teavm.tests.threads").orElse("1").get())
+    systemProperty("teavm.junit.compileCache", providers.gradleProperty("teavm.tests.compileCache")
+            .orElse("false").get())
 
     val dependencies = configurations.testRuntimeClasspath.get()
             .incoming.resolutionResult.allDependencies
@@ -84,5 +91,9 @@ tasks.test {
             .map { it.asFile.absolutePath }
             .joinToString(File.pathSeparator))
 
+    if (!providers.gradleProperty("teavm.tests.benchmarks").orElse("false").get().toBoolean()) {
+        exclude("**/*BenchmarkTest.class")
+    }
+
     maxParallelForks = (Runtime.getRuntime().availableProcessors() / 2).coerceAtLeast(1)
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+SOURCE="$1.c"
+EXECUTABLE="${1%.wasm}-wasm-c"
+if [ ! -f "$EXECUTABLE" ] || [ "$SOURCE" -nt "$EXECUTABLE" ]; then
+  gcc -O1 -w "$SOURCE" -o "$EXECUTABLE" -lm || exit 1
+fi
+"$EXECUTABLE" $2
@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMProperties;
+import org.teavm.junit.TeaVMProperty;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Checks searching and comparison of strings with compact representation, both when both strings are
+ * Latin-1 (compared byte by byte, without inflating either string) and when representations are mixed.
+ */
+@RunWith(TeaVMTestRunner.class)
+@TeaVMProperties(@TeaVMProperty(key = "teavm.compactStrings", value = "true"))
+public class CompactStringTest {
+    private static final String LATIN1 = "abcéabcÉxyz";
+
+    @Test
+    public void findsSubstrings() {
+        assertEquals(4, LATIN1.indexOf("abc", 1));
+        assertEquals(3, LATIN1.indexOf("é"));
+        assertEquals(-1, LATIN1.indexOf("abd"));
+        assertEquals(4, LATIN1.lastIndexOf("abc"));
+        assertEquals(0, LATIN1.lastIndexOf("abc", 3));
+        assertEquals(7, LATIN1.lastIndexOf('É'));
+        assertEquals(-1, LATIN1.lastIndexOf('ж'));
+        assertTrue(LATIN1.contains("Éxy"));
+        assertFalse(LATIN1.contains("xyzz"));
+    }
+
+    @Test
+    public void findsSubstringsInMixedRepresentations() {
+        var utf16 = "ж" + LATIN1;
+        assertEquals(5, utf16.indexOf("abc", 2));
+        assertEquals(-1, LATIN1.indexOf("ж"));
+        assertEquals(0, utf16.lastIndexOf("жa"));
+        assertTrue(utf16.contains(new StringBuilder("éab")));
+        assertEquals(4, LATIN1.indexOf(new StringBuilder("ab").append('c').toString(), 1));
+    }
+
+    @Test
+    public void matchesRegions() {
+        assertTrue(LATIN1.startsWith("abcé"));
+        assertTrue(LATIN1.startsWith("éabc", 3));
+        assertFalse(LATIN1.startsWith("É", 3));
+        assertTrue(LATIN1.endsWith("Éxyz"));
+        assertFalse(LATIN1.endsWith("жxyz"));
+        assertTrue(LATIN1.regionMatches(4, "zabc", 1, 3));
+        assertFalse(LATIN1.regionMatches(4, "zabd", 1, 3));
+        assertTrue(LATIN1.regionMatches(true, 0, "xABCÉ", 1, 4));
+        assertFalse(LATIN1.regionMatches(false, 0, "xABCÉ", 1, 4));
+        assertTrue(LATIN1.regionMatches(true, 3, "É", 0, 1));
+    }
+
+    @Test
+    public void comparesIgnoringCase() {
+        assertTrue(LATIN1.equalsIgnoreCase("ABCÉABCéXYZ"));
+        assertFalse(LATIN1.equalsIgnoreCase("ABCÉABCéXYW"));
+        assertFalse(LATIN1.equalsIgnoreCase("ABCÉABCéXYж"));
+    }
+
+    @Test
+    public void comparesLexicographically() {
+        assertTrue("abc".compareTo("abd") < 0);
+        assertTrue("é".compareTo("z") > 0);
+        assertTrue("abc".compareTo("ab") > 0);
+        assertEquals(0, "abc".compareTo(new StringBuilder("ab").append('c').toString()));
+        assertTrue("ÿ".compareTo("ж") < 0);
+        assertEquals("é".charAt(0) - 'a', "é".compareTo("a"));
+    }
+
+    @Test
+    public void comparesLongLatin1Regions() {
+        var string = "abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz0123456789";
+        assertEquals(26, string.indexOf("0123456789abcdefghijklmnopqrstuvwxyz"));
+        assertEquals(62, string.lastIndexOf("0123456789"));
+        assertTrue(string.startsWith("abcdefghijklmnopqrstuvwxyz0123456789abcdef"));
+        assertFalse(string.startsWith("abcdefghijklmnopqrstuvwxyz0123456780abcdef"));
+        assertTrue(string.startsWith("klmnopqrstuvwxyz0123456789", 46));
+        assertTrue(string.endsWith("qrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz0123456789"));
+        assertTrue(string.regionMatches(3, "defghijklmnopqrstuvwxyz01234567", 0, 31));
+        assertFalse(string.regionMatches(3, "defghijklmnopqrstuvwxyz01234568", 0, 31));
+        assertTrue(string.regionMatches(true, 37, "BCDEFGHIJKLMNOPQRSTUVWXYZ", 0, 25));
+    }
+}
@@ -378,4 +378,29 @@ public class StringTest {
         assertEquals(0, "".chars().toArray().length);
         assertArrayEquals(new int[] {'A', 'B', 'C', '1', '2', '3'}, "ABC123".chars().toArray());
     }
+
+    @Test
+    public void comparesAndSearchesAcrossVectorWidths() {
+        for (var length = 0; length <= 40; ++length) {
+            var chars = new char[length];
+            var expectedHash = 0;
+            for (var i = 0; i < length; ++i) {
+                chars[i] = i % 3 == 0 ? (char) ('\u0400' + i) : (char) ('a' + i % 26);
+                expectedHash = 31 * expectedHash + chars[i];
+            }
+            var string = new String(chars);
+            assertEquals(string, new String(chars));
+            assertEquals(expectedHash, string.hashCode());
+            assertEquals(-1, string.indexOf('#'));
+            for (var position = 0; position < length; ++position) {
+                var changed = chars.clone();
+                changed[position] = '#';
+                var other = new String(changed);
+                assertFalse(string.equals(other));
+                assertEquals(position, other.indexOf('#'));
+                assertEquals(position, other.indexOf('#', position));
+                assertEquals(-1, other.indexOf('#', position + 1));
+            }
+        }
+    }
 }
@@ -241,4 +241,24 @@ public class UTF8Test {
     private void runDecode(int inSize, int outSize) {
         CharsetTestCommon.runDecode(hex, CharsetTestCommon.text, StandardCharsets.UTF_8, inSize, outSize);
     }
+
+    @Test
+    public void asciiPrefixesAcrossVectorWidths() {
+        for (var length = 0; length <= 40; ++length) {
+            var sb = new StringBuilder();
+            var expected = new byte[length + 3];
+            for (var i = 0; i < length; ++i) {
+                sb.append((char) ('a' + i % 26));
+                expected[i] = (byte) ('a' + i % 26);
+            }
+            sb.append("\u0436z");
+            expected[length] = (byte) 0xD0;
+            expected[length + 1] = (byte) 0xB6;
+            expected[length + 2] = 'z';
+            var string = sb.toString();
+
+            assertArrayEquals(expected, string.getBytes(StandardCharsets.UTF_8));
+            assertEquals(string, new String(expected, StandardCharsets.UTF_8));
+        }
+    }
 }
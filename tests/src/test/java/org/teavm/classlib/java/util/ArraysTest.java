@@ -252,4 +252,108 @@ public class ArraysTest {
         assertEquals(-1, Arrays.mismatch(array, 0, 1, shorter, 0, 1));
         assertEquals(-1, Arrays.mismatch(array, 0, 1, different, 1, 2));
     }
+
+    @Test
+    public void mismatchAcrossVectorWidths() {
+        for (var length = 0; length <= 40; ++length) {
+            for (var offset = 0; offset < 3; ++offset) {
+                var bytes = new byte[offset + length];
+                var shorts = new short[offset + length];
+                var chars = new char[offset + length];
+                var ints = new int[offset + length];
+                var longs = new long[offset + length];
+                for (var i = 0; i < bytes.length; ++i) {
+                    bytes[i] = (byte) (i * 7 + 1);
+                    shorts[i] = (short) (i * 7 + 1);
+                    chars[i] = (char) (i * 7 + 1);
+                    ints[i] = i * 7 + 1;
+                    longs[i] = i * 7 + 1;
+                }
+                var to = offset + length;
+                var otherBytes = Arrays.copyOfRange(bytes, offset, to);
+                var otherShorts = Arrays.copyOfRange(shorts, offset, to);
+                var otherChars = Arrays.copyOfRange(chars, offset, to);
+                var otherInts = Arrays.copyOfRange(ints, offset, to);
+                var otherLongs = Arrays.copyOfRange(longs, offset, to);
+                assertTrue(Arrays.equals(bytes, offset, to, otherBytes, 0, length));
+                assertTrue(Arrays.equals(shorts, offset, to, otherShorts, 0, length));
+                assertTrue(Arrays.equals(chars, offset, to, otherChars, 0, length));
+                assertTrue(Arrays.equals(ints, offset, to, otherInts, 0, length));
+                assertTrue(Arrays.equals(longs, offset, to, otherLongs, 0, length));
+                for (var position = 0; position < length; ++position) {
+                    ++otherBytes[position];
+                    ++otherShorts[position];
+                    ++otherChars[position];
+                    ++otherInts[position];
+                    ++otherLongs[position];
+                    assertEquals(position, Arrays.mismatch(bytes, offset, to, otherBytes, 0, length));
+                    assertEquals(position, Arrays.mismatch(shorts, offset, to, otherShorts, 0, length));
+                    assertEquals(position, Arrays.mismatch(chars, offset, to, otherChars, 0, length));
+                    assertEquals(position, Arrays.mismatch(ints, offset, to, otherInts, 0, length));
+                    assertEquals(position, Arrays.mismatch(longs, offset, to, otherLongs, 0, length));
+                    assertFalse(Arrays.equals(ints, offset, to, otherInts, 0, length));
+                    if (offset == 0) {
+                        assertEquals(position, Arrays.mismatch(bytes, otherBytes));
+                        assertEquals(position, Arrays.mismatch(chars, otherChars));
+                        assertFalse(Arrays.equals(longs, otherLongs));
+                    }
+                    --otherBytes[position];
+                    --otherShorts[position];
+                    --otherChars[position];
+                    --otherInts[position];
+                    --otherLongs[position];
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fillAcrossVectorWidths() {
+        for (var length = 0; length <= 40; ++length) {
+            for (var from = 0; from < 3; ++from) {
+                var to = from + length;
+                var bytes = new byte[length + 4];
+                var shorts = new short[length + 4];
+                var chars = new char[length + 4];
+                var ints = new int[length + 4];
+                var longs = new long[length + 4];
+                Arrays.fill(bytes, from, to, (byte) -3);
+                Arrays.fill(shorts, from, to, (short) -3);
+                Arrays.fill(chars, from, to, 'x');
+                Arrays.fill(ints, from, to, -3);
+                Arrays.fill(longs, from, to, 0x123456789L);
+                for (var i = 0; i < bytes.length; ++i) {
+                    var filled = i >= from && i < to;
+                    assertEquals(filled ? -3 : 0, bytes[i]);
+                    assertEquals(filled ? -3 : 0, shorts[i]);
+                    assertEquals(filled ? 'x' : 0, chars[i]);
+                    assertEquals(filled ? -3 : 0, ints[i]);
+                    assertEquals(filled ? 0x123456789L : 0, longs[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void hashCodeAcrossVectorWidths() {
+        for (var length = 0; length <= 40; ++length) {
+            var shorts = new short[length];
+            var chars = new char[length];
+            var ints = new int[length];
+            var expectedShortHash = 1;
+            var expectedCharHash = 1;
+            var expectedIntHash = 1;
+            for (var i = 0; i < length; ++i) {
+                shorts[i] = (short) (i * 40503);
+                chars[i] = (char) (i * 40503);
+                ints[i] = i * 0x9E3779B1;
+                expectedShortHash = 31 * expectedShortHash + shorts[i];
+                expectedCharHash = 31 * expectedCharHash + chars[i];
+                expectedIntHash = 31 * expectedIntHash + ints[i];
+            }
+            assertEquals(expectedShortHash, Arrays.hashCode(shorts));
+            assertEquals(expectedCharHash, Arrays.hashCode(chars));
+            assertEquals(expectedIntHash, Arrays.hashCode(ints));
+        }
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+import static org.junit.Assert.assertEquals;
+import java.util.HashMap;
+import java.util.function.LongSupplier;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Measures put, get and iteration over {@code HashMap}, in the spirit of JMH average time mode:
+ * a few warmup rounds, then several measured rounds, reporting mean time per round to stdout.
+ * Compare its output with {@link OpenHashMapBenchmarkTest}, which runs the same code against
+ * open addressing implementation. Benchmarks are not part of the regular test run, pass
+ * {@code -Pteavm.tests.benchmarks=true} to run them.
+ */
+@RunWith(TeaVMTestRunner.class)
+public class HashMapBenchmarkTest {
+    private static final int SIZE = 20000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void put() {
+        var checksum = measure("put", () -> fill().size());
+        assertEquals((long) SIZE * (WARMUP_ROUNDS + ROUNDS), checksum);
+    }
+
+    @Test
+    public void get() {
+        var map = fill();
+        var checksum = measure("get", () -> {
+            var sum = 0L;
+            for (var i = 0; i < SIZE; ++i) {
+                sum += map.get(i);
+            }
+            return sum;
+        });
+        assertEquals(expectedSum() * (WARMUP_ROUNDS + ROUNDS), checksum);
+    }
+
+    @Test
+    public void iterate() {
+        var map = fill();
+        var checksum = measure("iterate", () -> {
+            var sum = 0L;
+            for (var value : map.values()) {
+                sum += value;
+            }
+            return sum;
+        });
+        assertEquals(expectedSum() * (WARMUP_ROUNDS + ROUNDS), checksum);
+    }
+
+    private static HashMap<Integer, Integer> fill() {
+        var map = new HashMap<Integer, Integer>();
+        for (var i = 0; i < SIZE; ++i) {
+            map.put(i, i);
+        }
+        return map;
+    }
+
+    private static long expectedSum() {
+        return (long) SIZE * (SIZE - 1) / 2;
+    }
+
+    private long measure(String name, LongSupplier operation) {
+        var checksum = 0L;
+        for (var i = 0; i < WARMUP_ROUNDS; ++i) {
+            checksum += operation.getAsLong();
+        }
+        var start = System.nanoTime();
+        for (var i = 0; i < ROUNDS; ++i) {
+            checksum += operation.getAsLong();
+        }
+        var time = (System.nanoTime() - start) / ROUNDS;
+        System.out.println(getClass().getSimpleName() + "." + name + ": " + (time / 1000) + " us/op");
+        return checksum;
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMProperties;
+import org.teavm.junit.TeaVMProperty;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Runs {@link HashMapTest} against open addressing implementation of {@code HashMap}.
+ */
+@RunWith(TeaVMTestRunner.class)
+@TeaVMProperties(@TeaVMProperty(key = "java.util.HashMap.openAddressing", value = "true"))
+public class OpenHashMapTest extends HashMapTest {
+    @Test
+    public void survivesChurn() {
+        var map = new HashMap<Integer, Integer>();
+        for (var i = 0; i < 10000; ++i) {
+            map.put(i, i * 2);
+            if (i >= 100) {
+                assertEquals(Integer.valueOf((i - 100) * 2), map.remove(i - 100));
+            }
+        }
+        assertEquals(100, map.size());
+        for (var i = 9900; i < 10000; ++i) {
+            assertEquals(Integer.valueOf(i * 2), map.get(i));
+        }
+        assertNull(map.get(0));
+    }
+
+    @Test
+    @SkipJVM
+    public void iteratesInInsertionOrder() {
+        var map = new HashMap<String, Integer>();
+        var expected = new ArrayList<String>();
+        for (var i = 0; i < 50; ++i) {
+            var key = "k" + (i * 7919 % 50);
+            map.put(key, i);
+            expected.add(key);
+        }
+        map.remove("k0");
+        expected.remove("k0");
+        map.put(null, -1);
+        expected.add(null);
+
+        List<String> actual = new ArrayList<>();
+        for (var entry : map.entrySet()) {
+            actual.add(entry.getKey());
+        }
+        assertEquals(expected, actual);
+        assertEquals(Integer.valueOf(-1), map.get(null));
+    }
+
+    @Test
+    public void entryWritesThrough() {
+        var map = new HashMap<String, String>();
+        map.put("a", "1");
+        map.put("b", "2");
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            entry.setValue(entry.getValue() + entry.getKey());
+        }
+        assertEquals("1a", map.get("a"));
+        assertEquals("2b", map.get("b"));
+    }
+
+    @Test
+    public void iteratorRemovesAll() {
+        var map = new HashMap<Integer, String>();
+        for (var i = 0; i < 100; ++i) {
+            map.put(i, String.valueOf(i));
+        }
+        for (Iterator<Integer> it = map.keySet().iterator(); it.hasNext();) {
+            if (it.next() % 3 != 0) {
+                it.remove();
+            }
+        }
+        assertEquals(34, map.size());
+        for (var i = 0; i < 100; ++i) {
+            assertEquals(i % 3 == 0, map.containsKey(i));
+        }
+        for (var i = 100; i < 200; ++i) {
+            map.put(i, String.valueOf(i));
+        }
+        assertEquals(134, map.size());
+        assertEquals("150", map.get(150));
+    }
+
+    @Test
+    public void hashSetUsesOpenAddressing() {
+        Set<String> set = new HashSet<>();
+        for (var i = 0; i < 1000; ++i) {
+            assertTrue(set.add("s" + i));
+        }
+        assertFalse(set.add("s10"));
+        assertTrue(set.remove("s10"));
+        assertFalse(set.contains("s10"));
+        assertEquals(999, set.size());
+    }
+
+    @Test
+    public void collidingKeysKeptApart() {
+        var map = new HashMap<Collider, Integer>();
+        for (var i = 0; i < 20; ++i) {
+            map.put(new Collider(i, 7), i);
+        }
+        assertEquals(20, map.size());
+        for (var i = 0; i < 20; ++i) {
+            assertEquals(Integer.valueOf(i), map.get(new Collider(i, 7)));
+        }
+        assertNull(map.get(new Collider(20, 7)));
+        assertEquals(Integer.valueOf(5), map.put(new Collider(5, 7), 50));
+        assertEquals(20, map.size());
+        assertEquals(Integer.valueOf(50), map.get(new Collider(5, 7)));
+    }
+
+    @Test
+    public void removalInsideProbeChain() {
+        var map = new HashMap<Collider, Integer>();
+        for (var i = 0; i < 10; ++i) {
+            map.put(new Collider(i, 3), i);
+        }
+
+        // Keys placed after the removed ones in the probe sequence must stay reachable
+        assertEquals(Integer.valueOf(2), map.remove(new Collider(2, 3)));
+        assertEquals(Integer.valueOf(3), map.remove(new Collider(3, 3)));
+        assertNull(map.remove(new Collider(3, 3)));
+        for (var i = 0; i < 10; ++i) {
+            assertEquals(i != 2 && i != 3 ? Integer.valueOf(i) : null, map.get(new Collider(i, 3)));
+        }
+
+        map.put(new Collider(3, 3), 30);
+        map.put(new Collider(10, 3), 100);
+        assertEquals(10, map.size());
+        assertEquals(Integer.valueOf(30), map.get(new Collider(3, 3)));
+        assertEquals(Integer.valueOf(100), map.get(new Collider(10, 3)));
+        assertEquals(Integer.valueOf(9), map.get(new Collider(9, 3)));
+    }
+
+    @Test
+    public void removedSlotsReusedWithoutGrowingSize() {
+        var map = new HashMap<Integer, Integer>(16);
+        for (var round = 0; round < 100; ++round) {
+            for (var i = 0; i < 10; ++i) {
+                map.put(round * 10 + i, i);
+            }
+            for (var i = 0; i < 10; ++i) {
+                assertEquals(Integer.valueOf(i), map.remove(round * 10 + i));
+            }
+            assertTrue(map.isEmpty());
+        }
+        map.put(1, 1);
+        assertEquals(1, map.size());
+        assertEquals(Integer.valueOf(1), map.get(1));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        var map = new HashMap<Integer, String>(2);
+        for (var i = 0; i < 1000; ++i) {
+            map.put(i, "v" + i);
+            assertEquals(i + 1, map.size());
+            assertEquals("v0", map.get(0));
+            assertEquals("v" + i, map.get(i));
+        }
+        for (var i = 0; i < 1000; ++i) {
+            assertEquals("v" + i, map.get(i));
+        }
+
+        var copy = new HashMap<>(map);
+        assertEquals(map, copy);
+        copy.clear();
+        assertTrue(copy.isEmpty());
+        assertNull(copy.get(1));
+        copy.put(1, "x");
+        assertEquals("x", copy.get(1));
+        assertEquals(1000, map.size());
+    }
+
+    @Test
+    public void nullKeysAndValues() {
+        var map = new HashMap<String, String>();
+        assertNull(map.get(null));
+        assertFalse(map.containsKey(null));
+
+        map.put(null, "n");
+        map.put("a", null);
+        assertEquals(2, map.size());
+        assertEquals("n", map.get(null));
+        assertTrue(map.containsKey(null));
+        assertTrue(map.containsKey("a"));
+        assertNull(map.get("a"));
+        assertTrue(map.containsValue(null));
+        assertTrue(map.containsValue("n"));
+
+        assertEquals("n", map.put(null, "m"));
+        assertEquals("m", map.remove(null));
+        assertFalse(map.containsKey(null));
+        assertNull(map.remove(null));
+        assertNull(map.remove("a"));
+        assertFalse(map.containsKey("a"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void iteratorsFailFast() {
+        var map = new HashMap<Integer, Integer>();
+        for (var i = 0; i < 10; ++i) {
+            map.put(i, i);
+        }
+
+        try {
+            for (var key : map.keySet()) {
+                if (key == 5) {
+                    map.put(100, 100);
+                }
+            }
+            fail("Adding a key during iteration over keys must fail");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+
+        try {
+            for (var value : map.values()) {
+                if (value == 5) {
+                    map.remove(0);
+                }
+            }
+            fail("Removing a key during iteration over values must fail");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+
+        try {
+            for (var entry : map.entrySet()) {
+                if (entry.getKey() == 5) {
+                    map.clear();
+                }
+            }
+            fail("Clearing map during iteration over entries must fail");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+
+        map.put(1, 1);
+        map.put(2, 2);
+        try {
+            map.forEach((k, v) -> map.put(k + 1000, v));
+            fail("Adding a key from forEach must fail");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void replacingValueDuringIterationAllowed() {
+        var map = new HashMap<Integer, Integer>();
+        for (var i = 0; i < 10; ++i) {
+            map.put(i, i);
+        }
+        for (var key : map.keySet()) {
+            map.put(key, key * 2);
+        }
+        for (var i = 0; i < 10; ++i) {
+            assertEquals(Integer.valueOf(i * 2), map.get(i));
+        }
+    }
+
+    static final class Collider {
+        private final int id;
+        private final int hash;
+
+        Collider(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Collider && ((Collider) obj).id == id && ((Collider) obj).hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
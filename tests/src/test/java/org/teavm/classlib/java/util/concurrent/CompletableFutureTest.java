@@ -0,0 +1,164 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.SkipPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@EachTestCompiledSeparately
+@SkipPlatform(TestPlatform.WASI)
+public class CompletableFutureTest {
+    @Test
+    public void chainsSynchronously() {
+        CompletableFuture<Integer> source = new CompletableFuture<>();
+        CompletableFuture<String> result = source.thenApply(x -> x * 2).thenApply(String::valueOf);
+        assertFalse(result.isDone());
+        source.complete(21);
+        assertTrue(result.isDone());
+        assertEquals("42", result.join());
+    }
+
+    @Test
+    public void supplyAsync() throws Exception {
+        CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> 2)
+                .thenApplyAsync(x -> x + 3)
+                .thenCombine(CompletableFuture.supplyAsync(() -> 10), (a, b) -> a * b);
+        assertEquals(50, future.get().intValue());
+    }
+
+    @Test
+    public void thenCompose() {
+        CompletableFuture<String> future = CompletableFuture.completedFuture("a")
+                .thenCompose(s -> CompletableFuture.supplyAsync(() -> s + "b"));
+        assertEquals("ab", future.join());
+    }
+
+    @Test
+    public void exceptionPropagated() throws InterruptedException {
+        IllegalStateException exception = new IllegalStateException("foo");
+        CompletableFuture<Integer> future = CompletableFuture.<Integer>supplyAsync(() -> {
+            throw exception;
+        }).thenApply(x -> x + 1);
+
+        try {
+            future.join();
+            fail("Exception expected");
+        } catch (CompletionException e) {
+            assertSame(exception, e.getCause());
+        }
+        try {
+            future.get();
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+        assertTrue(future.isCompletedExceptionally());
+
+        assertEquals(-1, future.exceptionally(e -> -1).join().intValue());
+        assertEquals("foo", future.handle((x, e) -> e.getCause().getMessage()).join());
+    }
+
+    @Test
+    public void whenComplete() {
+        StringBuilder sb = new StringBuilder();
+        CompletableFuture<String> future = CompletableFuture.completedFuture("x")
+                .whenComplete((v, e) -> sb.append(v).append(e));
+        assertEquals("x", future.join());
+        assertEquals("xnull", sb.toString());
+    }
+
+    @Test
+    public void allOfAndAnyOf() {
+        CompletableFuture<Integer> a = new CompletableFuture<>();
+        CompletableFuture<Integer> b = new CompletableFuture<>();
+        CompletableFuture<Void> all = CompletableFuture.allOf(a, b);
+        CompletableFuture<Object> any = CompletableFuture.anyOf(a, b);
+        b.complete(2);
+        assertEquals(2, any.join());
+        assertFalse(all.isDone());
+        a.complete(1);
+        assertNull(all.join());
+    }
+
+    @Test
+    public void eitherRunsOnce() {
+        CompletableFuture<Integer> a = new CompletableFuture<>();
+        CompletableFuture<Integer> b = new CompletableFuture<>();
+        int[] count = new int[1];
+        CompletableFuture<Integer> result = a.applyToEither(b, x -> {
+            count[0]++;
+            return x;
+        });
+        a.complete(1);
+        b.complete(2);
+        assertEquals(1, result.join().intValue());
+        assertEquals(1, count[0]);
+    }
+
+    @Test
+    public void cancel() {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        CompletableFuture<Integer> dependent = future.thenApply(x -> x);
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+        assertTrue(dependent.isCompletedExceptionally());
+        assertFalse(future.complete(1));
+    }
+
+    @Test
+    public void timeout() throws InterruptedException {
+        CompletableFuture<Integer> future = new CompletableFuture<Integer>().orTimeout(50, TimeUnit.MILLISECONDS);
+        try {
+            future.get();
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        CompletableFuture<Integer> fallback = new CompletableFuture<Integer>()
+                .completeOnTimeout(7, 50, TimeUnit.MILLISECONDS);
+        assertEquals(7, fallback.join().intValue());
+    }
+
+    @Test
+    public void getWithTimeout() throws Exception {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        try {
+            future.get(50, TimeUnit.MILLISECONDS);
+            fail("Exception expected");
+        } catch (TimeoutException e) {
+            // Expected
+        }
+        CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS).execute(() -> future.complete(3));
+        assertEquals(3, future.get(5, TimeUnit.SECONDS).intValue());
+    }
+}
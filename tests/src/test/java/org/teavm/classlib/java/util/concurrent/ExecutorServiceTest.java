@@ -0,0 +1,173 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.SkipPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@EachTestCompiledSeparately
+@SkipPlatform(TestPlatform.WASI)
+public class ExecutorServiceTest {
+    @Test
+    public void fixedThreadPoolRunsAllTasks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; ++i) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    Thread.sleep(5);
+                    return n * n;
+                }));
+            }
+            int sum = 0;
+            for (Future<Integer> future : futures) {
+                sum += future.get();
+            }
+            assertEquals(2470, sum);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+    }
+
+    @Test
+    public void cachedThreadPoolReusesIdleWorkers() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            for (int i = 0; i < 5; ++i) {
+                int n = i;
+                assertEquals(n, executor.submit(() -> n).get().intValue());
+                Thread.sleep(10);
+            }
+            assertEquals(1, ((ThreadPoolExecutor) executor).getLargestPoolSize());
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void exceptionReported() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> future = executor.submit(() -> {
+                throw new IllegalStateException("foo");
+            });
+            future.get();
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals("foo", e.getCause().getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void invokeAllAndAny() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Callable<String>> tasks = Arrays.asList(() -> "a", () -> "b", () -> "c");
+            StringBuilder sb = new StringBuilder();
+            for (Future<String> future : executor.invokeAll(tasks)) {
+                assertTrue(future.isDone());
+                sb.append(future.get());
+            }
+            assertEquals("abc", sb.toString());
+
+            List<Callable<String>> anyTasks = Arrays.asList(() -> {
+                throw new IllegalStateException();
+            }, () -> "ok");
+            assertEquals("ok", executor.invokeAny(anyTasks));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsAfterShutdown() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        executor.shutdown();
+        assertTrue(executor.isShutdown());
+        try {
+            executor.execute(() -> { });
+            fail("Exception expected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void boundedQueueRejects() throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1));
+        try {
+            executor.execute(() -> sleep(100));
+            executor.execute(() -> { });
+            executor.execute(() -> { });
+            fail("Exception expected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, executor.getCompletedTaskCount());
+    }
+
+    @Test
+    public void shutdownNowReturnsPendingTasks() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.execute(() -> sleep(100));
+        executor.execute(() -> { });
+        executor.execute(() -> { });
+        Thread.sleep(20);
+        assertEquals(2, executor.shutdownNow().size());
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Do nothing
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.SkipPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@EachTestCompiledSeparately
+@SkipPlatform(TestPlatform.WASI)
+public class ForkJoinPoolTest {
+    @Test
+    public void recursiveTask() {
+        assertEquals(832040, ForkJoinPool.commonPool().invoke(new Fibonacci(30)).intValue());
+        assertEquals(6765, new Fibonacci(20).invoke().intValue());
+    }
+
+    @Test
+    public void recursiveAction() throws InterruptedException {
+        int[] array = new int[10000];
+        ForkJoinPool pool = new ForkJoinPool(4);
+        pool.invoke(new Fill(array, 0, array.length));
+        for (int i = 0; i < array.length; ++i) {
+            assertEquals(i * 2, array[i]);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void exceptionPropagated() {
+        ForkJoinTask<Integer> task = ForkJoinTask.adapt(() -> {
+            throw new IllegalStateException("foo");
+        });
+        try {
+            ForkJoinPool.commonPool().invoke(task);
+            fail("Exception expected");
+        } catch (IllegalStateException e) {
+            assertEquals("foo", e.getMessage());
+        }
+        assertTrue(task.isCompletedAbnormally());
+    }
+
+    @Test
+    public void submittedFromOutside() throws Exception {
+        ForkJoinTask<?> task = ForkJoinPool.commonPool().submit(new Fibonacci(15));
+        assertEquals(610, ((Integer) task.get()).intValue());
+        assertTrue(task.isCompletedNormally());
+    }
+
+    static class Fibonacci extends RecursiveTask<Integer> {
+        private final int n;
+
+        Fibonacci(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (n <= 10) {
+                return sequential(n);
+            }
+            Fibonacci f1 = new Fibonacci(n - 1);
+            f1.fork();
+            Fibonacci f2 = new Fibonacci(n - 2);
+            return f2.compute() + f1.join();
+        }
+
+        private static int sequential(int n) {
+            return n <= 1 ? n : sequential(n - 1) + sequential(n - 2);
+        }
+    }
+
+    static class Fill extends RecursiveAction {
+        private final int[] array;
+        private final int from;
+        private final int to;
+
+        Fill(int[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 100) {
+                for (int i = from; i < to; ++i) {
+                    array[i] = i * 2;
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Fill(array, from, mid), new Fill(array, mid, to));
+            }
+        }
+    }
+}
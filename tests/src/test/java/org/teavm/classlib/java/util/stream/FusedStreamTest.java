@@ -0,0 +1,144 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Checks that chains of {@code map}, {@code filter} and {@code peek} on primitive streams, which run in a single
+ * loop, behave like the same chains on boxed streams, which are not fused.
+ */
+@RunWith(TeaVMTestRunner.class)
+public class FusedStreamTest {
+    private static final int[] DATA = { 5, 17, -3, 8, 0, 42, 11, -20, 7, 8, 13, 100, -1 };
+
+    @Test
+    public void intChainMatchesBoxed() {
+        var fused = IntStream.of(DATA).map(n -> n * 3).filter(n -> n % 2 != 0).map(n -> n - 1)
+                .filter(n -> n > 0).toArray();
+        var boxed = IntStream.of(DATA).boxed().map(n -> n * 3).filter(n -> n % 2 != 0).map(n -> n - 1)
+                .filter(n -> n > 0).mapToInt(n -> n).toArray();
+        assertArrayEquals(boxed, fused);
+
+        fused = IntStream.range(-10, 10).filter(n -> n % 3 == 0).map(n -> n * n).toArray();
+        boxed = IntStream.range(-10, 10).boxed().filter(n -> n % 3 == 0).map(n -> n * n).mapToInt(n -> n)
+                .toArray();
+        assertArrayEquals(boxed, fused);
+
+        fused = IntStream.iterate(1, n -> n * 2).map(n -> n + 1).filter(n -> n % 3 == 0).limit(5).toArray();
+        boxed = IntStream.iterate(1, n -> n * 2).boxed().map(n -> n + 1).filter(n -> n % 3 == 0).limit(5)
+                .mapToInt(n -> n).toArray();
+        assertArrayEquals(boxed, fused);
+    }
+
+    @Test
+    public void longChainMatchesBoxed() {
+        var fused = LongStream.rangeClosed(1, 30).map(n -> n * n).filter(n -> n % 4 == 1).map(n -> -n).toArray();
+        var boxed = LongStream.rangeClosed(1, 30).boxed().map(n -> n * n).filter(n -> n % 4 == 1).map(n -> -n)
+                .mapToLong(n -> n).toArray();
+        assertArrayEquals(boxed, fused);
+
+        fused = IntStream.of(DATA).asLongStream().filter(n -> n != 8).map(n -> n << 33).toArray();
+        boxed = IntStream.of(DATA).asLongStream().boxed().filter(n -> n != 8).map(n -> n << 33)
+                .mapToLong(n -> n).toArray();
+        assertArrayEquals(boxed, fused);
+    }
+
+    @Test
+    public void doubleChainMatchesBoxed() {
+        var fused = DoubleStream.of(1.5, -2, 3.25, 0, 8).map(n -> n / 2).filter(n -> n >= 0).map(n -> n + 1)
+                .toArray();
+        var boxed = DoubleStream.of(1.5, -2, 3.25, 0, 8).boxed().map(n -> n / 2).filter(n -> n >= 0)
+                .map(n -> n + 1).mapToDouble(n -> n).toArray();
+        assertArrayEquals(boxed, fused, 0);
+    }
+
+    @Test
+    public void stagesRunElementByElement() {
+        var fusedLog = new ArrayList<String>();
+        IntStream.of(1, 2, 3).peek(n -> fusedLog.add("a" + n)).map(n -> n * 10)
+                .filter(n -> n != 20).peek(n -> fusedLog.add("b" + n)).sum();
+
+        var boxedLog = new ArrayList<String>();
+        IntStream.of(1, 2, 3).boxed().peek(n -> boxedLog.add("a" + n)).map(n -> n * 10)
+                .filter(n -> n != 20).peek(n -> boxedLog.add("b" + n)).mapToInt(n -> n).sum();
+
+        assertEquals(List.of("a1", "b10", "a2", "a3", "b30"), fusedLog);
+        assertEquals(boxedLog, fusedLog);
+    }
+
+    @Test
+    public void limitStopsPullingFromSource() {
+        var seen = new ArrayList<Integer>();
+        var result = IntStream.range(0, 100).peek(seen::add).filter(n -> n % 2 == 0).map(n -> n + 1)
+                .limit(2).toArray();
+        assertArrayEquals(new int[] { 1, 3 }, result);
+        assertEquals(List.of(0, 1, 2), seen);
+
+        var seenInArray = new ArrayList<Integer>();
+        result = IntStream.of(DATA).peek(seenInArray::add).filter(n -> n < 0).limit(1).toArray();
+        assertArrayEquals(new int[] { -3 }, result);
+        assertEquals(List.of(5, 17, -3), seenInArray);
+    }
+
+    @Test
+    public void matchShortCircuits() {
+        var seen = new ArrayList<Long>();
+        assertTrue(LongStream.range(0, 1000).peek(seen::add).map(n -> n * 7).anyMatch(n -> n > 20));
+        assertEquals(List.of(0L, 1L, 2L, 3L), seen);
+
+        var seenDoubles = new ArrayList<Double>();
+        assertFalse(DoubleStream.of(1, 2, -1, 4).peek(seenDoubles::add).map(n -> n * 2).allMatch(n -> n > 0));
+        assertEquals(List.of(1.0, 2.0, -1.0), seenDoubles);
+
+        var seenInts = new ArrayList<Integer>();
+        assertTrue(IntStream.of(DATA).peek(seenInts::add).filter(n -> n > 10).noneMatch(n -> n == 0));
+        assertEquals(DATA.length, seenInts.size());
+    }
+
+    @Test
+    public void resumesAfterShortCircuit() {
+        var iterator = IntStream.range(0, 10).map(n -> n * 2).filter(n -> n % 3 != 0).iterator();
+        var values = new ArrayList<Integer>();
+        while (iterator.hasNext()) {
+            values.add(iterator.nextInt());
+        }
+        assertEquals(List.of(2, 4, 8, 10, 14, 16), values);
+
+        var text = LongStream.of(3, 1, 4, 1, 5).map(n -> n * 2).filter(n -> n > 2).mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+        assertEquals("6,8,10", text);
+    }
+
+    @Test
+    public void countSkipsStagesOnlyWhenAllowed() {
+        assertEquals(100, IntStream.range(0, 100).map(n -> n * 2).count());
+        assertEquals(50, IntStream.range(0, 100).map(n -> n * 2).filter(n -> n % 4 == 0).count());
+        assertEquals(3, DoubleStream.of(1, 2, 3).map(n -> -n).count());
+    }
+}
@@ -382,4 +382,30 @@ public class IntStreamTest {
         }).toArray();
         assertArrayEquals(new int[] {1, 2, 2, 3, 3, 3}, mapped);
     }
+
+    @Test
+    public void chainedStatelessStages() {
+        testIntStream(() -> IntStream.range(0, 10).map(n -> n * 3).filter(n -> n % 2 == 0).map(n -> n + 1)
+                .filter(n -> n > 1), 7, 13, 19, 25);
+        testIntStream(() -> IntStream.of(5, 6, 7, 8).filter(n -> n != 6).map(n -> -n), -5, -7, -8);
+
+        StringBuilder sb = new StringBuilder();
+        int sum = IntStream.rangeClosed(1, 4).peek(n -> sb.append(n)).map(n -> n * n).peek(n -> sb.append(':'))
+                .filter(n -> n > 1).sum();
+        assertEquals(29, sum);
+        assertEquals("1:2:3:4:", sb.toString());
+    }
+
+    @Test
+    public void chainedStagesResumable() {
+        PrimitiveIterator.OfInt iter = IntStream.of(1, 2, 3, 4, 5, 6).map(n -> n * 10).filter(n -> n != 30)
+                .iterator();
+        StringBuilder sb = new StringBuilder();
+        while (iter.hasNext()) {
+            sb.append(iter.nextInt()).append(';');
+        }
+        assertEquals("10;20;40;50;60;", sb.toString());
+        assertEquals(2, IntStream.range(0, 100).map(n -> n + 1).filter(n -> n > 10).limit(2).count());
+        assertEquals(100, IntStream.range(0, 100).map(n -> n + 1).map(n -> n * 2).count());
+    }
 }
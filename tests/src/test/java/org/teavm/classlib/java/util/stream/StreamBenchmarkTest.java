@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.stream;
+
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Compares primitive stream pipelines of stateless stages with equivalent hand-written loops, in the spirit
+ * of JMH average time mode: a few warmup rounds, then several measured rounds, reporting mean time per round
+ * to stdout. Benchmarks are not part of the regular test run, pass {@code -Pteavm.tests.benchmarks=true}
+ * to run them.
+ */
+@RunWith(TeaVMTestRunner.class)
+public class StreamBenchmarkTest {
+    private static final int SIZE = 100000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    private final int[] data = IntStream.range(0, SIZE).map(n -> (n * 31) % 1000).toArray();
+
+    @Test
+    public void rangeMapFilterSum() {
+        var expected = measure("rangeMapFilterSum.loop", () -> {
+            var sum = 0L;
+            for (var i = 0; i < SIZE; ++i) {
+                var n = i * 3;
+                if (n % 2 == 0) {
+                    sum += n + 1;
+                }
+            }
+            return sum;
+        });
+        var actual = measure("rangeMapFilterSum.stream", () -> IntStream.range(0, SIZE)
+                .map(n -> n * 3)
+                .filter(n -> n % 2 == 0)
+                .mapToLong(n -> n + 1)
+                .sum());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void arrayFilterMapToArray() {
+        var expected = measure("arrayFilterMapToArray.loop", () -> {
+            var result = new int[data.length];
+            var count = 0;
+            for (var n : data) {
+                if (n > 500) {
+                    result[count++] = n - 500;
+                }
+            }
+            return Arrays.stream(Arrays.copyOf(result, count)).asLongStream().sum();
+        });
+        var actual = measure("arrayFilterMapToArray.stream", () -> Arrays.stream(Arrays.stream(data)
+                .filter(n -> n > 500)
+                .map(n -> n - 500)
+                .toArray()).asLongStream().sum());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void arrayMapFilterCount() {
+        var expected = measure("arrayMapFilterCount.loop", () -> {
+            var count = 0L;
+            for (var n : data) {
+                if ((n ^ 0x55) % 3 == 0) {
+                    ++count;
+                }
+            }
+            return count;
+        });
+        var actual = measure("arrayMapFilterCount.stream", () -> Arrays.stream(data)
+                .map(n -> n ^ 0x55)
+                .filter(n -> n % 3 == 0)
+                .count());
+        assertEquals(expected, actual);
+    }
+
+    private long measure(String name, LongSupplier operation) {
+        var checksum = 0L;
+        for (var i = 0; i < WARMUP_ROUNDS; ++i) {
+            checksum += operation.getAsLong();
+        }
+        var start = System.nanoTime();
+        for (var i = 0; i < ROUNDS; ++i) {
+            checksum += operation.getAsLong();
+        }
+        var time = (System.nanoTime() - start) / ROUNDS;
+        System.out.println(getClass().getSimpleName() + "." + name + ": " + (time / 1000) + " us/op");
+        return checksum;
+    }
+}
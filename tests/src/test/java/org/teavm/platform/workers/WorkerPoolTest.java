@@ -0,0 +1,231 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.core.JSArray;
+import org.teavm.jso.typedarrays.ArrayBuffer;
+import org.teavm.jso.typedarrays.Int32Array;
+import org.teavm.jso.typedarrays.SharedArrayBuffer;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+@OnlyPlatform(TestPlatform.JAVASCRIPT)
+@EachTestCompiledSeparately
+public class WorkerPoolTest {
+    private static Int32Array kept;
+
+    static {
+        Workers.<Int32Array, Int32Array>register("double", data -> {
+            for (int i = 0; i < data.getLength(); ++i) {
+                data.set(i, data.get(i) * 2);
+            }
+            return data;
+        });
+        Workers.<Int32Array, Int32Array>register("keep", data -> {
+            kept = data;
+            return data;
+        });
+        Workers.register("fail", data -> {
+            throw new IllegalStateException("expected failure");
+        });
+    }
+
+    @Test
+    public void mainThreadIsNotWorker() {
+        assertFalse(Workers.isWorker());
+        assertFalse(Workers.serve());
+    }
+
+    @Test
+    public void runsTaskOnCopy() throws Exception {
+        Int32Array array = Int32Array.create(3);
+        array.set(0, 1);
+        array.set(1, 2);
+        array.set(2, 3);
+        try (WorkerPool pool = WorkerPool.inline()) {
+            Int32Array result = pool.<Int32Array>submit("double", array).get();
+            assertEquals(6, result.get(2));
+            assertEquals(3, array.get(2));
+        }
+    }
+
+    @Test
+    public void returnsCopyOfResult() throws Exception {
+        try (WorkerPool pool = WorkerPool.inline()) {
+            Int32Array result = pool.<Int32Array>submit("keep", Int32Array.create(1)).get();
+            result.set(0, 42);
+            assertEquals(0, kept.get(0));
+        }
+    }
+
+    @Test
+    public void movesTransferredBuffers() throws Exception {
+        Int32Array array = Int32Array.create(2);
+        array.set(1, 4);
+        try (WorkerPool pool = WorkerPool.inline()) {
+            Int32Array result = pool.<Int32Array>submit("double", array, JSArray.<ArrayBuffer>of(array.getBuffer()))
+                    .get();
+            assertEquals(8, result.get(1));
+            assertEquals(0, array.getLength());
+        }
+    }
+
+    @Test
+    public void sharesSharedArrayBuffer() throws Exception {
+        if (!SharedArrayBuffer.isSupported()) {
+            return;
+        }
+        Int32Array array = Int32Array.create(SharedArrayBuffer.create(8));
+        array.set(0, 5);
+        array.set(1, 7);
+        try (WorkerPool pool = WorkerPool.inline()) {
+            pool.submit("double", array).get();
+        }
+        assertEquals(10, array.get(0));
+        assertEquals(14, array.get(1));
+    }
+
+    @Test
+    public void reportsFailures() throws InterruptedException {
+        try (WorkerPool pool = WorkerPool.inline()) {
+            try {
+                pool.submit("fail", Int32Array.create(1)).get();
+                fail("Exception expected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof WorkerException);
+                assertTrue(e.getCause().getMessage().contains("expected failure"));
+            }
+            try {
+                pool.submit("unknown", Int32Array.create(1)).get();
+                fail("Exception expected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().contains("unknown"));
+            }
+        }
+    }
+
+    @Test
+    public void closedPoolRejectsTasks() {
+        WorkerPool pool = WorkerPool.inline();
+        pool.close();
+        try {
+            pool.submit("double", Int32Array.create(1));
+            fail("Exception expected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void runsTasksInWorkers() throws Exception {
+        if (Workers.serve()) {
+            return;
+        }
+        var scriptUrl = testScriptWorkerUrl();
+        if (scriptUrl == null) {
+            return;
+        }
+        try (WorkerPool pool = new WorkerPool(scriptUrl, 2)) {
+            var arrays = new Int32Array[3];
+            var futures = new ArrayList<CompletableFuture<Int32Array>>();
+            for (int i = 0; i < arrays.length; ++i) {
+                arrays[i] = Int32Array.create(2);
+                arrays[i].set(0, i);
+                arrays[i].set(1, i + 10);
+                futures.add(pool.submit("double", arrays[i]));
+            }
+            for (int i = 0; i < arrays.length; ++i) {
+                Int32Array result = futures.get(i).get();
+                assertEquals(i * 2, result.get(0));
+                assertEquals((i + 10) * 2, result.get(1));
+                assertEquals(i, arrays[i].get(0));
+            }
+
+            Int32Array transferred = Int32Array.create(1);
+            transferred.set(0, 21);
+            Int32Array result = pool.<Int32Array>submit("double", transferred,
+                    JSArray.<ArrayBuffer>of(transferred.getBuffer())).get();
+            assertEquals(42, result.get(0));
+            assertEquals(0, transferred.getLength());
+
+            try {
+                pool.submit("fail", Int32Array.create(1)).get();
+                fail("Exception expected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof WorkerException);
+                assertTrue(e.getCause().getMessage().contains("expected failure"));
+            }
+        }
+    }
+
+    @Test
+    public void failsTasksOfCrashedWorker() throws InterruptedException {
+        var scriptUrl = scriptWorkerUrl("throw new Error('worker crashed');");
+        if (scriptUrl == null) {
+            return;
+        }
+        try (WorkerPool pool = new WorkerPool(scriptUrl, 1)) {
+            try {
+                pool.submit("double", Int32Array.create(1)).get();
+                fail("Exception expected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof WorkerException);
+                assertTrue(e.getCause().getMessage().contains("worker crashed"));
+            }
+        }
+    }
+
+    /**
+     * Worker that loads the script of this test and runs it. Tests are compiled separately, so the worker
+     * enters the same test method, where Workers.serve() makes it wait for tasks.
+     */
+    @JSBody(script = ""
+            + "if (typeof Worker === 'undefined' || typeof document === 'undefined') {"
+                + "return null;"
+            + "}"
+            + "var scripts = document.getElementsByTagName('script');"
+            + "for (var i = scripts.length - 1; i >= 0; --i) {"
+                + "if (scripts[i].src) {"
+                    + "var code = 'importScripts(' + JSON.stringify(scripts[i].src) + '); main([]);';"
+                    + "return URL.createObjectURL(new Blob([code], { type: 'text/javascript' }));"
+                + "}"
+            + "}"
+            + "return null;")
+    private static native String testScriptWorkerUrl();
+
+    @JSBody(params = "code", script = ""
+            + "if (typeof Worker === 'undefined') {"
+                + "return null;"
+            + "}"
+            + "return URL.createObjectURL(new Blob([code], { type: 'text/javascript' }));")
+    private static native String scriptWorkerUrl(String code);
+}
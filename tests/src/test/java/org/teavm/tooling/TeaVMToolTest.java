@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.ReferenceCache;
+import org.teavm.model.instructions.ExitInstruction;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.parsing.ParsedProgramCache;
+
+public class TeaVMToolTest {
+    private static final MethodDescriptor MAIN = new MethodDescriptor("main", String[].class, void.class);
+    private static final MethodReference MARKER = new MethodReference(Marker.class, "reached", void.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void buildTakesMethodBodiesFromParsedProgramCache() throws Exception {
+        var referenceCache = new ReferenceCache();
+        mainProgramCache(referenceCache).get(MAIN, TeaVMToolTest::callMarker);
+
+        var tool = build(referenceCache);
+        assertTrue(tool.getDependencyInfo().getReachableMethods().contains(MARKER));
+    }
+
+    @Test
+    public void consecutiveBuildsShareParsedMethodBodies() throws Exception {
+        var referenceCache = new ReferenceCache();
+        var firstTool = build(referenceCache);
+        assertTrue(firstTool.getDependencyInfo().getReachableMethods().contains(
+                new MethodReference(Main.class.getName(), MAIN)));
+        assertNotNull(mainProgramCache(referenceCache).get(MAIN, () -> {
+            fail("Body of main method should be cached by the first build");
+            return null;
+        }));
+
+        var secondTool = build(referenceCache);
+        assertTrue(secondTool.getProblemProvider().getSevereProblems().isEmpty());
+    }
+
+    private TeaVMTool build(ReferenceCache referenceCache) throws TeaVMToolException, IOException {
+        var tool = new TeaVMTool();
+        tool.setReferenceCache(referenceCache);
+        tool.setClassLoader(TeaVMToolTest.class.getClassLoader());
+        tool.setTargetDirectory(folder.newFolder());
+        tool.setMainClass(Main.class.getName());
+        tool.setObfuscated(false);
+        tool.generate();
+        assertTrue(tool.getProblemProvider().getSevereProblems().isEmpty());
+        return tool;
+    }
+
+    private static ParsedProgramCache mainProgramCache(ReferenceCache referenceCache) throws IOException {
+        String resourceName = Main.class.getName().replace('.', '/') + ".class";
+        byte[] classFile;
+        try (InputStream input = TeaVMToolTest.class.getClassLoader().getResourceAsStream(resourceName)) {
+            classFile = input.readAllBytes();
+        }
+        return ParsedProgramCache.forClass(referenceCache, Main.class.getName(), classFile);
+    }
+
+    private static Program callMarker() {
+        var program = new Program();
+        program.createVariable();
+        program.createVariable();
+        var block = program.createBasicBlock();
+        var invoke = new InvokeInstruction();
+        invoke.setType(InvocationType.SPECIAL);
+        invoke.setMethod(MARKER);
+        block.add(invoke);
+        block.add(new ExitInstruction());
+        return program;
+    }
+
+    public static class Main {
+        public static void main(String[] args) {
+            System.out.println("Hello");
+        }
+    }
+
+    public static class Marker {
+        public static void reached() {
+        }
+    }
+}
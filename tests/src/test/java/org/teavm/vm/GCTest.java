@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+@OnlyPlatform({ TestPlatform.C, TestPlatform.WEBASSEMBLY, TestPlatform.WASI })
+@EachTestCompiledSeparately
+public class GCTest {
+    private static final int SLOTS = 64;
+
+    @Test
+    public void survivesManyCollections() {
+        var slots = new Node[SLOTS];
+        var sums = new long[SLOTS];
+        var random = 12345;
+        for (var i = 0; i < 20000; ++i) {
+            random = random * 1103515245 + 12345;
+            var index = (random >>> 16) % SLOTS;
+            var length = 1 + (random >>> 8) % 50;
+            slots[index] = createList(i, length);
+            sums[index] = sum(slots[index]);
+
+            // Short-lived garbage of various sizes between retained objects
+            var garbage = new byte[1 + (random >>> 4) % 512];
+            garbage[0] = (byte) i;
+
+            if (i % 1000 == 0) {
+                for (var j = 0; j < SLOTS; ++j) {
+                    if (slots[j] != null) {
+                        assertEquals(sums[j], sum(slots[j]));
+                    }
+                }
+            }
+        }
+        for (var j = 0; j < SLOTS; ++j) {
+            if (slots[j] != null) {
+                assertEquals(sums[j], sum(slots[j]));
+            }
+        }
+    }
+
+    @Test
+    public void oldObjectsReferenceYoungOnes() {
+        var holders = new Node[SLOTS];
+        for (var i = 0; i < SLOTS; ++i) {
+            holders[i] = new Node(i, null);
+        }
+        for (var i = 0; i < 10000; ++i) {
+            var holder = holders[i % SLOTS];
+            holder.next = createList(i, 1 + i % 20);
+            holder.value = sum(holder.next);
+            var garbage = new int[1 + i % 256];
+            garbage[0] = i;
+        }
+        for (var holder : holders) {
+            assertNotNull(holder.next);
+            assertEquals(holder.value, sum(holder.next));
+        }
+    }
+
+    private static Node createList(int seed, int length) {
+        Node result = null;
+        for (var i = 0; i < length; ++i) {
+            result = new Node(seed * 31L + i, result);
+        }
+        return result;
+    }
+
+    private static long sum(Node node) {
+        var result = 0L;
+        while (node != null) {
+            result += node.value;
+            node = node.next;
+        }
+        return result;
+    }
+
+    static class Node {
+        long value;
+        Node next;
+
+        Node(long value, Node next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
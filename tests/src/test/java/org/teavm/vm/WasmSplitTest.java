@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2026 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+import org.teavm.junit.WasmSplitPoints;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+@OnlyPlatform(TestPlatform.WEBASSEMBLY)
+@EachTestCompiledSeparately
+public class WasmSplitTest {
+    @Test
+    @WasmSplitPoints(SplitPart.class)
+    public void callsIntoPrefetchedModule() {
+        assertEquals("part:3", SplitPart.describe(3));
+        assertEquals(55, new SplitPart(10).fibonacci());
+    }
+
+    @Test
+    @WasmSplitPoints(value = SplitPart.class, prefetch = false)
+    public void loadsModuleOnFirstCall() {
+        assertEquals("part:3", SplitPart.describe(3));
+        assertEquals("part:4", SplitPart.describe(4));
+        assertEquals(55, new SplitPart(10).fibonacci());
+    }
+
+    static class SplitPart {
+        private int n;
+
+        SplitPart(int n) {
+            this.n = n;
+        }
+
+        static String describe(int value) {
+            return "part:" + value;
+        }
+
+        int fibonacci() {
+            var a = 0;
+            var b = 1;
+            for (var i = 0; i < n; ++i) {
+                var c = a + b;
+                a = b;
+                b = c;
+            }
+            return a;
+        }
+    }
+}
@@ -87,6 +87,12 @@ public final class TeaVMRunner {
                 .hasArg()
                 .argName("number")
                 .build());
+        options.addOption(Option.builder("j")
+                .desc("number of threads to use for compilation (1 by default)")
+                .longOpt("parallelism")
+                .hasArg()
+                .argName("number")
+                .build());
         options.addOption(Option.builder("g")
                 .desc("Generate debug information")
                 .longOpt("debug")
@@ -127,6 +133,20 @@ public final class TeaVMRunner {
                 .hasArg()
                 .desc("WebAssembly binary version (currently, only 1 is supported)")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("wasm-native-exceptions")
+                .desc("use instructions of WebAssembly exception handling proposal to throw exceptions")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("wasm-simd")
+                .desc("use 128-bit vector instructions of WebAssembly SIMD proposal in class library loops")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("wasm-split-point")
+                .argName("class name")
+                .hasArgs()
+                .desc("move code reachable only through given class into separate lazily loaded WebAssembly module")
+                .build());
         options.addOption(Option.builder("e")
                 .longOpt("entry-point")
                 .argName("name")
@@ -145,6 +165,19 @@ public final class TeaVMRunner {
                 .hasArg()
                 .desc("Maximum heap size in megabytes (for C and WebAssembly)")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("gc-mark-threads")
+                .argName("count")
+                .hasArg()
+                .desc("Number of threads marking live objects during garbage collection (for C)")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("alloc-sample-interval")
+                .argName("count")
+                .hasArg()
+                .desc("Sample every <count>-th allocation and write allocation profile and heap histogram "
+                        + "at exit (for C)")
+                .build());
         options.addOption(Option.builder()
                 .longOpt("js-module-type")
                 .argName("module-type")
@@ -184,6 +217,7 @@ public final class TeaVMRunner {
         parseDebugOptions();
         parsePreserveClassOptions();
         parseOptimizationOption();
+        parseParallelismOption();
         parseIncrementalOptions();
         parseGenerationOptions();
         parseWasmOptions();
@@ -308,6 +342,23 @@ public final class TeaVMRunner {
         }
     }
 
+    private void parseParallelismOption() {
+        if (commandLine.hasOption("j")) {
+            int parallelism;
+            try {
+                parallelism = Integer.parseInt(commandLine.getOptionValue("j"));
+            } catch (NumberFormatException e) {
+                parallelism = 0;
+            }
+            if (parallelism < 1) {
+                System.err.print("Wrong number of threads");
+                printUsage();
+                return;
+            }
+            tool.setParallelism(parallelism);
+        }
+    }
+
     private void parseIncrementalOptions() {
         if (commandLine.hasOption('i')) {
             tool.setIncremental(true);
@@ -343,12 +394,34 @@ public final class TeaVMRunner {
                 printUsage();
             }
         }
+        tool.setWasmNativeExceptions(commandLine.hasOption("wasm-native-exceptions"));
+        tool.setWasmSimd(commandLine.hasOption("wasm-simd"));
+        if (commandLine.hasOption("wasm-split-point")) {
+            tool.getWasmSplitPoints().addAll(Arrays.asList(commandLine.getOptionValues("wasm-split-point")));
+        }
     }
 
     private void parseCOptions() {
         if (commandLine.hasOption("heap-dump")) {
             tool.setHeapDump(true);
         }
+        if (commandLine.hasOption("gc-mark-threads")) {
+            try {
+                tool.setGcMarkThreads(Integer.parseInt(commandLine.getOptionValue("gc-mark-threads")));
+            } catch (NumberFormatException e) {
+                System.err.print("Wrong number of GC mark threads");
+                printUsage();
+            }
+        }
+        if (commandLine.hasOption("alloc-sample-interval")) {
+            try {
+                tool.setAllocationSampleInterval(Integer.parseInt(
+                        commandLine.getOptionValue("alloc-sample-interval")));
+            } catch (NumberFormatException e) {
+                System.err.print("Wrong allocation sample interval");
+                printUsage();
+            }
+        }
     }
 
     private void parseHeap() {
@@ -24,14 +24,24 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
 import org.teavm.backend.c.CTarget;
 import org.teavm.backend.c.generate.CNameProvider;
 import org.teavm.backend.c.generate.ShorteningFileNameProvider;
@@ -42,7 +52,9 @@ import org.teavm.backend.wasm.WasmRuntimeType;
 import org.teavm.backend.wasm.WasmTarget;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
 import org.teavm.cache.AlwaysStaleCacheStatus;
+import org.teavm.cache.CacheLock;
 import org.teavm.cache.CacheStatus;
+import org.teavm.cache.DiskCacheStore;
 import org.teavm.cache.DiskCachedClassReaderSource;
 import org.teavm.cache.DiskMethodNodeCache;
 import org.teavm.cache.DiskProgramCache;
@@ -65,6 +77,7 @@ import org.teavm.parsing.ClasspathClassHolderSource;
 import org.teavm.tooling.sources.SourceFileProvider;
 import org.teavm.vm.BuildTarget;
 import org.teavm.vm.DirectoryBuildTarget;
+import org.teavm.vm.IncrementalDirectoryBuildTarget;
 import org.teavm.vm.TeaVM;
 import org.teavm.vm.TeaVMBuilder;
 import org.teavm.vm.TeaVMOptimizationLevel;
@@ -72,6 +85,7 @@ import org.teavm.vm.TeaVMProgressListener;
 import org.teavm.vm.TeaVMTarget;
 
 public class TeaVMTool {
+    private static String compilerVersion;
     private File targetDirectory = new File(".");
     private TeaVMTargetType targetType = TeaVMTargetType.JAVASCRIPT;
     private String targetFileName = "";
@@ -90,6 +104,7 @@ public class TeaVMTool {
     private List<String> classesToPreserve = new ArrayList<>();
     private TeaVMToolLog log = new EmptyTeaVMToolLog();
     private ClassLoader classLoader = TeaVMTool.class.getClassLoader();
+    private DiskCacheStore cacheStore;
     private DiskCachedClassReaderSource cachedClassSource;
     private DiskProgramCache programCache;
     private DiskMethodNodeCache astCache;
@@ -101,17 +116,24 @@ public class TeaVMTool {
     private TeaVM vm;
     private boolean fastDependencyAnalysis;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
+    private int parallelism = 1;
     private List<SourceFileProvider> sourceFileProviders = new ArrayList<>();
     private DebugInformationBuilder debugEmitter;
     private JavaScriptTarget javaScriptTarget;
     private WasmTarget webAssemblyTarget;
     private WasmBinaryVersion wasmVersion = WasmBinaryVersion.V_0x1;
+    private boolean wasmNativeExceptions;
+    private boolean wasmSimd;
+    private List<String> wasmSplitPoints = new ArrayList<>();
     private CTarget cTarget;
     private Set<File> generatedFiles = new HashSet<>();
     private int minHeapSize = 4 * (1 << 20);
     private int maxHeapSize = 128 * (1 << 20);
     private ReferenceCache referenceCache;
+    private boolean referenceCacheProvided;
     private boolean heapDump;
+    private int gcMarkThreads = 1;
+    private int allocationSampleInterval;
     private boolean shortFileNames;
     private boolean assertionsRemoved;
 
@@ -238,6 +260,14 @@ public class TeaVMTool {
         this.optimizationLevel = optimizationLevel;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     public boolean isFastDependencyAnalysis() {
         return fastDependencyAnalysis;
     }
@@ -262,6 +292,16 @@ public class TeaVMTool {
         this.classLoader = classLoader;
     }
 
+    /**
+     * Sets reference cache to build with. Method bodies parsed from class files are cached per reference cache,
+     * so tools that run several builds in one process, like the build daemon, should pass the same reference
+     * cache to each of them. Otherwise every call to {@link #generate()} creates its own reference cache.
+     */
+    public void setReferenceCache(ReferenceCache referenceCache) {
+        this.referenceCache = referenceCache;
+        referenceCacheProvided = referenceCache != null;
+    }
+
     public WasmBinaryVersion getWasmVersion() {
         return wasmVersion;
     }
@@ -270,10 +310,46 @@ public class TeaVMTool {
         this.wasmVersion = wasmVersion;
     }
 
+    public boolean isWasmNativeExceptions() {
+        return wasmNativeExceptions;
+    }
+
+    public void setWasmNativeExceptions(boolean wasmNativeExceptions) {
+        this.wasmNativeExceptions = wasmNativeExceptions;
+    }
+
+    public boolean isWasmSimd() {
+        return wasmSimd;
+    }
+
+    public void setWasmSimd(boolean wasmSimd) {
+        this.wasmSimd = wasmSimd;
+    }
+
+    public List<String> getWasmSplitPoints() {
+        return wasmSplitPoints;
+    }
+
     public void setHeapDump(boolean heapDump) {
         this.heapDump = heapDump;
     }
 
+    public int getGcMarkThreads() {
+        return gcMarkThreads;
+    }
+
+    public void setGcMarkThreads(int gcMarkThreads) {
+        this.gcMarkThreads = gcMarkThreads;
+    }
+
+    public int getAllocationSampleInterval() {
+        return allocationSampleInterval;
+    }
+
+    public void setAllocationSampleInterval(int allocationSampleInterval) {
+        this.allocationSampleInterval = allocationSampleInterval;
+    }
+
     public void setShortFileNames(boolean shortFileNames) {
         this.shortFileNames = shortFileNames;
     }
@@ -354,6 +430,9 @@ public class TeaVMTool {
         webAssemblyTarget.setMinHeapSize(minHeapSize);
         webAssemblyTarget.setMaxHeapSize(maxHeapSize);
         webAssemblyTarget.setObfuscated(obfuscated);
+        webAssemblyTarget.setNativeExceptions(wasmNativeExceptions);
+        webAssemblyTarget.setSimd(wasmSimd);
+        webAssemblyTarget.setSplitPoints(wasmSplitPoints);
         return webAssemblyTarget;
     }
 
@@ -375,6 +454,8 @@ public class TeaVMTool {
         cTarget.setMaxHeapSize(maxHeapSize);
         cTarget.setLineNumbersGenerated(debugInformationGenerated);
         cTarget.setHeapDump(heapDump);
+        cTarget.setGcMarkThreads(gcMarkThreads);
+        cTarget.setAllocationSampleInterval(allocationSampleInterval);
         cTarget.setObfuscated(obfuscated);
         cTarget.setFileNames(shortFileNames
                 ? new ShorteningFileNameProvider(new SimpleFileNameProvider())
@@ -386,7 +467,9 @@ public class TeaVMTool {
         try {
             cancelled = false;
             log.info("Running TeaVM");
-            referenceCache = new ReferenceCache();
+            if (!referenceCacheProvided) {
+                referenceCache = new ReferenceCache();
+            }
             TeaVMBuilder vmBuilder = new TeaVMBuilder(prepareTarget());
             CacheStatus cacheStatus;
             vmBuilder.setReferenceCache(referenceCache);
@@ -398,19 +481,21 @@ public class TeaVMTool {
                 ClasspathClassHolderSource innerClassSource = new ClasspathClassHolderSource(classLoader,
                         referenceCache);
                 ClassHolderSource classSource = new PreOptimizingClassHolderSource(innerClassSource);
-                cachedClassSource = new DiskCachedClassReaderSource(cacheDirectory, referenceCache, symbolTable,
-                        fileTable, variableTable, classSource, innerClassSource);
-                programCache = new DiskProgramCache(cacheDirectory, referenceCache, symbolTable, fileTable,
+                cacheStore = new DiskCacheStore(new File(cacheDirectory, "entries-" + getCacheFingerprint()));
+                cachedClassSource = new DiskCachedClassReaderSource(cacheStore, referenceCache, symbolTable,
+                        fileTable, variableTable, classSource, innerClassSource, innerClassSource);
+                programCache = new DiskProgramCache(cacheStore, referenceCache, symbolTable, fileTable,
                         variableTable);
                 if (targetType == TeaVMTargetType.JAVASCRIPT) {
-                    astCache = new DiskMethodNodeCache(cacheDirectory, referenceCache, symbolTable, fileTable,
+                    astCache = new DiskMethodNodeCache(cacheStore, referenceCache, symbolTable, fileTable,
                             variableTable);
                     javaScriptTarget.setAstCache(astCache);
                 }
-                try {
+                try (CacheLock lock = CacheLock.acquire(new File(cacheDirectory, "lock"))) {
                     symbolTable.update();
                     fileTable.update();
                     variableTable.update();
+                    cacheStore.update();
                 } catch (IOException e) {
                     log.info("Cache is missing");
                 }
@@ -443,6 +528,7 @@ public class TeaVMTool {
             vm.setOptimizationLevel(!fastDependencyAnalysis && !incremental
                     ? optimizationLevel
                     : TeaVMOptimizationLevel.SIMPLE);
+            vm.setParallelism(parallelism);
             if (incremental) {
                 vm.addVirtualMethods(m -> true);
             }
@@ -463,7 +549,9 @@ public class TeaVMTool {
                 System.exit(-1);
             }
 
-            BuildTarget buildTarget = new DirectoryBuildTarget(targetDirectory);
+            BuildTarget buildTarget = targetType == TeaVMTargetType.C
+                    ? new IncrementalDirectoryBuildTarget(targetDirectory)
+                    : new DirectoryBuildTarget(targetDirectory);
             String outputName = getResolvedTargetFileName();
             vm.build(buildTarget, outputName);
             if (vm.wasCancelled()) {
@@ -492,14 +580,22 @@ public class TeaVMTool {
             }
 
             if (incremental) {
-                programCache.flush();
-                if (astCache != null) {
-                    astCache.flush();
+                try (CacheLock lock = CacheLock.acquire(new File(cacheDirectory, "lock"))) {
+                    // Other builds sharing the cache directory could have added symbols meanwhile.
+                    // Entries are serialized only now, so they get indexes past the ones added by other builds.
+                    symbolTable.update();
+                    fileTable.update();
+                    variableTable.update();
+                    programCache.flush();
+                    if (astCache != null) {
+                        astCache.flush();
+                    }
+                    cachedClassSource.flush();
+                    cacheStore.flush();
+                    symbolTable.flush();
+                    fileTable.flush();
+                    variableTable.flush();
                 }
-                cachedClassSource.flush();
-                symbolTable.flush();
-                fileTable.flush();
-                variableTable.flush();
                 log.info("Cache updated");
             }
 
@@ -509,6 +605,119 @@ public class TeaVMTool {
         }
     }
 
+    private String getCacheFingerprint() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(targetType).append('|').append(wasmVersion).append('|').append(wasmNativeExceptions).append('|')
+                .append(wasmSimd).append('|').append(wasmSplitPoints).append('|').append(obfuscated).append('|')
+                .append(strict).append('|').append(assertionsRemoved).append('|').append(fastDependencyAnalysis)
+                .append('|').append(debugInformationGenerated).append('|').append(transformers);
+        for (String name : new TreeSet<>(properties.stringPropertyNames())) {
+            sb.append('|').append(name).append('=').append(properties.getProperty(name));
+        }
+        sb.append('|').append(getCompilerVersion());
+        for (String entry : getClassPathEntries(classLoader)) {
+            sb.append('|').append(entry);
+        }
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        return toHex(digest, 8);
+    }
+
+    private static String toHex(byte[] bytes, int count) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            result.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16))
+                    .append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    /*
+     * Snapshot builds of the compiler share the same version, so content of the compiler is taken into account
+     * as well. Nothing that depends on where the compiler is installed is used, so that the cache can be shared
+     * between workspaces and machines.
+     */
+    private static synchronized String getCompilerVersion() {
+        if (compilerVersion == null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(TeaVM.class.getPackage().getImplementationVersion());
+            CodeSource codeSource = TeaVM.class.getProtectionDomain().getCodeSource();
+            if (codeSource != null && codeSource.getLocation() != null) {
+                try {
+                    sb.append('@').append(digestContent(new File(codeSource.getLocation().toURI())));
+                } catch (URISyntaxException | IllegalArgumentException | IOException e) {
+                    // Version alone is good enough
+                }
+            }
+            compilerVersion = sb.toString();
+        }
+        return compilerVersion;
+    }
+
+    private static String digestContent(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        digestContent(file, "", digest);
+        return toHex(digest.digest(), digest.getDigestLength());
+    }
+
+    private static void digestContent(File file, String path, MessageDigest digest) throws IOException {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children == null) {
+                return;
+            }
+            Arrays.sort(children);
+            for (File child : children) {
+                digestContent(child, path + "/" + child.getName(), digest);
+            }
+        } else if (file.isFile()) {
+            digest.update(path.getBytes(StandardCharsets.UTF_8));
+            digest.update(Files.readAllBytes(file.toPath()));
+        }
+    }
+
+    /*
+     * Order of class path entries matters, since it defines which of the classes with the same name is used.
+     * Only names of the entries are taken, since their locations differ between workspaces, and their content
+     * is checked class by class.
+     */
+    private static List<String> getClassPathEntries(ClassLoader classLoader) {
+        List<String> entries = new ArrayList<>();
+        if (classLoader == null) {
+            return entries;
+        }
+        entries.addAll(getClassPathEntries(classLoader.getParent()));
+        if (classLoader instanceof URLClassLoader) {
+            for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                entries.add(getEntryName(url.getPath()));
+            }
+        } else if (classLoader == ClassLoader.getSystemClassLoader()) {
+            String classPath = System.getProperty("java.class.path", "");
+            for (String entry : classPath.split(Pattern.quote(File.pathSeparator))) {
+                if (!entry.isEmpty()) {
+                    entries.add(getEntryName(entry.replace(File.separatorChar, '/')));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static String getEntryName(String path) {
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
     private String getResolvedTargetFileName() {
         if (targetFileName.isEmpty()) {
             switch (targetType) {
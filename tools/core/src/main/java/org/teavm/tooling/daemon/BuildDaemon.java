@@ -37,6 +37,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.teavm.model.ReferenceCache;
 import org.teavm.tooling.TeaVMSourceFilePolicy;
 import org.teavm.tooling.TeaVMTool;
 import org.teavm.tooling.TeaVMToolException;
@@ -57,6 +58,8 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
     private File incrementalCache;
     private ClassLoader lastJarClassLoader;
     private List<String> lastJarClassPath;
+    private final ReferenceCache referenceCache = new ReferenceCache();
+    private boolean referenceCacheInUse;
 
     BuildDaemon(boolean incremental) throws RemoteException {
         super();
@@ -124,7 +127,9 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
     public RemoteBuildResponse build(RemoteBuildRequest request, RemoteBuildCallback callback) {
         System.out.println("Build started");
 
+        ReferenceCache referenceCache = acquireReferenceCache();
         TeaVMTool tool = new TeaVMTool();
+        tool.setReferenceCache(referenceCache);
         tool.setIncremental(incremental || request.incremental);
         if (tool.isIncremental()) {
             tool.setCacheDirectory(request.cacheDirectory != null
@@ -180,6 +185,8 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
             System.out.println("Build complete");
         } catch (TeaVMToolException | RuntimeException | Error e) {
             response.exception = e;
+        } finally {
+            releaseReferenceCache(referenceCache);
         }
 
         if (response.exception == null) {
@@ -196,6 +203,24 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
         return response;
     }
 
+    /*
+     * Method bodies parsed by a build are cached per reference cache, so builds should use the same one.
+     * Reference cache is not thread-safe, so a build that overlaps with another one gets a fresh cache.
+     */
+    private synchronized ReferenceCache acquireReferenceCache() {
+        if (referenceCacheInUse) {
+            return new ReferenceCache();
+        }
+        referenceCacheInUse = true;
+        return referenceCache;
+    }
+
+    private synchronized void releaseReferenceCache(ReferenceCache referenceCache) {
+        if (referenceCache == this.referenceCache) {
+            referenceCacheInUse = false;
+        }
+    }
+
     private ClassLoader buildClassLoader(List<String> classPathEntries, boolean incremental) {
         System.out.println("Classpath: " + classPathEntries);
         Function<String, URL> mapper = entry -> {
@@ -16,22 +16,29 @@
 package org.teavm.junit;
 
 import static org.teavm.junit.PropertyNames.SOURCE_DIRS;
+import static org.teavm.junit.TestUtil.getSplitPoints;
 import java.io.File;
 import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.StringTokenizer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import org.teavm.backend.wasm.WasmRuntimeType;
 import org.teavm.backend.wasm.WasmTarget;
 import org.teavm.backend.wasm.generate.DirectorySourceFileResolver;
 import org.teavm.model.ClassHolderSource;
+import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClassHashProvider;
 import org.teavm.vm.TeaVM;
 
 abstract class BaseWebAssemblyPlatformSupport extends TestPlatformSupport<WasmTarget> {
-    public BaseWebAssemblyPlatformSupport(ClassHolderSource classSource, ReferenceCache referenceCache) {
-        super(classSource, referenceCache);
+    public BaseWebAssemblyPlatformSupport(ClassHolderSource classSource, ClassHashProvider hashProvider,
+            ReferenceCache referenceCache) {
+        super(classSource, hashProvider, referenceCache);
     }
 
     @Override
@@ -42,8 +49,8 @@ abstract class BaseWebAssemblyPlatformSupport extends TestPlatformSupport<WasmTa
     protected abstract WasmRuntimeType getRuntimeType();
 
     @Override
-    CompileResult compile(Consumer<TeaVM> additionalProcessing, String baseName,
-            TeaVMTestConfiguration<WasmTarget> configuration, File path, AnnotatedElement element) {
+    CompileResult compile(Consumer<TeaVM> additionalProcessing, List<MethodReference> entryMethods,
+            String baseName, TeaVMTestConfiguration<WasmTarget> configuration, File path, AnnotatedElement element) {
         Supplier<WasmTarget> targetSupplier = () -> {
             WasmTarget target = new WasmTarget();
             target.setRuntimeType(getRuntimeType());
@@ -61,10 +68,15 @@ abstract class BaseWebAssemblyPlatformSupport extends TestPlatformSupport<WasmTa
                     target.setSourceFileResolver(new DirectorySourceFileResolver(dirs));
                 }
             }
+            var splitPoints = getSplitPoints(element);
+            if (splitPoints != null) {
+                target.setSplitPoints(Stream.of(splitPoints.value()).map(Class::getName)
+                        .collect(Collectors.toList()));
+            }
             return target;
         };
         return compile(configuration, targetSupplier, TestNativeEntryPoint.class.getName(), path,
-                ".wasm", null, additionalProcessing, baseName);
+                ".wasm", null, additionalProcessing, entryMethods, baseName);
     }
 
     @Override
@@ -16,6 +16,7 @@
 package org.teavm.junit;
 
 import static org.teavm.junit.PropertyNames.JS_DECODE_STACK;
+import static org.teavm.junit.TestUtil.getSplitPoints;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -185,6 +186,10 @@ class BrowserRunStrategy implements TestRunStrategy {
         var fileNode = nf.objectNode();
         fileNode.set("path", nf.textNode("tests/" + relPath));
         fileNode.set("type", nf.textNode(run.isModule() ? "module" : "regular"));
+        var splitPoints = getSplitPoints(run.getMethod());
+        if (splitPoints != null && !splitPoints.prefetch()) {
+            fileNode.set("prefetchPartitions", nf.booleanNode(false));
+        }
         testNode.set("file", fileNode);
 
         var additionalJs = additionalJs(run);
@@ -17,6 +17,7 @@ package org.teavm.junit;
 
 import static org.teavm.junit.PropertyNames.C_COMPILER;
 import static org.teavm.junit.PropertyNames.C_ENABLED;
+import static org.teavm.junit.PropertyNames.C_GC_MARK_THREADS;
 import static org.teavm.junit.PropertyNames.C_LINE_NUMBERS;
 import static org.teavm.junit.PropertyNames.OPTIMIZED;
 import static org.teavm.junit.TestUtil.resourceToFile;
@@ -30,12 +31,15 @@ import java.util.function.Consumer;
 import org.teavm.backend.c.CTarget;
 import org.teavm.backend.c.generate.CNameProvider;
 import org.teavm.model.ClassHolderSource;
+import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClassHashProvider;
 import org.teavm.vm.TeaVM;
 
 class CPlatformSupport extends TestPlatformSupport<CTarget> {
-    CPlatformSupport(ClassHolderSource classSource, ReferenceCache referenceCache) {
-        super(classSource, referenceCache);
+    CPlatformSupport(ClassHolderSource classSource, ClassHashProvider hashProvider,
+            ReferenceCache referenceCache) {
+        super(classSource, hashProvider, referenceCache);
     }
 
     @Override
@@ -74,12 +78,16 @@ class CPlatformSupport extends TestPlatformSupport<CTarget> {
         if (Boolean.getBoolean(OPTIMIZED)) {
             configurations.add(TeaVMTestConfiguration.C_OPTIMIZED);
         }
+        int gcMarkThreads = Integer.getInteger(C_GC_MARK_THREADS, 1);
+        if (gcMarkThreads > 1) {
+            configurations.add(TeaVMTestConfiguration.cParallelMark(gcMarkThreads));
+        }
         return configurations;
     }
 
     @Override
-    CompileResult compile(Consumer<TeaVM> additionalProcessing, String baseName,
-            TeaVMTestConfiguration<CTarget> configuration, File path, AnnotatedElement element) {
+    CompileResult compile(Consumer<TeaVM> additionalProcessing, List<MethodReference> entryMethods,
+            String baseName, TeaVMTestConfiguration<CTarget> configuration, File path, AnnotatedElement element) {
         CompilePostProcessor postBuild = (vm, file) -> {
             try {
                 resourceToFile("teavm-CMakeLists.txt", new File(file.getParent(), "CMakeLists.txt"),
@@ -89,7 +97,7 @@ class CPlatformSupport extends TestPlatformSupport<CTarget> {
             }
         };
         return compile(configuration, this::createCTarget, TestNativeEntryPoint.class.getName(), path, "",
-                postBuild, additionalProcessing, baseName);
+                postBuild, additionalProcessing, entryMethods, baseName);
     }
 
     private CTarget createCTarget() {
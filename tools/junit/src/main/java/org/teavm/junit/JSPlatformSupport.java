@@ -40,11 +40,13 @@ import org.teavm.debugging.information.DebugInformationBuilder;
 import org.teavm.model.ClassHolderSource;
 import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClassHashProvider;
 import org.teavm.vm.TeaVM;
 
 class JSPlatformSupport extends TestPlatformSupport<JavaScriptTarget> {
-    JSPlatformSupport(ClassHolderSource classSource, ReferenceCache referenceCache) {
-        super(classSource, referenceCache);
+    JSPlatformSupport(ClassHolderSource classSource, ClassHashProvider hashProvider,
+            ReferenceCache referenceCache) {
+        super(classSource, hashProvider, referenceCache);
     }
 
     @Override
@@ -101,8 +103,9 @@ class JSPlatformSupport extends TestPlatformSupport<JavaScriptTarget> {
     }
 
     @Override
-    CompileResult compile(Consumer<TeaVM> additionalProcessing, String baseName,
-            TeaVMTestConfiguration<JavaScriptTarget> configuration, File path, AnnotatedElement element) {
+    CompileResult compile(Consumer<TeaVM> additionalProcessing, List<MethodReference> entryMethods,
+            String baseName, TeaVMTestConfiguration<JavaScriptTarget> configuration, File path,
+            AnnotatedElement element) {
         boolean decodeStack = Boolean.parseBoolean(System.getProperty(JS_DECODE_STACK, "true"));
         var debugEmitter = new DebugInformationBuilder(new ReferenceCache());
         Supplier<JavaScriptTarget> targetSupplier = () -> {
@@ -142,7 +145,7 @@ class JSPlatformSupport extends TestPlatformSupport<JavaScriptTarget> {
             };
         }
         return compile(configuration, targetSupplier, TestJsEntryPoint.class.getName(), path, ".js",
-                postBuild, additionalProcessing, baseName);
+                postBuild, additionalProcessing, entryMethods, baseName);
     }
 
     private boolean isModule(AnnotatedElement element) {
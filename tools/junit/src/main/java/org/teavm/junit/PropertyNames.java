@@ -23,13 +23,17 @@ final class PropertyNames {
     static final String JS_DECODE_STACK = "teavm.junit.js.decodeStack";
     static final String C_ENABLED = "teavm.junit.c";
     static final String WASM_ENABLED = "teavm.junit.wasm";
+    static final String WASM_SIMD = "teavm.junit.wasm.simd";
     static final String WASI_ENABLED = "teavm.junit.wasi";
     static final String WASI_RUNNER = "teavm.junit.wasi.runner";
     static final String C_COMPILER = "teavm.junit.c.compiler";
     static final String C_LINE_NUMBERS = "teavm.junit.c.lineNumbers";
+    static final String C_GC_MARK_THREADS = "teavm.junit.c.gcMarkThreads";
     static final String MINIFIED = "teavm.junit.minified";
     static final String OPTIMIZED = "teavm.junit.optimized";
     static final String SOURCE_DIRS = "teavm.junit.sourceDirs";
+    static final String THREADS = "teavm.junit.threads";
+    static final String COMPILE_CACHE = "teavm.junit.compileCache";
 
     private PropertyNames() {
     }
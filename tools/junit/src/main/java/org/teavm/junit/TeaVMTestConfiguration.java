@@ -115,6 +115,25 @@ interface TeaVMTestConfiguration<T extends TeaVMTarget> {
         }
     };
 
+    TeaVMTestConfiguration<WasmTarget> WASM_SIMD = new TeaVMTestConfiguration<>() {
+        @Override
+        public String getSuffix() {
+            return "simd";
+        }
+
+        @Override
+        public void apply(TeaVM vm) {
+            vm.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
+        }
+
+        @Override
+        public void apply(WasmTarget target) {
+            target.setSimd(true);
+            target.setWastEmitted(true);
+            target.setCEmitted(true);
+        }
+    };
+
     TeaVMTestConfiguration<CTarget> C_DEFAULT = new TeaVMTestConfiguration<>() {
         @Override
         public String getSuffix() {
@@ -146,4 +165,23 @@ interface TeaVMTestConfiguration<T extends TeaVMTarget> {
         public void apply(CTarget target) {
         }
     };
+
+    static TeaVMTestConfiguration<CTarget> cParallelMark(int gcMarkThreads) {
+        return new TeaVMTestConfiguration<>() {
+            @Override
+            public String getSuffix() {
+                return "parallel-mark";
+            }
+
+            @Override
+            public void apply(TeaVM vm) {
+                vm.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
+            }
+
+            @Override
+            public void apply(CTarget target) {
+                target.setGcMarkThreads(gcMarkThreads);
+            }
+        };
+    }
 }
@@ -16,6 +16,7 @@
 package org.teavm.junit;
 
 import static org.teavm.junit.PropertyNames.PATH_PARAM;
+import static org.teavm.junit.PropertyNames.THREADS;
 import static org.teavm.junit.TestUtil.getOutputFile;
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -38,6 +39,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -83,6 +90,7 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     private Class<?> testClass;
     private boolean isWholeClassCompilation;
     private static ClassHolderSource classSource;
+    private static ClasspathClassHolderSource classPathSource;
     private static ClassLoader classLoader;
     private Description suiteDescription;
     private static File outputDir;
@@ -94,20 +102,30 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     private List<TestRun> runsInCurrentClass = new ArrayList<>();
     private static List<TestPlatformSupport<?>> platforms = new ArrayList<>();
     private List<TestPlatformSupport<?>> participatingPlatforms = new ArrayList<>();
+    private static Executor compileExecutor;
+    private Map<Method, Map<String, FutureTask<CompileResult>>> pendingCompilations = new HashMap<>();
 
     static {
         classLoader = TeaVMTestRunner.class.getClassLoader();
-        classSource = getClassSource(classLoader);
+        classPathSource = new ClasspathClassHolderSource(classLoader, referenceCache);
+        classSource = new PreOptimizingClassHolderSource(classPathSource);
 
         String outputPath = System.getProperty(PATH_PARAM);
         if (outputPath != null) {
             outputDir = new File(outputPath);
         }
 
-        platforms.add(new JSPlatformSupport(classSource, referenceCache));
-        platforms.add(new WebAssemblyPlatformSupport(classSource, referenceCache));
-        platforms.add(new WasiPlatformSupport(classSource, referenceCache));
-        platforms.add(new CPlatformSupport(classSource, referenceCache));
+        platforms.add(new JSPlatformSupport(classSource, classPathSource, referenceCache));
+        platforms.add(new WebAssemblyPlatformSupport(classSource, classPathSource, referenceCache));
+        platforms.add(new WasiPlatformSupport(classSource, classPathSource, referenceCache));
+        platforms.add(new CPlatformSupport(classSource, classPathSource, referenceCache));
+
+        int threads = Integer.getInteger(THREADS, 1);
+        if (threads > 1) {
+            var threadIndex = new AtomicInteger();
+            compileExecutor = Executors.newFixedThreadPool(threads, runnable -> new TestCompilerThread(runnable,
+                    "teavm-test-compiler-" + threadIndex.incrementAndGet(), referenceCache));
+        }
 
         for (var platform : platforms) {
             if (platform.isEnabled() && !platform.getConfigurations().isEmpty()) {
@@ -159,6 +177,8 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         isWholeClassCompilation = !testClass.isAnnotationPresent(EachTestCompiledSeparately.class);
         if (isWholeClassCompilation) {
             classCompilationOk = compileWholeClass(children, notifier);
+        } else if (outputDir != null) {
+            submitTestCompilations(children);
         }
         for (Method child : children) {
             runChild(child, notifier);
@@ -166,6 +186,12 @@ public class TeaVMTestRunner extends Runner implements Filterable {
 
         writeRunsDescriptor();
         runsInCurrentClass.clear();
+        for (var compilations : pendingCompilations.values()) {
+            for (var compilation : compilations.values()) {
+                compilation.cancel(false);
+            }
+        }
+        pendingCompilations.clear();
 
         notifier.fireTestFinished(description);
     }
@@ -216,8 +242,17 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     private boolean compileWholeClass(List<Method> children, RunNotifier notifier) {
         Description description = getDescription();
 
+        var compilations = new ArrayList<FutureTask<CompileResult>>();
         for (var platformSupport : participatingPlatforms) {
-            if (!compileClassForPlatform(platformSupport, children, description, notifier)) {
+            submitClassCompilations(platformSupport, children, compilations);
+        }
+        for (var compilation : compilations) {
+            var result = getCompileResult(compilation);
+            if (!result.success) {
+                notifier.fireTestFailure(createFailure(description, result));
+                for (var remainingCompilation : compilations) {
+                    remainingCompilation.cancel(false);
+                }
                 return false;
             }
         }
@@ -225,22 +260,94 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     }
 
     @SuppressWarnings("unchecked")
-    private boolean compileClassForPlatform(TestPlatformSupport<?> platform, List<Method> children,
-            Description description, RunNotifier notifier) {
+    private void submitClassCompilations(TestPlatformSupport<?> platform, List<Method> children,
+            List<FutureTask<CompileResult>> compilations) {
         if (platform.isEnabled() && hasChildrenToRun(children, platform.getPlatform())) {
             for (var configuration : platform.getConfigurations()) {
                 var path = getOutputPathForClass(platform);
                 var castPlatform = (TestPlatformSupport<TeaVMTarget>) platform;
                 var castConfiguration = (TeaVMTestConfiguration<TeaVMTarget>) configuration;
-                var result = castPlatform.compile(wholeClass(children, platform.getPlatform()), "classTest",
-                        castConfiguration, path, testClass);
-                if (!result.success) {
-                    notifier.fireTestFailure(createFailure(description, result));
-                    return false;
+                var entryMethods = getEntryMethods(children, platform.getPlatform());
+                var processing = wholeClass(entryMethods);
+                compilations.add(submitCompilation(() -> castPlatform.compile(processing, entryMethods,
+                        "classTest", castConfiguration, path, testClass)));
+            }
+        }
+    }
+
+    /*
+     * Compilations of all tests of a class are submitted before the first test runs, so that the pool
+     * compiles the next tests while the current one runs. Without a pool compilation happens lazily,
+     * when a test asks for its result.
+     */
+    private void submitTestCompilations(List<Method> children) {
+        for (var child : children) {
+            if (isIgnored(child)) {
+                continue;
+            }
+            for (var platform : participatingPlatforms) {
+                if (platform.isEnabled() && shouldRunChild(child, platform.getPlatform())) {
+                    for (var configuration : platform.getConfigurations()) {
+                        pendingCompilations.computeIfAbsent(child, k -> new HashMap<>())
+                                .put(getCompilationKey(platform, configuration),
+                                        submitTestCompilation(child, platform, configuration));
+                    }
                 }
             }
         }
-        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private FutureTask<CompileResult> submitTestCompilation(Method child, TestPlatformSupport<?> platform,
+            TeaVMTestConfiguration<?> configuration) {
+        var outputPath = getOutputPath(child, platform);
+        var castPlatform = (TestPlatformSupport<TeaVMTarget>) platform;
+        var castConfig = (TeaVMTestConfiguration<TeaVMTarget>) configuration;
+        var entryMethod = getEntryMethod(child);
+        var processing = singleTest(child, entryMethod);
+        return submitCompilation(() -> castPlatform.compile(processing, List.of(entryMethod), "test", castConfig,
+                outputPath, child));
+    }
+
+    private FutureTask<CompileResult> takeTestCompilation(Method child, TestPlatformSupport<?> platform,
+            TeaVMTestConfiguration<?> configuration) {
+        var compilations = pendingCompilations.get(child);
+        var compilation = compilations != null
+                ? compilations.remove(getCompilationKey(platform, configuration))
+                : null;
+        return compilation != null ? compilation : submitTestCompilation(child, platform, configuration);
+    }
+
+    private static String getCompilationKey(TestPlatformSupport<?> platform,
+            TeaVMTestConfiguration<?> configuration) {
+        return platform.getPath() + ":" + configuration.getSuffix();
+    }
+
+    private static FutureTask<CompileResult> submitCompilation(Callable<CompileResult> compilation) {
+        var task = new FutureTask<>(compilation);
+        if (compileExecutor != null) {
+            compileExecutor.execute(task);
+        }
+        return task;
+    }
+
+    private static CompileResult getCompileResult(FutureTask<CompileResult> compilation) {
+        // If the pool has not started the task yet, it runs on the calling thread instead of waiting
+        compilation.run();
+        try {
+            return compilation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            var result = new CompileResult();
+            result.success = false;
+            result.throwable = e;
+            return result;
+        } catch (ExecutionException e) {
+            var result = new CompileResult();
+            result.success = false;
+            result.throwable = e.getCause();
+            return result;
+        }
     }
 
     private boolean isPlatformPresent(AnnotatedElement declaration, TestPlatform platform) {
@@ -360,12 +467,7 @@ public class TeaVMTestRunner extends Runner implements Filterable {
                 if (platform.isEnabled() && shouldRunChild(child, platform.getPlatform())) {
                     File outputPath = getOutputPath(child, platform);
                     for (var configuration : platform.getConfigurations()) {
-                        @SuppressWarnings("unchecked")
-                        var castPlatform = (TestPlatformSupport<TeaVMTarget>) platform;
-                        @SuppressWarnings("unchecked")
-                        var castConfig = (TeaVMTestConfiguration<TeaVMTarget>) configuration;
-                        var compileResult = castPlatform.compile(singleTest(child), "test", castConfig, outputPath,
-                                child);
+                        var compileResult = getCompileResult(takeTestCompilation(child, platform, configuration));
                         var run = prepareRun(configuration, child, compileResult, notifier, platform.getPlatform());
                         if (run != null) {
                             runs.add(run);
@@ -768,32 +870,36 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         return path;
     }
 
-    private Consumer<TeaVM> singleTest(Method method) {
+    private MethodReference getEntryMethod(Method method) {
         ClassHolder classHolder = classSource.get(method.getDeclaringClass().getName());
         MethodHolder methodHolder = classHolder.getMethod(getDescriptor(method));
+        return methodHolder.getReference();
+    }
 
+    private Consumer<TeaVM> singleTest(Method method, MethodReference entryMethod) {
         return vm -> {
             Properties properties = new Properties();
             applyProperties(method.getDeclaringClass(), properties);
             vm.setProperties(properties);
-            new TestEntryPointTransformerForSingleMethod(methodHolder.getReference(), testClass.getName()).install(vm);
+            new TestEntryPointTransformerForSingleMethod(entryMethod, testClass.getName()).install(vm);
         };
     }
 
-    private Consumer<TeaVM> wholeClass(List<Method> methods, TestPlatform platform) {
+    private List<MethodReference> getEntryMethods(List<Method> methods, TestPlatform platform) {
+        List<MethodReference> methodReferences = new ArrayList<>();
+        for (Method method : filterChildren(methods, platform)) {
+            if (!isIgnored(method)) {
+                methodReferences.add(getEntryMethod(method));
+            }
+        }
+        return methodReferences;
+    }
+
+    private Consumer<TeaVM> wholeClass(List<MethodReference> methodReferences) {
         return vm -> {
             Properties properties = new Properties();
             applyProperties(testClass, properties);
             vm.setProperties(properties);
-            List<MethodReference> methodReferences = new ArrayList<>();
-            for (Method method : filterChildren(methods, platform)) {
-                if (isIgnored(method)) {
-                    continue;
-                }
-                ClassHolder classHolder = classSource.get(method.getDeclaringClass().getName());
-                MethodHolder methodHolder = classHolder.getMethod(getDescriptor(method));
-                methodReferences.add(methodHolder.getReference());
-            }
             new TestEntryPointTransformerForWholeClass(methodReferences, testClass.getName()).install(vm);
         };
     }
@@ -845,10 +951,6 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         return new MethodDescriptor(method.getName(), signature);
     }
 
-    private static ClassHolderSource getClassSource(ClassLoader classLoader) {
-        return new PreOptimizingClassHolderSource(new ClasspathClassHolderSource(classLoader, referenceCache));
-    }
-
     @Override
     public void filter(Filter filter) throws NoTestsRemainException {
         for (Iterator<Method> iterator = getFilteredChildren().iterator(); iterator.hasNext();) {
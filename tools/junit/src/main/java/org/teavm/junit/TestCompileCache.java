@@ -0,0 +1,289 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.junit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.teavm.junit.PropertyNames.COMPILE_CACHE;
+import static org.teavm.junit.PropertyNames.THREADS;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.teavm.model.MethodReference;
+import org.teavm.parsing.ClassHashProvider;
+import org.teavm.vm.TeaVM;
+
+/**
+ * Lets the runner skip compilation of tests that did not change since the previous run. Next to every
+ * compiled output a manifest is stored, which lists digests of all classes reachable from the test.
+ * Output is reused only if every listed class still has the same digest and the key, which covers
+ * platform, configuration, test runner properties, the compiler itself and the test methods compiled
+ * into the output, is the same. The latter matters when a filtered run compiles only a part of a class
+ * into the same output as a full run.
+ */
+final class TestCompileCache {
+    private static final String PLUGIN_SERVICE = "META-INF/services/org.teavm.vm.spi.TeaVMPlugin";
+    private static final String MANIFEST_SUFFIX = ".classes";
+    private static final String MISSING_CLASS = "-";
+    private static String compilerFingerprint;
+
+    private TestCompileCache() {
+    }
+
+    static String getKey(TestPlatformSupport<?> platform, TeaVMTestConfiguration<?> configuration,
+            File outputFile, Collection<MethodReference> entryMethods) {
+        var sb = new StringBuilder();
+        sb.append(getCompilerFingerprint()).append('\n');
+        sb.append(platform.getPath()).append('\n');
+        sb.append(configuration.getSuffix()).append('\n');
+        sb.append(outputFile.getAbsolutePath()).append('\n');
+        entryMethods.stream().map(MethodReference::toString).sorted()
+                .forEach(method -> sb.append("entry ").append(method).append('\n'));
+        var properties = System.getProperties();
+        for (var name : new TreeSet<>(properties.stringPropertyNames())) {
+            if (name.startsWith("teavm.") && !name.equals(THREADS) && !name.equals(COMPILE_CACHE)) {
+                sb.append(name).append('=').append(properties.getProperty(name)).append('\n');
+            }
+        }
+        var digest = createDigest();
+        digest.update(sb.toString().getBytes(UTF_8));
+        return toHex(digest.digest());
+    }
+
+    static boolean isUpToDate(File outputFile, String key, ClassHashProvider hashProvider) {
+        var manifestFile = getManifestFile(outputFile);
+        if (!outputFile.exists() || !manifestFile.exists()) {
+            return false;
+        }
+        try (var reader = Files.newBufferedReader(manifestFile.toPath(), UTF_8)) {
+            if (!key.equals(reader.readLine())) {
+                return false;
+            }
+            while (true) {
+                var line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                var index = line.indexOf(' ');
+                if (index < 0) {
+                    return false;
+                }
+                var className = line.substring(0, index);
+                if (!line.substring(index + 1).equals(getHash(hashProvider, className))) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    static void invalidate(File outputFile) {
+        getManifestFile(outputFile).delete();
+    }
+
+    static void store(File outputFile, String key, Collection<String> classes, ClassHashProvider hashProvider) {
+        var manifestFile = getManifestFile(outputFile);
+        try (Writer writer = Files.newBufferedWriter(manifestFile.toPath(), UTF_8)) {
+            writer.write(key);
+            writer.write('\n');
+            for (var className : new TreeSet<>(classes)) {
+                writer.write(className);
+                writer.write(' ');
+                writer.write(getHash(hashProvider, className));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            manifestFile.delete();
+        }
+    }
+
+    private static File getManifestFile(File outputFile) {
+        return new File(outputFile.getParentFile(), outputFile.getName() + MANIFEST_SUFFIX);
+    }
+
+    private static String getHash(ClassHashProvider hashProvider, String className) {
+        var hash = hashProvider.getContentHash(className);
+        return hash != null ? toHex(hash) : MISSING_CLASS;
+    }
+
+    /*
+     * Classes of the compiler and of its plugins are not among the classes reachable from a test, so all
+     * locations they are loaded from are hashed once per JVM. Resources (like C runtime files) may live
+     * in a location other than classes, so they are covered by looking up a resource of every module.
+     */
+    private static synchronized String getCompilerFingerprint() {
+        if (compilerFingerprint == null) {
+            var classLoader = TeaVMTestRunner.class.getClassLoader();
+            var locations = new TreeSet<Path>();
+            addClassLocation(locations, TeaVM.class);
+            addClassLocation(locations, TeaVMTestRunner.class);
+            addResourceLocation(locations, classLoader.getResource("org/teavm/backend/c/core.c"),
+                    "org/teavm/backend/c/core.c");
+            addResourceLocation(locations, classLoader.getResource("teavm-CMakeLists.txt"),
+                    "teavm-CMakeLists.txt");
+            try {
+                var services = classLoader.getResources(PLUGIN_SERVICE);
+                while (services.hasMoreElements()) {
+                    var service = services.nextElement();
+                    addResourceLocation(locations, service, PLUGIN_SERVICE);
+                    for (var pluginName : readServiceFile(service)) {
+                        try {
+                            addClassLocation(locations, Class.forName(pluginName, false, classLoader));
+                        } catch (ClassNotFoundException | LinkageError e) {
+                            // TeaVM reports such plugins itself
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            var digest = createDigest();
+            for (var location : locations) {
+                try {
+                    hashLocation(digest, location);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            compilerFingerprint = toHex(digest.digest());
+        }
+        return compilerFingerprint;
+    }
+
+    private static List<String> readServiceFile(URL url) throws IOException {
+        var result = new ArrayList<String>();
+        try (var reader = new BufferedReader(new InputStreamReader(url.openStream(), UTF_8))) {
+            while (true) {
+                var line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                var index = line.indexOf('#');
+                if (index >= 0) {
+                    line = line.substring(0, index);
+                }
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    result.add(line);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addClassLocation(Set<Path> locations, Class<?> cls) {
+        var codeSource = cls.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            addLocation(locations, codeSource.getLocation());
+        }
+    }
+
+    private static void addResourceLocation(Set<Path> locations, URL url, String resourceName) {
+        if (url == null) {
+            return;
+        }
+        var path = url.toString();
+        if (path.startsWith("jar:")) {
+            var index = path.indexOf("!/");
+            if (index >= 0) {
+                path = path.substring("jar:".length(), index);
+            }
+        } else if (path.endsWith(resourceName)) {
+            path = path.substring(0, path.length() - resourceName.length());
+        } else {
+            return;
+        }
+        try {
+            addLocation(locations, new URL(path));
+        } catch (IOException e) {
+            // Location can't be hashed, so it is left out
+        }
+    }
+
+    private static void addLocation(Set<Path> locations, URL url) {
+        if (!url.getProtocol().equals("file")) {
+            return;
+        }
+        try {
+            locations.add(new File(url.toURI()).toPath().toAbsolutePath().normalize());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // Location can't be hashed, so it is left out
+        }
+    }
+
+    private static void hashLocation(MessageDigest digest, Path location) throws IOException {
+        digest.update(location.toString().getBytes(UTF_8));
+        if (Files.isRegularFile(location)) {
+            hashFile(digest, location);
+        } else if (Files.isDirectory(location)) {
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(location)) {
+                files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (var file : files) {
+                digest.update(location.relativize(file).toString().getBytes(UTF_8));
+                hashFile(digest, file);
+            }
+        }
+    }
+
+    private static void hashFile(MessageDigest digest, Path file) throws IOException {
+        var buffer = new byte[8192];
+        try (InputStream input = Files.newInputStream(file)) {
+            while (true) {
+                var bytesRead = input.read(buffer);
+                if (bytesRead < 0) {
+                    break;
+                }
+                digest.update(buffer, 0, bytesRead);
+            }
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        var sb = new StringBuilder(bytes.length * 2);
+        for (var b : bytes) {
+            sb.append(Character.forDigit((b >>> 4) & 15, 16)).append(Character.forDigit(b & 15, 16));
+        }
+        return sb.toString();
+    }
+}
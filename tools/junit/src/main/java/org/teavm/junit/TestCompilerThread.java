@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2023 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.junit;
+
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClassHashProvider;
+import org.teavm.parsing.ClasspathClassHolderSource;
+
+/**
+ * Thread of the compilation pool. Class sources are not thread-safe, so every thread gets its own one instead
+ * of the one shared by the test runner. All threads use the reference cache of the test runner, so method
+ * bodies parsed by one thread are taken from the parser's cache by the others.
+ */
+class TestCompilerThread extends Thread {
+    private final ReferenceCache referenceCache;
+    private ClasspathClassHolderSource classPathSource;
+    private ClassHolderSource classSource;
+
+    TestCompilerThread(Runnable runnable, String name, ReferenceCache referenceCache) {
+        super(runnable, name);
+        this.referenceCache = referenceCache;
+        setDaemon(true);
+    }
+
+    ReferenceCache getReferenceCache() {
+        return referenceCache;
+    }
+
+    ClassHolderSource getClassSource() {
+        init();
+        return classSource;
+    }
+
+    ClassHashProvider getHashProvider() {
+        init();
+        return classPathSource;
+    }
+
+    private void init() {
+        if (classSource == null) {
+            classPathSource = new ClasspathClassHolderSource(TeaVMTestRunner.class.getClassLoader(),
+                    referenceCache);
+            classSource = new PreOptimizingClassHolderSource(classPathSource);
+        }
+    }
+}
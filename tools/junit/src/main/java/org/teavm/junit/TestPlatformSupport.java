@@ -15,6 +15,7 @@
  */
 package org.teavm.junit;
 
+import static org.teavm.junit.PropertyNames.COMPILE_CACHE;
 import static org.teavm.junit.TestUtil.resourceToFile;
 import java.io.File;
 import java.io.IOException;
@@ -32,6 +33,7 @@ import org.teavm.diagnostics.Problem;
 import org.teavm.model.ClassHolderSource;
 import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClassHashProvider;
 import org.teavm.tooling.TeaVMProblemRenderer;
 import org.teavm.vm.DirectoryBuildTarget;
 import org.teavm.vm.TeaVM;
@@ -40,10 +42,13 @@ import org.teavm.vm.TeaVMTarget;
 
 abstract class TestPlatformSupport<T extends TeaVMTarget> {
     private ClassHolderSource classSource;
+    private ClassHashProvider hashProvider;
     private ReferenceCache referenceCache;
 
-    TestPlatformSupport(ClassHolderSource classSource, ReferenceCache referenceCache) {
+    TestPlatformSupport(ClassHolderSource classSource, ClassHashProvider hashProvider,
+            ReferenceCache referenceCache) {
         this.classSource = classSource;
+        this.hashProvider = hashProvider;
         this.referenceCache = referenceCache;
     }
 
@@ -59,19 +64,39 @@ abstract class TestPlatformSupport<T extends TeaVMTarget> {
 
     abstract List<TeaVMTestConfiguration<T>> getConfigurations();
 
-    abstract CompileResult compile(Consumer<TeaVM> additionalProcessing, String baseName,
-            TeaVMTestConfiguration<T> configuration, File path, AnnotatedElement element);
+    abstract CompileResult compile(Consumer<TeaVM> additionalProcessing, List<MethodReference> entryMethods,
+            String baseName, TeaVMTestConfiguration<T> configuration, File path, AnnotatedElement element);
 
     abstract boolean usesFileName();
 
     CompileResult compile(TeaVMTestConfiguration<T> configuration,
             Supplier<T> targetSupplier, String entryPoint, File path, String extension,
-            CompilePostProcessor postBuild, Consumer<TeaVM> additionalProcessing, String baseName) {
+            CompilePostProcessor postBuild, Consumer<TeaVM> additionalProcessing,
+            List<MethodReference> entryMethods, String baseName) {
         CompileResult result = new CompileResult();
 
         File outputFile = getOutputFile(path, baseName, configuration.getSuffix(), extension);
         result.file = outputFile;
 
+        var classSource = this.classSource;
+        var hashProvider = this.hashProvider;
+        var referenceCache = this.referenceCache;
+        if (Thread.currentThread() instanceof TestCompilerThread) {
+            var thread = (TestCompilerThread) Thread.currentThread();
+            classSource = thread.getClassSource();
+            hashProvider = thread.getHashProvider();
+            referenceCache = thread.getReferenceCache();
+        }
+
+        String cacheKey = null;
+        if (Boolean.getBoolean(COMPILE_CACHE)) {
+            cacheKey = TestCompileCache.getKey(this, configuration, outputFile, entryMethods);
+            if (TestCompileCache.isUpToDate(outputFile, cacheKey, hashProvider)) {
+                return result;
+            }
+            TestCompileCache.invalidate(outputFile);
+        }
+
         ClassLoader classLoader = TeaVMTestRunner.class.getClassLoader();
 
         var target = targetSupplier.get();
@@ -111,6 +136,9 @@ abstract class TestPlatformSupport<T extends TeaVMTarget> {
                 if (postBuild != null) {
                     postBuild.process(vm, outputFile);
                 }
+                if (cacheKey != null) {
+                    TestCompileCache.store(outputFile, cacheKey, vm.getClasses(), hashProvider);
+                }
             }
 
             return result;
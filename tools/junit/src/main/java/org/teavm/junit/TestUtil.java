@@ -24,6 +24,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
 import java.util.Map;
 import org.apache.commons.io.IOUtils;
 
@@ -50,6 +52,14 @@ final class TestUtil {
         return outputFile;
     }
 
+    static WasmSplitPoints getSplitPoints(AnnotatedElement element) {
+        var annot = element.getAnnotation(WasmSplitPoints.class);
+        if (annot == null && element instanceof Method) {
+            annot = ((Method) element).getDeclaringClass().getAnnotation(WasmSplitPoints.class);
+        }
+        return annot;
+    }
+
     static void resourceToFile(String resource, File file, Map<String, String> properties) throws IOException {
         file.getParentFile().mkdirs();
         if (properties.isEmpty()) {
@@ -18,6 +18,7 @@ package org.teavm.junit;
 import static org.teavm.junit.PropertyNames.OPTIMIZED;
 import static org.teavm.junit.PropertyNames.WASI_ENABLED;
 import static org.teavm.junit.PropertyNames.WASI_RUNNER;
+import static org.teavm.junit.PropertyNames.WASM_SIMD;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,10 +26,12 @@ import org.teavm.backend.wasm.WasmRuntimeType;
 import org.teavm.backend.wasm.WasmTarget;
 import org.teavm.model.ClassHolderSource;
 import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClassHashProvider;
 
 class WasiPlatformSupport extends BaseWebAssemblyPlatformSupport {
-    WasiPlatformSupport(ClassHolderSource classSource, ReferenceCache referenceCache) {
-        super(classSource, referenceCache);
+    WasiPlatformSupport(ClassHolderSource classSource, ClassHashProvider hashProvider,
+            ReferenceCache referenceCache) {
+        super(classSource, hashProvider, referenceCache);
     }
 
     @Override
@@ -67,6 +70,9 @@ class WasiPlatformSupport extends BaseWebAssemblyPlatformSupport {
         if (Boolean.getBoolean(OPTIMIZED)) {
             configurations.add(TeaVMTestConfiguration.WASM_OPTIMIZED);
         }
+        if (Boolean.getBoolean(WASM_SIMD)) {
+            configurations.add(TeaVMTestConfiguration.WASM_SIMD);
+        }
         return configurations;
     }
 }
@@ -18,6 +18,7 @@ package org.teavm.junit;
 import static org.teavm.junit.PropertyNames.OPTIMIZED;
 import static org.teavm.junit.PropertyNames.WASM_ENABLED;
 import static org.teavm.junit.PropertyNames.WASM_RUNNER;
+import static org.teavm.junit.PropertyNames.WASM_SIMD;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,10 +27,12 @@ import org.teavm.backend.wasm.WasmTarget;
 import org.teavm.model.ClassHolderSource;
 import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClassHashProvider;
 
 class WebAssemblyPlatformSupport extends BaseWebAssemblyPlatformSupport {
-    WebAssemblyPlatformSupport(ClassHolderSource classSource, ReferenceCache referenceCache) {
-        super(classSource, referenceCache);
+    WebAssemblyPlatformSupport(ClassHolderSource classSource, ClassHashProvider hashProvider,
+            ReferenceCache referenceCache) {
+        super(classSource, hashProvider, referenceCache);
     }
 
     @Override
@@ -73,6 +76,9 @@ class WebAssemblyPlatformSupport extends BaseWebAssemblyPlatformSupport {
         if (Boolean.getBoolean(OPTIMIZED)) {
             configurations.add(TeaVMTestConfiguration.WASM_OPTIMIZED);
         }
+        if (Boolean.getBoolean(WASM_SIMD)) {
+            configurations.add(TeaVMTestConfiguration.WASM_SIMD);
+        }
         return configurations;
     }
 
@@ -161,7 +161,9 @@ function launchWasmTest(file, argument, callback) {
                 status: "failed",
                 errorMessage: err.message + '\n' + err.stack
             }));
-        }
+        },
+        prefetchPartitions: file.prefetchPartitions !== false,
+        loadPartitionSync: loadBytesSync
     }).then(teavm => {
         instance = teavm.instance;
         return teavm.main(argument ? [argument] : []);
@@ -173,6 +175,23 @@ function launchWasmTest(file, argument, callback) {
     })
 }
 
+// Synchronous requests can't return an ArrayBuffer in a window, so bytes are read as x-user-defined text
+function loadBytesSync(url) {
+    let xhr = new XMLHttpRequest();
+    xhr.open("GET", url, false);
+    xhr.overrideMimeType("text/plain; charset=x-user-defined");
+    xhr.send();
+    if (xhr.status !== 200) {
+        throw new Error("Could not load " + url + ": " + xhr.status);
+    }
+    let text = xhr.responseText;
+    let bytes = new Uint8Array(text.length);
+    for (let i = 0; i < text.length; ++i) {
+        bytes[i] = text.charCodeAt(i) & 0xFF;
+    }
+    return bytes;
+}
+
 function start() {
     window.parent.postMessage("ready", "*");
 }